@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.servlet.OAuth2ResourceServerAutoConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
     SecurityAutoConfiguration.class,
@@ -13,6 +14,7 @@ import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRep
     OAuth2ResourceServerAutoConfiguration.class
 })
 @EnableReactiveMongoRepositories(basePackages = "com.example.acespringbackend.repository")
+@EnableScheduling
 public class AceSpringBackendApplication {
 
     public static void main(String[] args) {
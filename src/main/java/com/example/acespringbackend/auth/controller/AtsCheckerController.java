@@ -2,18 +2,34 @@ package com.example.acespringbackend.auth.controller;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.acespringbackend.auth.dto.AtsJobResponse; // State of an asynchronous ATS check
 import com.example.acespringbackend.auth.dto.AtsResponse; // Ensure this DTO is correctly defined
+import com.example.acespringbackend.auth.dto.BatchAtsResult; // One resume of a recruiter batch check
+import com.example.acespringbackend.auth.dto.JobPosting; // A job a resume is compared against
+import com.example.acespringbackend.auth.dto.MultiJobAtsResponse; // One resume scored against several jobs
+import com.example.acespringbackend.config.AppSchedulers; // Dedicated scheduler for CPU-bound PDF parsing
+import com.example.acespringbackend.model.AtsJob; // Persistent state of an asynchronous ATS check
+import com.example.acespringbackend.service.AtsBatchService; // Scores many resumes against one job description
+import com.example.acespringbackend.service.AtsJobLimitException; // Too many ATS checks in progress for one user
+import com.example.acespringbackend.service.AtsJobService; // Runs ATS checks as background jobs
 import com.example.acespringbackend.service.GeminiService; // Service that interacts with Gemini API
 import com.example.acespringbackend.utility.PdfTextExtractor; // Utility for PDF text extraction
 
@@ -24,21 +40,45 @@ import com.example.acespringbackend.utility.PdfTextExtractor; // Utility for PDF
  *
  * It uses Spring WebFlux for reactive programming, allowing non-blocking operations,
  * especially useful for file uploads and external API calls.
+ *
+ * Besides the synchronous /score endpoint, checks can be submitted as jobs (/jobs), which returns at once
+ * with a job ID; the result is then polled (/jobs/{jobId}) or streamed as server-sent events (/jobs/{jobId}/events).
+ * Recruiters can score many resumes against one job description at once (/batch), and candidates can score
+ * one resume against several job descriptions at once (/compare).
  */
 @RestController
 @RequestMapping("/ats/checker") // Base path for all endpoints in this controller
 public class AtsCheckerController {
 
     private final GeminiService geminiService;
+    private final AppSchedulers appSchedulers;
+    private final AtsJobService atsJobService;
+    private final AtsBatchService atsBatchService;
+    private final int maxJobFileBytes;
+    private final int maxCompareJobs;
 
     /**
      * Constructor for dependency injection. Spring automatically injects the
-     * {@link GeminiService} instance.
+     * {@link GeminiService}, {@link AppSchedulers}, {@link AtsJobService} and {@link AtsBatchService} instances.
      *
-     * @param geminiService The service responsible for interacting with the Gemini API.
+     * @param geminiService   The service responsible for interacting with the Gemini API.
+     * @param appSchedulers   The dedicated schedulers; PDF extraction runs on the pdf scheduler.
+     * @param atsJobService   The service running ATS checks as background jobs.
+     * @param atsBatchService The service scoring batches of resumes against one job description.
+     * @param maxJobFileBytes The largest resume accepted for a job (the file is stored with the job until it has run)
+     *                        or a comparison.
+     * @param maxCompareJobs  The most job postings one resume can be compared against in a single request.
      */
-    public AtsCheckerController(GeminiService geminiService) {
+    public AtsCheckerController(GeminiService geminiService, AppSchedulers appSchedulers, AtsJobService atsJobService,
+                                AtsBatchService atsBatchService,
+                                @Value("${ats.jobs.max-file-bytes:5242880}") int maxJobFileBytes,
+                                @Value("${ats.compare.max-jobs:10}") int maxCompareJobs) {
         this.geminiService = geminiService;
+        this.appSchedulers = appSchedulers;
+        this.atsJobService = atsJobService;
+        this.atsBatchService = atsBatchService;
+        this.maxJobFileBytes = maxJobFileBytes;
+        this.maxCompareJobs = maxCompareJobs;
     }
 
     /**
@@ -54,21 +94,17 @@ public class AtsCheckerController {
     public Mono<ResponseEntity<String>> extractPdfText(@RequestPart("file") FilePart filePart) {
         return DataBufferUtils.join(filePart.content()) // Joins all DataBuffers into a single buffer
                 .map(this::toByteArray) // Converts the DataBuffer to a byte array
-                .flatMap(bytes -> {
-                    try {
-                        // Extracts text from the PDF byte array using a utility method.
-                        // It includes a verification step to ensure reliable extraction.
-                        String extractedText = PdfTextExtractor.extractTextTwiceAndVerify(bytes);
-                        if (extractedText.isEmpty()) {
-                            // If extraction is unreliable (e.g., blank text), return an error.
-                            return Mono.error(new IOException("Resume extraction was unreliable. Please try a different file format or ensure text is selectable."));
-                        }
-                        // Return the extracted text with an OK status.
-                        return Mono.just(ResponseEntity.ok(extractedText));
-                    } catch (IOException e) {
-                        // Propagate IOException for specific error handling.
-                        return Mono.error(e);
+                // Extracts text from the PDF byte array using a utility method, on the pdf scheduler
+                // because parsing is CPU-bound. It includes a verification step to ensure reliable extraction.
+                .flatMap(bytes -> Mono.fromCallable(() -> PdfTextExtractor.extractTextTwiceAndVerify(bytes))
+                        .subscribeOn(appSchedulers.pdf()))
+                .flatMap(extractedText -> {
+                    if (extractedText.isEmpty()) {
+                        // If extraction is unreliable (e.g., blank text), return an error.
+                        return Mono.error(new IOException("Resume extraction was unreliable. Please try a different file format or ensure text is selectable."));
                     }
+                    // Return the extracted text with an OK status.
+                    return Mono.just(ResponseEntity.ok(extractedText));
                 })
                 .onErrorResume(IOException.class, e ->
                         // Handles IOException specifically, returning a BAD_REQUEST status.
@@ -169,6 +205,197 @@ public class AtsCheckerController {
                 );
     }
 
+    /**
+     * Endpoint to score one resume against several job postings in a single pass. The resume is extracted once
+     * and scored against every job; on deep checks, Gemini gives feedback on all jobs in one request.
+     *
+     * @param filePart  The uploaded resume file (e.g., PDF) as a {@link FilePart}.
+     * @param jobs      The job postings, as a JSON array part ("jobs", Content-Type application/json) of
+     *                  objects with jobTitle and jobDescription.
+     * @param deepCheck Optional boolean flag to request Gemini feedback per job.
+     * @return 200 with one result per job (in the order given) and the index of the best match, 400 if
+     * the jobs are missing or invalid or the resume could not be read, or 413 if the resume is too large.
+     */
+    @PostMapping(value = "/compare", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<MultiJobAtsResponse>> compareAtsScores(
+            @RequestPart("file") FilePart filePart,
+            @RequestPart("jobs") List<JobPosting> jobs,
+            @RequestParam(value = "deepCheck", defaultValue = "false") boolean deepCheck
+    ) {
+        if (jobs == null || jobs.isEmpty() || jobs.size() > maxCompareJobs) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MultiJobAtsResponse(List.of(), -1, null, "", true, "Provide between 1 and " + maxCompareJobs + " job postings.")));
+        }
+        // Bounded like /jobs: chunked uploads declare no Content-Length for UploadSizeLimitWebFilter to check.
+        return DataBufferUtils.join(filePart.content(), maxJobFileBytes)
+                .map(this::toByteArray)
+                .flatMap(fileBytes -> geminiService.compareJobs(fileBytes, jobs, deepCheck))
+                .map(response -> response.isError()
+                        ? ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response)
+                        : ResponseEntity.ok(response))
+                .onErrorResume(DataBufferLimitException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                                .body(new MultiJobAtsResponse(List.of(), -1, null, "", true,
+                                        "The resume exceeds the maximum size of " + maxJobFileBytes / (1024 * 1024) + "MB."))))
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                .body(new MultiJobAtsResponse(List.of(), -1, null, "", true, e.getMessage()))))
+                .onErrorResume(Exception.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body(new MultiJobAtsResponse(List.of(), -1, null, "", true, "An unexpected server error occurred: " + e.getMessage()))));
+    }
+
+    /**
+     * Endpoint to submit an ATS check as a background job. Returns immediately with the job's ID;
+     * submitting the same file with the same parameters again returns the same job.
+     *
+     * @param filePart       The uploaded resume file (e.g., PDF) as a {@link FilePart}.
+     * @param deepCheck      Optional boolean flag to request a more thorough check.
+     * @param jobTitle       Optional job title for context.
+     * @param jobDescription Optional job description to compare the resume against.
+     * @param principal      The authenticated user's principal.
+     * @return 202 with the job's state (200 if the same check has already completed), 413 if the file is too large,
+     * or 429 if the user already has the maximum number of checks in progress.
+     */
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<AtsJobResponse>> submitAtsJob(
+            @RequestPart("file") FilePart filePart,
+            @RequestParam(value = "deepCheck", defaultValue = "false") boolean deepCheck,
+            @RequestParam(value = "jobTitle", required = false) String jobTitle,
+            @RequestParam(value = "jobDescription", required = false) String jobDescription,
+            Principal principal
+    ) {
+        String userEmail = principal.getName();
+        String userId = "mock-user-id-" + userEmail.hashCode(); // Same id scheme as /score
+        return DataBufferUtils.join(filePart.content(), maxJobFileBytes)
+                .map(this::toByteArray)
+                .flatMap(fileBytes -> atsJobService.submit(userEmail, userId, filePart.filename(), fileBytes, deepCheck, jobTitle, jobDescription))
+                .map(job -> ResponseEntity.status(job.isFinished() ? HttpStatus.OK : HttpStatus.ACCEPTED).body(toJobResponse(job)))
+                .onErrorResume(DataBufferLimitException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                                .body(new AtsJobResponse(null, null, "The resume exceeds the maximum size of " + maxJobFileBytes / (1024 * 1024) + "MB.", null, null, e.getMessage()))))
+                .onErrorResume(AtsJobLimitException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .body(new AtsJobResponse(null, null, e.getMessage(), null, null, null))))
+                .onErrorResume(Exception.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body(new AtsJobResponse(null, null, "Could not submit the ATS check.", null, null, e.getMessage()))));
+    }
+
+    /**
+     * Endpoint to poll the state of an ATS job; once the job has completed, the response carries the result.
+     *
+     * @param jobId     The job's ID as returned on submission.
+     * @param principal The authenticated user's principal; only the user's own jobs are visible.
+     * @return 200 with the job's state, or 404 if there is no such job for this user.
+     */
+    @GetMapping(value = "/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<AtsJobResponse>> getAtsJob(@PathVariable String jobId, Principal principal) {
+        return atsJobService.getJob(jobId, principal.getName())
+                .map(job -> ResponseEntity.ok(toJobResponse(job)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new AtsJobResponse(jobId, null, "No ATS job found for this id.", null, null, null)));
+    }
+
+    /**
+     * Endpoint streaming the state of an ATS job as server-sent events: the current state first, then each change,
+     * until the job has finished. Each event is named after the job's status.
+     *
+     * @param jobId     The job's ID as returned on submission.
+     * @param principal The authenticated user's principal; only the user's own jobs are visible.
+     * @return The event stream (empty if there is no such job for this user).
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AtsJobResponse>> streamAtsJob(@PathVariable String jobId, Principal principal) {
+        return atsJobService.jobEvents(jobId, principal.getName())
+                .map(job -> ServerSentEvent.builder(toJobResponse(job))
+                        .id(job.getStatus().name() + "-" + job.getAttempts())
+                        .event(job.getStatus().name().toLowerCase())
+                        .build());
+    }
+
+    /**
+     * Endpoint for recruiters to score many resumes against one job description. Accepts PDFs and/or ZIP archives
+     * of PDFs (at most upload.multipart.max-parts parts per request, so larger batches should be zipped), together
+     * at most ats.batch.max-total-bytes.
+     * Results are streamed as server-sent events while the resumes are scored: a "result" event per resume,
+     * in order of completion and with its rank so far, then a final "ranking" event with all results sorted by score.
+     * If the batch cannot be started, a single "error" event is sent.
+     *
+     * @param fileParts      The uploaded PDFs and ZIP archives.
+     * @param deepCheck      Optional boolean flag to request Gemini feedback on every resume.
+     * @param jobTitle       Optional job title for context.
+     * @param jobDescription The job description all resumes are scored against.
+     * @param principal      The authenticated user's principal; results are saved under this user.
+     * @return The event stream.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> scoreAtsBatch(
+            @RequestPart("files") Flux<FilePart> fileParts,
+            @RequestParam(value = "deepCheck", defaultValue = "false") boolean deepCheck,
+            @RequestParam(value = "jobTitle", required = false) String jobTitle,
+            @RequestParam(value = "jobDescription", required = false) String jobDescription,
+            Principal principal
+    ) {
+        if (jobDescription == null || jobDescription.isBlank()) {
+            return Flux.just(batchError("A job description is required for batch checks."));
+        }
+        String userEmail = principal.getName();
+        String userId = "mock-user-id-" + userEmail.hashCode(); // Same id scheme as /score
+        long[] remainingBytes = {atsBatchService.getMaxTotalBytes()};
+        return fileParts
+                // Each part may only use what the earlier parts left of the batch limit.
+                .concatMap(part -> DataBufferUtils.join(part.content(), (int) Math.min(Integer.MAX_VALUE, remainingBytes[0]))
+                        .map(this::toByteArray)
+                        .doOnNext(bytes -> remainingBytes[0] -= bytes.length)
+                        .map(bytes -> new AtsBatchService.BatchFile(part.filename(), bytes)))
+                .onErrorMap(DataBufferLimitException.class, e -> new IllegalArgumentException(
+                        "The upload exceeds the maximum batch size of " + atsBatchService.getMaxTotalBytes() / (1024 * 1024) + "MB."))
+                .collectList()
+                .flatMap(atsBatchService::expandArchives)
+                .flatMapMany(files -> {
+                    if (files.isEmpty()) {
+                        return Flux.just(batchError("No PDF resumes found in the upload."));
+                    }
+                    List<BatchAtsResult> finished = new ArrayList<>();
+                    return atsBatchService.scoreBatch(files, deepCheck, jobTitle, jobDescription, userEmail, userId)
+                            .doOnNext(finished::add)
+                            .map(result -> ServerSentEvent.<Object>builder(result).event("result").build())
+                            .concatWith(Mono.fromSupplier(() -> ServerSentEvent.<Object>builder(finalRanking(finished)).event("ranking").build()));
+                })
+                .onErrorResume(e -> {
+                    System.err.println("AtsCheckerController: Batch check failed for " + userEmail + ": " + e.getMessage());
+                    return Flux.just(batchError(e.getMessage()));
+                });
+    }
+
+    // Sorts the batch by score (unscored resumes last) and assigns the final ranks.
+    private List<BatchAtsResult> finalRanking(List<BatchAtsResult> finished) {
+        List<BatchAtsResult> ranking = new ArrayList<>(finished);
+        ranking.sort(Comparator.comparing(BatchAtsResult::isError)
+                .thenComparing(Comparator.comparingInt(BatchAtsResult::getScore).reversed()));
+        for (int i = 0; i < ranking.size(); i++) {
+            BatchAtsResult result = ranking.get(i);
+            result.setRank(result.isError() ? 0 : i + 1);
+        }
+        return ranking;
+    }
+
+    private ServerSentEvent<Object> batchError(String message) {
+        return ServerSentEvent.<Object>builder(new BatchAtsResult(null, 0, "", true, message)).event("error").build();
+    }
+
+    private AtsJobResponse toJobResponse(AtsJob job) {
+        String message = switch (job.getStatus()) {
+            case PENDING -> "The ATS check is queued.";
+            case RUNNING -> "The ATS check is in progress.";
+            case COMPLETED -> "The ATS check has completed.";
+            case FAILED -> "The ATS check failed.";
+        };
+        return new AtsJobResponse(job.getId(), job.getStatus().name(), message, job.getScore(), job.getFullAtsResponse(),
+                job.getStatus() == AtsJob.Status.FAILED ? job.getErrorMessage() : null);
+    }
+
     /**
      * Helper method to convert a {@link DataBuffer} into a byte array.
      * It also ensures the {@link DataBuffer} is released after being read to prevent memory leaks.
@@ -1,9 +1,13 @@
 package com.example.acespringbackend.auth.controller;
 
+import com.example.acespringbackend.auth.dto.BatchParaphrasingRequest;
+import com.example.acespringbackend.auth.dto.BatchParaphrasingResponse;
 import com.example.acespringbackend.auth.dto.ParaphrasingRequest;
 import com.example.acespringbackend.auth.dto.ParaphrasingResponse;
 import com.example.acespringbackend.service.GeminiService; // Service for interacting with Gemini AI
+import com.example.acespringbackend.service.GeminiWorkload; // Selects the Gemini route of a request
 import com.example.acespringbackend.utility.PromptBuilder; // Utility for building AI prompts
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType; // Import for specifying content types
 import org.springframework.http.ResponseEntity;
@@ -11,7 +15,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono; // Import Mono for reactive types
+import reactor.util.function.Tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 // Consider adding @CrossOrigin if your frontend is on a different origin.
 // For example: @CrossOrigin(origins = "http://localhost:3000")
@@ -20,19 +31,29 @@ import reactor.core.publisher.Mono; // Import Mono for reactive types
 @RequestMapping("/ace") // Base path for all endpoints within this controller, related to ACE functionalities.
 public class ChatController {
 
+    private static final String UNWANTED_CONTENT_MESSAGE = "I cannot fulfill requests that ask for large amounts of code, extensive content generation, or similar off-topic queries. Please provide specific text for paraphrasing or ask concise questions about existing content.";
+
     private final GeminiService geminiService;
     private final PromptBuilder promptBuilder; // Assumes PromptBuilder is a Spring component and correctly injected.
+    private final int maxBatchItems;
+    private final int batchFallbackConcurrency;
 
     /**
      * Constructor for dependency injection. Spring automatically injects the required
      * {@link GeminiService} and {@link PromptBuilder} instances.
      *
-     * @param geminiService The service responsible for making calls to the Gemini AI.
-     * @param promptBuilder The utility class used to construct formatted prompts for the AI.
+     * @param geminiService            The service responsible for making calls to the Gemini AI.
+     * @param promptBuilder            The utility class used to construct formatted prompts for the AI.
+     * @param maxBatchItems            The most texts accepted by one batch jot request.
+     * @param batchFallbackConcurrency How many texts of a batch are paraphrased at once when they have to be sent individually.
      */
-    public ChatController(GeminiService geminiService, PromptBuilder promptBuilder) {
+    public ChatController(GeminiService geminiService, PromptBuilder promptBuilder,
+                          @Value("${ace.jot.batch.max-items:50}") int maxBatchItems,
+                          @Value("${ace.jot.batch.fallback-concurrency:4}") int batchFallbackConcurrency) {
         this.geminiService = geminiService;
         this.promptBuilder = promptBuilder;
+        this.maxBatchItems = maxBatchItems;
+        this.batchFallbackConcurrency = batchFallbackConcurrency;
     }
 
     /**
@@ -78,7 +99,7 @@ public class ChatController {
                     new ParaphrasingResponse(
                             null, // No paraphrased content
                             true, // Indicate an error
-                            "I cannot fulfill requests that ask for large amounts of code, extensive content generation, or similar off-topic queries. Please provide specific text for paraphrasing or ask concise questions about existing content."
+                            UNWANTED_CONTENT_MESSAGE
                     ),
                     HttpStatus.BAD_REQUEST // Return HTTP 400 Bad Request status.
             ));
@@ -97,7 +118,9 @@ public class ChatController {
                    // Step 3: Call the Gemini AI service with the constructed prompt.
                    // flatMap is used because geminiService.getGeminiReply returns a Mono<String>,
                    // allowing the reactive stream to continue with the result of this async operation.
-                   .flatMap(prompt -> geminiService.getGeminiReply(prompt))
+                   // Cover letters and paraphrasing are routed to their own models (see GeminiRouter).
+                   .flatMap(prompt -> geminiService.getGeminiReply(prompt, Boolean.TRUE.equals(req.getAutoCoverLetterMode())
+                           ? GeminiWorkload.COVER_LETTER : GeminiWorkload.JOT))
                    // Step 4: Map the Gemini AI's string response to the desired ParaphrasingResponse DTO.
                    // This is executed upon successful reception of the AI's content.
                    .map(geminiContent -> new ResponseEntity<>(
@@ -117,6 +140,94 @@ public class ChatController {
                    });
     }
 
+    /**
+     * Paraphrases many texts (e.g. all bullet points of a resume) with shared settings in one Gemini round-trip.
+     * The texts are packed into one prompt with numbered item delimiters and the reply is split back per text.
+     * Texts missing from the reply are paraphrased individually, as with {@code /jot}.
+     *
+     * @param req The {@link BatchParaphrasingRequest} with the texts and their shared settings.
+     * @return A {@link Mono} of {@link ResponseEntity} containing one {@link ParaphrasingResponse} per text, in order.
+     * Texts that are empty or blocked by the content filter get an error result; the others are still processed.
+     */
+    @PostMapping(value = "/jot/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BatchParaphrasingResponse>> aceJotBatch(@RequestBody BatchParaphrasingRequest req) {
+        List<String> inputs = req.getInputs();
+        if (inputs == null || inputs.isEmpty() || inputs.size() > maxBatchItems) {
+            return Mono.just(new ResponseEntity<>(
+                    new BatchParaphrasingResponse(List.of(), true, "Please provide between 1 and " + maxBatchItems + " texts to paraphrase."),
+                    HttpStatus.BAD_REQUEST));
+        }
+
+        ParaphrasingResponse[] results = new ParaphrasingResponse[inputs.size()];
+        List<Integer> packed = new ArrayList<>(); // positions of the texts sent to Gemini
+        for (int i = 0; i < inputs.size(); i++) {
+            String input = inputs.get(i);
+            if (input == null || input.isBlank()) {
+                results[i] = new ParaphrasingResponse(null, true, "This text is empty.");
+            } else if (isUnwantedContentRequest(input)) {
+                System.out.println("ChatController - Blocking unwanted content in batch item " + (i + 1) + ": " + input);
+                results[i] = new ParaphrasingResponse(null, true, UNWANTED_CONTENT_MESSAGE);
+            } else {
+                packed.add(i);
+            }
+        }
+        if (packed.isEmpty()) {
+            return Mono.just(ResponseEntity.ok(new BatchParaphrasingResponse(Arrays.asList(results), false, null)));
+        }
+
+        List<String> packedInputs = packed.stream().map(inputs::get).toList();
+        return Mono.fromCallable(() -> promptBuilder.buildBatchPrompt(itemRequest(req, null), packedInputs))
+                .flatMap(prompt -> geminiService.getGeminiReply(prompt, GeminiWorkload.JOT))
+                .flatMap(reply -> {
+                    if (reply.startsWith(GeminiService.GEMINI_ERROR_PREFIX)) {
+                        // Every key already failed; sending the texts one by one would only repeat that.
+                        packed.forEach(i -> results[i] = new ParaphrasingResponse(null, true, reply));
+                        return Mono.empty();
+                    }
+                    Map<Integer, String> items = promptBuilder.splitBatchReply(reply, packedInputs.size());
+                    List<Integer> unanswered = new ArrayList<>();
+                    for (int n = 1; n <= packed.size(); n++) {
+                        String text = items.get(n);
+                        if (text != null) {
+                            results[packed.get(n - 1)] = new ParaphrasingResponse(text, false, null);
+                        } else {
+                            unanswered.add(packed.get(n - 1));
+                        }
+                    }
+                    if (!unanswered.isEmpty()) {
+                        System.out.println("ChatController - Batch reply was missing " + unanswered.size() + " of " + packed.size() + " items; paraphrasing them individually.");
+                    }
+                    return Flux.fromIterable(unanswered)
+                            .flatMap(i -> jotSingle(itemRequest(req, inputs.get(i))).map(result -> Tuples.of(i, result)), batchFallbackConcurrency)
+                            .doOnNext(indexed -> results[indexed.getT1()] = indexed.getT2())
+                            .then();
+                })
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(new BatchParaphrasingResponse(Arrays.asList(results), false, null))))
+                .onErrorResume(Exception.class, e -> {
+                    System.err.println("An unexpected error occurred during aceJotBatch: " + e.getMessage());
+                    e.printStackTrace();
+                    return Mono.just(new ResponseEntity<>(
+                            new BatchParaphrasingResponse(List.of(), true, "An unexpected server error occurred: " + e.getMessage()),
+                            HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
+
+    // One text of a batch as a standalone request with the batch's shared settings.
+    private ParaphrasingRequest itemRequest(BatchParaphrasingRequest req, String input) {
+        return new ParaphrasingRequest(input, req.getTone(), req.getStyle(), req.getJobDescription(), req.getKeywords(),
+                req.getWordLimit(), req.getEnableSuggestions(), false, req.getResearchedMode());
+    }
+
+    // Paraphrases a single text; failures become an error result rather than failing the batch.
+    private Mono<ParaphrasingResponse> jotSingle(ParaphrasingRequest req) {
+        return Mono.fromCallable(() -> promptBuilder.buildPrompt(req))
+                .flatMap(prompt -> geminiService.getGeminiReply(prompt, GeminiWorkload.JOT))
+                .map(content -> content.startsWith(GeminiService.GEMINI_ERROR_PREFIX)
+                        ? new ParaphrasingResponse(null, true, content)
+                        : new ParaphrasingResponse(content, false, null))
+                .onErrorResume(e -> Mono.just(new ParaphrasingResponse(null, true, e.getMessage())));
+    }
+
     /**
      * Helper method to detect and filter out requests that are likely asking for
      * extensive content generation (e.g., long code snippets, full essays, reports)
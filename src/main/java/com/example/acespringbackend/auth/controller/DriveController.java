@@ -1,11 +1,14 @@
 package com.example.acespringbackend.auth.controller;
 
+import com.example.acespringbackend.auth.dto.BulkTemplateReplicationRequest;
+import com.example.acespringbackend.auth.dto.BulkTemplateReplicationResponse;
 import com.example.acespringbackend.auth.dto.DeleteResponse;
 import com.example.acespringbackend.auth.dto.DeleteRequest;
 import com.example.acespringbackend.auth.dto.FileDetail;
 import com.example.acespringbackend.auth.dto.FileListResponse;
 import com.example.acespringbackend.auth.dto.ListRequest;
 import com.example.acespringbackend.auth.dto.FileUploadResponse;
+import com.example.acespringbackend.auth.dto.TemplateCatalogItem;
 import com.example.acespringbackend.auth.dto.TemplateReplicationRequest;
 import com.example.acespringbackend.auth.dto.TemplateReplicationResponse;
 import com.example.acespringbackend.auth.dto.DownloadResult;
@@ -16,6 +19,8 @@ import com.example.acespringbackend.auth.dto.PermissionUpdateResponse;
 import com.example.acespringbackend.auth.dto.FileExportRequest;
 import com.example.acespringbackend.auth.dto.FileExportResponse;
 import com.example.acespringbackend.service.DriveService; // Service for Google Drive operations
+import com.example.acespringbackend.service.UploadIngestionMetrics;
+import com.example.acespringbackend.utility.DriveBusyException;
 
 import jakarta.validation.Valid; // For request body validation
 
@@ -25,16 +30,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value; // For injecting properties from application.properties/yml
 import org.springframework.core.io.ByteArrayResource; // For serving byte arrays as resources
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpHeaders; // For setting HTTP headers
 import org.springframework.http.HttpStatus; // HTTP status codes
 import org.springframework.http.MediaType; // Content types
 import org.springframework.http.ResponseEntity; // Wrapper for HTTP response
 import org.springframework.web.bind.annotation.*; // Spring Web annotations
 import org.springframework.http.codec.multipart.FilePart; // For handling multipart file uploads in reactive stack
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono; // Reactive programming type
 
 import java.util.Collections; // Utility for immutable collections
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST Controller for managing Google Drive operations within the ACE application.
@@ -50,6 +60,7 @@ public class DriveController {
     private static final Logger logger = LoggerFactory.getLogger(DriveController.class);
 
     private final DriveService driveService;
+    private final UploadIngestionMetrics uploadIngestionMetrics;
 
     // Injects the user drive quota from application properties, defaulting to 10MB if not set.
     @Value("${user.drive.quota.mb:10}")
@@ -59,10 +70,41 @@ public class DriveController {
      * Constructs the DriveController and injects the {@link DriveService}.
      *
      * @param driveService The service responsible for interacting with Google Drive APIs.
+     * @param uploadIngestionMetrics The metrics of accepted and rejected uploads.
      */
     @Autowired
-    public DriveController(DriveService driveService) {
+    public DriveController(DriveService driveService, UploadIngestionMetrics uploadIngestionMetrics) {
         this.driveService = driveService;
+        this.uploadIngestionMetrics = uploadIngestionMetrics;
+    }
+
+    /**
+     * Handles multipart parts that the reader aborted because they exceeded the individual file limit
+     * (see WebConfig). This happens while the request is still being read, before any endpoint runs.
+     *
+     * @param e The limit exception raised by the multipart reader.
+     * @return 413 Payload Too Large with a {@link FileUploadResponse} explaining the limit.
+     */
+    @ExceptionHandler(DataBufferLimitException.class)
+    public ResponseEntity<FileUploadResponse> handleOversizedPart(DataBufferLimitException e) {
+        logger.warn("Rejected multipart upload while reading it: {}", e.getMessage());
+        uploadIngestionMetrics.recordRejected(UploadIngestionMetrics.REASON_PART_SIZE);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(new FileUploadResponse(
+                false, "Uploaded file exceeds individual upload limit.", null, null, null, 0.0, 0.0));
+    }
+
+    /**
+     * Handles Drive calls refused by the DriveGovernor or still rate limited by Google after all retries.
+     * The service lets these propagate, so every endpoint answers them the same way.
+     *
+     * @param e The exception raised by the governor.
+     * @return 503 Service Unavailable with a success flag and message, like the endpoints' own responses.
+     */
+    @ExceptionHandler(DriveBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleDriveBusy(DriveBusyException e) {
+        logger.warn("Google Drive is throttling requests: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("success", false, "message", DriveBusyException.MESSAGE));
     }
 
     /**
@@ -127,7 +169,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500 for other failures.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions during the reactive stream processing.
                     logger.error("Controller error during file upload for folderId {} and user {}: {}", folderId, userEmail, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new FileUploadResponse(
@@ -138,14 +180,20 @@ public class DriveController {
 
     /**
      * Retrieves a list of all files within a specific Google Drive folder for a given user.
+     * When the request carries a {@code pageSize}, the listing is paginated and the response
+     * contains a {@code nextCursor} to pass back for the following page. When it carries {@code since}
+     * (the {@code version} of an earlier response), only the changes after that version are returned.
+     * Every successful response has a weak ETag; a matching {@code If-None-Match} yields 304 Not Modified.
      *
-     * @param request The {@link ListRequest} containing the user's email and the folder ID.
+     * @param request The {@link ListRequest} containing the user's email, the folder ID and optional paging/sync parameters.
+     * @param ifNoneMatch The ETag of the listing the client already holds, if any.
      * @return A {@link Mono} of {@link ResponseEntity} containing a {@link FileListResponse}
      * with the list of files, current storage usage, and total quota.
      */
     @PostMapping("/files")
     public Mono<ResponseEntity<FileListResponse>> getAllFiles(
-            @RequestBody ListRequest request) {
+            @RequestBody ListRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         String userEmail = request.getUserEmail();
         String folderId = request.getFolderId();
@@ -167,34 +215,76 @@ public class DriveController {
                     Collections.emptyList(), 0.0, userDriveQuotaMb)));
         }
 
-        // Delegate to DriveService and handle the reactive flow.
-        return driveService.getAllFileDetails(userEmail, folderId)
+        // The ETag only needs the user's change version, so unchanged listings are answered without reading any files.
+        return driveService.computeListingEtag(userEmail, request.getCursor(), request.getPageSize(), request.getSince())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(etag -> {
+                    if (etag.isPresent() && etag.get().equals(ifNoneMatch)) {
+                        logger.info("Listing for folderId {} and user {} is unchanged ({}); returning 304.", folderId, userEmail, etag.get());
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).<FileListResponse>build());
+                    }
+                    return listFiles(request, userEmail, folderId, etag.orElse(null));
+                })
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
+                    // Catch-all for unexpected exceptions.
+                    logger.error("Controller error during getting all files for folderId {} and user {}: {}", folderId, userEmail, e.getMessage(), e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new FileListResponse(
+                            false, "An unexpected error occurred while listing files: " + e.getMessage(),
+                            Collections.emptyList(), 0.0, userDriveQuotaMb)));
+                });
+    }
+
+    private Mono<ResponseEntity<FileListResponse>> listFiles(ListRequest request, String userEmail, String folderId, String etag) {
+        // Delegate to DriveService: delta sync when the client sends a version, the (paged) listing otherwise.
+        Mono<FileListResponse> listing = request.getSince() != null
+                ? driveService.getFileChangesSince(userEmail, folderId, request.getSince())
+                : driveService.getAllFileDetails(userEmail, folderId, request.getCursor(), request.getPageSize());
+        return listing
                 .map(response -> {
                     if (response.getSuccess()) {
                         logger.info("Successfully retrieved {} files for folderId {} and user {}",
                                  response.getFiles().size(), folderId, userEmail);
-                        return ResponseEntity.ok(response); // Return 200 OK on success.
+                        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+                        if (etag != null) {
+                            ok.eTag(etag);
+                        }
+                        return ok.body(response); // Return 200 OK on success.
                     } else {
                         logger.error("Failed to retrieve files for folderId {} and user {}: {}",
                                  folderId, userEmail, response.getMessage());
                         // Map specific error messages to appropriate HTTP status codes.
                         if (response.getMessage().contains("User not found")) {
                             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                        } else if (response.getMessage().contains("Invalid cursor")) {
+                            return ResponseEntity.badRequest().body(response);
                         } else if (response.getMessage().contains("Drive folder not initialized") || response.getMessage().contains("Target folder ID for listing is missing")) {
                             return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
                         }
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500.
                     }
-                })
-                .onErrorResume(e -> {
-                    // Catch-all for unexpected exceptions.
-                    logger.error("Controller error during getting all files for folderId {} and user {}: {}", folderId, userEmail, e.getMessage(), e);
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new FileListResponse(
-                            false, "An unexpected error occurred while listing files: " + e.getMessage(),
-                            Collections.emptyList(), 0.0, userDriveQuotaMb)));
                 });
     }
 
+    /**
+     * Streams all files of a user as newline-delimited JSON, one {@link FileDetail} per line.
+     * Unlike {@code /files}, the listing is never materialized in memory, which keeps large
+     * libraries cheap to transfer; quota information is not included.
+     *
+     * @param request The {@link ListRequest} containing the user's email.
+     * @return A {@link Flux} of {@link FileDetail} rendered as {@code application/x-ndjson}.
+     */
+    @PostMapping(value = "/files/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FileDetail> streamAllFiles(@RequestBody ListRequest request) {
+        String userEmail = request.getUserEmail();
+        if (userEmail == null || userEmail.trim().isEmpty()) {
+            logger.warn("User email is missing for streaming file listing.");
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "User email is required to list files."));
+        }
+        logger.info("Received request to stream all files for user: {}", userEmail);
+        return driveService.streamFileDetails(userEmail);
+    }
+
     /**
      * Handles the deletion of a file from a user's Google Drive.
      *
@@ -241,7 +331,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during file deletion for file ID {} and user {}: {}", fileId, userEmail, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new DeleteResponse(
@@ -300,7 +390,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during file download for file ID {} and user {}: {}", fileId, userEmail, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null)); // Generic 500.
@@ -367,7 +457,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during template replication for user {} and master template {}: {}",
                                  userEmail, drive_id, e.getMessage(), e);
@@ -377,6 +467,68 @@ public class DriveController {
                 });
     }
 
+    /**
+     * Lists the available master templates with their metadata, served from the in-memory
+     * template catalog rather than from Google Drive.
+     *
+     * @return A {@link Mono} of {@link ResponseEntity} containing the list of {@link TemplateCatalogItem}s.
+     */
+    @GetMapping("/templates")
+    public Mono<ResponseEntity<List<TemplateCatalogItem>>> getTemplateCatalog() {
+        List<TemplateCatalogItem> templates = driveService.getTemplateCatalog();
+        logger.info("Serving template catalog with {} template(s).", templates.size());
+        return Mono.just(ResponseEntity.ok(templates));
+    }
+
+    /**
+     * Replicates several master templates into a user's Drive folder in one call, e.g. the
+     * bundle picked during onboarding. Returns 200 when every template was replicated and
+     * 207 Multi-Status when only some were; the per-template outcomes are in the results list.
+     *
+     * @param request The {@link BulkTemplateReplicationRequest} containing the user's email,
+     * the target folder ID and the templates to replicate.
+     * @return A {@link Mono} of {@link ResponseEntity} containing a {@link BulkTemplateReplicationResponse}.
+     */
+    @PostMapping("/replicate-templates")
+    public Mono<ResponseEntity<BulkTemplateReplicationResponse>> replicateTemplates(
+            @Valid @RequestBody BulkTemplateReplicationRequest request) {
+
+        String userEmail = request.getUserEmail();
+        int templateCount = request.getTemplates() != null ? request.getTemplates().size() : 0;
+
+        logger.info("Received request to replicate {} template(s) for user: {} in folder: {}",
+                     templateCount, userEmail, request.getTargetDriveFolderId());
+
+        return driveService.replicateTemplates(request)
+                .map(response -> {
+                    if (response.getSuccess()) {
+                        logger.info("Bulk template replication successful for user {} ({} template(s)).", userEmail, templateCount);
+                        return ResponseEntity.ok(response);
+                    }
+                    logger.error("Bulk template replication for user {} did not fully succeed: {}", userEmail, response.getMessage());
+                    // Map specific error messages to appropriate HTTP status codes.
+                    if (response.getMessage().contains("User not found")) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                    } else if (response.getMessage().contains("User's Drive folder not found")) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+                    } else if (response.getMessage().contains("Too many templates")) {
+                        return ResponseEntity.badRequest().body(response);
+                    } else if (response.getMessage().contains("failed to update internal database")) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+                    }
+                    boolean anyReplicated = response.getResults().stream().anyMatch(TemplateReplicationResponse::getSuccess);
+                    // Some copies made it: 207 Multi-Status. None did: the failure came from Google Drive.
+                    return ResponseEntity.status(anyReplicated ? HttpStatus.MULTI_STATUS : HttpStatus.BAD_GATEWAY).body(response);
+                })
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
+                    // Catch-all for unexpected exceptions.
+                    logger.error("Controller error during bulk template replication for user {}: {}", userEmail, e.getMessage(), e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new BulkTemplateReplicationResponse(
+                            false, "An unexpected error occurred during template replication: " + e.getMessage(),
+                            Collections.emptyList(), 0.0, userDriveQuotaMb)));
+                });
+    }
+
     /**
      * Handles the renaming of an existing file in a user's Google Drive.
      *
@@ -424,7 +576,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during file rename for file ID {} and user {}: {}", fileId, userEmail, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new FileRenameResponse(false, "An unexpected error occurred during file rename: " + e.getMessage(), null, null, null, 0.0, 0.0)));
@@ -503,7 +655,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during permission operation for file ID {} by user {}: {}",
                                  fileId, userEmail, e.getMessage(), e);
@@ -571,7 +723,7 @@ public class DriveController {
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null); // Generic 500.
                     }
                 })
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !DriveBusyException.isCauseOf(e), e -> {
                     // Catch-all for unexpected exceptions.
                     logger.error("Controller error during file export for file ID {} and user {}: {}", fileId, userEmail, e.getMessage(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null)); // Generic 500.
@@ -68,8 +68,8 @@ public class PasswordResetController {
         }
         log.debug("verifyTokenAjax: Verifying token {}", token);
 
-        // Find the token record from the database
-        return jwtExpiredTokenRepository.findByToken(token)
+        // Find the token record from the database (records are keyed by the token hash)
+        return jwtExpiredTokenRepository.findById(JwtUtility.hashToken(token))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or unknown password reset link.")))
                 .flatMap(tokenRecord -> {
                     // Check if it's explicitly marked as used
@@ -93,7 +93,7 @@ public class PasswordResetController {
                         return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid password reset link (missing user information)."));
                     }
 
-                    return userRepository.findByEmail(userEmail)
+                    return userRepository.findByNormalizedEmail(userEmail)
                             .switchIfEmpty(Mono.defer(() -> {
                                 log.warn("verifyTokenAjax: User not found for email extracted from token {}.", userEmail);
                                 // Do NOT mark as used. User simply doesn't exist.
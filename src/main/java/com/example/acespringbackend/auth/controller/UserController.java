@@ -1,6 +1,7 @@
 package com.example.acespringbackend.auth.controller;
 
-import com.example.acespringbackend.service.DriveService; // Import DriveService
+import com.example.acespringbackend.model.AccountDeletionJob;
+import com.example.acespringbackend.service.AccountDeletionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,10 +16,10 @@ import java.util.Map;
 @RequestMapping("/ace/auth")
 public class UserController {
 
-    private final DriveService driveService; // Inject DriveService
+    private final AccountDeletionService accountDeletionService;
 
-    public UserController(DriveService driveService) {
-        this.driveService = driveService;
+    public UserController(AccountDeletionService accountDeletionService) {
+        this.accountDeletionService = accountDeletionService;
     }
 
     @PostMapping("/login-status")
@@ -90,17 +91,12 @@ public class UserController {
         }
         */
 
-        return driveService.deleteUserData(emailToDelete)
-                .map(success -> {
-                    if (success) {
-                        return ResponseEntity.ok(Map.of("status", "success", "message", "User and all associated data deleted successfully."));
-                    } else {
-                        // This else block might be reached if the user was not found, or another internal issue
-                        // that wasn't an explicit error. DriveService should ideally return more specific info.
-                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                                .body(Map.of("status", "fail", "message", "User not found or data could not be deleted."));
-                    }
-                })
+        // Deletion runs as a background job; the caller polls the status endpoint with the returned jobId.
+        return accountDeletionService.requestDeletion(emailToDelete)
+                .map(job -> ResponseEntity.status(job.getStatus() == AccountDeletionJob.Status.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                        .body(deletionStatusBody(job)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("status", "fail", "message", "User not found or data could not be deleted.")))
                 .onErrorResume(e -> {
                     // Log the exception for debugging
                     System.err.println("Error during user deletion: " + e.getMessage());
@@ -108,4 +104,34 @@ public class UserController {
                             .body(Map.of("status", "error", "message", "An error occurred during user deletion: " + e.getMessage())));
                 });
     }
+
+    @GetMapping("/delete/status/{jobId}")
+    public Mono<ResponseEntity<Map<String, String>>> getDeletionStatus(@PathVariable String jobId) {
+        return accountDeletionService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(deletionStatusBody(job)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("status", "fail", "message", "No deletion job found for this id.")));
+    }
+
+    private Map<String, String> deletionStatusBody(AccountDeletionJob job) {
+        Map<String, String> body = new HashMap<>();
+        body.put("jobId", job.getId());
+        body.put("jobStatus", job.getStatus().name());
+        switch (job.getStatus()) {
+            case COMPLETED -> {
+                body.put("status", "success");
+                body.put("message", "User and all associated data deleted successfully.");
+            }
+            case FAILED -> {
+                // The status endpoint is public, so the raw error stays in the logs and on the job.
+                body.put("status", "fail");
+                body.put("message", "User deletion failed. Request the deletion again to retry.");
+            }
+            default -> {
+                body.put("status", "accepted");
+                body.put("message", "User deletion is in progress.");
+            }
+        }
+        return body;
+    }
 }
\ No newline at end of file
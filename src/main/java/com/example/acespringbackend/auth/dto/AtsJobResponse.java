@@ -0,0 +1,189 @@
+package com.example.acespringbackend.auth.dto;
+
+/**
+ * Data Transfer Object (DTO) describing the state of an asynchronous ATS check job.
+ * It is returned when a check is submitted, when its status is polled, and as the payload of
+ * each event of the job's server-sent event stream. Once the job has completed, it also carries the result.
+ */
+public class AtsJobResponse {
+
+    /**
+     * The unique identifier of the job, used to poll its status or subscribe to its events.
+     */
+    private String jobId;
+
+    /**
+     * The job's status: "PENDING", "RUNNING", "COMPLETED" or "FAILED".
+     */
+    private String status;
+
+    /**
+     * A descriptive message about the job's state, suitable for display to the user.
+     */
+    private String message;
+
+    /**
+     * The ATS score, once the job has completed; {@code null} before.
+     */
+    private String score;
+
+    /**
+     * The full Markdown report of the check, once the job has completed; {@code null} before.
+     */
+    private String fullGeminiResponse;
+
+    /**
+     * Details of the failure, if the job has failed; {@code null} otherwise.
+     */
+    private String errorMessage;
+
+    /**
+     * Default no-argument constructor for {@code AtsJobResponse}.
+     * This constructor is necessary for frameworks like Spring to deserialize JSON into an instance of this object.
+     */
+    public AtsJobResponse() {
+        // Default constructor
+    }
+
+    /**
+     * Constructs a new {@code AtsJobResponse} with the complete state of a job.
+     *
+     * @param jobId              The unique identifier of the job.
+     * @param status             The job's status.
+     * @param message            A descriptive message about the job's state.
+     * @param score              The ATS score, or {@code null} if not yet available.
+     * @param fullGeminiResponse The full report, or {@code null} if not yet available.
+     * @param errorMessage       Details of the failure, or {@code null}.
+     */
+    public AtsJobResponse(String jobId, String status, String message, String score, String fullGeminiResponse, String errorMessage) {
+        this.jobId = jobId;
+        this.status = status;
+        this.message = message;
+        this.score = score;
+        this.fullGeminiResponse = fullGeminiResponse;
+        this.errorMessage = errorMessage;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the unique identifier of the job.
+     *
+     * @return The job ID.
+     */
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * Retrieves the job's status.
+     *
+     * @return The status name.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieves the message describing the job's state.
+     *
+     * @return A descriptive message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Retrieves the ATS score.
+     *
+     * @return The score, or {@code null} if the job has not completed.
+     */
+    public String getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the full report of the check.
+     *
+     * @return The Markdown report, or {@code null} if the job has not completed.
+     */
+    public String getFullGeminiResponse() {
+        return fullGeminiResponse;
+    }
+
+    /**
+     * Retrieves the details of the failure.
+     *
+     * @return The error message, or {@code null} if the job has not failed.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the unique identifier of the job.
+     *
+     * @param jobId The job ID to set.
+     */
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * Sets the job's status.
+     *
+     * @param status The status name to set.
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Sets the message describing the job's state.
+     *
+     * @param message The message to set.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Sets the ATS score.
+     *
+     * @param score The score to set.
+     */
+    public void setScore(String score) {
+        this.score = score;
+    }
+
+    /**
+     * Sets the full report of the check.
+     *
+     * @param fullGeminiResponse The Markdown report to set.
+     */
+    public void setFullGeminiResponse(String fullGeminiResponse) {
+        this.fullGeminiResponse = fullGeminiResponse;
+    }
+
+    /**
+     * Sets the details of the failure.
+     *
+     * @param errorMessage The error message to set.
+     */
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "AtsJobResponse{" +
+                "jobId='" + jobId + '\'' +
+                ", status='" + status + '\'' +
+                ", message='" + message + '\'' +
+                ", score='" + score + '\'' +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
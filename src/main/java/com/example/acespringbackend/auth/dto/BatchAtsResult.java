@@ -0,0 +1,223 @@
+package com.example.acespringbackend.auth.dto;
+
+/**
+ * Data Transfer Object (DTO) for one resume of a batch ATS check, in which many resumes are scored
+ * against the same job description. Results are streamed to the client as each resume finishes,
+ * together with its rank among the resumes scored so far.
+ */
+public class BatchAtsResult {
+
+    /**
+     * The name of the resume file (for resumes from a ZIP archive, the entry's name within the archive).
+     */
+    private String fileName;
+
+    /**
+     * The ATS score of the resume, 0-100 (0 if the resume could not be scored).
+     */
+    private int score;
+
+    /**
+     * The resume's rank by score among the resumes scored so far (1 = best); 0 if it could not be scored.
+     */
+    private int rank;
+
+    /**
+     * The number of resumes of the batch that have finished, including this one.
+     */
+    private int completed;
+
+    /**
+     * The total number of resumes in the batch.
+     */
+    private int total;
+
+    /**
+     * The full Markdown report of the check; empty if the resume could not be scored.
+     */
+    private String fullGeminiResponse;
+
+    /**
+     * A boolean flag indicating whether this resume could not be scored.
+     */
+    private boolean error;
+
+    /**
+     * Details of the failure, if {@code error} is true; {@code null} otherwise.
+     */
+    private String errorMessage;
+
+    /**
+     * Default no-argument constructor for {@code BatchAtsResult}.
+     * This constructor is necessary for frameworks like Spring to deserialize JSON into an instance of this object.
+     */
+    public BatchAtsResult() {
+        // Default constructor
+    }
+
+    /**
+     * Constructs a new {@code BatchAtsResult} for a resume that has finished; rank and progress are set
+     * when the result is streamed.
+     *
+     * @param fileName           The name of the resume file.
+     * @param score              The ATS score.
+     * @param fullGeminiResponse The full report.
+     * @param error              Whether the resume could not be scored.
+     * @param errorMessage       Details of the failure, or {@code null}.
+     */
+    public BatchAtsResult(String fileName, int score, String fullGeminiResponse, boolean error, String errorMessage) {
+        this.fileName = fileName;
+        this.score = score;
+        this.fullGeminiResponse = fullGeminiResponse;
+        this.error = error;
+        this.errorMessage = errorMessage;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the name of the resume file.
+     *
+     * @return The file name.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Retrieves the ATS score of the resume.
+     *
+     * @return The score, 0-100.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the resume's rank among the resumes scored so far.
+     *
+     * @return The rank (1 = best), or 0 if the resume could not be scored.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * Retrieves the number of resumes of the batch that have finished.
+     *
+     * @return The number of finished resumes.
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Retrieves the total number of resumes in the batch.
+     *
+     * @return The batch size.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Retrieves the full report of the check.
+     *
+     * @return The Markdown report.
+     */
+    public String getFullGeminiResponse() {
+        return fullGeminiResponse;
+    }
+
+    /**
+     * Checks whether the resume could not be scored.
+     *
+     * @return {@code true} if scoring failed, {@code false} otherwise.
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Retrieves the details of the failure.
+     *
+     * @return The error message, or {@code null}.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the name of the resume file.
+     *
+     * @param fileName The file name to set.
+     */
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Sets the ATS score of the resume.
+     *
+     * @param score The score to set.
+     */
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /**
+     * Sets the resume's rank among the resumes scored so far.
+     *
+     * @param rank The rank to set.
+     */
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Sets the number of resumes of the batch that have finished.
+     *
+     * @param completed The number to set.
+     */
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * Sets the total number of resumes in the batch.
+     *
+     * @param total The batch size to set.
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Sets the full report of the check.
+     *
+     * @param fullGeminiResponse The Markdown report to set.
+     */
+    public void setFullGeminiResponse(String fullGeminiResponse) {
+        this.fullGeminiResponse = fullGeminiResponse;
+    }
+
+    /**
+     * Sets whether the resume could not be scored.
+     *
+     * @param error {@code true} if scoring failed.
+     */
+    public void setError(boolean error) {
+        this.error = error;
+    }
+
+    /**
+     * Sets the details of the failure.
+     *
+     * @param errorMessage The error message to set.
+     */
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
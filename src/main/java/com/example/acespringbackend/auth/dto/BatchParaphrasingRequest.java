@@ -0,0 +1,207 @@
+package com.example.acespringbackend.auth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for paraphrasing many texts in one request, such as all the bullet points
+ * of a resume. The texts share one set of settings (tone, style, keywords, job description), which
+ * are the same as those of a single {@link ParaphrasingRequest}; cover letter mode is not available in batches.
+ */
+public class BatchParaphrasingRequest {
+
+    /**
+     * The texts to paraphrase, e.g. the bullet points of a resume. Each is paraphrased independently, with the shared settings below.
+     */
+    private List<String> inputs;
+
+    /**
+     * The desired tone for every paraphrased output (e.g., "professional", "friendly", "neutral").
+     */
+    private String tone;
+
+    /**
+     * The desired stylistic category for every paraphrased output (e.g., "formal", "concise").
+     */
+    private String style;
+
+    /**
+     * An optional job description, used in researched mode to tailor every output to the job.
+     */
+    private String jobDescription;
+
+    /**
+     * A comma-separated string of keywords to incorporate or emphasize where they fit.
+     */
+    private String keywords;
+
+    /**
+     * An optional word limit that applies to each paraphrased output individually.
+     */
+    private Integer wordLimit;
+
+    /**
+     * A boolean flag indicating whether keywords should be bold and italicized in the outputs.
+     */
+    private Boolean enableSuggestions;
+
+    /**
+     * A boolean flag indicating if the outputs should be tailored to {@code jobDescription}.
+     */
+    private Boolean researchedMode;
+
+    /**
+     * Default no-argument constructor for {@code BatchParaphrasingRequest}.
+     * This constructor is essential for deserialization frameworks (like Spring)
+     * to automatically map JSON data into an instance of this object.
+     */
+    public BatchParaphrasingRequest() {
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the texts to paraphrase.
+     *
+     * @return The inputs, in order.
+     */
+    public List<String> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Retrieves the desired tone.
+     *
+     * @return The tone as a {@link String}.
+     */
+    public String getTone() {
+        return tone;
+    }
+
+    /**
+     * Retrieves the desired style.
+     *
+     * @return The style as a {@link String}.
+     */
+    public String getStyle() {
+        return style;
+    }
+
+    /**
+     * Retrieves the job description.
+     *
+     * @return The job description, or {@code null}.
+     */
+    public String getJobDescription() {
+        return jobDescription;
+    }
+
+    /**
+     * Retrieves the keywords.
+     *
+     * @return The keywords as a comma-separated {@link String}.
+     */
+    public String getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Retrieves the per-item word limit.
+     *
+     * @return The word limit, or {@code null}.
+     */
+    public Integer getWordLimit() {
+        return wordLimit;
+    }
+
+    /**
+     * Retrieves the suggestions flag.
+     *
+     * @return {@code true} if suggestions are enabled.
+     */
+    public Boolean getEnableSuggestions() {
+        return enableSuggestions;
+    }
+
+    /**
+     * Retrieves the researched mode flag.
+     *
+     * @return {@code true} if researched mode is requested.
+     */
+    public Boolean getResearchedMode() {
+        return researchedMode;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the texts to paraphrase.
+     *
+     * @param inputs The inputs to set.
+     */
+    public void setInputs(List<String> inputs) {
+        this.inputs = inputs;
+    }
+
+    /**
+     * Sets the desired tone.
+     *
+     * @param tone The tone to set.
+     */
+    public void setTone(String tone) {
+        this.tone = tone;
+    }
+
+    /**
+     * Sets the desired style.
+     *
+     * @param style The style to set.
+     */
+    public void setStyle(String style) {
+        this.style = style;
+    }
+
+    /**
+     * Sets the job description.
+     *
+     * @param jobDescription The job description to set.
+     */
+    public void setJobDescription(String jobDescription) {
+        this.jobDescription = jobDescription;
+    }
+
+    /**
+     * Sets the keywords.
+     *
+     * @param keywords The keywords to set.
+     */
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+    }
+
+    /**
+     * Sets the per-item word limit.
+     *
+     * @param wordLimit The word limit to set.
+     */
+    public void setWordLimit(Integer wordLimit) {
+        this.wordLimit = wordLimit;
+    }
+
+    /**
+     * Sets the suggestions flag.
+     *
+     * @param enableSuggestions The flag to set.
+     */
+    public void setEnableSuggestions(Boolean enableSuggestions) {
+        this.enableSuggestions = enableSuggestions;
+    }
+
+    /**
+     * Sets the researched mode flag.
+     *
+     * @param researchedMode The flag to set.
+     */
+    public void setResearchedMode(Boolean researchedMode) {
+        this.researchedMode = researchedMode;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.acespringbackend.auth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the response to a {@link BatchParaphrasingRequest}.
+ * It holds one {@link ParaphrasingResponse} per input, in the order of the inputs, so that a failure
+ * on one input (e.g. a blocked request) does not fail the others.
+ */
+public class BatchParaphrasingResponse {
+
+    /**
+     * The result for each input, in the order of the request's inputs.
+     */
+    private List<ParaphrasingResponse> results;
+
+    /**
+     * A boolean flag indicating whether the request as a whole failed.
+     * {@code true} if an error occurred, {@code false} otherwise.
+     */
+    private boolean error;
+
+    /**
+     * A descriptive error message, populated if {@code error} is {@code true}.
+     */
+    private String errorMessage;
+
+    /**
+     * Default no-argument constructor for {@code BatchParaphrasingResponse}.
+     * This constructor is essential for deserialization frameworks (like Spring)
+     * to automatically map JSON data into an instance of this object.
+     */
+    public BatchParaphrasingResponse() {
+        // Default constructor
+    }
+
+    /**
+     * Constructs a new {@code BatchParaphrasingResponse}.
+     *
+     * @param results      The result for each input, or an empty list if the request failed.
+     * @param error        A boolean indicating if the request as a whole failed.
+     * @param errorMessage A descriptive error message. Can be {@code null} if no error.
+     */
+    public BatchParaphrasingResponse(List<ParaphrasingResponse> results, boolean error, String errorMessage) {
+        this.results = results;
+        this.error = error;
+        this.errorMessage = errorMessage;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the result for each input.
+     *
+     * @return The results, in the order of the inputs.
+     */
+    public List<ParaphrasingResponse> getResults() {
+        return results;
+    }
+
+    /**
+     * Checks if the request as a whole failed.
+     *
+     * @return {@code true} if an error occurred, {@code false} otherwise.
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Retrieves the error message.
+     *
+     * @return The error message, or {@code null} if no error.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the result for each input.
+     *
+     * @param results The results to set.
+     */
+    public void setResults(List<ParaphrasingResponse> results) {
+        this.results = results;
+    }
+
+    /**
+     * Sets the error status.
+     *
+     * @param error {@code true} if an error occurred.
+     */
+    public void setError(boolean error) {
+        this.error = error;
+    }
+
+    /**
+     * Sets the error message.
+     *
+     * @param errorMessage The error message to set.
+     */
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
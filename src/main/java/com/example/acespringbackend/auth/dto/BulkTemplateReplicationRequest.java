@@ -0,0 +1,111 @@
+package com.example.acespringbackend.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for replicating several templates into a user's Drive folder in one call,
+ * e.g. the bundle a new user picks during onboarding. Each entry of {@link #templates} describes one
+ * template; its own {@code userEmail} and {@code targetDriveFolderId} are ignored in favour of the
+ * values given here.
+ */
+public class BulkTemplateReplicationRequest {
+
+    /**
+     * The email address of the user who is initiating the replication.
+     * All replicated files are associated with this user's account.
+     */
+    @NotBlank(message = "User email is required.")
+    private String userEmail;
+
+    /**
+     * The Google Drive folder ID where all replicated files should be placed.
+     */
+    @NotBlank(message = "Target Drive folder ID is required.")
+    private String targetDriveFolderId;
+
+    /**
+     * The templates to replicate, each with its master Drive ID, new file name and display metadata.
+     */
+    @NotEmpty(message = "At least one template is required.")
+    private List<TemplateReplicationRequest> templates;
+
+    /**
+     * Default no-argument constructor for {@code BulkTemplateReplicationRequest}.
+     * Required by frameworks like Spring and Jackson for deserialization.
+     */
+    public BulkTemplateReplicationRequest() {
+    }
+
+    /**
+     * Constructs a new {@code BulkTemplateReplicationRequest} with all fields.
+     *
+     * @param userEmail           The email of the user requesting the replication.
+     * @param targetDriveFolderId The Google Drive folder ID where the new files should be saved.
+     * @param templates           The templates to replicate.
+     */
+    public BulkTemplateReplicationRequest(String userEmail, String targetDriveFolderId, List<TemplateReplicationRequest> templates) {
+        this.userEmail = userEmail;
+        this.targetDriveFolderId = targetDriveFolderId;
+        this.templates = templates;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the email address of the user initiating the replication.
+     *
+     * @return The user's email address.
+     */
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    /**
+     * Retrieves the target Google Drive folder ID.
+     *
+     * @return The target folder ID.
+     */
+    public String getTargetDriveFolderId() {
+        return targetDriveFolderId;
+    }
+
+    /**
+     * Retrieves the templates to replicate.
+     *
+     * @return The list of template descriptions.
+     */
+    public List<TemplateReplicationRequest> getTemplates() {
+        return templates;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the email address of the user initiating the replication.
+     *
+     * @param userEmail The user's email address.
+     */
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    /**
+     * Sets the target Google Drive folder ID.
+     *
+     * @param targetDriveFolderId The target folder ID.
+     */
+    public void setTargetDriveFolderId(String targetDriveFolderId) {
+        this.targetDriveFolderId = targetDriveFolderId;
+    }
+
+    /**
+     * Sets the templates to replicate.
+     *
+     * @param templates The list of template descriptions.
+     */
+    public void setTemplates(List<TemplateReplicationRequest> templates) {
+        this.templates = templates;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.acespringbackend.auth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk template replication.
+ * Carries one {@link TemplateReplicationResponse} per requested template, in request order,
+ * so the client can tell exactly which templates were copied and which failed.
+ */
+public class BulkTemplateReplicationResponse {
+
+    /**
+     * {@code true} if every requested template was replicated, {@code false} if at least one failed.
+     */
+    private boolean success;
+
+    /**
+     * A descriptive message summarizing the outcome of the operation.
+     */
+    private String message;
+
+    /**
+     * The per-template results, in the same order as the requested templates.
+     */
+    private List<TemplateReplicationResponse> results;
+
+    /**
+     * The user's storage usage in megabytes (MB) after the replication.
+     */
+    private double currentStorageUsageMb;
+
+    /**
+     * The user's maximum allowed storage quota in megabytes (MB).
+     */
+    private double maxStorageQuotaMb;
+
+    /**
+     * Default no-argument constructor for {@code BulkTemplateReplicationResponse}.
+     * Required by frameworks like Spring and Jackson for deserialization.
+     */
+    public BulkTemplateReplicationResponse() {
+    }
+
+    /**
+     * All-arguments constructor for {@code BulkTemplateReplicationResponse}.
+     *
+     * @param success               True if all templates were replicated, false otherwise.
+     * @param message               A message describing the outcome of the operation.
+     * @param results               The per-template results, in request order.
+     * @param currentStorageUsageMb The user's current storage usage in MB after the operation.
+     * @param maxStorageQuotaMb     The user's maximum allowed storage quota in MB.
+     */
+    public BulkTemplateReplicationResponse(boolean success, String message, List<TemplateReplicationResponse> results,
+                                           double currentStorageUsageMb, double maxStorageQuotaMb) {
+        this.success = success;
+        this.message = message;
+        this.results = results;
+        this.currentStorageUsageMb = currentStorageUsageMb;
+        this.maxStorageQuotaMb = maxStorageQuotaMb;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the overall success status.
+     *
+     * @return {@code true} if every template was replicated, {@code false} otherwise.
+     */
+    public boolean getSuccess() {
+        return success;
+    }
+
+    /**
+     * Retrieves the message summarizing the outcome.
+     *
+     * @return The outcome message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Retrieves the per-template results.
+     *
+     * @return The list of results, in request order.
+     */
+    public List<TemplateReplicationResponse> getResults() {
+        return results;
+    }
+
+    /**
+     * Retrieves the user's current storage usage in megabytes.
+     *
+     * @return The current storage usage in MB.
+     */
+    public double getCurrentStorageUsageMb() {
+        return currentStorageUsageMb;
+    }
+
+    /**
+     * Retrieves the user's maximum storage quota in megabytes.
+     *
+     * @return The maximum storage quota in MB.
+     */
+    public double getMaxStorageQuotaMb() {
+        return maxStorageQuotaMb;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the overall success status.
+     *
+     * @param success {@code true} if every template was replicated, {@code false} otherwise.
+     */
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    /**
+     * Sets the message summarizing the outcome.
+     *
+     * @param message The outcome message.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Sets the per-template results.
+     *
+     * @param results The list of results, in request order.
+     */
+    public void setResults(List<TemplateReplicationResponse> results) {
+        this.results = results;
+    }
+
+    /**
+     * Sets the user's current storage usage in megabytes.
+     *
+     * @param currentStorageUsageMb The current storage usage in MB.
+     */
+    public void setCurrentStorageUsageMb(double currentStorageUsageMb) {
+        this.currentStorageUsageMb = currentStorageUsageMb;
+    }
+
+    /**
+     * Sets the user's maximum storage quota in megabytes.
+     *
+     * @param maxStorageQuotaMb The maximum storage quota in MB.
+     */
+    public void setMaxStorageQuotaMb(double maxStorageQuotaMb) {
+        this.maxStorageQuotaMb = maxStorageQuotaMb;
+    }
+}
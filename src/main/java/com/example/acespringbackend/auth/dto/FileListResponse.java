@@ -39,6 +39,30 @@ public class FileListResponse {
      */
     private Double maxStorageQuotaMb;
 
+    /**
+     * Opaque cursor to pass back in the next {@link ListRequest} to fetch the following page,
+     * or {@code null} when there are no more files (or the listing was not paginated).
+     */
+    private String nextCursor;
+
+    /**
+     * The user's file change version at the time of the listing. Pass it back as {@code since}
+     * in a later {@link ListRequest} to receive only what changed afterwards.
+     */
+    private Long version;
+
+    /**
+     * {@code true} if {@link #files} only contains files changed since the requested version
+     * (delta sync), {@code false} for a full listing.
+     */
+    private Boolean delta;
+
+    /**
+     * In a delta response, the Google Drive IDs of files deleted since the requested version.
+     * Empty for full listings.
+     */
+    private List<String> deletedFileIds;
+
     /**
      * Default no-argument constructor for {@code FileListResponse}.
      * This constructor is crucial for deserialization frameworks (like Jackson)
@@ -112,6 +136,42 @@ public class FileListResponse {
         return maxStorageQuotaMb;
     }
 
+    /**
+     * Retrieves the cursor for the next page of files.
+     *
+     * @return The next-page cursor, or {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Retrieves the user's file change version at the time of the listing.
+     *
+     * @return The change version.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Indicates whether this is a delta (changes only) response.
+     *
+     * @return {@code true} for a delta response, {@code false} for a full listing.
+     */
+    public Boolean getDelta() {
+        return delta;
+    }
+
+    /**
+     * Retrieves the Drive IDs of files deleted since the requested version.
+     *
+     * @return A {@link List} of Drive file IDs; empty for full listings.
+     */
+    public List<String> getDeletedFileIds() {
+        return deletedFileIds;
+    }
+
     // --- Setters (Typically used by deserialization frameworks) ---
 
     /**
@@ -158,4 +218,40 @@ public class FileListResponse {
     public void setMaxStorageQuotaMb(Double maxStorageQuotaMb) {
         this.maxStorageQuotaMb = maxStorageQuotaMb;
     }
+
+    /**
+     * Sets the cursor for the next page of files.
+     *
+     * @param nextCursor The next-page cursor, or {@code null} if this is the last page.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Sets the user's file change version at the time of the listing.
+     *
+     * @param version The change version.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets whether this is a delta (changes only) response.
+     *
+     * @param delta {@code true} for a delta response, {@code false} for a full listing.
+     */
+    public void setDelta(Boolean delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * Sets the Drive IDs of files deleted since the requested version.
+     *
+     * @param deletedFileIds The list of deleted Drive file IDs.
+     */
+    public void setDeletedFileIds(List<String> deletedFileIds) {
+        this.deletedFileIds = deletedFileIds;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.example.acespringbackend.auth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one row of a multi-job comparison: how well the resume matches one of the
+ * job postings. The numeric fields are the columns of the comparison matrix; the report holds the details.
+ */
+public class JobMatchResult {
+
+    /**
+     * The title of the job posting, as submitted (may be {@code null}).
+     */
+    private String jobTitle;
+
+    /**
+     * The ATS score of the resume against this job, 0-100.
+     */
+    private int score;
+
+    /**
+     * Keyword match of the resume against the job's terms, in percent.
+     */
+    private int keywordMatch;
+
+    /**
+     * The job's required skills found in the resume.
+     */
+    private List<String> matchedSkills;
+
+    /**
+     * The job's required skills missing from the resume.
+     */
+    private List<String> missingSkills;
+
+    /**
+     * The full Markdown report for this job, including Gemini's feedback on deep checks.
+     */
+    private String fullGeminiResponse;
+
+    /**
+     * Default no-argument constructor for {@code JobMatchResult}.
+     * This constructor is necessary for frameworks like Spring to deserialize JSON into an instance of this object.
+     */
+    public JobMatchResult() {
+        // Default constructor
+    }
+
+    /**
+     * Constructs a new {@code JobMatchResult} with all fields.
+     *
+     * @param jobTitle           The title of the job posting.
+     * @param score              The ATS score against this job.
+     * @param keywordMatch       The keyword match in percent.
+     * @param matchedSkills      The job's skills found in the resume.
+     * @param missingSkills      The job's skills missing from the resume.
+     * @param fullGeminiResponse The full report for this job.
+     */
+    public JobMatchResult(String jobTitle, int score, int keywordMatch, List<String> matchedSkills, List<String> missingSkills,
+                          String fullGeminiResponse) {
+        this.jobTitle = jobTitle;
+        this.score = score;
+        this.keywordMatch = keywordMatch;
+        this.matchedSkills = matchedSkills;
+        this.missingSkills = missingSkills;
+        this.fullGeminiResponse = fullGeminiResponse;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the title of the job posting.
+     *
+     * @return The job title, or {@code null}.
+     */
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    /**
+     * Retrieves the ATS score against this job.
+     *
+     * @return The score, 0-100.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the keyword match against this job.
+     *
+     * @return The keyword match in percent.
+     */
+    public int getKeywordMatch() {
+        return keywordMatch;
+    }
+
+    /**
+     * Retrieves the job's skills found in the resume.
+     *
+     * @return The matched skills.
+     */
+    public List<String> getMatchedSkills() {
+        return matchedSkills;
+    }
+
+    /**
+     * Retrieves the job's skills missing from the resume.
+     *
+     * @return The missing skills.
+     */
+    public List<String> getMissingSkills() {
+        return missingSkills;
+    }
+
+    /**
+     * Retrieves the full report for this job.
+     *
+     * @return The Markdown report.
+     */
+    public String getFullGeminiResponse() {
+        return fullGeminiResponse;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the title of the job posting.
+     *
+     * @param jobTitle The job title to set.
+     */
+    public void setJobTitle(String jobTitle) {
+        this.jobTitle = jobTitle;
+    }
+
+    /**
+     * Sets the ATS score against this job.
+     *
+     * @param score The score to set.
+     */
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /**
+     * Sets the keyword match against this job.
+     *
+     * @param keywordMatch The keyword match in percent.
+     */
+    public void setKeywordMatch(int keywordMatch) {
+        this.keywordMatch = keywordMatch;
+    }
+
+    /**
+     * Sets the job's skills found in the resume.
+     *
+     * @param matchedSkills The matched skills to set.
+     */
+    public void setMatchedSkills(List<String> matchedSkills) {
+        this.matchedSkills = matchedSkills;
+    }
+
+    /**
+     * Sets the job's skills missing from the resume.
+     *
+     * @param missingSkills The missing skills to set.
+     */
+    public void setMissingSkills(List<String> missingSkills) {
+        this.missingSkills = missingSkills;
+    }
+
+    /**
+     * Sets the full report for this job.
+     *
+     * @param fullGeminiResponse The Markdown report to set.
+     */
+    public void setFullGeminiResponse(String fullGeminiResponse) {
+        this.fullGeminiResponse = fullGeminiResponse;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.acespringbackend.auth.dto;
+
+/**
+ * Represents one job posting a resume is compared against in a multi-job ATS check.
+ * A list of these is sent as the JSON "jobs" part of the request.
+ */
+public class JobPosting {
+
+    /**
+     * The title of the job (e.g., "Software Engineer"). Optional, but it also counts towards keyword matching.
+     */
+    private String jobTitle;
+
+    /**
+     * The detailed description of the job opening, which the resume is scored against.
+     */
+    private String jobDescription;
+
+    /**
+     * Default constructor for {@code JobPosting}.
+     * Required for frameworks like Spring to deserialize JSON into this object.
+     */
+    public JobPosting() {
+        // Default constructor for deserialization
+    }
+
+    /**
+     * Constructs a new {@code JobPosting}.
+     *
+     * @param jobTitle       The title of the job.
+     * @param jobDescription The full job description.
+     */
+    public JobPosting(String jobTitle, String jobDescription) {
+        this.jobTitle = jobTitle;
+        this.jobDescription = jobDescription;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the title of the job.
+     *
+     * @return The job title.
+     */
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    /**
+     * Retrieves the description of the job.
+     *
+     * @return The job description.
+     */
+    public String getJobDescription() {
+        return jobDescription;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the title of the job.
+     *
+     * @param jobTitle The job title to set.
+     */
+    public void setJobTitle(String jobTitle) {
+        this.jobTitle = jobTitle;
+    }
+
+    /**
+     * Sets the description of the job.
+     *
+     * @param jobDescription The job description to set.
+     */
+    public void setJobDescription(String jobDescription) {
+        this.jobDescription = jobDescription;
+    }
+}
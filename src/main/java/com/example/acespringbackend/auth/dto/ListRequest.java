@@ -21,6 +21,24 @@ public class ListRequest {
      */
     private String userEmail;
 
+    /**
+     * Optional maximum number of files to return. When {@code null}, all files are returned
+     * in a single response (legacy behaviour); otherwise the listing is paginated.
+     */
+    private Integer pageSize;
+
+    /**
+     * Optional opaque cursor taken from {@link FileListResponse#getNextCursor()} of the previous page.
+     * {@code null} requests the first page.
+     */
+    private String cursor;
+
+    /**
+     * Optional change version from a previous {@link FileListResponse#getVersion()}. When set,
+     * only files changed or deleted after that version are returned (delta sync).
+     */
+    private Long since;
+
     /**
      * Default no-argument constructor for {@code ListRequest}.
      * This constructor is crucial for deserialization frameworks (like Spring)
@@ -62,6 +80,33 @@ public class ListRequest {
         return userEmail;
     }
 
+    /**
+     * Retrieves the requested page size.
+     *
+     * @return The page size, or {@code null} for an unpaginated listing.
+     */
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Retrieves the cursor of the page to fetch.
+     *
+     * @return The cursor, or {@code null} for the first page.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Retrieves the change version to sync from.
+     *
+     * @return The last version seen by the client, or {@code null} for a full listing.
+     */
+    public Long getSince() {
+        return since;
+    }
+
     // --- Setters ---
 
     /**
@@ -81,4 +126,31 @@ public class ListRequest {
     public void setUserEmail(String userEmail) {
         this.userEmail = userEmail;
     }
+
+    /**
+     * Sets the requested page size.
+     *
+     * @param pageSize The page size, or {@code null} for an unpaginated listing.
+     */
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the cursor of the page to fetch.
+     *
+     * @param cursor The cursor from the previous response, or {@code null} for the first page.
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Sets the change version to sync from.
+     *
+     * @param since The last version seen by the client, or {@code null} for a full listing.
+     */
+    public void setSince(Long since) {
+        this.since = since;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.example.acespringbackend.auth.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the response of a multi-job ATS check, in which one resume is scored
+ * against several job postings. The results form a comparison matrix with one row per job, in the order
+ * the jobs were submitted.
+ */
+public class MultiJobAtsResponse {
+
+    /**
+     * One result per submitted job posting, in submission order.
+     */
+    private List<JobMatchResult> results;
+
+    /**
+     * The index (into {@code results}) of the job the resume matches best; -1 if there are no results.
+     */
+    private int bestMatchIndex;
+
+    /**
+     * On deep checks, Gemini's feedback comparing the resume's fit across the jobs; {@code null} otherwise.
+     */
+    private String comparisonFeedback;
+
+    /**
+     * The raw text content extracted from the resume.
+     */
+    private String extractedResumeContent;
+
+    /**
+     * A boolean flag indicating whether an error occurred during the check.
+     */
+    private boolean error;
+
+    /**
+     * A detailed error message if {@code error} is true; {@code null} otherwise.
+     */
+    private String errorMessage;
+
+    /**
+     * Default no-argument constructor for {@code MultiJobAtsResponse}.
+     * This constructor is necessary for frameworks like Spring to deserialize JSON into an instance of this object.
+     */
+    public MultiJobAtsResponse() {
+        // Default constructor
+    }
+
+    /**
+     * Constructs a new {@code MultiJobAtsResponse} with all fields.
+     *
+     * @param results                The per-job results.
+     * @param bestMatchIndex         The index of the best-matching job, or -1.
+     * @param comparisonFeedback     Gemini's cross-job feedback, or {@code null}.
+     * @param extractedResumeContent The text extracted from the resume.
+     * @param error                  Whether the check failed.
+     * @param errorMessage           Details of the failure, or {@code null}.
+     */
+    public MultiJobAtsResponse(List<JobMatchResult> results, int bestMatchIndex, String comparisonFeedback,
+                               String extractedResumeContent, boolean error, String errorMessage) {
+        this.results = results;
+        this.bestMatchIndex = bestMatchIndex;
+        this.comparisonFeedback = comparisonFeedback;
+        this.extractedResumeContent = extractedResumeContent;
+        this.error = error;
+        this.errorMessage = errorMessage;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the per-job results.
+     *
+     * @return The results, in submission order.
+     */
+    public List<JobMatchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Retrieves the index of the best-matching job.
+     *
+     * @return The index into the results, or -1.
+     */
+    public int getBestMatchIndex() {
+        return bestMatchIndex;
+    }
+
+    /**
+     * Retrieves Gemini's feedback comparing the jobs.
+     *
+     * @return The Markdown feedback, or {@code null}.
+     */
+    public String getComparisonFeedback() {
+        return comparisonFeedback;
+    }
+
+    /**
+     * Retrieves the text extracted from the resume.
+     *
+     * @return The resume text.
+     */
+    public String getExtractedResumeContent() {
+        return extractedResumeContent;
+    }
+
+    /**
+     * Checks whether the check failed.
+     *
+     * @return {@code true} if an error occurred, {@code false} otherwise.
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Retrieves the details of the failure.
+     *
+     * @return The error message, or {@code null}.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the per-job results.
+     *
+     * @param results The results to set.
+     */
+    public void setResults(List<JobMatchResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Sets the index of the best-matching job.
+     *
+     * @param bestMatchIndex The index to set.
+     */
+    public void setBestMatchIndex(int bestMatchIndex) {
+        this.bestMatchIndex = bestMatchIndex;
+    }
+
+    /**
+     * Sets Gemini's feedback comparing the jobs.
+     *
+     * @param comparisonFeedback The feedback to set.
+     */
+    public void setComparisonFeedback(String comparisonFeedback) {
+        this.comparisonFeedback = comparisonFeedback;
+    }
+
+    /**
+     * Sets the text extracted from the resume.
+     *
+     * @param extractedResumeContent The resume text to set.
+     */
+    public void setExtractedResumeContent(String extractedResumeContent) {
+        this.extractedResumeContent = extractedResumeContent;
+    }
+
+    /**
+     * Sets whether the check failed.
+     *
+     * @param error {@code true} if an error occurred.
+     */
+    public void setError(boolean error) {
+        this.error = error;
+    }
+
+    /**
+     * Sets the details of the failure.
+     *
+     * @param errorMessage The error message to set.
+     */
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.acespringbackend.auth.dto;
+
+/**
+ * Data Transfer Object (DTO) describing one master template of the server-side template catalog.
+ * The catalog is built from the templates folder on Google Drive: the name, MIME type, description
+ * and thumbnail come from the file itself, the remaining fields from the file's custom properties
+ * ({@code category}, {@code spotlight}, {@code provider}, {@code imageUrl}).
+ */
+public class TemplateCatalogItem {
+
+    /**
+     * The Google Drive ID of the master template file. This is the {@code drive_id} clients send
+     * when replicating the template.
+     */
+    private String driveId;
+
+    /**
+     * The display name of the template.
+     */
+    private String name;
+
+    /**
+     * The MIME type of the template file (e.g. a Google Docs document).
+     */
+    private String mimeType;
+
+    /**
+     * The category to which the template belongs (e.g., "Resume", "Cover Letter").
+     */
+    private String category;
+
+    /**
+     * The URL of the preview image of the template. Falls back to the Drive thumbnail when the
+     * template has no explicit image URL.
+     */
+    private String imageUrl;
+
+    /**
+     * A brief description of the template.
+     */
+    private String description;
+
+    /**
+     * Highlighted key features of the template.
+     */
+    private String spotlight;
+
+    /**
+     * The source or creator of the template.
+     */
+    private String provider;
+
+    /**
+     * The Drive version of the master template file, which increases with every change to it.
+     * Used to tell pre-copied instances of an older revision apart; {@code null} if unknown.
+     */
+    private Long version;
+
+    /**
+     * Default no-argument constructor for {@code TemplateCatalogItem}.
+     * Required by frameworks like Spring and Jackson for deserialization.
+     */
+    public TemplateCatalogItem() {
+    }
+
+    /**
+     * All-arguments constructor for {@code TemplateCatalogItem}.
+     *
+     * @param driveId     The Google Drive ID of the master template.
+     * @param name        The display name of the template.
+     * @param mimeType    The MIME type of the template file.
+     * @param category    The category of the template.
+     * @param imageUrl    The URL of the template's preview image.
+     * @param description A description of the template.
+     * @param spotlight   Spotlight details for the template.
+     * @param provider    The provider/source of the template.
+     */
+    public TemplateCatalogItem(String driveId, String name, String mimeType, String category, String imageUrl,
+                               String description, String spotlight, String provider) {
+        this.driveId = driveId;
+        this.name = name;
+        this.mimeType = mimeType;
+        this.category = category;
+        this.imageUrl = imageUrl;
+        this.description = description;
+        this.spotlight = spotlight;
+        this.provider = provider;
+    }
+
+    // --- Getters ---
+
+    /**
+     * Retrieves the Google Drive ID of the master template.
+     *
+     * @return The master template's Drive ID.
+     */
+    public String getDriveId() {
+        return driveId;
+    }
+
+    /**
+     * Retrieves the display name of the template.
+     *
+     * @return The template name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the MIME type of the template file.
+     *
+     * @return The MIME type.
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Retrieves the category of the template.
+     *
+     * @return The category.
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Retrieves the URL of the template's preview image.
+     *
+     * @return The image URL.
+     */
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    /**
+     * Retrieves the description of the template.
+     *
+     * @return The description.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Retrieves the spotlight details of the template.
+     *
+     * @return The spotlight details.
+     */
+    public String getSpotlight() {
+        return spotlight;
+    }
+
+    /**
+     * Retrieves the provider of the template.
+     *
+     * @return The provider.
+     */
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Retrieves the Drive version of the master template file.
+     *
+     * @return The version, or {@code null} if unknown.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    // --- Setters ---
+
+    /**
+     * Sets the Google Drive ID of the master template.
+     *
+     * @param driveId The master template's Drive ID.
+     */
+    public void setDriveId(String driveId) {
+        this.driveId = driveId;
+    }
+
+    /**
+     * Sets the display name of the template.
+     *
+     * @param name The template name.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Sets the MIME type of the template file.
+     *
+     * @param mimeType The MIME type.
+     */
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    /**
+     * Sets the category of the template.
+     *
+     * @param category The category.
+     */
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    /**
+     * Sets the URL of the template's preview image.
+     *
+     * @param imageUrl The image URL.
+     */
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    /**
+     * Sets the description of the template.
+     *
+     * @param description The description.
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Sets the spotlight details of the template.
+     *
+     * @param spotlight The spotlight details.
+     */
+    public void setSpotlight(String spotlight) {
+        this.spotlight = spotlight;
+    }
+
+    /**
+     * Sets the provider of the template.
+     *
+     * @param provider The provider.
+     */
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Sets the Drive version of the master template file.
+     *
+     * @param version The version.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
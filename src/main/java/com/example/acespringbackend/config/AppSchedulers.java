@@ -0,0 +1,123 @@
+package com.example.acespringbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * AppSchedulers provides one named, bounded scheduler per external dependency, so that a slow upstream
+ * only exhausts its own threads instead of the shared Schedulers.boundedElastic() pool:
+ *
+ * - drive:    blocking Google Drive API calls
+ * - firebase: Firebase Admin SDK calls (ID token verification)
+ * - mail:     SMTP sends
+ * - pdf:      CPU-bound PDF parsing
+ *
+ * Concurrency and queue caps are configured under schedulers.&lt;name&gt;.thread-cap / queue-cap.
+ * schedulers.mode selects how the I/O schedulers (drive, firebase, mail) execute their tasks:
+ *
+ * - bounded-elastic (default): a bounded elastic pool of platform threads, thread-cap threads at most.
+ *   queue-cap is the number of queued tasks per worker thread, so up to thread-cap * queue-cap tasks
+ *   may wait in total.
+ * - virtual-threads: a JDK 21 virtual thread per task; a semaphore limits how many tasks of one upstream
+ *   run at once to thread-cap, and at most queue-cap further tasks may wait for a permit in total.
+ *
+ * The pdf scheduler always uses platform threads because its work is CPU-bound.
+ * Each scheduler is instrumented with Micrometer as io.scheduler.tasks.active / pending / completed /
+ * submitted, tagged with scheduler=&lt;name&gt;, which shows when one of them is saturated.
+ */
+@Component
+public class AppSchedulers {
+
+    private static final Logger log = LoggerFactory.getLogger(AppSchedulers.class);
+
+    private static final String METRICS_PREFIX = "io";
+    private static final int IDLE_THREAD_TTL_SECONDS = 60;
+
+    private final List<Scheduler> created = new ArrayList<>();
+    private final Scheduler drive;
+    private final Scheduler firebase;
+    private final Scheduler mail;
+    private final Scheduler pdf;
+
+    public AppSchedulers(MeterRegistry meterRegistry,
+                         @Value("${schedulers.mode:bounded-elastic}") String mode,
+                         @Value("${schedulers.drive.thread-cap:32}") int driveThreadCap,
+                         @Value("${schedulers.drive.queue-cap:10000}") int driveQueueCap,
+                         @Value("${schedulers.firebase.thread-cap:8}") int firebaseThreadCap,
+                         @Value("${schedulers.firebase.queue-cap:1000}") int firebaseQueueCap,
+                         @Value("${schedulers.mail.thread-cap:4}") int mailThreadCap,
+                         @Value("${schedulers.mail.queue-cap:1000}") int mailQueueCap,
+                         @Value("${schedulers.pdf.thread-cap:0}") int pdfThreadCap,
+                         @Value("${schedulers.pdf.queue-cap:256}") int pdfQueueCap) {
+        boolean virtualThreads = "virtual-threads".equalsIgnoreCase(mode);
+        if (!virtualThreads && !"bounded-elastic".equalsIgnoreCase(mode)) {
+            log.warn("AppSchedulers: Unknown schedulers.mode '{}'; using bounded-elastic.", mode);
+        }
+        int cpuThreads = pdfThreadCap > 0 ? pdfThreadCap : Runtime.getRuntime().availableProcessors();
+        this.drive = create("drive", driveThreadCap, driveQueueCap, virtualThreads, meterRegistry);
+        this.firebase = create("firebase", firebaseThreadCap, firebaseQueueCap, virtualThreads, meterRegistry);
+        this.mail = create("mail", mailThreadCap, mailQueueCap, virtualThreads, meterRegistry);
+        this.pdf = create("pdf", cpuThreads, pdfQueueCap, false, meterRegistry);
+    }
+
+    /**
+     * @return The scheduler for blocking Google Drive API calls.
+     */
+    public Scheduler drive() {
+        return drive;
+    }
+
+    /**
+     * @return The scheduler for blocking Firebase Admin SDK calls.
+     */
+    public Scheduler firebase() {
+        return firebase;
+    }
+
+    /**
+     * @return The scheduler for blocking SMTP sends.
+     */
+    public Scheduler mail() {
+        return mail;
+    }
+
+    /**
+     * @return The scheduler for CPU-bound PDF parsing.
+     */
+    public Scheduler pdf() {
+        return pdf;
+    }
+
+    private Scheduler create(String name, int threadCap, int queueCap, boolean virtualThreads, MeterRegistry meterRegistry) {
+        Scheduler scheduler;
+        if (virtualThreads) {
+            ThreadFactory threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+            scheduler = Schedulers.fromExecutorService(
+                    new LimitedVirtualThreadExecutor(name, threadCap, queueCap, threadFactory), name);
+        } else {
+            ThreadFactory threadFactory = Thread.ofPlatform().name(name + "-", 0).daemon(true).factory();
+            scheduler = Schedulers.newBoundedElastic(threadCap, queueCap, threadFactory, IDLE_THREAD_TTL_SECONDS);
+        }
+        created.add(scheduler);
+        log.info("AppSchedulers: Scheduler '{}' created with {} {} task(s) at once and a queue of {} task(s){}.",
+                name, threadCap, virtualThreads ? "virtual-thread" : "platform-thread", queueCap, virtualThreads ? "" : " per thread");
+        return Micrometer.timedScheduler(scheduler, meterRegistry, METRICS_PREFIX, Tags.of("scheduler", name));
+    }
+
+    @PreDestroy
+    public void dispose() {
+        created.forEach(Scheduler::dispose);
+    }
+}
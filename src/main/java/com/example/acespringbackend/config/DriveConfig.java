@@ -1,6 +1,7 @@
 package com.example.acespringbackend.config;
 
 import com.example.acespringbackend.service.DriveProperties;
+import com.example.acespringbackend.utility.DriveGovernor;
 import com.example.acespringbackend.utility.DriveUtility;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -54,10 +55,13 @@ public class DriveConfig {
      *
      * @param applicationContext The Spring ApplicationContext.
      * @param driveProperties The DriveProperties bean, auto-wired by Spring.
+     * @param driveGovernor The DriveGovernor that rate-limits and meters every Drive API call.
+     * @param appSchedulers The dedicated schedulers, of which DriveUtility uses the drive scheduler.
      * @return An instance of DriveUtility.
      */
     @Bean
-    public DriveUtility driveUtility(ApplicationContext applicationContext, DriveProperties driveProperties) {
-        return new DriveUtility(applicationContext, driveProperties);
+    public DriveUtility driveUtility(ApplicationContext applicationContext, DriveProperties driveProperties,
+                                     DriveGovernor driveGovernor, AppSchedulers appSchedulers) {
+        return new DriveUtility(applicationContext, driveProperties, driveGovernor, appSchedulers);
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.acespringbackend.config;
+
+import com.example.acespringbackend.utility.DriveGovernor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Applies the per-user Drive token bucket of {@link DriveGovernor} to the Drive endpoints.
+ * Requests within the user's rate pass straight through, short bursts are delayed, and requests
+ * that would have to wait too long are answered with 429 and a Retry-After header.
+ */
+@Component
+public class DriveRateLimitWebFilter implements WebFilter {
+
+    private static final String DRIVE_PATH_PREFIX = "/ace/drive/";
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"success\":false,\"message\":\"Too many Google Drive requests. Please retry shortly.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final DriveGovernor driveGovernor;
+
+    public DriveRateLimitWebFilter(DriveGovernor driveGovernor) {
+        this.driveGovernor = driveGovernor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(DRIVE_PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication != null && authentication.getName() != null)
+                .map(authentication -> authentication.getName())
+                .defaultIfEmpty(clientAddress(exchange))
+                .flatMap(userKey -> {
+                    long waitMillis = driveGovernor.reserveUserPermit(userKey);
+                    if (waitMillis < 0) {
+                        return tooManyRequests(exchange);
+                    }
+                    return waitMillis > 0
+                            ? Mono.delay(Duration.ofMillis(waitMillis)).then(Mono.defer(() -> chain.filter(exchange)))
+                            : chain.filter(exchange);
+                });
+    }
+
+    private static String clientAddress(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : "unknown";
+    }
+
+    private static Mono<Void> tooManyRequests(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = exchange.getResponse().bufferFactory().wrap(TOO_MANY_REQUESTS_BODY);
+        return exchange.getResponse().writeWith(Mono.just(body));
+    }
+}
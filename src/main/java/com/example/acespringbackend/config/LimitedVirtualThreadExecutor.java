@@ -0,0 +1,93 @@
+package com.example.acespringbackend.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that starts a virtual thread per task but lets at most maxConcurrency tasks run at once.
+ * Tasks beyond that wait, cheaply parked on a fair semaphore, and once maxQueued tasks are waiting
+ * further submissions are rejected, mirroring the thread and queue caps of a bounded elastic scheduler.
+ *
+ * Used by {@link AppSchedulers} when schedulers.mode=virtual-threads.
+ */
+final class LimitedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    LimitedVirtualThreadExecutor(String name, int maxConcurrency, int maxQueued, ThreadFactory virtualThreadFactory) {
+        this.name = name;
+        this.delegate = Executors.newThreadPerTaskExecutor(virtualThreadFactory);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (outstanding.incrementAndGet() > maxConcurrency + maxQueued) {
+            outstanding.decrementAndGet();
+            throw new RejectedExecutionException("Task capacity of scheduler '" + name + "' reached ("
+                    + maxConcurrency + " running, " + maxQueued + " queued).");
+        }
+        try {
+            delegate.execute(() -> runWithPermit(task));
+        } catch (RejectedExecutionException e) {
+            outstanding.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void runWithPermit(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            // Cancelled while waiting for a permit: the task never runs.
+            outstanding.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            task.run();
+        } finally {
+            permits.release();
+            outstanding.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
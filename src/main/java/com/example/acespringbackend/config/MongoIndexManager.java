@@ -0,0 +1,290 @@
+package com.example.acespringbackend.config;
+
+import com.example.acespringbackend.model.AccountDeletionJob;
+import com.example.acespringbackend.model.AtsJob;
+import com.example.acespringbackend.model.AtsResult;
+import com.example.acespringbackend.model.JwtExpiredToken;
+import com.example.acespringbackend.model.PooledTemplateCopy;
+import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.model.UserFile;
+import com.example.acespringbackend.model.UserFileTombstone;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * MongoIndexManager verifies at startup that every index declared on the entities
+ * (via @Indexed / @CompoundIndex) exists in MongoDB with the declared options (unique, sparse,
+ * expireAfterSeconds), and creates the missing ones. An index whose options differ is only reported,
+ * unless mongo.indexes.rebuild-on-option-drift is enabled: then a changed TTL is applied with collMod and
+ * any other difference by building the declared index under a temporary name first, so the existing index
+ * is only dropped once its replacement has been built over the whole collection.
+ *
+ * Spring Boot does not create annotated indexes on its own (auto-index-creation is off by default),
+ * so without this component the declarations are documentation only. After the indexes are in place
+ * it runs "explain" for the application's hot queries and warns about any that still fall back
+ * to a collection scan.
+ */
+@Component
+public class MongoIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    // Entities whose declared indexes are managed here.
+    private static final List<Class<?>> MANAGED_ENTITIES = List.of(
+            User.class, UserFile.class, AtsResult.class, JwtExpiredToken.class, UserFileTombstone.class,
+            PooledTemplateCopy.class, AccountDeletionJob.class, AtsJob.class);
+
+    // Filters of the queries issued on hot paths (login, file listing, ownership checks, ATS upserts).
+    private static final List<QueryProbe> QUERY_PROBES = List.of(
+            new QueryProbe("users", new Document("emailKey", "probe@example.com")),
+            new QueryProbe("users", new Document("githubId", "probe")),
+            new QueryProbe("user_files", new Document("emailKey", "probe@example.com")),
+            new QueryProbe("user_files", new Document("driveFileId", "probe")),
+            new QueryProbe("user_files", new Document("userId", "probe").append("driveFileId", "probe")),
+            new QueryProbe("atsResults", new Document("userEmail", "probe@example.com").append("fileName", "probe.pdf")));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${mongo.indexes.auto-create:true}")
+    private boolean autoCreate;
+
+    // Off by default: rebuilding an index on every instance that boots is a deliberate, reviewed step.
+    @Value("${mongo.indexes.rebuild-on-option-drift:false}")
+    private boolean rebuildOnOptionDrift;
+
+    @Value("${mongo.indexes.explain-on-startup:true}")
+    private boolean explainOnStartup;
+
+    public MongoIndexManager(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        verifyIndexes()
+                .then(Mono.defer(() -> explainOnStartup ? explainHotQueries() : Mono.empty()))
+                .subscribe(
+                        unused -> { },
+                        e -> log.error("MongoIndexManager: Index verification failed: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Compares the declared indexes of every managed entity with the indexes present in MongoDB.
+     * Missing indexes are reported and, when mongo.indexes.auto-create is enabled, created. Indexes with
+     * different options are reported and only corrected when mongo.indexes.rebuild-on-option-drift is enabled.
+     *
+     * @return Mono that completes when all collections have been checked.
+     */
+    public Mono<Void> verifyIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+
+        return Flux.fromIterable(MANAGED_ENTITIES)
+                .concatMap(entityClass -> mongoTemplate.indexOps(entityClass).getIndexInfo()
+                        .collectMap(MongoIndexManager::keySignature)
+                        .flatMapMany(existing -> Flux.fromStream(
+                                        StreamSupport.stream(resolver.resolveIndexFor(entityClass).spliterator(), false)
+                                                .map(IndexDefinition.class::cast))
+                                .concatMap(definition -> {
+                                    IndexInfo present = existing.get(keySignature(definition));
+                                    if (present == null) {
+                                        return ensureIndex(entityClass, definition);
+                                    }
+                                    IndexOptions declared = IndexOptions.of(definition);
+                                    IndexOptions actual = IndexOptions.of(present);
+                                    return declared.equals(actual)
+                                            ? Mono.<Void>empty()
+                                            : reconcileIndex(entityClass, definition, present, declared, actual);
+                                })))
+                .then();
+    }
+
+    private Mono<Void> ensureIndex(Class<?> entityClass, IndexDefinition definition) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        if (!autoCreate) {
+            log.warn("MongoIndexManager: Missing index {} on collection '{}' (auto-create disabled).",
+                    definition.getIndexKeys().toJson(), collection);
+            return Mono.empty();
+        }
+        log.warn("MongoIndexManager: Missing index {} on collection '{}'. Creating it.",
+                definition.getIndexKeys().toJson(), collection);
+        return mongoTemplate.indexOps(entityClass).ensureIndex(definition)
+                .doOnNext(name -> log.info("MongoIndexManager: Created index '{}' on collection '{}'.", name, collection))
+                .onErrorResume(e -> {
+                    // Typically a unique index that existing duplicate documents violate; keep starting up.
+                    log.error("MongoIndexManager: Could not create index {} on collection '{}': {}",
+                            definition.getIndexKeys().toJson(), collection, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Same keys, different options. MongoDB cannot hold both under the same name, so the existing index is
+    // changed in place (TTL) or replaced: the declared index is first built under a temporary name, and the
+    // existing one is only dropped once that succeeded. Any failure leaves the existing index in place.
+    private Mono<Void> reconcileIndex(Class<?> entityClass, IndexDefinition definition, IndexInfo present,
+                                      IndexOptions declared, IndexOptions actual) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        if (!rebuildOnOptionDrift) {
+            log.warn("MongoIndexManager: Index '{}' on collection '{}' has options {} but {} are declared "
+                            + "(set mongo.indexes.rebuild-on-option-drift to correct it).",
+                    present.getName(), collection, actual, declared);
+            return Mono.empty();
+        }
+        log.warn("MongoIndexManager: Index '{}' on collection '{}' has options {} but {} are declared. Updating it.",
+                present.getName(), collection, actual, declared);
+        Mono<Void> update;
+        if (declared.withExpireAfterSeconds(actual.expireAfterSeconds()).equals(actual)
+                && declared.expireAfterSeconds() != null && actual.expireAfterSeconds() != null) {
+            update = mongoTemplate.getMongoDatabase()
+                    .flatMap(database -> Mono.from(database.runCommand(new Document("collMod", collection)
+                            .append("index", new Document("keyPattern", definition.getIndexKeys())
+                                    .append("expireAfterSeconds", declared.expireAfterSeconds())))))
+                    .doOnNext(result -> log.info("MongoIndexManager: Changed the TTL of index '{}' on collection '{}' to {} s.",
+                            present.getName(), collection, declared.expireAfterSeconds()))
+                    .then();
+        } else {
+            update = rebuildIndex(entityClass, definition, present, collection);
+        }
+        return update.onErrorResume(e -> {
+            log.error("MongoIndexManager: Could not update index '{}' on collection '{}': {}",
+                    present.getName(), collection, e.getMessage());
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> rebuildIndex(Class<?> entityClass, IndexDefinition definition, IndexInfo present, String collection) {
+        String temporaryName = present.getName() + "_rebuild";
+        return createTemporaryIndex(collection, definition, temporaryName)
+                .onErrorResume(e -> {
+                    // Typically duplicates that violate a declared unique index; the existing index is kept.
+                    log.error("MongoIndexManager: Could not build replacement for index '{}' on collection '{}', keeping it: {}",
+                            present.getName(), collection, e.getMessage());
+                    return mongoTemplate.indexOps(entityClass).dropIndex(temporaryName)
+                            .onErrorResume(dropError -> Mono.empty())
+                            .then(Mono.<Boolean>empty());
+                })
+                .flatMap(built -> mongoTemplate.indexOps(entityClass).dropIndex(present.getName())
+                        .then(mongoTemplate.indexOps(entityClass).ensureIndex(definition))
+                        .flatMap(name -> mongoTemplate.indexOps(entityClass).dropIndex(temporaryName).thenReturn(name))
+                        .doOnNext(name -> log.info("MongoIndexManager: Recreated index '{}' on collection '{}'.", name, collection))
+                        .onErrorResume(e -> {
+                            // The temporary index covers the same keys, so queries stay index-backed meanwhile.
+                            log.error("MongoIndexManager: Could not finish rebuilding index '{}' on collection '{}'; "
+                                            + "temporary index '{}' is kept in its place: {}",
+                                    present.getName(), collection, temporaryName, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    // Builds the declared index under another name. A partial filter every indexed document matches lets MongoDB
+    // (5.0+) keep it next to the existing index on the same keys; sparse is expressed as that filter, as the two
+    // cannot be combined. Older servers reject it, which leaves the existing index untouched.
+    private Mono<Boolean> createTemporaryIndex(String collection, IndexDefinition definition, String temporaryName) {
+        Document spec = new Document(definition.getIndexOptions());
+        Object sparse = spec.remove("sparse");
+        String filterField = Boolean.TRUE.equals(sparse) ? definition.getIndexKeys().keySet().iterator().next() : "_id";
+        spec.put("key", definition.getIndexKeys());
+        spec.put("name", temporaryName);
+        spec.put("partialFilterExpression", new Document(filterField, new Document("$exists", true)));
+        return mongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.runCommand(new Document("createIndexes", collection)
+                        .append("indexes", List.of(spec)))))
+                .thenReturn(true);
+    }
+
+    /**
+     * Runs "explain" for each hot query and warns when the winning plan is a collection scan.
+     *
+     * @return Mono that completes when all probes have been explained.
+     */
+    public Mono<Void> explainHotQueries() {
+        return mongoTemplate.getMongoDatabase()
+                .flatMapMany(database -> Flux.fromIterable(QUERY_PROBES)
+                        .concatMap(probe -> Mono.from(database.runCommand(new Document("explain",
+                                        new Document("find", probe.collection()).append("filter", probe.filter()))
+                                        .append("verbosity", "queryPlanner")))
+                                .doOnNext(plan -> reportPlan(probe, plan))
+                                .onErrorResume(e -> {
+                                    log.warn("MongoIndexManager: Could not explain query {} on '{}': {}",
+                                            probe.filter().toJson(), probe.collection(), e.getMessage());
+                                    return Mono.empty();
+                                })))
+                .then();
+    }
+
+    private void reportPlan(QueryProbe probe, Document plan) {
+        Document queryPlanner = plan.get("queryPlanner", Document.class);
+        Object winningPlan = queryPlanner != null ? queryPlanner.get("winningPlan") : null;
+        String planJson = winningPlan instanceof Document document ? document.toJson() : String.valueOf(winningPlan);
+
+        if (planJson.contains("COLLSCAN")) {
+            log.warn("MongoIndexManager: Query {} on '{}' uses a collection scan. Winning plan: {}",
+                    probe.filter().toJson(), probe.collection(), planJson);
+        } else {
+            log.debug("MongoIndexManager: Query {} on '{}' is index-backed.", probe.filter().toJson(), probe.collection());
+        }
+    }
+
+    // Indexes are compared by their ordered key specification (e.g. "userId:1,driveFileId:1"), not by name,
+    // so an equivalent index created by hand under a different name is recognised.
+    private static String keySignature(IndexDefinition definition) {
+        return definition.getIndexKeys().entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static String keySignature(IndexInfo indexInfo) {
+        return indexInfo.getIndexFields().stream()
+                .map(MongoIndexManager::keySignature)
+                .collect(Collectors.joining(","));
+    }
+
+    private static String keySignature(IndexField field) {
+        if (field.getDirection() == null) {
+            return field.getKey() + ":" + (field.isText() ? "text" : "geo");
+        }
+        return field.getKey() + ":" + (field.getDirection() == Sort.Direction.ASC ? "1" : "-1");
+    }
+
+    // The index options this class keeps in line with the declarations.
+    private record IndexOptions(boolean unique, boolean sparse, Long expireAfterSeconds) {
+
+        static IndexOptions of(IndexDefinition definition) {
+            Document options = definition.getIndexOptions();
+            Object expireAfter = options.get("expireAfterSeconds");
+            return new IndexOptions(Boolean.TRUE.equals(options.get("unique")), Boolean.TRUE.equals(options.get("sparse")),
+                    expireAfter instanceof Number seconds ? seconds.longValue() : null);
+        }
+
+        static IndexOptions of(IndexInfo indexInfo) {
+            return new IndexOptions(indexInfo.isUnique(), indexInfo.isSparse(),
+                    indexInfo.getExpireAfter().map(Duration::getSeconds).orElse(null));
+        }
+
+        IndexOptions withExpireAfterSeconds(Long seconds) {
+            return new IndexOptions(unique, sparse, seconds);
+        }
+    }
+
+    private record QueryProbe(String collection, Document filter) {
+    }
+}
@@ -1,26 +1,47 @@
-    // src/main/java/com/example/acespringbackend/config/MultipartConfigLogger.java
-    package com.example.acespringbackend.config;
-
-    import org.springframework.beans.factory.annotation.Value;
-    import org.springframework.boot.CommandLineRunner;
-    import org.springframework.stereotype.Component;
-
-    @Component
-    public class MultipartConfigLogger implements CommandLineRunner {
-
-        @Value("${spring.servlet.multipart.max-file-size:1MB}") // Default to 1MB if not found
-        private String maxFileSize;
-
-        @Value("${spring.servlet.multipart.max-request-size:10MB}") // Default to 10MB if not found
-        private String maxRequestSize;
-
-        @Override
-        public void run(String... args) throws Exception {
-            System.out.println("-------------------------------------------------------");
-            System.out.println("Multipart Configuration Check:");
-            System.out.println("  spring.servlet.multipart.max-file-size: " + maxFileSize);
-            System.out.println("  spring.servlet.multipart.max-request-size: " + maxRequestSize);
-            System.out.println("-------------------------------------------------------");
-        }
+package com.example.acespringbackend.config;
+
+import com.example.acespringbackend.service.DriveProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the multipart limits that are actually in effect at startup.
+ *
+ * The spring.servlet.multipart.* properties only apply to the servlet stack and are ignored by WebFlux;
+ * uploads are limited by the multipart reader configured in {@link WebConfig} and by
+ * {@link UploadSizeLimitWebFilter}, so those are the values reported here. Routes apply their own,
+ * smaller limits below these reader-wide ceilings.
+ */
+@Component
+public class MultipartConfigLogger implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipartConfigLogger.class);
+
+    private final DriveProperties driveProperties;
+
+    @Value("${upload.multipart.max-in-memory-bytes:262144}")
+    private int maxInMemoryBytes;
+
+    @Value("${upload.multipart.max-parts:128}")
+    private int maxParts;
+
+    @Value("${upload.multipart.max-disk-usage-per-part:104857600}")
+    private long maxPartBytes;
+
+    public MultipartConfigLogger(DriveProperties driveProperties) {
+        this.driveProperties = driveProperties;
+    }
+
+    @Override
+    public void run(String... args) {
+        log.info("MultipartConfigLogger: Parts above {} bytes are streamed to disk; max {} part(s) per request.",
+                maxInMemoryBytes, maxParts);
+        log.info("MultipartConfigLogger: Max part size {} bytes; Drive uploads are limited to {} bytes per file.",
+                maxPartBytes, driveProperties.getMaxIndividualFileSizeBytes());
+        log.info("MultipartConfigLogger: Per-user Drive quota {} bytes, enforced while the upload is read.",
+                driveProperties.getMaxUserSpaceBytes());
     }
-    
\ No newline at end of file
+}
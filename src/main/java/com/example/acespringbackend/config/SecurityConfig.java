@@ -1,6 +1,7 @@
     package com.example.acespringbackend.config;
 
     import com.example.acespringbackend.service.JwtAuthenticationWebFilter;
+    import com.example.acespringbackend.service.UserAuthStateCache;
     import com.example.acespringbackend.utility.JwtUtility;
     import com.example.acespringbackend.config.JwtAuthenticationWebEntryPoint;
 
@@ -53,8 +54,8 @@
         }
 
         @Bean
-        public JwtAuthenticationWebFilter jwtAuthenticationWebFilter(JwtUtility jwtUtility) {
-            return new JwtAuthenticationWebFilter(jwtUtility, reactiveUserDetailsService);
+        public JwtAuthenticationWebFilter jwtAuthenticationWebFilter(JwtUtility jwtUtility, UserAuthStateCache userAuthStateCache) {
+            return new JwtAuthenticationWebFilter(jwtUtility, reactiveUserDetailsService, userAuthStateCache);
         }
 
         @Bean
@@ -0,0 +1,87 @@
+package com.example.acespringbackend.config;
+
+import com.example.acespringbackend.service.DriveProperties;
+import com.example.acespringbackend.service.UploadIngestionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Rejects multipart requests whose declared Content-Length already exceeds the largest acceptable upload
+ * for their route with 413, before any of the body is read. Each route's limit is its own file limit plus
+ * room for the other form fields:
+ *
+ * - /ace/drive/**: the Drive individual file limit,
+ * - /ats/checker/batch: the total size of a batch (ats.batch.max-total-bytes),
+ * - /ats/checker/**: the largest resume accepted for an ATS check (ats.jobs.max-file-bytes),
+ * - anything else: the reader-wide part ceiling (upload.multipart.max-disk-usage-per-part).
+ *
+ * Requests without a Content-Length (chunked) are left to the byte limits the endpoints apply while reading.
+ */
+@Component
+public class UploadSizeLimitWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSizeLimitWebFilter.class);
+
+    // A request limit for the paths starting with the prefix; the first matching entry applies.
+    private record RouteLimit(String pathPrefix, long maxRequestBytes, String message) {
+    }
+
+    private final List<RouteLimit> routeLimits;
+    private final long defaultMaxRequestBytes;
+    private final UploadIngestionMetrics uploadIngestionMetrics;
+
+    public UploadSizeLimitWebFilter(DriveProperties driveProperties, UploadIngestionMetrics uploadIngestionMetrics,
+                                    @Value("${upload.multipart.request-overhead-bytes:1048576}") long requestOverheadBytes,
+                                    @Value("${upload.multipart.max-disk-usage-per-part:104857600}") long maxPartBytes,
+                                    @Value("${ats.jobs.max-file-bytes:5242880}") long maxAtsFileBytes,
+                                    @Value("${ats.batch.max-total-bytes:104857600}") long maxBatchBytes) {
+        this.routeLimits = List.of(
+                new RouteLimit("/ace/drive/", driveProperties.getMaxIndividualFileSizeBytes() + requestOverheadBytes,
+                        "exceeds individual upload limit."),
+                new RouteLimit("/ats/checker/batch", maxBatchBytes + requestOverheadBytes, "exceeds the batch upload limit."),
+                new RouteLimit("/ats/checker/", maxAtsFileBytes + requestOverheadBytes, "exceeds the resume upload limit."));
+        this.defaultMaxRequestBytes = maxPartBytes + requestOverheadBytes;
+        this.uploadIngestionMetrics = uploadIngestionMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+        long contentLength = exchange.getRequest().getHeaders().getContentLength();
+        if (contentType == null || !MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
+            return chain.filter(exchange);
+        }
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        RouteLimit limit = routeLimits.stream()
+                .filter(route -> path.startsWith(route.pathPrefix()))
+                .findFirst()
+                .orElse(new RouteLimit("/", defaultMaxRequestBytes, "exceeds the upload limit."));
+        if (contentLength <= limit.maxRequestBytes()) {
+            return chain.filter(exchange);
+        }
+        log.warn("UploadSizeLimitWebFilter: Rejected {} multipart request of {} bytes (limit {} bytes).",
+                path, contentLength, limit.maxRequestBytes());
+        uploadIngestionMetrics.recordRejected(UploadIngestionMetrics.REASON_REQUEST_SIZE);
+
+        String message = String.format("Upload of %.2fMB %s", contentLength / (1024.0 * 1024.0), limit.message());
+        byte[] body = ("{\"success\":false,\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        // Tell the client not to keep sending the body we are not going to read.
+        exchange.getResponse().getHeaders().set("Connection", "close");
+        DataBuffer buffer = exchange.getResponse().bufferFactory().wrap(body);
+        return exchange.getResponse().writeWith(Mono.just(buffer));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.acespringbackend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
@@ -12,6 +13,18 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 @EnableWebFlux
 public class WebConfig implements WebFluxConfigurer {
 
+    // Parts up to this size stay in memory; larger ones are streamed to a temporary file as they arrive.
+    @Value("${upload.multipart.max-in-memory-bytes:262144}")
+    private int maxInMemoryBytes;
+
+    // Reader-wide ceilings shared by every multipart endpoint; each route applies its own, smaller limits
+    // (UploadSizeLimitWebFilter for the declared request size, the endpoints while reading each part).
+    @Value("${upload.multipart.max-disk-usage-per-part:104857600}")
+    private long maxDiskUsagePerPart;
+
+    @Value("${upload.multipart.max-parts:128}")
+    private int maxParts;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -33,7 +46,10 @@ public class WebConfig implements WebFluxConfigurer {
     @Override
     public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
         DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
-        partReader.setMaxInMemorySize(10 * 1024 * 1024); // 10 MB
+        partReader.setMaxInMemorySize(maxInMemoryBytes);
+        // No single part may exceed the global ceiling; the reader aborts the request as soon as it does.
+        partReader.setMaxDiskUsagePerPart(maxDiskUsagePerPart);
+        partReader.setMaxParts(maxParts);
         MultipartHttpMessageReader multipartReader = new MultipartHttpMessageReader(partReader);
         configurer.defaultCodecs().multipartReader(multipartReader);
     }
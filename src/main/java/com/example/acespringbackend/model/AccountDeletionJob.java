@@ -0,0 +1,77 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Persistent state of an account deletion. The id is the deleted user's id, so requesting the
+ * deletion of the same account twice yields the same job. Each cleanup step records its completion,
+ * which lets an interrupted or failed job resume with only the steps that are still outstanding.
+ * Completed jobs are kept for 30 days so clients can still query their status.
+ */
+@Document(collection = "account_deletion_jobs")
+public class AccountDeletionJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id; // The user's id
+    @Indexed
+    private String emailKey;
+    private String email;
+    private String driveFolderId;
+    @Indexed
+    private Status status;
+    private boolean driveFolderTrashed;
+    private boolean recordsDeleted; // user_files, sync state, tombstones and ATS results
+    private boolean userDeleted;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+    @Indexed(name = "completedAt_ttl", expireAfterSeconds = 30 * 24 * 60 * 60)
+    private Instant completedAt;
+
+    public AccountDeletionJob() {
+    }
+
+    public AccountDeletionJob(String id, String email, String emailKey, String driveFolderId, Instant createdAt) {
+        this.id = id;
+        this.email = email;
+        this.emailKey = emailKey;
+        this.driveFolderId = driveFolderId;
+        this.status = Status.PENDING;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getEmailKey() { return emailKey; }
+    public void setEmailKey(String emailKey) { this.emailKey = emailKey; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getDriveFolderId() { return driveFolderId; }
+    public void setDriveFolderId(String driveFolderId) { this.driveFolderId = driveFolderId; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public boolean isDriveFolderTrashed() { return driveFolderTrashed; }
+    public void setDriveFolderTrashed(boolean driveFolderTrashed) { this.driveFolderTrashed = driveFolderTrashed; }
+    public boolean isRecordsDeleted() { return recordsDeleted; }
+    public void setRecordsDeleted(boolean recordsDeleted) { this.recordsDeleted = recordsDeleted; }
+    public boolean isUserDeleted() { return userDeleted; }
+    public void setUserDeleted(boolean userDeleted) { this.userDeleted = userDeleted; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+}
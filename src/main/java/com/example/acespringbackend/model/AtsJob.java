@@ -0,0 +1,98 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Persistent state of an asynchronous ATS check. The id is a hash of the submitter and the complete
+ * input (file content, check type, job title and description), so submitting the same check twice yields
+ * the same job instead of a second Gemini call. The uploaded file is kept on the job until it has been
+ * processed, which lets another instance pick up a job whose instance went down.
+ * Finished jobs are kept for 7 days; the scored result itself is also saved to atsResults as before.
+ */
+@Document(collection = "ats_jobs")
+@CompoundIndexes({
+        @CompoundIndex(name = "userEmail_status", def = "{'userEmail': 1, 'status': 1}"),
+        @CompoundIndex(name = "status_updatedAt", def = "{'status': 1, 'updatedAt': 1}")
+})
+public class AtsJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id;
+    private String userEmail;
+    private String userId;
+    private String fileName;
+    private byte[] fileBytes; // Cleared once the job has finished
+    private boolean deepCheck;
+    private String jobTitle;
+    private String jobDescription;
+    private Status status;
+    private int attempts;
+    private String score;
+    private String fullAtsResponse;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant updatedAt;
+    @Indexed(name = "finishedAt_ttl", expireAfterSeconds = 7 * 24 * 60 * 60)
+    private Instant finishedAt;
+
+    public AtsJob() {
+    }
+
+    public AtsJob(String id, String userEmail, String userId, String fileName, byte[] fileBytes, boolean deepCheck,
+                  String jobTitle, String jobDescription, Instant createdAt) {
+        this.id = id;
+        this.userEmail = userEmail;
+        this.userId = userId;
+        this.fileName = fileName;
+        this.fileBytes = fileBytes;
+        this.deepCheck = deepCheck;
+        this.jobTitle = jobTitle;
+        this.jobDescription = jobDescription;
+        this.status = Status.PENDING;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public boolean isFinished() { return status == Status.COMPLETED || status == Status.FAILED; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public byte[] getFileBytes() { return fileBytes; }
+    public void setFileBytes(byte[] fileBytes) { this.fileBytes = fileBytes; }
+    public boolean isDeepCheck() { return deepCheck; }
+    public void setDeepCheck(boolean deepCheck) { this.deepCheck = deepCheck; }
+    public String getJobTitle() { return jobTitle; }
+    public void setJobTitle(String jobTitle) { this.jobTitle = jobTitle; }
+    public String getJobDescription() { return jobDescription; }
+    public void setJobDescription(String jobDescription) { this.jobDescription = jobDescription; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getScore() { return score; }
+    public void setScore(String score) { this.score = score; }
+    public String getFullAtsResponse() { return fullAtsResponse; }
+    public void setFullAtsResponse(String fullAtsResponse) { this.fullAtsResponse = fullAtsResponse; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,28 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ATS jobs a user has pending or running, one document per user keyed by the normalized email.
+ * A job id is added with a single conditional update that only matches while the list is below the
+ * per-user limit, so concurrent submissions cannot exceed it; ids are removed when their job finishes.
+ */
+@Document(collection = "ats_job_slots")
+public class AtsJobSlots {
+
+    @Id
+    private String id; // Normalized email of the user
+    private List<String> jobIds = new ArrayList<>();
+
+    public AtsJobSlots() {
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public List<String> getJobIds() { return jobIds; }
+    public void setJobIds(List<String> jobIds) { this.jobIds = jobIds; }
+}
@@ -2,12 +2,14 @@
 package com.example.acespringbackend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Document(collection = "atsResults")
+@CompoundIndex(name = "userEmail_fileName", def = "{'userEmail': 1, 'fileName': 1}", unique = true)
 public class AtsResult {
 
     @Id
@@ -0,0 +1,94 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-user change counter for the user_files collection. Every upload, replication, rename
+ * and deletion of one of the user's files takes the next value, which clients use for
+ * delta sync ("give me everything that changed since version N") and as the basis of the
+ * listing ETag. Kept in its own collection so that saving a User never overwrites it.
+ *
+ * A version is reserved before the change carrying it is saved, so reservations whose save has not
+ * finished yet are listed in inFlight; listings only report versions below all of them. marks
+ * record (at most daily) which version was current when, which tells how far back tombstones reach.
+ */
+@Document(collection = "user_file_sync")
+public class FileSyncState {
+
+    @Id
+    private String id; // The user's id
+    private long version; // Last reserved version
+    private List<Reservation> inFlight = new ArrayList<>();
+    private List<Mark> marks = new ArrayList<>();
+    private Instant lastMarkAt;
+
+    public FileSyncState() {
+    }
+
+    public FileSyncState(String id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    /**
+     * Versions from..to were reserved at 'at' and their change has not been saved yet.
+     */
+    public static class Reservation {
+        private long from;
+        private long to;
+        private Instant at;
+
+        public Reservation() {
+        }
+
+        public Reservation(long from, long to, Instant at) {
+            this.from = from;
+            this.to = to;
+            this.at = at;
+        }
+
+        public long getFrom() { return from; }
+        public void setFrom(long from) { this.from = from; }
+        public long getTo() { return to; }
+        public void setTo(long to) { this.to = to; }
+        public Instant getAt() { return at; }
+        public void setAt(Instant at) { this.at = at; }
+    }
+
+    /**
+     * Every version from 'version' on was reserved at or after 'at'.
+     */
+    public static class Mark {
+        private long version;
+        private Instant at;
+
+        public Mark() {
+        }
+
+        public Mark(long version, Instant at) {
+            this.version = version;
+            this.at = at;
+        }
+
+        public long getVersion() { return version; }
+        public void setVersion(long version) { this.version = version; }
+        public Instant getAt() { return at; }
+        public void setAt(Instant at) { this.at = at; }
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public List<Reservation> getInFlight() { return inFlight; }
+    public void setInFlight(List<Reservation> inFlight) { this.inFlight = inFlight; }
+    public List<Mark> getMarks() { return marks; }
+    public void setMarks(List<Mark> marks) { this.marks = marks; }
+    public Instant getLastMarkAt() { return lastMarkAt; }
+    public void setLastMarkAt(Instant lastMarkAt) { this.lastMarkAt = lastMarkAt; }
+}
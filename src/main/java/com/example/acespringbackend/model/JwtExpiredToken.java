@@ -1,22 +1,24 @@
 package com.example.acespringbackend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.Field; // It's good practice to explicitly map field names if they might differ or for clarity
 
 import java.time.Instant;
 import java.util.Objects;
 
+/**
+ * A password reset token record. The raw JWT is never stored: the document id is the
+ * SHA-256 hash of the token (see JwtUtility.hashToken), so lookups are primary-key reads.
+ * MongoDB removes records automatically once their expiration time has passed.
+ */
 @Document(collection = "jwtExpiredTokens")
 public class JwtExpiredToken {
 
     @Id
-    private String id; // This can be the JWT token itself or a hash of it
-
-    // CHANGE THIS LINE: from ExpirationToken to token
-    @Field("token") // Explicitly map to "token" in MongoDB for clarity
-    private String token; // Store the full token string
+    private String id; // SHA-256 hash of the JWT
 
+    @Indexed(name = "expirationTime_ttl", expireAfterSeconds = 0) // TTL index: expire at expirationTime
     private Instant expirationTime;
     private boolean used;
     private Instant issuedAt;
@@ -24,9 +26,8 @@ public class JwtExpiredToken {
     public JwtExpiredToken() {
     }
 
-    public JwtExpiredToken(String id, String token, Instant expirationTime, boolean used, Instant issuedAt) {
+    public JwtExpiredToken(String id, Instant expirationTime, boolean used, Instant issuedAt) {
         this.id = id;
-        this.token = token; // Update assignment here too
         this.expirationTime = expirationTime;
         this.used = used;
         this.issuedAt = issuedAt;
@@ -38,11 +39,6 @@ public class JwtExpiredToken {
         return id;
     }
 
-    // This getter is now directly for the 'token' field
-    public String getToken() {
-        return token;
-    }
-
     public Instant getExpirationTime() {
         return expirationTime;
     }
@@ -61,11 +57,6 @@ public class JwtExpiredToken {
         this.id = id;
     }
 
-    // This setter is now directly for the 'token' field
-    public void setToken(String token) {
-        this.token = token;
-    }
-
     public void setExpirationTime(Instant expirationTime) {
         this.expirationTime = expirationTime;
     }
@@ -84,7 +75,6 @@ public class JwtExpiredToken {
     public String toString() {
         return "JwtExpiredToken{" +
                "id='" + id + '\'' +
-               ", token='" + "[PROTECTED]" + '\'' + // Mask token for security
                ", expirationTime=" + expirationTime +
                ", used=" + used +
                ", issuedAt=" + issuedAt +
@@ -98,13 +88,12 @@ public class JwtExpiredToken {
         JwtExpiredToken that = (JwtExpiredToken) o;
         return used == that.used &&
                Objects.equals(id, that.id) &&
-               Objects.equals(token, that.token) && // Update here as well
                Objects.equals(expirationTime, that.expirationTime) &&
                Objects.equals(issuedAt, that.issuedAt);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, token, expirationTime, used, issuedAt); // Update here as well
+        return Objects.hash(id, expirationTime, used, issuedAt);
     }
-}
\ No newline at end of file
+}
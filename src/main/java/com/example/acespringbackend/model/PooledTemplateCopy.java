@@ -0,0 +1,46 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A pre-copied instance of a master template waiting in the warm pool folder on Drive.
+ * Claiming one (find-and-modify setting {@code claimedUntil}) hands it to exactly one user, who gets
+ * it moved and renamed into their folder instead of waiting for a full Drive copy. The record is
+ * removed once the move succeeded; until then the claim is only a lease.
+ */
+@Document(collection = "template_pool")
+@CompoundIndex(name = "templateDriveId_createdAt", def = "{'templateDriveId': 1, 'createdAt': 1}")
+public class PooledTemplateCopy {
+
+    @Id
+    private String id; // Drive file id of the pre-copied instance
+    private String templateDriveId; // Drive file id of the master template it was copied from
+    private Long templateVersion; // Drive version of the master template when it was copied
+    private Instant createdAt;
+    private Instant claimedUntil; // Set while a claim is moving the copy; null when available
+
+    public PooledTemplateCopy() {
+    }
+
+    public PooledTemplateCopy(String id, String templateDriveId, Long templateVersion, Instant createdAt) {
+        this.id = id;
+        this.templateDriveId = templateDriveId;
+        this.templateVersion = templateVersion;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTemplateDriveId() { return templateDriveId; }
+    public void setTemplateDriveId(String templateDriveId) { this.templateDriveId = templateDriveId; }
+    public Long getTemplateVersion() { return templateVersion; }
+    public void setTemplateVersion(Long templateVersion) { this.templateVersion = templateVersion; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(Instant claimedUntil) { this.claimedUntil = claimedUntil; }
+}
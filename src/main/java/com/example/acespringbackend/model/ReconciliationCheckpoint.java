@@ -0,0 +1,33 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of the Drive/MongoDB reconciliation. Users are reconciled in _id order and lastUserId is
+ * saved after each one, so a run interrupted by a restart continues where it stopped. leaseUntil keeps
+ * a second application instance from running the same pass concurrently.
+ */
+@Document(collection = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+
+    @Id
+    private String id; // Name of the reconciliation, e.g. "drive"
+    private String lastUserId; // Last user fully reconciled in the current pass; null when a pass starts
+    private Instant leaseUntil;
+    private Instant lastPassCompletedAt;
+
+    public ReconciliationCheckpoint() {
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getLastUserId() { return lastUserId; }
+    public void setLastUserId(String lastUserId) { this.lastUserId = lastUserId; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+    public Instant getLastPassCompletedAt() { return lastPassCompletedAt; }
+    public void setLastPassCompletedAt(Instant lastPassCompletedAt) { this.lastPassCompletedAt = lastPassCompletedAt; }
+}
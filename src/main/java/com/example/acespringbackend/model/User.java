@@ -1,11 +1,14 @@
 package com.example.acespringbackend.model;
 
 import org.springframework.data.annotation.Id;
+import com.example.acespringbackend.utility.EmailNormalizer;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
@@ -19,7 +22,10 @@ public class User implements UserDetails {
     @Id
     private String id;
     private String username;
+    @Indexed(unique = true)
     private String email;
+    @Indexed(unique = true, sparse = true)
+    private String emailKey; // Canonical (trimmed, lower-cased) email used for all lookups
     private String password;
     private Boolean emailVerified;
     private String imageUrl;
@@ -36,6 +42,7 @@ public class User implements UserDetails {
     private String linkedinProfileUrl;
 
     // GitHub-specific fields
+    @Indexed(sparse = true)
     private String githubId;
     private String githubLogin;
     private String githubHtmlUrl;
@@ -56,6 +63,9 @@ public class User implements UserDetails {
     private boolean credentialsNonExpired = true;
     private boolean accountNonExpired = true;
 
+    // Tokens issued before this instant are rejected (set on password reset and other revocations)
+    private Instant tokensValidAfter;
+
     // --- Constructors ---
     public User() {}
 
@@ -69,6 +79,7 @@ public class User implements UserDetails {
         this.id = id;
         this.username = username;
         this.email = email;
+        this.emailKey = EmailNormalizer.normalize(email);
         this.password = password;
         this.emailVerified = emailVerified;
         this.imageUrl = imageUrl;
@@ -106,7 +117,12 @@ public class User implements UserDetails {
     public String getUsernameField() { return username; } // Renamed to avoid clash with UserDetails.getUsername()
     public void setUsernameField(String username) { this.username = username; }
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailKey = EmailNormalizer.normalize(email);
+    }
+    public String getEmailKey() { return emailKey; }
+    public void setEmailKey(String emailKey) { this.emailKey = emailKey; }
     @Override
     public String getPassword() { return password; } // UserDetails method
     public void setPassword(String password) { this.password = password; }
@@ -158,6 +174,8 @@ public class User implements UserDetails {
     public void setAccountNonLocked(boolean accountNonLocked) { this.accountNonLocked = accountNonLocked; }
     public void setCredentialsNonExpired(boolean credentialsNonExpired) { this.credentialsNonExpired = credentialsNonExpired; }
     public void setAccountNonExpired(boolean accountNonExpired) { this.accountNonExpired = accountNonExpired; }
+    public Instant getTokensValidAfter() { return tokensValidAfter; }
+    public void setTokensValidAfter(Instant tokensValidAfter) { this.tokensValidAfter = tokensValidAfter; }
 
 
     // --- Enum Definition ---
@@ -197,6 +215,7 @@ public class User implements UserDetails {
                 "id='" + id + '\'' +
                 ", username='" + username + '\'' +
                 ", email='" + email + '\'' +
+                ", emailKey='" + emailKey + '\'' +
                 ", password='" + "[PROTECTED]" + '\'' +
                 ", emailVerified=" + emailVerified +
                 ", imageUrl='" + imageUrl + '\'' +
@@ -224,6 +243,7 @@ public class User implements UserDetails {
                 ", accountNonLocked=" + accountNonLocked +
                 ", credentialsNonExpired=" + credentialsNonExpired +
                 ", accountNonExpired=" + accountNonExpired +
+                ", tokensValidAfter=" + tokensValidAfter +
                 '}';
     }
 
@@ -240,6 +260,7 @@ public class User implements UserDetails {
                 Objects.equals(id, user.id) &&
                 Objects.equals(username, user.username) &&
                 Objects.equals(email, user.email) &&
+                Objects.equals(emailKey, user.emailKey) &&
                 Objects.equals(password, user.password) &&
                 Objects.equals(emailVerified, user.emailVerified) &&
                 Objects.equals(imageUrl, user.imageUrl) &&
@@ -261,15 +282,16 @@ public class User implements UserDetails {
                 Objects.equals(githubPublicRepos, user.githubPublicRepos) &&
                 Objects.equals(githubFollowers, user.githubFollowers) &&
                 Objects.equals(githubFollowing, user.githubFollowing) &&
-                Objects.equals(roles, user.roles);
+                Objects.equals(roles, user.roles) &&
+                Objects.equals(tokensValidAfter, user.tokensValidAfter);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, username, email, password, emailVerified, imageUrl, accessToken, firebaseIdToken,
+        return Objects.hash(id, username, email, emailKey, password, emailVerified, imageUrl, accessToken, firebaseIdToken,
                 authProvider, signInProvider, createdAt, lastLogin, driveFolderId, linkedinProfileUrl,
                 githubId, githubLogin, githubHtmlUrl, githubProfileUrl, githubCompany, githubLocation,
                 githubBio, githubPublicRepos, githubFollowers, githubFollowing, currentDriveUsageBytes, roles,
-                enabled, accountNonLocked, credentialsNonExpired, accountNonExpired);
+                enabled, accountNonLocked, credentialsNonExpired, accountNonExpired, tokensValidAfter);
     }
 }
\ No newline at end of file
@@ -1,15 +1,28 @@
 package com.example.acespringbackend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import com.example.acespringbackend.utility.EmailNormalizer;
 import java.time.LocalDateTime;
 
 @Document(collection = "user_files")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_driveFileId", def = "{'userId': 1, 'driveFileId': 1}"),
+        // Serves listings by owner, newest first, including keyset pagination on (uploadedAt, _id)
+        @CompoundIndex(name = "emailKey_uploadedAt_id", def = "{'emailKey': 1, 'uploadedAt': -1, '_id': -1}"),
+        // Serves delta sync: files of a user changed after a given version
+        @CompoundIndex(name = "userId_changeVersion", def = "{'userId': 1, 'changeVersion': 1}")
+})
 public class UserFile {
     @Id
     private String id;
     private String userId; // Keep this if you still want to link to User by ID
     private String email; // ADD THIS FIELD if it's not already there
+    private String emailKey; // Canonical (trimmed, lower-cased) owner email; listings query by this
+    @Indexed
     private String driveFileId;
     private String filename;
     private String mimeType;
@@ -26,6 +39,7 @@ public class UserFile {
     private String templateSpotlight;
     private String templateProvider;
     private String originalTemplateDriveId;
+    private Long changeVersion; // Per-user change version of the last mutation (see FileSyncState)
 
     // Getters and Setters for all fields
     public String getId() { return id; }
@@ -34,7 +48,9 @@ public class UserFile {
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
     public String getEmail() { return email; } // Getter for the new email field
-    public void setEmail(String email) { this.email = email; } // Setter for the new email field
+    public void setEmail(String email) { this.email = email; this.emailKey = EmailNormalizer.normalize(email); } // Also sets emailKey
+    public String getEmailKey() { return emailKey; }
+    public void setEmailKey(String emailKey) { this.emailKey = emailKey; }
     public String getDriveFileId() { return driveFileId; }
     public void setDriveFileId(String driveFileId) { this.driveFileId = driveFileId; }
     public String getFilename() { return filename; }
@@ -67,4 +83,6 @@ public class UserFile {
     public void setTemplateProvider(String templateProvider) { this.templateProvider = templateProvider; }
     public String getOriginalTemplateDriveId() { return originalTemplateDriveId; }
     public void setOriginalTemplateDriveId(String originalTemplateDriveId) { this.originalTemplateDriveId = originalTemplateDriveId; }
+    public Long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(Long changeVersion) { this.changeVersion = changeVersion; }
 }
\ No newline at end of file
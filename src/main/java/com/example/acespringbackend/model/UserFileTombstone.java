@@ -0,0 +1,52 @@
+package com.example.acespringbackend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marker left behind when a UserFile is deleted, so delta-sync clients learn about the deletion.
+ * Tombstones expire after 30 days; clients that have not synced for longer must do a full listing.
+ */
+@Document(collection = "user_file_tombstones")
+@CompoundIndex(name = "userId_version", def = "{'userId': 1, 'version': 1}")
+public class UserFileTombstone {
+
+    public static final int RETENTION_SECONDS = 30 * 24 * 60 * 60;
+
+    @Id
+    private String id;
+    private String userId;
+    private String mongoFileId; // Id of the deleted UserFile document
+    private String driveFileId;
+    private long version;
+    @Indexed(name = "deletedAt_ttl", expireAfterSeconds = RETENTION_SECONDS)
+    private Instant deletedAt;
+
+    public UserFileTombstone() {
+    }
+
+    public UserFileTombstone(String userId, String mongoFileId, String driveFileId, long version, Instant deletedAt) {
+        this.userId = userId;
+        this.mongoFileId = mongoFileId;
+        this.driveFileId = driveFileId;
+        this.version = version;
+        this.deletedAt = deletedAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getMongoFileId() { return mongoFileId; }
+    public void setMongoFileId(String mongoFileId) { this.mongoFileId = mongoFileId; }
+    public String getDriveFileId() { return driveFileId; }
+    public void setDriveFileId(String driveFileId) { this.driveFileId = driveFileId; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+}
@@ -0,0 +1,24 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.JwtExpiredToken;
+import reactor.core.publisher.Mono;
+
+/**
+ * Atomic operations on password reset token records that derived queries cannot express.
+ */
+public interface JwtExpiredTokenRepositoryCustom {
+
+    /**
+     * Atomically marks the token record as used, but only if it is currently unused and not expired.
+     * @param tokenHash The SHA-256 hash of the token (the record id).
+     * @return Mono<JwtExpiredToken> emitting the updated record, or empty if the token is unknown, already used or expired.
+     */
+    Mono<JwtExpiredToken> consumeIfUnused(String tokenHash);
+
+    /**
+     * Reverts a previous {@link #consumeIfUnused} so the token can be retried, e.g. when the password update failed.
+     * @param tokenHash The SHA-256 hash of the token (the record id).
+     * @return Mono<Boolean> emitting true if a record was released.
+     */
+    Mono<Boolean> release(String tokenHash);
+}
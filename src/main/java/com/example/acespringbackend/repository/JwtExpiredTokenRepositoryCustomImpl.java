@@ -0,0 +1,38 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.JwtExpiredToken;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public class JwtExpiredTokenRepositoryCustomImpl implements JwtExpiredTokenRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public JwtExpiredTokenRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<JwtExpiredToken> consumeIfUnused(String tokenHash) {
+        Query query = Query.query(Criteria.where("_id").is(tokenHash)
+                .and("used").is(false)
+                .and("expirationTime").gt(Instant.now()));
+        return mongoTemplate.findAndModify(query,
+                new Update().set("used", true),
+                FindAndModifyOptions.options().returnNew(true),
+                JwtExpiredToken.class);
+    }
+
+    @Override
+    public Mono<Boolean> release(String tokenHash) {
+        Query query = Query.query(Criteria.where("_id").is(tokenHash).and("used").is(true));
+        return mongoTemplate.updateFirst(query, new Update().set("used", false), JwtExpiredToken.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+}
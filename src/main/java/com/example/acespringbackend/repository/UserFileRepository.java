@@ -44,7 +44,7 @@ import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface UserFileRepository extends ReactiveMongoRepository<UserFile, String> {
+public interface UserFileRepository extends ReactiveMongoRepository<UserFile, String>, UserFileRepositoryCustom {
 
     Mono<UserFile> findByDriveFileId(String driveFileId);
 
@@ -62,4 +62,11 @@ public interface UserFileRepository extends ReactiveMongoRepository<UserFile, St
      * @return A Flux emitting all UserFiles for the given email.
      */
     Flux<UserFile> findByEmail(String email);
+
+    /**
+     * Finds all UserFiles of a user by the canonical email key (see EmailNormalizer). Backed by an index.
+     * @param emailKey The normalized email address of the user.
+     * @return A Flux emitting all UserFiles for the given email key.
+     */
+    Flux<UserFile> findByEmailKey(String emailKey);
 }
\ No newline at end of file
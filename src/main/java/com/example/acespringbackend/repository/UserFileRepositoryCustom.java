@@ -0,0 +1,35 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.UserFile;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing queries on user_files that derived queries cannot express (keyset pagination, projections).
+ */
+public interface UserFileRepositoryCustom {
+
+    /**
+     * Streams a user's files newest first (uploadedAt desc, _id desc), projected to the fields needed
+     * for a file listing. Pagination is keyset-based: pass the uploadedAt and id of the last file of the
+     * previous page to continue after it, or nulls to start from the newest file.
+     *
+     * @param emailKey        The canonical email key of the owner.
+     * @param afterUploadedAt uploadedAt of the last file already returned (may be null, also for files without uploadedAt).
+     * @param afterId         id of the last file already returned, or null for the first page.
+     * @param limit           Maximum number of files to return; 0 or less means no limit.
+     * @return A Flux emitting the (partially populated) UserFiles.
+     */
+    Flux<UserFile> findListingPage(String emailKey, LocalDateTime afterUploadedAt, String afterId, int limit);
+
+    /**
+     * Streams a user's files whose changeVersion is greater than the given version, oldest change first,
+     * projected to the listing fields.
+     *
+     * @param userId The owner's user id.
+     * @param since  The last version the client has seen.
+     * @return A Flux emitting the changed (partially populated) UserFiles.
+     */
+    Flux<UserFile> findChangedSince(String userId, long since);
+}
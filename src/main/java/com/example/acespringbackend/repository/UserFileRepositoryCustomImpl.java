@@ -0,0 +1,58 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.UserFile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public class UserFileRepositoryCustomImpl implements UserFileRepositoryCustom {
+
+    // Only the fields a FileDetail is built from are read back from MongoDB.
+    private static final String[] LISTING_FIELDS = {
+            "_id", "driveFileId", "filename", "mimeType", "size", "uploadedAt", "webViewLink", "templateProvider", "changeVersion"
+    };
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public UserFileRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<UserFile> findListingPage(String emailKey, LocalDateTime afterUploadedAt, String afterId, int limit) {
+        Criteria criteria = Criteria.where("emailKey").is(emailKey);
+
+        if (afterId != null) {
+            if (afterUploadedAt != null) {
+                // Strictly older files, files with the same timestamp but a smaller id, and files without a timestamp
+                // (those sort last in descending order).
+                criteria = criteria.orOperator(
+                        Criteria.where("uploadedAt").lt(afterUploadedAt),
+                        Criteria.where("uploadedAt").is(afterUploadedAt).and("_id").lt(afterId),
+                        Criteria.where("uploadedAt").is(null));
+            } else {
+                criteria = criteria.and("uploadedAt").is(null).and("_id").lt(afterId);
+            }
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("uploadedAt"), Sort.Order.desc("_id")));
+        query.fields().include(LISTING_FIELDS);
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return mongoTemplate.find(query, UserFile.class);
+    }
+
+    @Override
+    public Flux<UserFile> findChangedSince(String userId, long since) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("changeVersion").gt(since))
+                .with(Sort.by(Sort.Order.asc("changeVersion")));
+        query.fields().include(LISTING_FIELDS);
+        return mongoTemplate.find(query, UserFile.class);
+    }
+}
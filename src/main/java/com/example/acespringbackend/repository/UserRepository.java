@@ -1,13 +1,30 @@
 package com.example.acespringbackend.repository;
 
 import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.utility.EmailNormalizer;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Mono;
 
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserRepositoryCustom {
 
     Mono<User> findByEmail(String email);
 
+    Mono<User> findByEmailKey(String emailKey);
+
+    /**
+     * Finds a user by email regardless of case or surrounding whitespace, using the indexed emailKey.
+     * Falls back to an exact match on 'email' for records that predate emailKey and have not been backfilled yet.
+     * @param email The email address as supplied by the caller.
+     * @return Mono<User> emitting the user, or empty if none matches.
+     */
+    default Mono<User> findByNormalizedEmail(String email) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        return findByEmailKey(EmailNormalizer.normalize(email))
+                .switchIfEmpty(Mono.defer(() -> findByEmail(email)));
+    }
+
     Mono<User> findByGithubId(String githubId);
 
 }
\ No newline at end of file
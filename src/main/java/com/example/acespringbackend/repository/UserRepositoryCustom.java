@@ -0,0 +1,26 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Atomic operations on user records that derived queries cannot express.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Atomically adds to the user's Drive usage counter, without rewriting the rest of the document.
+     * @param userId The user's id.
+     * @param deltaBytes The number of bytes to add (negative to release space).
+     * @return Mono<User> emitting the updated user, or empty if no user has that id.
+     */
+    Mono<User> incrementDriveUsage(String userId, long deltaBytes);
+
+    /**
+     * Atomically releases Drive usage, never taking the counter below zero.
+     * @param userId The user's id.
+     * @param bytes The number of bytes to release.
+     * @return Mono<User> emitting the updated user, or empty if no user has that id.
+     */
+    Mono<User> decrementDriveUsage(String userId, long bytes);
+}
@@ -0,0 +1,41 @@
+package com.example.acespringbackend.repository;
+
+import com.example.acespringbackend.model.User;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<User> incrementDriveUsage(String userId, long deltaBytes) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("currentDriveUsageBytes", deltaBytes),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+    }
+
+    @Override
+    public Mono<User> decrementDriveUsage(String userId, long bytes) {
+        return incrementDriveUsage(userId, -bytes)
+                .flatMap(user -> user.getCurrentDriveUsageBytes() >= 0
+                        ? Mono.just(user)
+                        // Usage was out of step with the files (the reconciliation corrects it); clamp, but only if still negative.
+                        : mongoTemplate.findAndModify(
+                                        Query.query(Criteria.where("_id").is(userId).and("currentDriveUsageBytes").lt(0)),
+                                        new Update().set("currentDriveUsageBytes", 0L),
+                                        FindAndModifyOptions.options().returnNew(true),
+                                        User.class)
+                                .switchIfEmpty(Mono.defer(() -> mongoTemplate.findById(userId, User.class))));
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.model.AccountDeletionJob;
+import com.example.acespringbackend.model.AtsJob;
+import com.example.acespringbackend.model.AtsJobSlots;
+import com.example.acespringbackend.model.AtsResult;
+import com.example.acespringbackend.model.FileSyncState;
+import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.model.UserFile;
+import com.example.acespringbackend.model.UserFileTombstone;
+import com.example.acespringbackend.repository.UserRepository;
+import com.example.acespringbackend.utility.DriveUtility;
+import com.example.acespringbackend.utility.EmailNormalizer;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes accounts asynchronously. A deletion request disables the account, persists an
+ * {@link AccountDeletionJob} and returns; the job then trashes the user's Drive folder (found through
+ * the stored {@code User.driveFolderId}) and removes the user's MongoDB records (files, sync state,
+ * ATS results, ATS jobs and their per-user slot document) in parallel, each
+ * step retried with backoff, and deletes the user document last. Every finished step is recorded on
+ * the job, so a job interrupted by a crash or a failed attempt is resumed by a scheduled sweep without
+ * repeating completed steps, and nothing is left orphaned by a partial failure.
+ */
+@Service
+public class AccountDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountDeletionService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final DriveUtility driveUtility;
+    private final DriveProperties driveProperties;
+    private final UserAuthStateCache userAuthStateCache;
+    private final AppSchedulers appSchedulers;
+
+    @Value("${account-deletion.step-retries:3}")
+    private int stepRetries;
+
+    @Value("${account-deletion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${account-deletion.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    public AccountDeletionService(ReactiveMongoTemplate mongoTemplate, UserRepository userRepository, DriveUtility driveUtility,
+                                  DriveProperties driveProperties, UserAuthStateCache userAuthStateCache, AppSchedulers appSchedulers) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.driveUtility = driveUtility;
+        this.driveProperties = driveProperties;
+        this.userAuthStateCache = userAuthStateCache;
+        this.appSchedulers = appSchedulers;
+    }
+
+    /**
+     * Starts (or joins) the deletion of the account with the given email. Idempotent: a repeated request
+     * returns the existing job, and re-runs it if it had failed, with a fresh set of attempts.
+     *
+     * @param email The email of the account to delete.
+     * @return Mono emitting the deletion job, or empty if neither the user nor an earlier job exists.
+     */
+    public Mono<AccountDeletionJob> requestDeletion(String email) {
+        return userRepository.findByNormalizedEmail(email)
+                .flatMap(user -> createJob(user)
+                        .flatMap(job -> disableAccount(user).thenReturn(job)))
+                // The user may already be gone because an earlier request deleted it.
+                .switchIfEmpty(Mono.defer(() -> findLatestJobByEmail(email)))
+                .flatMap(job -> job.getStatus() == AccountDeletionJob.Status.FAILED ? requeueFailed(job) : Mono.just(job))
+                .doOnNext(job -> {
+                    if (job.getStatus() != AccountDeletionJob.Status.COMPLETED) {
+                        runInBackground(job.getId());
+                    }
+                });
+    }
+
+    /**
+     * @param jobId The deletion job's id (the deleted user's id).
+     * @return Mono emitting the job, or empty if it does not exist (or has expired).
+     */
+    public Mono<AccountDeletionJob> getJob(String jobId) {
+        return mongoTemplate.findById(jobId, AccountDeletionJob.class);
+    }
+
+    /**
+     * Periodically resumes jobs that are pending, failed with attempts left, or stuck in RUNNING
+     * (e.g. because the instance processing them went down).
+     */
+    @Scheduled(fixedDelayString = "${account-deletion.resume-interval-ms:300000}",
+            initialDelayString = "${account-deletion.resume-interval-ms:300000}")
+    public void resumeUnfinishedJobs() {
+        mongoTemplate.find(Query.query(resumableCriteria()), AccountDeletionJob.class)
+                .subscribe(
+                        job -> {
+                            log.info("AccountDeletionService: Resuming deletion job {} ({}, attempt {}).", job.getId(), job.getStatus(), job.getAttempts() + 1);
+                            runInBackground(job.getId());
+                        },
+                        e -> log.error("AccountDeletionService: Could not look up unfinished deletion jobs: {}", e.getMessage(), e));
+    }
+
+    private Mono<AccountDeletionJob> createJob(User user) {
+        AccountDeletionJob job = new AccountDeletionJob(user.getId(), user.getEmail(),
+                EmailNormalizer.normalize(user.getEmail()), user.getDriveFolderId(), Instant.now());
+        return mongoTemplate.insert(job)
+                .doOnNext(created -> log.info("AccountDeletionService: Created deletion job {} for {}.", created.getId(), user.getEmail()))
+                .onErrorResume(DuplicateKeyException.class, e -> getJob(user.getId()));
+    }
+
+    // Blocks new logins and invalidates existing sessions while the deletion is in progress. Only this
+    // instance's UserAuthStateCache is invalidated: other instances keep accepting the user's tokens until
+    // their cached entry expires, i.e. for up to application.security.jwt.auth-state-ttl-seconds (300 s).
+    private Mono<Void> disableAccount(User user) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.getId())),
+                        new Update().set("enabled", false), User.class)
+                .doOnNext(result -> userAuthStateCache.invalidate(user.getEmail()))
+                .then();
+    }
+
+    // An explicit re-request resets the attempts, so a job that used them all up can be claimed again.
+    private Mono<AccountDeletionJob> requeueFailed(AccountDeletionJob job) {
+        Query failed = Query.query(Criteria.where("_id").is(job.getId()).and("status").is(AccountDeletionJob.Status.FAILED));
+        Update update = new Update().set("status", AccountDeletionJob.Status.PENDING).set("attempts", 0)
+                .set("updatedAt", Instant.now()).unset("lastError");
+        return mongoTemplate.findAndModify(failed, update, FindAndModifyOptions.options().returnNew(true), AccountDeletionJob.class)
+                .doOnNext(requeued -> log.info("AccountDeletionService: Requeued failed deletion job {}.", requeued.getId()))
+                .defaultIfEmpty(job);
+    }
+
+    private Mono<AccountDeletionJob> findLatestJobByEmail(String email) {
+        Query query = Query.query(Criteria.where("emailKey").is(EmailNormalizer.normalize(email)))
+                .with(Sort.by(Sort.Order.desc("createdAt")));
+        return mongoTemplate.findOne(query, AccountDeletionJob.class);
+    }
+
+    private void runInBackground(String jobId) {
+        process(jobId).subscribe(
+                job -> log.info("AccountDeletionService: Deletion job {} finished with status {}.", job.getId(), job.getStatus()),
+                e -> log.error("AccountDeletionService: Deletion job {} crashed: {}", jobId, e.getMessage(), e));
+    }
+
+    /**
+     * Claims the job (so that it runs only once at a time, also across instances) and executes its outstanding steps.
+     *
+     * @param jobId The deletion job's id.
+     * @return Mono emitting the job in its final state for this attempt, or empty if it could not be claimed.
+     */
+    public Mono<AccountDeletionJob> process(String jobId) {
+        Query claimable = Query.query(Criteria.where("_id").is(jobId).andOperator(resumableCriteria()));
+        return mongoTemplate.findAndModify(claimable,
+                        new Update().set("status", AccountDeletionJob.Status.RUNNING).set("updatedAt", Instant.now()).inc("attempts", 1),
+                        FindAndModifyOptions.options().returnNew(true),
+                        AccountDeletionJob.class)
+                .flatMap(job -> Mono.when(trashDriveFolder(job), deleteRecords(job))
+                        // The user document goes last: until then it anchors the job to the account.
+                        .then(Mono.defer(() -> deleteUser(job)))
+                        .then(Mono.defer(() -> finish(job.getId(), AccountDeletionJob.Status.COMPLETED, null)))
+                        .onErrorResume(e -> {
+                            log.error("AccountDeletionService: Deletion job {} failed on attempt {}: {}", job.getId(), job.getAttempts(), e.getMessage());
+                            return finish(job.getId(), AccountDeletionJob.Status.FAILED, e.getMessage());
+                        }));
+    }
+
+    private Criteria resumableCriteria() {
+        Instant staleBefore = Instant.now().minus(Duration.ofMinutes(staleAfterMinutes));
+        return new Criteria().orOperator(
+                Criteria.where("status").is(AccountDeletionJob.Status.PENDING),
+                Criteria.where("status").is(AccountDeletionJob.Status.FAILED).and("attempts").lt(maxAttempts),
+                Criteria.where("status").is(AccountDeletionJob.Status.RUNNING).and("updatedAt").lt(staleBefore));
+    }
+
+    private Mono<Void> trashDriveFolder(AccountDeletionJob job) {
+        if (job.isDriveFolderTrashed()) {
+            return Mono.empty();
+        }
+        return driveUtility.getDriveInstance()
+                .flatMap(driveInstance -> Mono.fromCallable(() -> {
+                            if (job.getDriveFolderId() != null) {
+                                return job.getDriveFolderId();
+                            }
+                            // Accounts created before the folder id was stored: fall back to the lookup by name.
+                            String folderId = driveUtility.getSubfolderId(driveInstance, driveProperties.getMasterFolderId(), job.getEmail());
+                            return folderId != null ? folderId : "";
+                        })
+                        .subscribeOn(appSchedulers.drive())
+                        .flatMap(folderId -> {
+                            if (folderId.isEmpty()) {
+                                log.warn("AccountDeletionService: No Drive folder found for {}. Skipping Drive cleanup.", job.getEmail());
+                                return Mono.empty();
+                            }
+                            return driveUtility.deleteDriveFolder(driveInstance, folderId)
+                                    .onErrorResume(GoogleJsonResponseException.class, e -> {
+                                        if (e.getStatusCode() == 404) {
+                                            log.warn("AccountDeletionService: Drive folder {} of {} no longer exists.", folderId, job.getEmail());
+                                            return Mono.empty();
+                                        }
+                                        return Mono.error(e);
+                                    });
+                        }))
+                .retryWhen(stepRetry())
+                .then(markStep(job.getId(), "driveFolderTrashed"))
+                .doOnSuccess(v -> log.info("AccountDeletionService: Drive folder of {} trashed.", job.getEmail()));
+    }
+
+    private Mono<Void> deleteRecords(AccountDeletionJob job) {
+        if (job.isRecordsDeleted()) {
+            return Mono.empty();
+        }
+        Query byUserId = Query.query(Criteria.where("userId").is(job.getId()));
+        String emailKey = EmailNormalizer.normalize(job.getEmail());
+        // ATS records keep the email as the client sent it, so match it the way EmailNormalizer compares emails.
+        Query byAtsOwner = Query.query(new Criteria().orOperator(
+                Criteria.where("userId").is(job.getId()),
+                Criteria.where("userEmail").regex("^\\s*" + Pattern.quote(emailKey) + "\\s*$", "i")));
+        return Mono.when(
+                        mongoTemplate.remove(byUserId, UserFile.class),
+                        mongoTemplate.remove(byUserId, UserFileTombstone.class),
+                        mongoTemplate.remove(Query.query(Criteria.where("_id").is(job.getId())), FileSyncState.class),
+                        mongoTemplate.remove(byAtsOwner, AtsResult.class),
+                        mongoTemplate.remove(byAtsOwner, AtsJob.class),
+                        mongoTemplate.remove(Query.query(Criteria.where("_id").is(emailKey)), AtsJobSlots.class))
+                .retryWhen(stepRetry())
+                .then(markStep(job.getId(), "recordsDeleted"))
+                .doOnSuccess(v -> log.info("AccountDeletionService: MongoDB records of user {} deleted.", job.getId()));
+    }
+
+    private Mono<Void> deleteUser(AccountDeletionJob job) {
+        if (job.isUserDeleted()) {
+            return Mono.empty();
+        }
+        return userRepository.deleteById(job.getId())
+                .retryWhen(stepRetry())
+                .then(markStep(job.getId(), "userDeleted"))
+                .doOnSuccess(v -> {
+                    userAuthStateCache.invalidate(job.getEmail());
+                    log.info("AccountDeletionService: User record of {} (ID: {}) deleted.", job.getEmail(), job.getId());
+                });
+    }
+
+    private Retry stepRetry() {
+        return Retry.backoff(stepRetries, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30));
+    }
+
+    private Mono<Void> markStep(String jobId, String step) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId)),
+                        new Update().set(step, true).set("updatedAt", Instant.now()), AccountDeletionJob.class)
+                .then();
+    }
+
+    private Mono<AccountDeletionJob> finish(String jobId, AccountDeletionJob.Status status, String error) {
+        Instant now = Instant.now();
+        Update update = new Update().set("status", status).set("updatedAt", now).set("lastError", error);
+        if (status == AccountDeletionJob.Status.COMPLETED) {
+            update.set("completedAt", now);
+        }
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(jobId)), update,
+                FindAndModifyOptions.options().returnNew(true), AccountDeletionJob.class);
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.auth.dto.AtsResponse;
+import com.example.acespringbackend.auth.dto.BatchAtsResult;
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.model.AtsResult;
+import com.example.acespringbackend.utility.PdfTextExtractor;
+import com.example.acespringbackend.utility.ResumeSectionSegmenter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Scores many resumes against one job description (recruiter batch mode).
+ *
+ * ZIP archives are expanded and all PDFs are parsed in parallel on the pdf scheduler. The job description
+ * digest is computed once up front (every scoring call then hits {@link JobDescriptionAnalyzer}'s cache), and
+ * scoring fans out with bounded concurrency: deep checks run at most ats.batch.gemini-concurrency-per-key
+ * Gemini calls per configured API key. Results are bulk-upserted into atsResults in small batches and
+ * streamed to the caller as they complete, each with its rank among the resumes scored so far.
+ */
+@Service
+public class AtsBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(AtsBatchService.class);
+
+    /**
+     * A resume file of a batch (or a ZIP archive of resumes, before {@link #expandArchives}).
+     */
+    public record BatchFile(String name, byte[] bytes) {
+
+        boolean isArchive() {
+            return name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip");
+        }
+    }
+
+    private record Extracted(BatchFile file, ResumeSectionSegmenter.SegmentedResume resume, String error) {
+    }
+
+    private record Scored(BatchFile file, AtsResponse response, BatchAtsResult result) {
+    }
+
+    private final GeminiService geminiService;
+    private final JobDescriptionAnalyzer jobDescriptionAnalyzer;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final AppSchedulers appSchedulers;
+
+    @Value("${ats.batch.max-files:100}")
+    private int maxFiles;
+
+    @Value("${ats.batch.max-file-bytes:5242880}")
+    private int maxFileBytes;
+
+    @Value("${ats.batch.max-total-bytes:104857600}")
+    private long maxTotalBytes;
+
+    @Value("${ats.batch.gemini-concurrency-per-key:2}")
+    private int geminiConcurrencyPerKey;
+
+    @Value("${ats.batch.persist-batch-size:25}")
+    private int persistBatchSize;
+
+    public AtsBatchService(GeminiService geminiService, JobDescriptionAnalyzer jobDescriptionAnalyzer,
+                           ReactiveMongoTemplate mongoTemplate, AppSchedulers appSchedulers) {
+        this.geminiService = geminiService;
+        this.jobDescriptionAnalyzer = jobDescriptionAnalyzer;
+        this.mongoTemplate = mongoTemplate;
+        this.appSchedulers = appSchedulers;
+    }
+
+    /**
+     * @return The largest total size of a batch upload (ats.batch.max-total-bytes), which the upload is read against.
+     */
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    /**
+     * Expands ZIP archives among the uploaded files into their PDF entries (other entries are ignored).
+     * Archive entries keep their path within the archive as their name, and names that still repeat get a
+     * " (2)", " (3)", ... suffix, since results are saved and ranked by file name. Runs on the pdf scheduler.
+     *
+     * @param uploads The uploaded PDFs and ZIP archives.
+     * @return Mono emitting the PDFs; errors with IllegalArgumentException if the batch has more than
+     * ats.batch.max-files resumes, a resume exceeds ats.batch.max-file-bytes or the resumes together exceed
+     * ats.batch.max-total-bytes.
+     */
+    public Mono<List<BatchFile>> expandArchives(List<BatchFile> uploads) {
+        return Mono.fromCallable(() -> {
+            List<BatchFile> pdfs = new ArrayList<>();
+            // One running total over all uploads, so several archives cannot each inflate up to the limit.
+            long totalBytes = 0;
+            for (BatchFile upload : uploads) {
+                if (upload.isArchive()) {
+                    totalBytes = readArchive(upload, pdfs, totalBytes);
+                } else if (upload.bytes().length > maxFileBytes) {
+                    throw new IllegalArgumentException("Resume " + upload.name() + " exceeds the maximum size of " + maxFileBytes / (1024 * 1024) + "MB.");
+                } else {
+                    totalBytes = checkTotal(totalBytes + upload.bytes().length);
+                    pdfs.add(upload);
+                }
+                if (pdfs.size() > maxFiles) {
+                    throw new IllegalArgumentException("A batch may contain at most " + maxFiles + " resumes.");
+                }
+            }
+            return withUniqueNames(pdfs);
+        }).subscribeOn(appSchedulers.pdf());
+    }
+
+    static List<BatchFile> withUniqueNames(List<BatchFile> files) {
+        Set<String> used = new HashSet<>();
+        List<BatchFile> unique = new ArrayList<>(files.size());
+        for (BatchFile file : files) {
+            String name = file.name() == null || file.name().isBlank() ? "resume.pdf" : file.name();
+            String candidate = name;
+            for (int n = 2; !used.add(candidate); n++) {
+                int dot = name.lastIndexOf('.');
+                candidate = dot > 0 ? name.substring(0, dot) + " (" + n + ")" + name.substring(dot) : name + " (" + n + ")";
+            }
+            unique.add(candidate.equals(file.name()) ? file : new BatchFile(candidate, file.bytes()));
+        }
+        return unique;
+    }
+
+    /**
+     * Scores the resumes against the job, persisting and streaming each result as it completes.
+     *
+     * @param files          The resume PDFs.
+     * @param isDeepCheck    Whether to ask Gemini for detailed feedback on each resume.
+     * @param jobTitle       Optional job title.
+     * @param jobDescription The job description all resumes are scored against.
+     * @param userEmail      The recruiter, under whose email the results are saved.
+     * @param userId         The recruiter's user id.
+     * @return Flux of results in order of completion, with rank among the results so far and progress.
+     */
+    public Flux<BatchAtsResult> scoreBatch(List<BatchFile> files, boolean isDeepCheck, String jobTitle, String jobDescription,
+                                           String userEmail, String userId) {
+        return Flux.defer(() -> {
+            int total = files.size();
+            // Warm the digest cache once; every deep-check prompt of the batch reuses it.
+            jobDescriptionAnalyzer.analyze(jobDescription);
+            int extractionConcurrency = Math.max(1, Runtime.getRuntime().availableProcessors());
+            int scoringConcurrency = isDeepCheck
+                    ? Math.max(1, geminiConcurrencyPerKey * geminiService.getApiKeyCount())
+                    : extractionConcurrency;
+            log.info("AtsBatchService: Scoring {} resumes for {} (deep check: {}, scoring concurrency {}).",
+                    total, userEmail, isDeepCheck, scoringConcurrency);
+
+            List<Integer> rankedScores = new ArrayList<>(); // descending; only touched by the sequential stage below
+            int[] completed = {0};
+
+            return Flux.fromIterable(files)
+                    .flatMap(this::extract, extractionConcurrency)
+                    .flatMap(extracted -> score(extracted, isDeepCheck, jobTitle, jobDescription), scoringConcurrency)
+                    .bufferTimeout(persistBatchSize, Duration.ofSeconds(1))
+                    .concatMap(batch -> persist(batch, jobTitle, jobDescription, userEmail, userId)
+                            .thenMany(Flux.fromIterable(batch)))
+                    .map(scored -> {
+                        BatchAtsResult result = scored.result();
+                        if (!result.isError()) {
+                            int position = Collections.binarySearch(rankedScores, result.getScore(), Collections.reverseOrder());
+                            // Among equal scores, the earlier result keeps the better rank.
+                            int insertAt = position < 0 ? -position - 1 : position;
+                            while (insertAt < rankedScores.size() && rankedScores.get(insertAt) == result.getScore()) {
+                                insertAt++;
+                            }
+                            rankedScores.add(insertAt, result.getScore());
+                            result.setRank(insertAt + 1);
+                        }
+                        result.setCompleted(++completed[0]);
+                        result.setTotal(total);
+                        return result;
+                    });
+        });
+    }
+
+    private Mono<Extracted> extract(BatchFile file) {
+        return Mono.fromCallable(() -> new Extracted(file, ResumeSectionSegmenter.segment(PdfTextExtractor.extractLines(file.bytes())), null))
+                .subscribeOn(appSchedulers.pdf())
+                .onErrorResume(e -> Mono.just(new Extracted(file, null, "Error extracting text from PDF: " + e.getMessage())));
+    }
+
+    private Mono<Scored> score(Extracted extracted, boolean isDeepCheck, String jobTitle, String jobDescription) {
+        BatchFile file = extracted.file();
+        if (extracted.error() != null) {
+            return Mono.just(failed(file, extracted.error()));
+        }
+        return geminiService.evaluateResume(extracted.resume(), isDeepCheck, jobTitle, jobDescription)
+                .map(response -> response.isError()
+                        ? failed(file, response.getErrorMessage())
+                        : isGeminiFailure(response)
+                        ? failed(file, "Gemini feedback is unavailable: " + geminiError(response.getFullGeminiResponse()))
+                        : new Scored(file, response, new BatchAtsResult(file.name(), Integer.parseInt(response.getScore()),
+                        response.getFullGeminiResponse(), false, null)))
+                .onErrorResume(e -> {
+                    log.warn("AtsBatchService: Could not score {}: {}", file.name(), e.getMessage());
+                    return Mono.just(failed(file, "Error processing resume: " + e.getMessage()));
+                });
+    }
+
+    // A failed Gemini call leaves its error message in the report instead of the feedback.
+    private static boolean isGeminiFailure(AtsResponse response) {
+        return response.getFullGeminiResponse() != null && response.getFullGeminiResponse().contains(GeminiService.GEMINI_ERROR_PREFIX);
+    }
+
+    private static String geminiError(String report) {
+        return report.substring(report.indexOf(GeminiService.GEMINI_ERROR_PREFIX)).strip();
+    }
+
+    private static Scored failed(BatchFile file, String message) {
+        return new Scored(file, null, new BatchAtsResult(file.name(), 0, "", true, message));
+    }
+
+    // Upserts the scored resumes of one buffer with a single bulk write, keyed like the single-resume flow.
+    private Mono<Void> persist(List<Scored> batch, String jobTitle, String jobDescription, String userEmail, String userId) {
+        List<Scored> scored = batch.stream().filter(entry -> entry.response() != null).toList();
+        if (scored.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AtsResult.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Scored entry : scored) {
+            Query query = Query.query(Criteria.where("userEmail").is(userEmail).and("fileName").is(entry.file().name()));
+            Update update = new Update()
+                    .set("userId", userId)
+                    .set("jobTitle", jobTitle)
+                    .set("jobDescription", jobDescription)
+                    .set("extractedResumeContent", entry.response().getExtractedResumeContent())
+                    .set("fullAtsResponse", entry.response().getFullGeminiResponse())
+                    .set("atsScore", Integer.parseInt(entry.response().getScore()))
+                    .set("checkTimestamp", now);
+            bulk.upsert(query, update);
+        }
+        return bulk.execute()
+                .doOnNext(result -> log.debug("AtsBatchService: Saved {} batch results for {}.", scored.size(), userEmail))
+                .onErrorResume(e -> {
+                    // The scores are still streamed; only their persistence failed.
+                    log.error("AtsBatchService: Could not save {} batch results for {}: {}", scored.size(), userEmail, e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Adds the archive's PDFs and returns the batch's total size including them.
+    private long readArchive(BatchFile archive, List<BatchFile> pdfs, long totalBytes) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.bytes()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                String baseName = name.substring(name.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || name.startsWith("__MACOSX/") || baseName.startsWith(".")
+                        || !baseName.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                    continue;
+                }
+                // The path within the archive tells apart resumes of the same name in different folders.
+                byte[] bytes = readEntry(zip, name);
+                totalBytes = checkTotal(totalBytes + bytes.length);
+                pdfs.add(new BatchFile(name, bytes));
+                if (pdfs.size() > maxFiles) {
+                    return totalBytes; // the caller rejects the batch
+                }
+            }
+        }
+        return totalBytes;
+    }
+
+    private long checkTotal(long totalBytes) {
+        if (totalBytes > maxTotalBytes) {
+            throw new IllegalArgumentException("The resumes exceed the maximum batch size of " + maxTotalBytes / (1024 * 1024) + "MB.");
+        }
+        return totalBytes;
+    }
+
+    // Reads one entry, refusing to inflate more than the per-file limit (declared sizes cannot be trusted).
+    private byte[] readEntry(InputStream zip, String name) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zip.read(buffer)) != -1) {
+            if (out.size() + read > maxFileBytes) {
+                throw new IllegalArgumentException("Resume " + name + " exceeds the maximum size of " + maxFileBytes / (1024 * 1024) + "MB.");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
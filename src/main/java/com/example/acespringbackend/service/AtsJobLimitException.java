@@ -0,0 +1,7 @@
+package com.example.acespringbackend.service;
+
+public class AtsJobLimitException extends RuntimeException {
+    public AtsJobLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.auth.dto.AtsResponse;
+import com.example.acespringbackend.model.AtsJob;
+import com.example.acespringbackend.model.AtsJobSlots;
+import com.example.acespringbackend.utility.EmailNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Runs ATS checks as background jobs so that the request which submits a check returns immediately.
+ *
+ * A submission persists an {@link AtsJob} (with the uploaded file) and queues its id; a bounded pool of
+ * ats.jobs.max-concurrent workers claims queued jobs atomically and runs them through
+ * {@link GeminiService#getAtsScore}, which also saves the result to atsResults as before. An attempt that fails
+ * for a transient reason (Gemini unavailable, an error saving the result) returns the job to PENDING until
+ * ats.jobs.max-attempts is reached; a file that cannot be read fails the job at once. Each user may have at most
+ * ats.jobs.max-active-per-user jobs pending or running, enforced atomically through {@link AtsJobSlots}. Job ids
+ * are derived from the submitter and the complete input, so a client retrying a submission gets the existing job
+ * back. Jobs left behind by a full queue or a crashed instance are picked up again by a scheduled sweep. Clients
+ * poll {@link #getJob} or follow {@link #jobEvents}.
+ */
+@Service
+public class AtsJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(AtsJobService.class);
+
+    private static final List<AtsJob.Status> ACTIVE = List.of(AtsJob.Status.PENDING, AtsJob.Status.RUNNING);
+
+    // Errors caused by the uploaded file itself; retrying the same file cannot succeed.
+    private static final List<String> PERMANENT_ERRORS = List.of("Error extracting text from PDF", "Could not extract text");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final GeminiService geminiService;
+    private final int maxConcurrent;
+    private final Sinks.Many<String> queue;
+    private Disposable workers;
+
+    @Value("${ats.jobs.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${ats.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ats.jobs.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    @Value("${ats.jobs.events-poll-ms:1000}")
+    private long eventsPollMillis;
+
+    @Value("${ats.jobs.events-timeout-minutes:10}")
+    private long eventsTimeoutMinutes;
+
+    public AtsJobService(ReactiveMongoTemplate mongoTemplate, GeminiService geminiService,
+                         @Value("${ats.jobs.max-concurrent:8}") int maxConcurrent,
+                         @Value("${ats.jobs.queue-capacity:1000}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.geminiService = geminiService;
+        this.maxConcurrent = maxConcurrent;
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @PostConstruct
+    public void startWorkers() {
+        workers = queue.asFlux()
+                .flatMap(jobId -> process(jobId)
+                        .onErrorResume(e -> {
+                            log.error("AtsJobService: ATS job {} crashed: {}", jobId, e.getMessage(), e);
+                            return Mono.empty();
+                        }), maxConcurrent)
+                .subscribe(job -> log.info("AtsJobService: ATS job {} finished attempt {} with status {}.",
+                        job.getId(), job.getAttempts(), job.getStatus()));
+        log.info("AtsJobService: Started ATS job workers (max {} concurrent).", maxConcurrent);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        if (workers != null) {
+            workers.dispose();
+        }
+    }
+
+    /**
+     * Submits an ATS check. Idempotent: submitting the same check again returns the existing job,
+     * and re-runs it if it had failed.
+     *
+     * @return Mono emitting the job; errors with {@link AtsJobLimitException} if the user already has
+     * the maximum number of active jobs.
+     */
+    public Mono<AtsJob> submit(String userEmail, String userId, String fileName, byte[] fileBytes, boolean deepCheck,
+                               String jobTitle, String jobDescription) {
+        String jobId = jobId(userEmail, fileBytes, deepCheck, jobTitle, jobDescription);
+        return mongoTemplate.findById(jobId, AtsJob.class)
+                .flatMap(existing -> existing.getStatus() == AtsJob.Status.FAILED
+                        ? requeueFailed(existing, fileBytes)
+                        : Mono.just(existing))
+                .switchIfEmpty(Mono.defer(() -> reserveSlot(userEmail, jobId)
+                        .then(Mono.defer(() -> create(new AtsJob(jobId, userEmail, userId, fileName, fileBytes, deepCheck,
+                                jobTitle, jobDescription, Instant.now()))))))
+                .doOnNext(job -> {
+                    if (job.getStatus() == AtsJob.Status.PENDING) {
+                        enqueue(job.getId());
+                    }
+                });
+    }
+
+    /**
+     * @param jobId     The job's id.
+     * @param userEmail The requesting user; jobs of other users are not returned.
+     * @return Mono emitting the job without its file, or empty if it does not exist (or has expired).
+     */
+    public Mono<AtsJob> getJob(String jobId, String userEmail) {
+        Query query = Query.query(Criteria.where("_id").is(jobId));
+        query.fields().exclude("fileBytes");
+        return mongoTemplate.findOne(query, AtsJob.class)
+                .filter(job -> Objects.equals(EmailNormalizer.normalize(job.getUserEmail()), EmailNormalizer.normalize(userEmail)));
+    }
+
+    /**
+     * Follows a job until it has finished: emits its current state, then every change of state.
+     * The stream completes after the job has finished or after ats.jobs.events-timeout-minutes.
+     *
+     * @param jobId     The job's id.
+     * @param userEmail The requesting user.
+     * @return Flux of job states; empty if the job does not exist or belongs to another user.
+     */
+    public Flux<AtsJob> jobEvents(String jobId, String userEmail) {
+        // Polling MongoDB (rather than an in-memory signal) also sees jobs run by other instances.
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(eventsPollMillis))
+                .concatMap(tick -> getJob(jobId, userEmail).map(List::of).defaultIfEmpty(List.of()))
+                .takeWhile(found -> !found.isEmpty())
+                .map(found -> found.get(0))
+                .distinctUntilChanged(job -> job.getStatus() + "@" + job.getUpdatedAt())
+                .takeUntil(AtsJob::isFinished)
+                .take(Duration.ofMinutes(eventsTimeoutMinutes));
+    }
+
+    /**
+     * Periodically re-queues jobs that are pending (e.g. because the queue was full) or stuck in RUNNING
+     * (e.g. because the instance processing them went down).
+     */
+    @Scheduled(fixedDelayString = "${ats.jobs.resume-interval-ms:60000}",
+            initialDelayString = "${ats.jobs.resume-interval-ms:60000}")
+    public void resumeUnfinishedJobs() {
+        Query query = Query.query(resumableCriteria());
+        query.fields().include("_id");
+        mongoTemplate.find(query, AtsJob.class)
+                .subscribe(job -> enqueue(job.getId()),
+                        e -> log.error("AtsJobService: Could not look up unfinished ATS jobs: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Takes one of the user's active-job slots for the job, atomically: the upsert only matches while the user has
+     * fewer than ats.jobs.max-active-per-user jobs (or already holds a slot for this job), and otherwise fails on the
+     * duplicate _id. Before rejecting, slots of jobs that are no longer active (e.g. left by a crash between taking a
+     * slot and creating the job) are dropped and the reservation is tried once more.
+     *
+     * @return Mono completing once the slot is taken; errors with {@link AtsJobLimitException} if the user is at the limit.
+     */
+    Mono<Void> reserveSlot(String userEmail, String jobId) {
+        String key = EmailNormalizer.normalize(userEmail);
+        return tryReserveSlot(key, jobId)
+                .onErrorResume(DuplicateKeyException.class, e -> pruneSlots(key)
+                        .then(tryReserveSlot(key, jobId))
+                        .onErrorMap(DuplicateKeyException.class, limit -> new AtsJobLimitException("You already have "
+                                + maxActivePerUser + " ATS checks in progress. Please wait for them to finish.")));
+    }
+
+    private Mono<Void> tryReserveSlot(String key, String jobId) {
+        Query belowLimit = Query.query(Criteria.where("_id").is(key).orOperator(
+                Criteria.where("jobIds." + (maxActivePerUser - 1)).exists(false),
+                Criteria.where("jobIds").is(jobId)));
+        return mongoTemplate.findAndModify(belowLimit, new Update().addToSet("jobIds", jobId),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), AtsJobSlots.class)
+                .then();
+    }
+
+    private Mono<Void> pruneSlots(String key) {
+        return mongoTemplate.findById(key, AtsJobSlots.class)
+                .flatMap(slots -> {
+                    Query active = Query.query(Criteria.where("_id").in(slots.getJobIds()).and("status").in(ACTIVE));
+                    active.fields().include("_id");
+                    return mongoTemplate.find(active, AtsJob.class)
+                            .map(AtsJob::getId)
+                            .collect(Collectors.toSet())
+                            .flatMap(activeIds -> {
+                                Set<String> stale = slots.getJobIds().stream()
+                                        .filter(id -> !activeIds.contains(id))
+                                        .collect(Collectors.toSet());
+                                if (stale.isEmpty()) {
+                                    return Mono.empty();
+                                }
+                                log.warn("AtsJobService: Dropping {} stale ATS job slot(s) of {}.", stale.size(), key);
+                                return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)),
+                                        new Update().pullAll("jobIds", stale.toArray()), AtsJobSlots.class).then();
+                            });
+                });
+    }
+
+    private Mono<Void> releaseSlot(AtsJob job) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(EmailNormalizer.normalize(job.getUserEmail()))),
+                        new Update().pull("jobIds", job.getId()), AtsJobSlots.class)
+                .then();
+    }
+
+    private Mono<AtsJob> create(AtsJob job) {
+        return mongoTemplate.insert(job)
+                .doOnNext(created -> log.info("AtsJobService: Created ATS job {} for {} ({}).", created.getId(), created.getUserEmail(), created.getFileName()))
+                // A concurrent retry of the same submission created it first.
+                .onErrorResume(DuplicateKeyException.class, e -> mongoTemplate.findById(job.getId(), AtsJob.class));
+    }
+
+    // A re-run counts towards the user's limit like a new submission.
+    private Mono<AtsJob> requeueFailed(AtsJob job, byte[] fileBytes) {
+        Query failed = Query.query(Criteria.where("_id").is(job.getId()).and("status").is(AtsJob.Status.FAILED));
+        Update update = new Update().set("status", AtsJob.Status.PENDING).set("fileBytes", fileBytes).set("attempts", 0)
+                .set("updatedAt", Instant.now()).unset("errorMessage").unset("finishedAt");
+        return reserveSlot(job.getUserEmail(), job.getId())
+                .then(mongoTemplate.findAndModify(failed, update, FindAndModifyOptions.options().returnNew(true), AtsJob.class))
+                .defaultIfEmpty(job);
+    }
+
+    private void enqueue(String jobId) {
+        Sinks.EmitResult result;
+        synchronized (queue) {
+            result = queue.tryEmitNext(jobId);
+        }
+        if (result.isFailure()) {
+            // The job stays PENDING in MongoDB and the next sweep queues it again.
+            log.warn("AtsJobService: Could not queue ATS job {} ({}); it will be retried by the sweep.", jobId, result);
+        }
+    }
+
+    /**
+     * Claims the job (so that it runs only once at a time, also across instances) and runs the check.
+     *
+     * @param jobId The job's id.
+     * @return Mono emitting the job in its state after this attempt, or empty if it could not be claimed.
+     */
+    Mono<AtsJob> process(String jobId) {
+        Query claimable = Query.query(Criteria.where("_id").is(jobId).andOperator(resumableCriteria()));
+        return mongoTemplate.findAndModify(claimable,
+                        new Update().set("status", AtsJob.Status.RUNNING).set("updatedAt", Instant.now()).inc("attempts", 1),
+                        FindAndModifyOptions.options().returnNew(true),
+                        AtsJob.class)
+                .flatMap(job -> geminiService.getAtsScore(job.getFileBytes(), job.getFileName(), job.isDeepCheck(),
+                                job.getJobTitle(), job.getJobDescription(), job.getUserEmail(), job.getUserId())
+                        .flatMap(response -> {
+                            String retryableError = retryableError(response);
+                            return retryableError == null ? finish(job.getId(), response) : attemptFailed(job, retryableError);
+                        })
+                        .onErrorResume(e -> attemptFailed(job, e.getMessage())));
+    }
+
+    /**
+     * @return Why the attempt failed if another attempt may succeed, or {@code null} if the response is final:
+     * a success, or an error caused by the file itself.
+     */
+    static String retryableError(AtsResponse response) {
+        if (response.isError()) {
+            String message = response.getErrorMessage() == null ? "" : response.getErrorMessage();
+            return PERMANENT_ERRORS.stream().anyMatch(message::startsWith) ? null : message;
+        }
+        // GeminiService reports a failed Gemini call in place of the feedback rather than as an error.
+        String report = response.getFullGeminiResponse();
+        int geminiError = report == null ? -1 : report.indexOf(GeminiService.GEMINI_ERROR_PREFIX);
+        return geminiError < 0 ? null : report.substring(geminiError).strip();
+    }
+
+    private Mono<AtsJob> attemptFailed(AtsJob job, String error) {
+        log.error("AtsJobService: ATS job {} failed on attempt {}: {}", job.getId(), job.getAttempts(), error);
+        return job.getAttempts() < maxAttempts
+                ? release(job.getId(), error)
+                : finish(job.getId(), new AtsResponse("0", "", "", true, "ATS check failed: " + error));
+    }
+
+    private Criteria resumableCriteria() {
+        Instant staleBefore = Instant.now().minus(Duration.ofMinutes(staleAfterMinutes));
+        return new Criteria().orOperator(
+                Criteria.where("status").is(AtsJob.Status.PENDING),
+                Criteria.where("status").is(AtsJob.Status.RUNNING).and("updatedAt").lt(staleBefore));
+    }
+
+    // Returns a job whose attempt crashed to PENDING, for the sweep to retry.
+    private Mono<AtsJob> release(String jobId, String error) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(jobId)),
+                new Update().set("status", AtsJob.Status.PENDING).set("errorMessage", error).set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true), AtsJob.class);
+    }
+
+    private Mono<AtsJob> finish(String jobId, AtsResponse response) {
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("status", response.isError() ? AtsJob.Status.FAILED : AtsJob.Status.COMPLETED)
+                .set("score", response.getScore())
+                .set("fullAtsResponse", response.getFullGeminiResponse())
+                .set("errorMessage", response.isError() ? response.getErrorMessage() : null)
+                .set("updatedAt", now)
+                .set("finishedAt", now)
+                .unset("fileBytes");
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(jobId)), update,
+                        FindAndModifyOptions.options().returnNew(true), AtsJob.class)
+                .flatMap(job -> releaseSlot(job).thenReturn(job));
+    }
+
+    // SHA-256 of the submitter and the complete input of the check.
+    static String jobId(String userEmail, byte[] fileBytes, boolean deepCheck, String jobTitle, String jobDescription) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{EmailNormalizer.normalize(userEmail), String.valueOf(deepCheck), jobTitle, jobDescription}) {
+                byte[] bytes = part == null ? new byte[0] : part.strip().getBytes(StandardCharsets.UTF_8);
+                // Length-prefix each part so that ("ab", "c") and ("a", "bc") differ.
+                sha256.update(ByteBuffer.allocate(4).putInt(part == null ? -1 : bytes.length).array());
+                sha256.update(bytes);
+            }
+            sha256.update(fileBytes);
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
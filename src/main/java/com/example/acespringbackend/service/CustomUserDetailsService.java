@@ -20,7 +20,7 @@ public class CustomUserDetailsService implements ReactiveUserDetailsService {
 
     @Override
     public Mono<UserDetails> findByUsername(String loginIdentifier) {
-        return userRepository.findByEmail(loginIdentifier)
+        return userRepository.findByNormalizedEmail(loginIdentifier)
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found: " + loginIdentifier)))
                 .map(user -> (UserDetails) user);
     }
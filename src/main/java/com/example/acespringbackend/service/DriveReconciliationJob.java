@@ -0,0 +1,330 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.model.ReconciliationCheckpoint;
+import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.model.UserFile;
+import com.example.acespringbackend.utility.DriveUtility;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.FileList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Background reconciliation of MongoDB against Google Drive. For every user with a Drive folder it
+ * streams the folder tree with paginated files().list calls and diffs it against the user's
+ * user_files records by driveFileId:
+ *
+ * - records whose Drive file no longer exists (orphans) and duplicate records are deleted; a record whose
+ *   file is not in the tree is looked up with files().get first, and kept if the file still exists elsewhere
+ *   (files can be copied to a folder of the user's choosing),
+ * - Drive files without a record (e.g. uploads whose metadata save failed) get one,
+ * - records whose name or size differs from Drive are updated,
+ * - User.currentDriveUsageBytes is reset to the total size of the files actually on Drive.
+ *
+ * Files and records younger than a grace period are left alone so in-flight uploads and deletions
+ * are not mistaken for drift. Drive calls are rate limited, progress is checkpointed after each user
+ * and a lease keeps concurrent instances from running the same pass. drive.reconciliation.dry-run is on by
+ * default, so the job only logs what it would repair until that output has been reviewed and it is turned off.
+ */
+@Component
+public class DriveReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DriveReconciliationJob.class);
+
+    private static final String CHECKPOINT_ID = "drive";
+    private static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DriveUtility driveUtility;
+    private final FileChangeTracker fileChangeTracker;
+    private final AppSchedulers appSchedulers;
+
+    @Value("${drive.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${drive.reconciliation.dry-run:true}")
+    private boolean dryRun;
+
+    @Value("${drive.reconciliation.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    @Value("${drive.reconciliation.grace-minutes:30}")
+    private long graceMinutes;
+
+    @Value("${drive.reconciliation.lease-minutes:120}")
+    private long leaseMinutes;
+
+    public DriveReconciliationJob(ReactiveMongoTemplate mongoTemplate, DriveUtility driveUtility, FileChangeTracker fileChangeTracker,
+                                  AppSchedulers appSchedulers) {
+        this.mongoTemplate = mongoTemplate;
+        this.driveUtility = driveUtility;
+        this.fileChangeTracker = fileChangeTracker;
+        this.appSchedulers = appSchedulers;
+    }
+
+    @Scheduled(fixedDelayString = "${drive.reconciliation.interval-ms:21600000}",
+            initialDelayString = "${drive.reconciliation.initial-delay-ms:600000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        run().subscribe(
+                repairs -> log.info("DriveReconciliationJob: Pass finished with {} repair(s){}.", repairs, dryRun ? " (dry run)" : ""),
+                e -> log.error("DriveReconciliationJob: Pass aborted: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Runs (or continues) a reconciliation pass over all users.
+     *
+     * @return Mono emitting the number of repairs made, or empty if another instance holds the lease.
+     */
+    public Mono<Long> run() {
+        return claimLease()
+                .flatMap(checkpoint -> {
+                    log.info("DriveReconciliationJob: Starting pass{}.", checkpoint.getLastUserId() != null
+                            ? " after user " + checkpoint.getLastUserId() : "");
+                    return driveUtility.getDriveInstance()
+                            .flatMap(driveInstance -> usersAfter(checkpoint.getLastUserId())
+                                    .concatMap(user -> reconcileUser(driveInstance, user)
+                                            .onErrorResume(e -> {
+                                                // One broken user must not stall the pass; it is retried in the next one.
+                                                log.error("DriveReconciliationJob: Could not reconcile user {}: {}", user.getEmail(), e.getMessage());
+                                                return Mono.just(0L);
+                                            })
+                                            .flatMap(repairs -> saveCheckpoint(user.getId()).thenReturn(repairs)))
+                                    .reduce(0L, Long::sum))
+                            .flatMap(repairs -> completePass().thenReturn(repairs))
+                            .onErrorResume(e -> releaseLease().then(Mono.error(e)));
+                });
+    }
+
+    private Flux<User> usersAfter(String lastUserId) {
+        Query query = new Query().with(Sort.by(Sort.Order.asc("_id")));
+        if (lastUserId != null) {
+            query.addCriteria(Criteria.where("_id").gt(lastUserId));
+        }
+        query.fields().include("email", "driveFolderId", "currentDriveUsageBytes");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    private Mono<Long> reconcileUser(Drive driveInstance, User user) {
+        if (user.getDriveFolderId() == null || user.getDriveFolderId().isEmpty()) {
+            return Mono.just(0L);
+        }
+        LocalDateTime graceCutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+
+        return Mono.zip(
+                        listTree(driveInstance, user.getDriveFolderId()).collectMap(File::getId),
+                        mongoTemplate.find(Query.query(Criteria.where("userId").is(user.getId())), UserFile.class).collectList())
+                .flatMap(snapshot -> findOutsideTree(driveInstance, snapshot.getT1(), snapshot.getT2(), graceCutoff)
+                        .map(outsideTree -> Tuples.of(snapshot.getT1(), snapshot.getT2(), outsideTree)))
+                .flatMap(snapshot -> {
+                    Map<String, File> treeFiles = snapshot.getT1();
+                    // Files of the user's records that live outside the tree count as existing, just not as untracked.
+                    Map<String, File> driveFiles = new HashMap<>(treeFiles);
+                    driveFiles.putAll(snapshot.getT3());
+                    List<Mono<?>> repairs = new ArrayList<>();
+                    Map<String, UserFile> tracked = new HashMap<>();
+
+                    for (UserFile record : snapshot.getT2()) {
+                        if (isRecent(record.getUploadedAt(), graceCutoff)) {
+                            tracked.putIfAbsent(record.getDriveFileId(), record);
+                            continue;
+                        }
+                        File driveFile = record.getDriveFileId() != null ? driveFiles.get(record.getDriveFileId()) : null;
+                        if (driveFile == null) {
+                            repairs.add(repair(user, "delete orphan record for missing Drive file " + record.getDriveFileId(),
+                                    deleteRecord(user, record)));
+                        } else if (tracked.putIfAbsent(record.getDriveFileId(), record) != null) {
+                            repairs.add(repair(user, "delete duplicate record for Drive file " + record.getDriveFileId(),
+                                    deleteRecord(user, record)));
+                        } else if (!Objects.equals(record.getFilename(), driveFile.getName())
+                                || sizeOf(record.getSize()) != sizeOf(driveFile.getSize())) {
+                            record.setFilename(driveFile.getName());
+                            record.setSize(sizeOf(driveFile.getSize()));
+                            record.setLastModified(LocalDateTime.now());
+                            repairs.add(repair(user, "update name/size of Drive file " + driveFile.getId(),
+                                    fileChangeTracker.stamp(user.getId(), record, stamped -> mongoTemplate.save(stamped))));
+                        }
+                    }
+                    for (File driveFile : treeFiles.values()) {
+                        if (!tracked.containsKey(driveFile.getId()) && !isRecent(createdAt(driveFile), graceCutoff)) {
+                            repairs.add(repair(user, "create record for untracked Drive file " + driveFile.getId(),
+                                    fileChangeTracker.stamp(user.getId(), newRecord(user, driveFile), stamped -> mongoTemplate.insert(stamped))));
+                        }
+                    }
+
+                    // Same grace window as the records: a recent upload may not be counted yet, so Drive files created
+                    // within it are left out, and recent records count with the size that was added for them.
+                    Map<String, Long> recentRecordSizes = new HashMap<>();
+                    for (UserFile record : snapshot.getT2()) {
+                        if (isRecent(record.getUploadedAt(), graceCutoff) && record.getDriveFileId() != null) {
+                            recentRecordSizes.putIfAbsent(record.getDriveFileId(), sizeOf(record.getSize()));
+                        }
+                    }
+                    long actualUsage = driveFiles.values().stream()
+                            .filter(file -> !isRecent(createdAt(file), graceCutoff) && !recentRecordSizes.containsKey(file.getId()))
+                            .mapToLong(file -> sizeOf(file.getSize()))
+                            .sum()
+                            + recentRecordSizes.values().stream().mapToLong(Long::longValue).sum();
+                    if (actualUsage != user.getCurrentDriveUsageBytes()) {
+                        repairs.add(repair(user, "set usage from " + user.getCurrentDriveUsageBytes() + " to " + actualUsage + " bytes",
+                                correctUsage(user, actualUsage)));
+                    }
+                    return Flux.concat(repairs).then(Mono.just((long) repairs.size()));
+                });
+    }
+
+    // Looks up the files of records that are not in the folder tree; those still on Drive (and not trashed) are returned.
+    private Mono<Map<String, File>> findOutsideTree(Drive driveInstance, Map<String, File> treeFiles, List<UserFile> records,
+                                                    LocalDateTime graceCutoff) {
+        return Flux.fromIterable(records)
+                .filter(record -> !isRecent(record.getUploadedAt(), graceCutoff) && record.getDriveFileId() != null
+                        && !treeFiles.containsKey(record.getDriveFileId()))
+                .map(UserFile::getDriveFileId)
+                .distinct()
+                .concatMap(fileId -> fetchMetadata(driveInstance, fileId))
+                .filter(file -> !Boolean.TRUE.equals(file.getTrashed()))
+                .collectMap(File::getId);
+    }
+
+    private Mono<?> repair(User user, String description, Mono<?> action) {
+        log.warn("DriveReconciliationJob: User {}: {}{}.", user.getEmail(), description, dryRun ? " (dry run, skipped)" : "");
+        return dryRun ? Mono.empty() : action;
+    }
+
+    private Mono<Void> deleteRecord(User user, UserFile record) {
+        return mongoTemplate.remove(record)
+                .then(fileChangeTracker.recordDeletion(user.getId(), record));
+    }
+
+    // Conditional on the value we compared against, so an upload that lands meanwhile is not overwritten.
+    private Mono<Void> correctUsage(User user, long actualUsage) {
+        return mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(user.getId()).and("currentDriveUsageBytes").is(user.getCurrentDriveUsageBytes())),
+                        new Update().set("currentDriveUsageBytes", actualUsage),
+                        User.class)
+                .doOnNext(result -> {
+                    if (result.getModifiedCount() == 0) {
+                        log.info("DriveReconciliationJob: Usage of {} changed during reconciliation; leaving it for the next pass.", user.getEmail());
+                    }
+                })
+                .then();
+    }
+
+    private UserFile newRecord(User user, File driveFile) {
+        UserFile userFile = new UserFile();
+        userFile.setUserId(user.getId());
+        userFile.setEmail(user.getEmail());
+        userFile.setDriveFileId(driveFile.getId());
+        userFile.setFilename(driveFile.getName());
+        userFile.setMimeType(driveFile.getMimeType());
+        userFile.setSize(sizeOf(driveFile.getSize()));
+        userFile.setWebViewLink(driveFile.getWebViewLink());
+        userFile.setUploadedAt(createdAt(driveFile) != null ? createdAt(driveFile) : LocalDateTime.now());
+        userFile.setLastModified(LocalDateTime.now());
+        return userFile;
+    }
+
+    private Flux<File> listTree(Drive driveInstance, String rootFolderId) {
+        return listFolder(driveInstance, rootFolderId)
+                .expand(file -> FOLDER_MIME_TYPE.equals(file.getMimeType()) ? listFolder(driveInstance, file.getId()) : Flux.empty())
+                .filter(file -> !FOLDER_MIME_TYPE.equals(file.getMimeType()));
+    }
+
+    private Flux<File> listFolder(Drive driveInstance, String folderId) {
+        return fetchPage(driveInstance, folderId, null)
+                .expand(page -> page.getNextPageToken() != null
+                        ? fetchPage(driveInstance, folderId, page.getNextPageToken())
+                        : Mono.empty())
+                .flatMapIterable(page -> page.getFiles() != null ? page.getFiles() : List.of());
+    }
+
+    // Every Drive call waits its turn, which caps the job at drive.reconciliation.requests-per-second.
+    private Mono<FileList> fetchPage(Drive driveInstance, String folderId, String pageToken) {
+        return Mono.fromCallable(() -> driveUtility.listFolderChildrenPage(driveInstance, folderId, pageToken))
+                .subscribeOn(appSchedulers.drive())
+                .delaySubscription(Duration.ofMillis((long) (1000 / requestsPerSecond)));
+    }
+
+    // Empty when the file does not exist (404).
+    private Mono<File> fetchMetadata(Drive driveInstance, String fileId) {
+        return Mono.fromCallable(() -> driveUtility.getDriveFileMetadata(driveInstance, fileId, "id, name, size, createdTime, trashed"))
+                .subscribeOn(appSchedulers.drive())
+                .delaySubscription(Duration.ofMillis((long) (1000 / requestsPerSecond)));
+    }
+
+    private Mono<ReconciliationCheckpoint> claimLease() {
+        Instant now = Instant.now();
+        Query free = Query.query(Criteria.where("_id").is(CHECKPOINT_ID)
+                .orOperator(Criteria.where("leaseUntil").exists(false), Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now)));
+        return mongoTemplate.findAndModify(free,
+                        new Update().set("leaseUntil", now.plus(Duration.ofMinutes(leaseMinutes))),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        ReconciliationCheckpoint.class)
+                // The document exists with a live lease, so the upsert collided with it.
+                .onErrorResume(DuplicateKeyException.class, e -> {
+                    log.info("DriveReconciliationJob: Another instance is reconciling; skipping this run.");
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> saveCheckpoint(String userId) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                        new Update().set("lastUserId", userId).set("leaseUntil", Instant.now().plus(Duration.ofMinutes(leaseMinutes))),
+                        ReconciliationCheckpoint.class)
+                .then();
+    }
+
+    private Mono<Void> completePass() {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                        new Update().unset("lastUserId").unset("leaseUntil").set("lastPassCompletedAt", Instant.now()),
+                        ReconciliationCheckpoint.class)
+                .then();
+    }
+
+    private Mono<Void> releaseLease() {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                        new Update().unset("leaseUntil"), ReconciliationCheckpoint.class)
+                .then();
+    }
+
+    private static boolean isRecent(LocalDateTime timestamp, LocalDateTime graceCutoff) {
+        return timestamp != null && timestamp.isAfter(graceCutoff);
+    }
+
+    private static LocalDateTime createdAt(File driveFile) {
+        return driveFile.getCreatedTime() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(driveFile.getCreatedTime().getValue()), ZoneId.systemDefault())
+                : null;
+    }
+
+    private static long sizeOf(Long size) {
+        return size != null ? size : 0L;
+    }
+}
@@ -5,7 +5,9 @@ import com.example.acespringbackend.repository.UserRepository;
 import com.example.acespringbackend.auth.dto.FileUploadResponse;
 import com.example.acespringbackend.model.UserFile;
 import com.example.acespringbackend.repository.UserFileRepository;
+import com.example.acespringbackend.utility.DriveBusyException;
 import com.example.acespringbackend.utility.DriveUtility;
+import com.example.acespringbackend.utility.EmailNormalizer;
 import com.example.acespringbackend.utility.MimeTypeMap;
 import com.example.acespringbackend.auth.dto.FileDetail;
 import com.example.acespringbackend.auth.dto.DeleteResponse;
@@ -16,17 +18,24 @@ import com.example.acespringbackend.auth.dto.FileRenameResponse;
 import com.example.acespringbackend.auth.dto.PermissionUpdateResponse;
 import com.example.acespringbackend.auth.dto.TemplateReplicationRequest;
 import com.example.acespringbackend.auth.dto.FileExportResponse;
+import com.example.acespringbackend.auth.dto.BulkTemplateReplicationRequest;
+import com.example.acespringbackend.auth.dto.BulkTemplateReplicationResponse;
+import com.example.acespringbackend.auth.dto.TemplateCatalogItem;
+import com.example.acespringbackend.config.AppSchedulers;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 import jakarta.mail.MessagingException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -50,11 +59,25 @@ public class DriveService {
 
     private static final Logger log = LoggerFactory.getLogger(DriveService.class);
 
+    // Upper bound on the page size a client may request from the paginated file listing.
+    private static final int MAX_LIST_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
     private final UserFileRepository userFileRepository;
     private final DriveUtility driveUtility;
     private final DriveProperties driveProperties;
     private final EmailService emailService; // Assuming EmailService exists
+    private final FileChangeTracker fileChangeTracker;
+    private final TemplateCatalogService templateCatalogService;
+    private final TemplateWarmPool templateWarmPool;
+    private final AppSchedulers appSchedulers;
+    private final UploadIngestionMetrics uploadIngestionMetrics;
+
+    @Value("${drive.bulk-replication.concurrency:4}")
+    private int bulkReplicationConcurrency;
+
+    @Value("${drive.bulk-replication.max-templates:20}")
+    private int maxBulkReplicationTemplates;
 
     /**
      * Constructor for DriveService, injecting necessary repositories, DriveUtility, and DriveProperties.
@@ -64,13 +87,25 @@ public class DriveService {
      * @param driveUtility The utility class for Google Drive operations.
      * @param driveProperties The configuration properties related to Google Drive.
      * @param emailService The service for sending emails (e.g., for notifications).
+     * @param fileChangeTracker The tracker that versions user_files mutations for delta sync.
+     * @param templateCatalogService The server-side catalog of master templates.
+     * @param templateWarmPool The (optional) pool of pre-copied template instances.
+     * @param appSchedulers The dedicated schedulers; blocking Drive calls run on the drive scheduler.
+     * @param uploadIngestionMetrics The metrics of accepted and rejected uploads.
      */
-    public DriveService(UserRepository userRepository, UserFileRepository userFileRepository, DriveUtility driveUtility, DriveProperties driveProperties, EmailService emailService) {
+    public DriveService(UserRepository userRepository, UserFileRepository userFileRepository, DriveUtility driveUtility, DriveProperties driveProperties, EmailService emailService, FileChangeTracker fileChangeTracker,
+                        TemplateCatalogService templateCatalogService, TemplateWarmPool templateWarmPool, AppSchedulers appSchedulers,
+                        UploadIngestionMetrics uploadIngestionMetrics) {
         this.userRepository = userRepository;
         this.userFileRepository = userFileRepository;
         this.driveUtility = driveUtility;
         this.driveProperties = driveProperties;
         this.emailService = emailService;
+        this.fileChangeTracker = fileChangeTracker;
+        this.templateCatalogService = templateCatalogService;
+        this.templateWarmPool = templateWarmPool;
+        this.appSchedulers = appSchedulers;
+        this.uploadIngestionMetrics = uploadIngestionMetrics;
     }
 
 
@@ -126,7 +161,7 @@ public class DriveService {
                 log.error("DriveService: Failed to create/verify Drive folder for user {}: {}", email, e.getMessage(), e);
                 throw e;
             }
-        }).subscribeOn(Schedulers.boundedElastic()));
+        }).subscribeOn(appSchedulers.drive()));
     }
 
     /**
@@ -141,7 +176,7 @@ public class DriveService {
      * along with relevant file and quota details.
      */
     public Mono<FileUploadResponse> uploadFile(String email, FilePart filePart, String targetFolderId) {
-        return userRepository.findByEmail(email)
+        return userRepository.findByNormalizedEmail(email)
                 .flatMap(user -> {
                     if (user == null) {
                         log.error("DriveService: User with email {} not found for file upload.", email);
@@ -176,8 +211,12 @@ public class DriveService {
                         ));
                     }
 
-                    // Read the content of the FilePart to perform size check and then upload
-                    return DataBufferUtils.join(filePart.content())
+                    // Read the content of the FilePart, aborting as soon as it exceeds the individual file limit
+                    // or the user's remaining quota, so an oversized upload is never held in memory.
+                    long remainingQuotaBytes = Math.max(0L, maxUserSpaceBytes - user.getCurrentDriveUsageBytes());
+                    boolean quotaIsTheLimit = remainingQuotaBytes < maxIndividualFileSizeBytes;
+                    long byteLimit = Math.min(maxIndividualFileSizeBytes, remainingQuotaBytes);
+                    return DataBufferUtils.join(filePart.content(), (int) Math.min(Integer.MAX_VALUE, byteLimit))
                             .flatMap(dataBuffer -> {
                                 byte[] fileBytes = new byte[dataBuffer.readableByteCount()];
                                 dataBuffer.read(fileBytes);
@@ -195,68 +234,44 @@ public class DriveService {
                                     ));
                                 }
 
-                                if (incomingFileSize > maxIndividualFileSizeBytes) {
-                                    log.warn("DriveService: File '{}' ({} bytes) exceeds individual file limit ({} bytes) for user {}.",
-                                            originalFileName, incomingFileSize, maxIndividualFileSizeBytes, email);
-                                    return Mono.just(new FileUploadResponse(
-                                            false,
-                                            String.format("File '%s' size (%.2fMB) exceeds individual upload limit of %.2fMB.",
-                                                    originalFileName, driveUtility.bytesToMegabytes(incomingFileSize), driveUtility.bytesToMegabytes(maxIndividualFileSizeBytes)),
-                                            originalFileName, null, fileMimeType,
-                                            driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
-                                            driveUtility.bytesToMegabytes(maxUserSpaceBytes)
-                                    ));
-                                }
-
                                 long currentUsage = user.getCurrentDriveUsageBytes();
-                                log.info("DriveService: User {} current Drive usage (from DB): {} bytes ({:.2f} MB). Incoming file size: {} bytes ({:.2f} MB).",
+                                log.info("DriveService: User {} current Drive usage (from DB): {} bytes ({} MB). Incoming file size: {} bytes ({} MB).",
                                         email, currentUsage, driveUtility.bytesToMegabytes(currentUsage), incomingFileSize, driveUtility.bytesToMegabytes(incomingFileSize));
-
-                                if (currentUsage + incomingFileSize > maxUserSpaceBytes) {
-                                    long remainingSpace = maxUserSpaceBytes - currentUsage;
-                                    log.warn("DriveService: User {} will exceed overall quota. Current: {} bytes, Incoming: {} bytes, Limit: {} bytes. Remaining: {} bytes.",
-                                            email, currentUsage, incomingFileSize, maxUserSpaceBytes, remainingSpace);
-                                    return Mono.just(new FileUploadResponse(
-                                            false,
-                                            String.format("User %s overall storage quota exceeded. Current usage: %.2fMB, Limit: %.2fMB. Remaining: %.2fMB.",
-                                                    email, driveUtility.bytesToMegabytes(currentUsage), driveUtility.bytesToMegabytes(maxUserSpaceBytes), driveUtility.bytesToMegabytes(remainingSpace)),
-                                            originalFileName, null, fileMimeType,
-                                            driveUtility.bytesToMegabytes(currentUsage),
-                                            driveUtility.bytesToMegabytes(maxUserSpaceBytes)
-                                    ));
-                                }
+                                uploadIngestionMetrics.recordIngested(incomingFileSize);
 
                                 return driveUtility.getDriveInstance().flatMap(driveInstance ->
                                         Mono.fromCallable(() -> {
                                             log.info("DriveService: Initiating upload of file '{}' for user '{}' into folder ID: '{}'", originalFileName, email, targetFolderId);
                                             return driveUtility.uploadFileToDrive(driveInstance, originalFileName, fileMimeType, fileBytes, targetFolderId);
-                                        }).subscribeOn(Schedulers.boundedElastic())
+                                        }).subscribeOn(appSchedulers.drive())
                                                 .flatMap(uploadedDriveFile -> {
                                                     UserFile userFile = new UserFile();
                                                     userFile.setFilename(uploadedDriveFile.getName());
                                                     userFile.setDriveFileId(uploadedDriveFile.getId());
                                                     userFile.setUserId(user.getId());
+                                                    userFile.setEmail(user.getEmail()); // Also sets the canonical emailKey used by listings
                                                     userFile.setUploadedAt(LocalDateTime.now());
                                                     userFile.setSize(uploadedDriveFile.getSize());
                                                     userFile.setMimeType(uploadedDriveFile.getMimeType());
                                                     userFile.setWebViewLink(uploadedDriveFile.getWebViewLink());
 
-                                                    user.setCurrentDriveUsageBytes(user.getCurrentDriveUsageBytes() + uploadedDriveFile.getSize());
-
+                                                    // $inc rather than saving the whole User, so concurrent usage corrections and account changes are kept.
                                                     return Mono.zip(
-                                                            userRepository.save(user),
-                                                            userFileRepository.save(userFile)
+                                                            userRepository.incrementDriveUsage(user.getId(), uploadedDriveFile.getSize())
+                                                                    .map(User::getCurrentDriveUsageBytes)
+                                                                    .defaultIfEmpty(user.getCurrentDriveUsageBytes() + uploadedDriveFile.getSize()),
+                                                            fileChangeTracker.stamp(user.getId(), userFile, userFileRepository::save)
                                                     ).map(tuple -> {
-                                                        User updatedUser = tuple.getT1();
+                                                        long usageBytes = tuple.getT1();
                                                         log.info("DriveService: File '{}' uploaded (Drive ID: {}) and user usage updated for {}. New usage: {} bytes.",
-                                                                originalFileName, uploadedDriveFile.getId(), email, updatedUser.getCurrentDriveUsageBytes());
+                                                                originalFileName, uploadedDriveFile.getId(), email, usageBytes);
                                                         return new FileUploadResponse(
                                                                 true,
                                                                 "File uploaded successfully. Storage updated.",
                                                                 originalFileName,
                                                                 uploadedDriveFile.getId(),
                                                                 fileMimeType,
-                                                                driveUtility.bytesToMegabytes(updatedUser.getCurrentDriveUsageBytes()),
+                                                                driveUtility.bytesToMegabytes(usageBytes),
                                                                 driveUtility.bytesToMegabytes(driveProperties.getMaxUserSpaceBytes())
                                                         );
                                                     }).onErrorResume(dbError -> {
@@ -273,7 +288,7 @@ public class DriveService {
                                                         ));
                                                     });
                                                 })
-                                                .onErrorResume(Exception.class, e -> {
+                                                .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                                     log.error("DriveService: Failed to upload file '{}' for user {}: {}", originalFileName, email, e.getMessage(), e);
                                                     return Mono.just(new FileUploadResponse(
                                                             false,
@@ -284,6 +299,28 @@ public class DriveService {
                                                     ));
                                                 })
                                 );
+                            })
+                            .onErrorResume(DataBufferLimitException.class, e -> {
+                                long currentUsage = user.getCurrentDriveUsageBytes();
+                                String message;
+                                if (quotaIsTheLimit) {
+                                    uploadIngestionMetrics.recordRejected(UploadIngestionMetrics.REASON_QUOTA);
+                                    log.warn("DriveService: Upload '{}' for user {} aborted after exceeding the remaining quota of {} bytes.",
+                                            originalFileName, email, remainingQuotaBytes);
+                                    message = String.format("User %s overall storage quota exceeded. Current usage: %.2fMB, Limit: %.2fMB. Remaining: %.2fMB.",
+                                            email, driveUtility.bytesToMegabytes(currentUsage), driveUtility.bytesToMegabytes(maxUserSpaceBytes), driveUtility.bytesToMegabytes(remainingQuotaBytes));
+                                } else {
+                                    uploadIngestionMetrics.recordRejected(UploadIngestionMetrics.REASON_FILE_LIMIT);
+                                    log.warn("DriveService: Upload '{}' for user {} aborted after exceeding the individual file limit of {} bytes.",
+                                            originalFileName, email, maxIndividualFileSizeBytes);
+                                    message = String.format("File '%s' exceeds individual upload limit of %.2fMB.",
+                                            originalFileName, driveUtility.bytesToMegabytes(maxIndividualFileSizeBytes));
+                                }
+                                return Mono.just(new FileUploadResponse(
+                                        false, message, originalFileName, null, fileMimeType,
+                                        driveUtility.bytesToMegabytes(currentUsage),
+                                        driveUtility.bytesToMegabytes(maxUserSpaceBytes)
+                                ));
                             });
                 })
                 .switchIfEmpty(Mono.defer(() -> {
@@ -302,6 +339,7 @@ public class DriveService {
      * @return A Mono emitting a TemplateReplicationResponse with details of the replicated file.
      */
     public Mono<TemplateReplicationResponse> replicateTemplateFile(TemplateReplicationRequest request) {
+        applyCatalogMetadata(request);
         String userEmail = request.getUserEmail();
         String drive_id = request.getDrive_id(); // Master template ID
         String newFileName = request.getNewFileName();
@@ -309,20 +347,14 @@ public class DriveService {
 
         // New template metadata from the request
         String templateName = request.getName();
-        String templateCategory = request.getCategory();
-        String templateImageUrl = request.getImage_url();
-        String templateDescription = request.getDescription(); // Corrected getter if DTO changed
-        String templateSpotlight = request.getSpotlight();
         String requestTemplateProvider = request.getProvider(); // Get provider from request
 
         // --- Set default template provider if not provided in the request ---
-        final String effectiveTemplateProvider = (requestTemplateProvider == null || requestTemplateProvider.isEmpty())
-                                                 ? "APPLICANTACE"
-                                                 : requestTemplateProvider;
+        final String effectiveTemplateProvider = effectiveTemplateProvider(requestTemplateProvider);
         // --- End of default provider logic ---
 
 
-        return userRepository.findByEmail(userEmail)
+        return userRepository.findByNormalizedEmail(userEmail)
                 .flatMap(user -> {
                     if (user == null) {
                         log.error("DriveService: User with email {} not found for template replication.", userEmail);
@@ -342,18 +374,14 @@ public class DriveService {
 
                     long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
 
-                    return driveUtility.getDriveInstance().flatMap(driveInstance ->
-                            Mono.fromCallable(() -> { // Schedulers.boundedElastic() will execute this blocking call
-                                log.info("DriveService: Replicating template ID '{}' (Name: {}) for user '{}' into folder '{}' with new name '{}'.",
-                                        drive_id, templateName, userEmail, userFolderId, newFileName);
-                                log.info("DriveService: Attempting to set templateProvider to: '{}' for file: '{}'.", effectiveTemplateProvider, newFileName);
-
+                    log.info("DriveService: Replicating template ID '{}' (Name: {}) for user '{}' into folder '{}' with new name '{}'.",
+                            drive_id, templateName, userEmail, userFolderId, newFileName);
+                    log.info("DriveService: Attempting to set templateProvider to: '{}' for file: '{}'.", effectiveTemplateProvider, newFileName);
 
-                                // 1. Copy the template file
-                                File copiedFile = driveUtility.copyFileToDrive(driveInstance, drive_id, newFileName, userFolderId);
-                                if (copiedFile == null || copiedFile.getId() == null) {
-                                    throw new IOException("Failed to copy template file to Google Drive.");
-                                }
+                    return driveUtility.getDriveInstance().flatMap(driveInstance ->
+                            // 1. Take a pre-copied instance from the warm pool, or copy the template file
+                            obtainTemplateCopy(driveInstance, drive_id, newFileName, userFolderId)
+                            .flatMap(copiedFile -> Mono.fromCallable(() -> { // The drive scheduler will execute this blocking call
                                 log.info("DriveService: Template '{}' replicated with new ID: {}", newFileName, copiedFile.getId());
 
                                 // 2. Set permissions for the user to be a writer on the new file
@@ -361,42 +389,22 @@ public class DriveService {
                                 log.info("DriveService: Granted 'writer' permission to user '{}' for replicated file ID '{}'.", userEmail, copiedFile.getId());
 
                                 // 3. Store file metadata to application's database (MongoDB)
-                                UserFile userFile = new UserFile();
-                                userFile.setUserId(user.getId()); // Link to the user document
-                                userFile.setDriveFileId(copiedFile.getId());
-                                userFile.setFilename(copiedFile.getName());
-                                userFile.setMimeType(copiedFile.getMimeType()); // Assuming getMimeType is available
-                                userFile.setSize(copiedFile.getSize() != null ? copiedFile.getSize() : 0L);
-                                userFile.setWebViewLink(copiedFile.getWebViewLink());
-                                userFile.setWebContentLink(copiedFile.getWebContentLink()); // Assuming Drive API provides this
-                                userFile.setUploadedAt(LocalDateTime.now());
-                                userFile.setLastModified(LocalDateTime.now()); // Set initial last modified time
-
-                                // Store the new template details
-                                userFile.setTemplateName(templateName);
-                                userFile.setTemplateCategory(templateCategory);
-                                userFile.setTemplateImageUrl(templateImageUrl);
-                                userFile.setDescription(templateDescription);
-                                userFile.setTemplateSpotlight(templateSpotlight);
-                                // --- THIS IS THE KEY CHANGE ---
-                                userFile.setTemplateProvider(effectiveTemplateProvider);
-                                // --- End of key change ---
-                                userFile.setOriginalTemplateDriveId(drive_id); // Store original template's ID
-
-                                // Update user's drive usage
-                                user.setCurrentDriveUsageBytes(user.getCurrentDriveUsageBytes() + userFile.getSize());
+                                UserFile userFile = newTemplateUserFile(user, request, copiedFile, effectiveTemplateProvider);
 
                                 log.info("DEBUG_PROVIDER: UserFile object before saving - filename: '{}', provider: '{}'", userFile.getFilename(), userFile.getTemplateProvider());
 
 
                                 return Mono.zip(
-                                        userRepository.save(user), // Save updated user with new usage
-                                        userFileRepository.save(userFile) // Save the new user file metadata
+                                        // Update user's drive usage with $inc, leaving the rest of the User untouched
+                                        userRepository.incrementDriveUsage(user.getId(), userFile.getSize())
+                                                .map(User::getCurrentDriveUsageBytes)
+                                                .defaultIfEmpty(user.getCurrentDriveUsageBytes() + userFile.getSize()),
+                                        fileChangeTracker.stamp(user.getId(), userFile, userFileRepository::save) // Save the new user file metadata
                                 ).map(tuple -> {
-                                    User updatedUser = tuple.getT1();
+                                    long usageBytes = tuple.getT1();
                                     UserFile savedUserFile = tuple.getT2(); // Capture the saved UserFile
                                     log.info("DriveService: Replicated file metadata and user usage updated for {}. New usage: {} bytes.",
-                                            userEmail, updatedUser.getCurrentDriveUsageBytes());
+                                            userEmail, usageBytes);
                                     log.info("DEBUG_PROVIDER: UserFile saved successfully to DB. ID: '{}', DriveFileId: '{}', Provider: '{}'",
                                              savedUserFile.getId(), savedUserFile.getDriveFileId(), savedUserFile.getTemplateProvider());
 
@@ -408,7 +416,7 @@ public class DriveService {
                                             copiedFile.getId(),
                                             copiedFile.getMimeType(),
                                             copiedFile.getWebViewLink(),
-                                            driveUtility.bytesToMegabytes(updatedUser.getCurrentDriveUsageBytes()),
+                                            driveUtility.bytesToMegabytes(usageBytes),
                                             driveUtility.bytesToMegabytes(maxUserSpaceBytes),
                                             savedUserFile.getTemplateProvider() // Pass the actual provider from the saved object
                                     );
@@ -427,9 +435,9 @@ public class DriveService {
                                             effectiveTemplateProvider // Use the effective provider if DB save failed
                                     ));
                                 });
-                            }).subscribeOn(Schedulers.boundedElastic())
+                            }).subscribeOn(appSchedulers.drive()))
                                     .flatMap(monoResponse -> monoResponse)
-                                    .onErrorResume(Exception.class, e -> {
+                                    .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                         log.error("DriveService: Failed to replicate template ID '{}' for user {}: {}", drive_id, userEmail, e.getMessage(), e);
                                         return Mono.just(new TemplateReplicationResponse(
                                                 false,
@@ -448,136 +456,481 @@ public class DriveService {
                             false, "User not found for template replication operation.", null, null, null, null, 0.0, 0.0, null));
                 }));
     }
+
     /**
-     * Retrieves a list of file details for a specific user from a given Google Drive folder.
-     * This method fetches file metadata from Google Drive and enriches it with application-specific
-     * details (like MongoDB ID if available) by querying the local database.
+     * Returns the server-side template catalog (cached in memory, refreshed from Drive on a schedule).
      *
-     * @param email The email of the user whose files are to be listed.
-     * @param folderId The Google Drive ID of the specific folder (e.g., user's "docs" folder ID).
-     * NOTE: The current implementation primarily fetches from MongoDB based on user ID
-     * and does not filter by `folderId` from Drive. If `folderId` filtering from Drive
-     * is needed, additional Drive API calls and logic would be required here.
-     * @return A Mono emitting a FileListResponse containing the file details or an error message.
+     * @return The known master templates, sorted by name; empty if no templates folder is configured.
+     */
+    public List<TemplateCatalogItem> getTemplateCatalog() {
+        return templateCatalogService.getTemplates();
+    }
+
+    /**
+     * Replicates several templates into a user's Drive folder in one operation (e.g. an onboarding bundle).
+     * Copies run concurrently with bounded parallelism, the writer permissions are granted with Drive batch
+     * requests, all UserFile records are inserted with one saveAll and the user's usage is raised with a
+     * single atomic increment. Templates that fail are reported individually and do not affect the others.
+     *
+     * @param request The BulkTemplateReplicationRequest containing the user email, target folder and templates.
+     * @return A Mono emitting a BulkTemplateReplicationResponse with one result per requested template.
      */
-    public Mono<FileListResponse> getAllFileDetails(String email, String folderId) { // folderId is still not used for Drive API filtering
-        // Convert the input email to lowercase for consistent querying.
-        // This is crucial to avoid case-sensitivity issues in MongoDB queries.
-        String lowercaseEmail = email.toLowerCase();
-        log.info("DriveService: Method entry - getAllFileDetails for user email: '{}' (normalized: '{}').", email, lowercaseEmail);
-
-        // Step 1: Find the User by email to get quota information.
-        // This is done first because the response needs user-specific quota.
-        log.debug("DriveService: Attempting to find user by email: '{}' in UserRepository for quota info.", lowercaseEmail);
-        return userRepository.findByEmail(lowercaseEmail) // Assuming UserRepository queries by 'email' field in User model
+    public Mono<BulkTemplateReplicationResponse> replicateTemplates(BulkTemplateReplicationRequest request) {
+        String userEmail = request.getUserEmail();
+        String userFolderId = request.getTargetDriveFolderId();
+        List<TemplateReplicationRequest> templates = request.getTemplates() != null ? request.getTemplates() : Collections.emptyList();
+        long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
+
+        if (templates.size() > maxBulkReplicationTemplates) {
+            return Mono.just(new BulkTemplateReplicationResponse(false,
+                    "Too many templates requested: " + templates.size() + " (maximum " + maxBulkReplicationTemplates + ").",
+                    Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+        }
+
+        return userRepository.findByNormalizedEmail(userEmail)
                 .flatMap(user -> {
-                    log.info("DriveService: User found: '{}'.", user.getEmail());
-                    long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
-                    log.debug("DriveService: Max user space bytes configured: {} MB ({} bytes).",
-                            driveUtility.bytesToMegabytes(maxUserSpaceBytes), maxUserSpaceBytes);
+                    double usageMb = driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes());
+                    if (userFolderId == null || userFolderId.isEmpty()) {
+                        log.error("DriveService: Target Drive folder ID is missing or invalid for user {}.", userEmail);
+                        return Mono.just(new BulkTemplateReplicationResponse(false,
+                                "User's Drive folder not found or not provided. Cannot replicate templates.",
+                                Collections.emptyList(), usageMb, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                    }
+                    log.info("DriveService: Replicating {} template(s) for user '{}' into folder '{}' (concurrency {}).",
+                            templates.size(), userEmail, userFolderId, bulkReplicationConcurrency);
 
-                    // If user is null, it means no user found for the email
-                    if (user == null) {
-                        log.warn("DriveService: User object is null after findByEmail for '{}'. This should ideally not happen if flatMap is entered.", lowercaseEmail);
-                        return Mono.just(new FileListResponse(
-                                false, "User not found.",
-                                Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                    return driveUtility.getDriveInstance().flatMap(driveInstance ->
+                            // 1. Copy the templates concurrently, keeping the request order in the results.
+                            Flux.fromIterable(templates)
+                                    .flatMapSequential(template -> copyTemplate(driveInstance, applyCatalogMetadata(template), userFolderId), bulkReplicationConcurrency)
+                                    .collectList()
+                                    // 2. Grant the user 'writer' on all copies with batched permission requests.
+                                    .flatMap(copies -> grantWriterInBatch(driveInstance, copies, userEmail))
+                                    // 3. One saveAll for the metadata and one atomic increment for the usage.
+                                    .flatMap(copies -> saveReplicatedTemplates(user, copies, maxUserSpaceBytes)));
+                })
+                .onErrorResume(DriveService::isReportedAsFailure, e -> {
+                    log.error("DriveService: Bulk template replication failed for user {}: {}", userEmail, e.getMessage(), e);
+                    return Mono.just(new BulkTemplateReplicationResponse(false,
+                            "Failed to replicate templates from Google Drive: " + e.getMessage(),
+                            Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("DriveService: User with email {} not found for bulk template replication.", userEmail);
+                    return Mono.just(new BulkTemplateReplicationResponse(false,
+                            "User not found for template replication operation.", Collections.emptyList(), 0.0, 0.0));
+                }));
+    }
+
+    private Mono<TemplateCopy> copyTemplate(Drive driveInstance, TemplateReplicationRequest template, String userFolderId) {
+        if (template.getDrive_id() == null || template.getDrive_id().isEmpty()
+                || template.getNewFileName() == null || template.getNewFileName().isEmpty()) {
+            return Mono.just(new TemplateCopy(template, null, "Master template file ID (drive_id) and new file name are required."));
+        }
+        return obtainTemplateCopy(driveInstance, template.getDrive_id(), template.getNewFileName(), userFolderId)
+                .map(copiedFile -> new TemplateCopy(template, copiedFile, null))
+                .onErrorResume(e -> {
+                    log.error("DriveService: Failed to copy template ID '{}': {}", template.getDrive_id(), e.getMessage());
+                    return Mono.just(new TemplateCopy(template, null, e.getMessage()));
+                });
+    }
+
+    private Mono<List<TemplateCopy>> grantWriterInBatch(Drive driveInstance, List<TemplateCopy> copies, String userEmail) {
+        List<String> copiedFileIds = copies.stream()
+                .filter(TemplateCopy::copied)
+                .map(copy -> copy.file().getId())
+                .collect(Collectors.toList());
+        if (copiedFileIds.isEmpty()) {
+            return Mono.just(copies);
+        }
+        return Mono.fromCallable(() -> {
+                    Map<String, String> failures = driveUtility.createPermissionsInBatch(driveInstance, copiedFileIds, userEmail, "writer", false);
+                    // A copy the user cannot open is useless; remove it rather than leave an orphan in the folder.
+                    deleteUnpermissionedCopies(driveInstance, failures.keySet());
+                    return copies.stream()
+                            .map(copy -> copy.copied() && failures.containsKey(copy.file().getId())
+                                    ? new TemplateCopy(copy.template(), null, "Failed to grant permission: " + failures.get(copy.file().getId()))
+                                    : copy)
+                            .collect(Collectors.toList());
+                })
+                .subscribeOn(appSchedulers.drive())
+                .onErrorResume(e -> {
+                    // The whole batch failed, so none of the copies is usable: remove them all.
+                    log.error("DriveService: Batch permission request for {} copies failed for {}: {}",
+                            copiedFileIds.size(), userEmail, e.getMessage(), e);
+                    return Mono.fromCallable(() -> {
+                                deleteUnpermissionedCopies(driveInstance, copiedFileIds);
+                                return copies.stream()
+                                        .map(copy -> copy.copied()
+                                                ? new TemplateCopy(copy.template(), null, "Failed to grant permission: " + e.getMessage())
+                                                : copy)
+                                        .collect(Collectors.toList());
+                            })
+                            .subscribeOn(appSchedulers.drive());
+                });
+    }
+
+    private void deleteUnpermissionedCopies(Drive driveInstance, Collection<String> fileIds) {
+        for (String fileId : fileIds) {
+            try {
+                driveUtility.deleteDriveFile(driveInstance, fileId);
+            } catch (IOException e) {
+                log.warn("DriveService: Could not remove unpermissioned copy '{}': {}", fileId, e.getMessage());
+            }
+        }
+    }
+
+    private Mono<BulkTemplateReplicationResponse> saveReplicatedTemplates(User user, List<TemplateCopy> copies, long maxUserSpaceBytes) {
+        List<UserFile> userFiles = copies.stream()
+                .filter(TemplateCopy::copied)
+                .map(copy -> newTemplateUserFile(user, copy.template(), copy.file(), effectiveTemplateProvider(copy.template().getProvider())))
+                .collect(Collectors.toList());
+        long addedBytes = userFiles.stream().mapToLong(UserFile::getSize).sum();
+
+        Mono<Long> usageAfter = userFiles.isEmpty()
+                ? Mono.just(user.getCurrentDriveUsageBytes())
+                : fileChangeTracker.stampAll(user.getId(), userFiles, stamped -> userFileRepository.saveAll(stamped).then())
+                        .then(userRepository.incrementDriveUsage(user.getId(), addedBytes))
+                        .map(User::getCurrentDriveUsageBytes)
+                        .defaultIfEmpty(user.getCurrentDriveUsageBytes() + addedBytes);
+
+        return usageAfter
+                .map(usageBytes -> {
+                    double usageMb = driveUtility.bytesToMegabytes(usageBytes);
+                    double maxMb = driveUtility.bytesToMegabytes(maxUserSpaceBytes);
+                    List<TemplateReplicationResponse> results = copies.stream()
+                            .map(copy -> copy.toResponse(usageMb, maxMb))
+                            .collect(Collectors.toList());
+                    log.info("DriveService: Replicated {} of {} template(s) for {}. New usage: {} bytes.",
+                            userFiles.size(), copies.size(), user.getEmail(), usageBytes);
+                    return new BulkTemplateReplicationResponse(
+                            userFiles.size() == copies.size(),
+                            "Replicated " + userFiles.size() + " of " + copies.size() + " template(s).",
+                            results, usageMb, maxMb);
+                })
+                .onErrorResume(dbError -> {
+                    List<String> driveFileIds = userFiles.stream().map(UserFile::getDriveFileId).collect(Collectors.toList());
+                    log.error("DriveService: CRITICAL: Templates replicated and permissioned in Drive, but failed to save user/file metadata in DB for {}: {}. Drive File IDs: {}",
+                            user.getEmail(), dbError.getMessage(), driveFileIds, dbError);
+                    return Mono.just(new BulkTemplateReplicationResponse(false,
+                            "Templates replicated to Drive, but failed to update internal database records. Please contact support. Drive File IDs: " + driveFileIds,
+                            Collections.emptyList(),
+                            driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
+                            driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                });
+    }
+
+    /**
+     * Gives the user their own instance of a master template: a pre-copied one from the warm pool when
+     * available (a move and rename), otherwise a fresh copy of the master.
+     */
+    private Mono<File> obtainTemplateCopy(Drive driveInstance, String templateDriveId, String newFileName, String userFolderId) {
+        return templateWarmPool.claim(driveInstance, templateDriveId, newFileName, userFolderId)
+                .switchIfEmpty(Mono.fromCallable(() -> {
+                    File copiedFile = driveUtility.copyFileToDrive(driveInstance, templateDriveId, newFileName, userFolderId);
+                    if (copiedFile == null || copiedFile.getId() == null) {
+                        throw new IOException("Failed to copy template file to Google Drive.");
                     }
+                    return copiedFile;
+                }).subscribeOn(appSchedulers.drive()));
+    }
 
-                    log.info("DriveService: Proceeding to fetch all UserFile records from MongoDB directly by their 'email' field: '{}'.", lowercaseEmail);
-
-                    // Step 2: Retrieve all UserFile records for the user directly by the 'email' field from MongoDB.
-                    // findByEmail returns Flux<UserFile>. collectList() turns it into Mono<List<UserFile>>.
-                    log.debug("DriveService: Calling userFileRepository.findByEmail({}) and collecting to list.", lowercaseEmail);
-                    return userFileRepository.findByEmail(lowercaseEmail) // <--- CRITICAL: Now using findByEmail
-                            .collectList()
-                            .flatMap(userFiles -> {
-                                log.info("DriveService: Successfully retrieved {} UserFile records from MongoDB for user email: '{}'.", userFiles.size(), lowercaseEmail);
-                                log.debug("DriveService: Starting transformation of UserFile records to FileDetail DTOs.");
-                                List<FileDetail> fileDetails = new ArrayList<>();
-
-                                for (UserFile userFile : userFiles) {
-                                    log.debug("DriveService: Processing UserFile - MongoDB ID: '{}', DriveFileId: '{}', Filename: '{}', MimeType: '{}', Size: {} bytes, Provider: '{}'.",
-                                            userFile.getId(), userFile.getDriveFileId(), userFile.getFilename(),
-                                            userFile.getMimeType(), userFile.getSize(), userFile.getTemplateProvider());
-
-                                    String uploadedAtString = null;
-                                    if (userFile.getUploadedAt() != null) {
-                                        uploadedAtString = userFile.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toString();
-                                        log.debug("DriveService: UserFile uploadedAt (LocalDateTime): '{}', Converted to String: '{}'.", userFile.getUploadedAt(), uploadedAtString);
-                                    } else {
-                                        log.debug("DriveService: UserFile uploadedAt is null for file '{}'.", userFile.getDriveFileId());
-                                    }
+    /**
+     * Overwrites the client-supplied template metadata with the server-side catalog entry, when the
+     * template is in the catalog. Values the catalog does not have are left as sent by the client.
+     */
+    private TemplateReplicationRequest applyCatalogMetadata(TemplateReplicationRequest request) {
+        templateCatalogService.find(request.getDrive_id()).ifPresent(item -> {
+            request.setName(preferCatalog(item.getName(), request.getName()));
+            request.setCategory(preferCatalog(item.getCategory(), request.getCategory()));
+            request.setImage_url(preferCatalog(item.getImageUrl(), request.getImage_url()));
+            request.setDescription(preferCatalog(item.getDescription(), request.getDescription()));
+            request.setSpotlight(preferCatalog(item.getSpotlight(), request.getSpotlight()));
+            request.setProvider(preferCatalog(item.getProvider(), request.getProvider()));
+        });
+        return request;
+    }
 
-                                    String embedLink = null;
-                                    String mimeType = userFile.getMimeType();
-                                    String webViewLink = userFile.getWebViewLink();
-
-                                    log.debug("DriveService: Determining embedLink for file '{}'. WebViewLink: '{}', MimeType: '{}'.", userFile.getFilename(), webViewLink, mimeType);
-                                    if (webViewLink != null) {
-                                        if (mimeType != null && mimeType.startsWith("application/vnd.google-apps.")) {
-                                            embedLink = webViewLink;
-                                            log.debug("DriveService: Google Workspace file ({}). Using webViewLink as embedLink: '{}'.", mimeType, embedLink);
-                                        } else {
-                                            embedLink = webViewLink
-                                                    .replace("/view?usp=drivesdk", "/preview")
-                                                    .replace("/view", "/preview");
-                                            log.debug("DriveService: Non-Google Workspace file ({}). Transformed webViewLink to embedLink: '{}'.", mimeType, embedLink);
-                                        }
-                                    } else {
-                                        log.warn("DriveService: No webViewLink found in MongoDB record for file ID: '{}'. Cannot generate embedLink for '{}'.", userFile.getDriveFileId(), userFile.getFilename());
-                                    }
+    // A busy Drive is not a failed operation: DriveBusyException propagates so the controller can answer 503.
+    private static boolean isReportedAsFailure(Throwable e) {
+        return e instanceof Exception && !DriveBusyException.isCauseOf(e);
+    }
 
-                                    FileDetail detail = new FileDetail(
-                                            userFile.getId(),
-                                            userFile.getDriveFileId(),
-                                            userFile.getFilename(),
-                                            userFile.getMimeType(),
-                                            Objects.requireNonNullElse(userFile.getSize(), 0L),
-                                            uploadedAtString,
-                                            userFile.getWebViewLink(),
-                                            null, // webContentLink is not currently used in FileDetail
-                                            embedLink,
-                                            userFile.getTemplateProvider()
-                                    );
-                                    fileDetails.add(detail);
-                                    log.debug("DriveService: Added FileDetail for '{}'. Details: {}", userFile.getFilename(), detail.toString());
-                                }
+    private static String preferCatalog(String catalogValue, String requestValue) {
+        return catalogValue != null && !catalogValue.isEmpty() ? catalogValue : requestValue;
+    }
 
-                                log.info("DriveService: Finished transforming files. Total {} FileDetails prepared for response.", fileDetails.size());
-                                log.debug("DriveService: Current Drive Usage for user '{}': {} bytes ({} MB). Max Quota: {} MB.",
-                                        user.getEmail(), user.getCurrentDriveUsageBytes(),
-                                        driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
-                                        driveUtility.bytesToMegabytes(maxUserSpaceBytes));
+    // Falls back to the application's own provider when the request does not name one.
+    private static String effectiveTemplateProvider(String requestTemplateProvider) {
+        return (requestTemplateProvider == null || requestTemplateProvider.isEmpty()) ? "APPLICANTACE" : requestTemplateProvider;
+    }
 
-                                // Constructing the final FileListResponse
-                                FileListResponse response = new FileListResponse(
-                                        true, "Files retrieved successfully from MongoDB.", fileDetails,
-                                        driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
-                                        driveUtility.bytesToMegabytes(maxUserSpaceBytes));
-                                log.info("DriveService: Returning successful FileListResponse. Success: {}, Message: '{}', Files Count: {}.",
-                                        response.getSuccess(), response.getMessage(), response.getFiles().size());
-                                return Mono.just(response);
-                            })
-                            // Error handling for MongoDB file retrieval
-                            .onErrorResume(Exception.class, e -> {
-                                log.error("DriveService: CRITICAL ERROR - Failed to retrieve or process user files from MongoDB for user '{}': {}. Error type: {}. Stack Trace: ",
-                                        lowercaseEmail, e.getMessage(), e.getClass().getSimpleName(), e);
-                                return Mono.just(new FileListResponse(false, "Failed to retrieve files from database: " + e.getMessage(),
-                                        Collections.emptyList(),
-                                        driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
-                                        driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
-                            })
-                            .subscribeOn(Schedulers.boundedElastic());
+    private UserFile newTemplateUserFile(User user, TemplateReplicationRequest template, File copiedFile, String templateProvider) {
+        UserFile userFile = new UserFile();
+        userFile.setUserId(user.getId()); // Link to the user document
+        userFile.setEmail(user.getEmail()); // Also sets the canonical emailKey used by listings
+        userFile.setDriveFileId(copiedFile.getId());
+        userFile.setFilename(copiedFile.getName());
+        userFile.setMimeType(copiedFile.getMimeType());
+        userFile.setSize(copiedFile.getSize() != null ? copiedFile.getSize() : 0L);
+        userFile.setWebViewLink(copiedFile.getWebViewLink());
+        userFile.setWebContentLink(copiedFile.getWebContentLink());
+        userFile.setUploadedAt(LocalDateTime.now());
+        userFile.setLastModified(LocalDateTime.now()); // Set initial last modified time
+
+        // Store the template details
+        userFile.setTemplateName(template.getName());
+        userFile.setTemplateCategory(template.getCategory());
+        userFile.setTemplateImageUrl(template.getImage_url());
+        userFile.setDescription(template.getDescription());
+        userFile.setTemplateSpotlight(template.getSpotlight());
+        userFile.setTemplateProvider(templateProvider);
+        userFile.setOriginalTemplateDriveId(template.getDrive_id()); // Store original template's ID
+        return userFile;
+    }
+
+    /**
+     * Outcome of copying one template during a bulk replication: either the copied Drive file or the error.
+     */
+    private record TemplateCopy(TemplateReplicationRequest template, File file, String error) {
+
+        boolean copied() {
+            return file != null;
+        }
+
+        TemplateReplicationResponse toResponse(double usageMb, double maxMb) {
+            String provider = effectiveTemplateProvider(template.getProvider());
+            if (!copied()) {
+                return new TemplateReplicationResponse(false, "Failed to replicate template: " + error,
+                        template.getNewFileName(), null, null, null, usageMb, maxMb, provider);
+            }
+            return new TemplateReplicationResponse(true, "Template replicated and permissioned successfully.",
+                    template.getNewFileName(), file.getId(), file.getName(), file.getWebViewLink(), usageMb, maxMb, provider);
+        }
+    }
+    /**
+     * Retrieves a list of file details for a specific user from a given Google Drive folder.
+     * All of the user's files are returned in a single response; see the paginated overload
+     * for large libraries.
+     *
+     * @param email The email of the user whose files are to be listed.
+     * @param folderId The Google Drive ID of the specific folder (e.g., user's "docs" folder ID).
+     * NOTE: The current implementation primarily fetches from MongoDB based on the user's email key
+     * and does not filter by `folderId` from Drive. If `folderId` filtering from Drive
+     * is needed, additional Drive API calls and logic would be required here.
+     * @return A Mono emitting a FileListResponse containing the file details or an error message.
+     */
+    public Mono<FileListResponse> getAllFileDetails(String email, String folderId) {
+        return getAllFileDetails(email, folderId, null, null);
+    }
+
+    /**
+     * Retrieves one page of a user's files, newest first. Pages are addressed with keyset cursors on
+     * (uploadedAt, _id), so each page is a bounded index range scan no matter how deep into the library it is,
+     * and only the fields needed for a {@link FileDetail} are read from MongoDB.
+     *
+     * @param email The email of the user whose files are to be listed.
+     * @param folderId The Google Drive ID of the requested folder (currently informational only).
+     * @param cursor The cursor returned as nextCursor by the previous page, or null for the first page.
+     * @param pageSize The maximum number of files to return (capped at MAX_LIST_PAGE_SIZE), or null to return all files.
+     * @return A Mono emitting a FileListResponse with the page of files and, if more files exist, a nextCursor.
+     */
+    public Mono<FileListResponse> getAllFileDetails(String email, String folderId, String cursor, Integer pageSize) {
+        String emailKey = EmailNormalizer.normalize(email);
+        long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
+        boolean paginated = pageSize != null;
+        int limit = paginated ? Math.max(1, Math.min(pageSize, MAX_LIST_PAGE_SIZE)) : 0;
+
+        FileListCursor after;
+        try {
+            after = FileListCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("DriveService: Invalid file list cursor received for user '{}'.", emailKey);
+            return Mono.just(new FileListResponse(
+                    false, "Invalid cursor for file listing.",
+                    Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+        }
+        log.info("DriveService: Listing files for user '{}' (folder: {}, pageSize: {}, cursor: {}).",
+                emailKey, folderId, paginated ? limit : "all", after != null ? "yes" : "none");
+
+        return userRepository.findByNormalizedEmail(email)
+                // Read the change version before the files, so anything changed meanwhile is re-sent on the next delta sync.
+                .flatMap(user -> fileChangeTracker.currentVersion(user.getId()).flatMap(version -> userFileRepository.findListingPage(
+                                emailKey,
+                                after != null ? after.uploadedAt() : null,
+                                after != null ? after.id() : null,
+                                // Fetch one extra record to learn whether another page exists.
+                                paginated ? limit + 1 : 0)
+                        .collectList()
+                        .map(userFiles -> {
+                            boolean hasMore = paginated && userFiles.size() > limit;
+                            List<UserFile> page = hasMore ? userFiles.subList(0, limit) : userFiles;
+                            List<FileDetail> fileDetails = page.stream()
+                                    .map(this::toFileDetail)
+                                    .collect(Collectors.toList());
+
+                            FileListResponse response = new FileListResponse(
+                                    true, "Files retrieved successfully from MongoDB.", fileDetails,
+                                    driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
+                                    driveUtility.bytesToMegabytes(maxUserSpaceBytes));
+                            if (hasMore) {
+                                UserFile last = page.get(page.size() - 1);
+                                response.setNextCursor(new FileListCursor(last.getUploadedAt(), last.getId()).encode());
+                            }
+                            response.setVersion(version);
+                            response.setDelta(false);
+                            response.setDeletedFileIds(Collections.emptyList());
+                            log.info("DriveService: Returning {} file(s) for user '{}' (more: {}).", fileDetails.size(), emailKey, hasMore);
+                            return response;
+                        })
+                        // Error handling for MongoDB file retrieval
+                        .onErrorResume(DriveService::isReportedAsFailure, e -> {
+                            log.error("DriveService: Failed to retrieve user files from MongoDB for user '{}': {}", emailKey, e.getMessage(), e);
+                            return Mono.just(new FileListResponse(false, "Failed to retrieve files from database: " + e.getMessage(),
+                                    Collections.emptyList(),
+                                    driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
+                                    driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                        })))
+                // Handle the case where the user lookup returns an empty Mono (user not found).
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("DriveService: User with email {} not found. Cannot provide quota or file list.", emailKey);
+                    return Mono.just(new FileListResponse(
+                            false, "User not found for file listing operation. Cannot retrieve files or quota.",
+                            Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
+                }));
+    }
+
+    /**
+     * Delta sync: returns only the files created, replicated or renamed after the given change version,
+     * plus the Drive IDs of files deleted after it. If the version is unknown to the server (0, negative
+     * or ahead of the current version) or older than the tombstone retention, so that deletions since then
+     * may have been forgotten, a full listing is returned instead, flagged with delta=false.
+     *
+     * @param email The email of the user whose files are to be synced.
+     * @param folderId The Google Drive ID of the requested folder (currently informational only).
+     * @param since The last change version the client has seen.
+     * @return A Mono emitting a FileListResponse with the changes and the new version.
+     */
+    public Mono<FileListResponse> getFileChangesSince(String email, String folderId, long since) {
+        long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
+
+        return userRepository.findByNormalizedEmail(email)
+                .flatMap(user -> fileChangeTracker.syncPoint(user.getId()).flatMap(syncPoint -> {
+                    long version = syncPoint.version();
+                    if (since <= 0 || since > version) {
+                        log.info("DriveService: Version {} unknown for user '{}' (current {}); sending full listing.", since, user.getEmail(), version);
+                        return getAllFileDetails(email, folderId);
+                    }
+                    if (since < syncPoint.oldestDeltaVersion()) {
+                        log.info("DriveService: Version {} of user '{}' predates the tombstone retention (oldest {}); sending full listing.",
+                                since, user.getEmail(), syncPoint.oldestDeltaVersion());
+                        return getAllFileDetails(email, folderId);
+                    }
+                    if (since == version) {
+                        return Mono.just(buildDeltaResponse(user, version, Collections.emptyList(), Collections.emptyList(), maxUserSpaceBytes));
+                    }
+                    return Mono.zip(
+                                    userFileRepository.findChangedSince(user.getId(), since).map(this::toFileDetail).collectList(),
+                                    fileChangeTracker.findDeletedSince(user.getId(), since).map(tombstone -> tombstone.getDriveFileId()).collectList())
+                            .map(changes -> {
+                                log.info("DriveService: Delta sync for user '{}' from version {} to {}: {} changed, {} deleted.",
+                                        user.getEmail(), since, version, changes.getT1().size(), changes.getT2().size());
+                                return buildDeltaResponse(user, version, changes.getT1(), changes.getT2(), maxUserSpaceBytes);
+                            });
+                }))
+                .onErrorResume(DriveService::isReportedAsFailure, e -> {
+                    log.error("DriveService: Failed to compute file changes since version {} for user '{}': {}", since, email, e.getMessage(), e);
+                    return Mono.just(new FileListResponse(false, "Failed to retrieve files from database: " + e.getMessage(),
+                            Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
                 })
-                // Handle the case where userRepository.findByEmail(email) returns an empty Mono (user not found).
                 .switchIfEmpty(Mono.defer(() -> {
-                    log.error("DriveService: User with email {} not found by userRepository.findByEmail. Cannot provide quota or file list.", lowercaseEmail);
+                    log.error("DriveService: User with email {} not found. Cannot provide file changes.", email);
                     return Mono.just(new FileListResponse(
                             false, "User not found for file listing operation. Cannot retrieve files or quota.",
-                            Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(driveProperties.getMaxUserSpaceBytes())));
+                            Collections.emptyList(), 0.0, driveUtility.bytesToMegabytes(maxUserSpaceBytes)));
                 }));
     }
+
+    private FileListResponse buildDeltaResponse(User user, long version, List<FileDetail> changedFiles,
+                                                List<String> deletedFileIds, long maxUserSpaceBytes) {
+        FileListResponse response = new FileListResponse(
+                true, "File changes retrieved successfully from MongoDB.", changedFiles,
+                driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()),
+                driveUtility.bytesToMegabytes(maxUserSpaceBytes));
+        response.setVersion(version);
+        response.setDelta(true);
+        response.setDeletedFileIds(deletedFileIds);
+        return response;
+    }
+
+    /**
+     * Computes the ETag of a file listing without reading any files: it only depends on the user's
+     * change version, storage usage and the listing parameters. Lets the controller answer
+     * If-None-Match polls with 304 Not Modified for idle users.
+     *
+     * @param email The email of the user whose files are listed.
+     * @param cursor The requested page cursor (may be null).
+     * @param pageSize The requested page size (may be null).
+     * @param since The requested delta-sync version (may be null).
+     * @return A Mono emitting the weak ETag, or empty if the user does not exist.
+     */
+    public Mono<String> computeListingEtag(String email, String cursor, Integer pageSize, Long since) {
+        return userRepository.findByNormalizedEmail(email)
+                .flatMap(user -> fileChangeTracker.currentVersion(user.getId())
+                        .map(version -> String.format("W/\"v%d-u%d-%08x\"",
+                                version, user.getCurrentDriveUsageBytes(), Objects.hash(cursor, pageSize, since))));
+    }
+
+    /**
+     * Streams all of a user's files, newest first, one {@link FileDetail} at a time. Backed by a single
+     * MongoDB cursor with a field projection, so memory use does not grow with the size of the library.
+     *
+     * @param email The email of the user whose files are to be listed.
+     * @return A Flux emitting the user's files; empty if the user has none (or does not exist).
+     */
+    public Flux<FileDetail> streamFileDetails(String email) {
+        String emailKey = EmailNormalizer.normalize(email);
+        log.info("DriveService: Streaming file listing for user '{}'.", emailKey);
+        return userFileRepository.findListingPage(emailKey, null, null, 0)
+                .map(this::toFileDetail);
+    }
+
+    /**
+     * Maps a (projected) UserFile to the FileDetail DTO, deriving the embed link from the web view link.
+     */
+    private FileDetail toFileDetail(UserFile userFile) {
+        String uploadedAtString = userFile.getUploadedAt() != null
+                ? userFile.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toString()
+                : null;
+
+        String embedLink = null;
+        String mimeType = userFile.getMimeType();
+        String webViewLink = userFile.getWebViewLink();
+        if (webViewLink != null) {
+            if (mimeType != null && mimeType.startsWith("application/vnd.google-apps.")) {
+                // Google Workspace files can be embedded through their view link directly.
+                embedLink = webViewLink;
+            } else {
+                embedLink = webViewLink
+                        .replace("/view?usp=drivesdk", "/preview")
+                        .replace("/view", "/preview");
+            }
+        }
+
+        return new FileDetail(
+                userFile.getId(),
+                userFile.getDriveFileId(),
+                userFile.getFilename(),
+                mimeType,
+                Objects.requireNonNullElse(userFile.getSize(), 0L),
+                uploadedAtString,
+                webViewLink,
+                null, // webContentLink is not currently used in FileDetail
+                embedLink,
+                userFile.getTemplateProvider()
+        );
+    }
+
     /**
      * Deletes a specific file from Google Drive and updates the user's storage quota
      * in the application's database. It performs checks to ensure the file belongs
@@ -589,7 +942,7 @@ public class DriveService {
      */
 
     public Mono<DeleteResponse> deleteFile(String email, String fileId) {
-        return userRepository.findByEmail(email)
+        return userRepository.findByNormalizedEmail(email)
                 .flatMap(user -> {
                     long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
                     if (user == null) {
@@ -632,28 +985,28 @@ public class DriveService {
                                 log.info("DriveService: File ID '{}' deleted from Google Drive.", fileId);
 
                                 return userFileRepository.findByDriveFileId(fileId)
-                                        .flatMap(userFile -> userFileRepository.delete(userFile).thenReturn(userFile.getSize()))
+                                        .flatMap(userFile -> userFileRepository.delete(userFile)
+                                                .then(fileChangeTracker.recordDeletion(user.getId(), userFile))
+                                                .thenReturn(Objects.requireNonNullElse(userFile.getSize(), deletedFileSize)))
                                         .defaultIfEmpty(deletedFileSize) // Use deletedFileSize from Drive if not found in DB
-                                        .flatMap(actualDeletedSize -> {
-                                            long newUsage = Math.max(0, user.getCurrentDriveUsageBytes() - actualDeletedSize);
-                                            user.setCurrentDriveUsageBytes(newUsage);
-                                            return userRepository.save(user)
-                                                    .map(updatedUser -> {
+                                        .flatMap(actualDeletedSize -> userRepository.decrementDriveUsage(user.getId(), actualDeletedSize)
+                                                    .map(User::getCurrentDriveUsageBytes)
+                                                    .defaultIfEmpty(Math.max(0, user.getCurrentDriveUsageBytes() - actualDeletedSize))
+                                                    .map(usageBytes -> {
                                                         log.info("DriveService: File ID '{}' deleted from DB and user usage updated for {}. New usage: {} bytes.",
-                                                                fileId, email, updatedUser.getCurrentDriveUsageBytes());
+                                                                fileId, email, usageBytes);
                                                         return new DeleteResponse(
                                                                 true,
                                                                 "File deleted successfully. Storage updated.",
                                                                 fileId,
                                                                 actualDeletedSize,
-                                                                driveUtility.bytesToMegabytes(updatedUser.getCurrentDriveUsageBytes()),
+                                                                driveUtility.bytesToMegabytes(usageBytes),
                                                                 driveUtility.bytesToMegabytes(maxUserSpaceBytes)
                                                         );
-                                                    });
-                                        });
-                            }).subscribeOn(Schedulers.boundedElastic())
+                                                    }));
+                            }).subscribeOn(appSchedulers.drive())
                                     .flatMap(monoResponse -> monoResponse)
-                                    .onErrorResume(e -> {
+                                    .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                         log.error("DriveService: Failed to delete file ID '{}' for user {}: {}", fileId, email, e.getMessage(), e);
                                         return Mono.just(new DeleteResponse(
                                                 false,
@@ -679,7 +1032,7 @@ public class DriveService {
      * @return A Mono emitting a DownloadResult with the file content and metadata.
      */
     public Mono<DownloadResult> downloadFile(String email, String fileId) {
-        return userRepository.findByEmail(email)
+        return userRepository.findByNormalizedEmail(email)
                 .flatMap(user -> {
                     if (user == null) {
                         log.error("DriveService: User with email {} not found for file download.", email);
@@ -719,9 +1072,9 @@ public class DriveService {
                                 log.info("DriveService: File ID '{}' content downloaded successfully for user {}.", fileId, email);
                                 return new DownloadResult(true, "File downloaded successfully.",
                                         fileContent, driveFile.getName(), driveFile.getMimeType());
-                            }).subscribeOn(Schedulers.boundedElastic())
+                            }).subscribeOn(appSchedulers.drive())
                     )
-                            .onErrorResume(Exception.class, e -> {
+                            .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                 log.error("DriveService: Failed to download file ID '{}' for user {}: {}", fileId, email, e.getMessage(), e);
                                 return Mono.just(new DownloadResult(false, "Failed to download file from Google Drive: " + e.getMessage(), null, null, null));
                             });
@@ -741,7 +1094,7 @@ public class DriveService {
      * @return A Mono emitting a FileRenameResponse indicating success or failure.
      */
     public Mono<FileRenameResponse> renameFile(String userEmail, String fileId, String newFileName) {
-        return userRepository.findByEmail(userEmail)
+        return userRepository.findByNormalizedEmail(userEmail)
                 .flatMap(user -> {
                     long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
                     if (user == null) {
@@ -787,7 +1140,7 @@ public class DriveService {
                                         .flatMap(userFile -> {
                                             userFile.setFilename(renamedFile.getName());
                                             userFile.setWebViewLink(renamedFile.getWebViewLink()); // Link might change if name is part of it
-                                            return userFileRepository.save(userFile);
+                                            return fileChangeTracker.stamp(user.getId(), userFile, userFileRepository::save);
                                         })
                                         .map(updatedUserFile -> {
                                             log.info("DriveService: File ID '{}' renamed in DB for user {}.", fileId, userEmail);
@@ -802,9 +1155,9 @@ public class DriveService {
                                             );
                                         })
                                         .switchIfEmpty(Mono.error(new IOException("File metadata not found in database for update after Drive rename.")));
-                            }).subscribeOn(Schedulers.boundedElastic())
+                            }).subscribeOn(appSchedulers.drive())
                                     .flatMap(monoResponse -> monoResponse) // Flatten Mono<Mono<FileRenameResponse>>
-                                    .onErrorResume(Exception.class, e -> {
+                                    .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                         log.error("DriveService: Failed to rename file ID '{}' for user {}: {}", fileId, userEmail, e.getMessage(), e);
                                         return Mono.just(new FileRenameResponse(
                                                 false,
@@ -833,7 +1186,7 @@ public class DriveService {
      * @return A Mono emitting a PermissionUpdateResponse indicating success or failure.
      */
     public Mono<PermissionUpdateResponse> updateFilePermission(String userEmail, String fileId, String targetEmail, String role, String action) {
-        return userRepository.findByEmail(userEmail)
+        return userRepository.findByNormalizedEmail(userEmail)
                 .flatMap(user -> {
                     // Check if the acting user exists
                     if (user == null) {
@@ -888,9 +1241,9 @@ public class DriveService {
                                 } else {
                                     throw new IllegalArgumentException("Invalid action specified for permission update: " + action + ". Must be 'add' or 'remove'.");
                                 }
-                            }).subscribeOn(Schedulers.boundedElastic())
+                            }).subscribeOn(appSchedulers.drive())
                     )
-                            .onErrorResume(Exception.class, e -> {
+                            .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                 log.error("DriveService: Failed to update permission for file ID '{}' for user {}: {}", fileId, userEmail, e.getMessage(), e);
                                 return Mono.just(new PermissionUpdateResponse(false, "Failed to update permission: " + e.getMessage()));
                             });
@@ -912,7 +1265,7 @@ public class DriveService {
      * @return A Mono emitting a FileExportResponse with the exported file's content and metadata.
      */
     public Mono<FileExportResponse> exportFile(String userEmail, String fileId, String exportMimeType, String newFileName) {
-        return userRepository.findByEmail(userEmail)
+        return userRepository.findByNormalizedEmail(userEmail)
                 .flatMap(user -> {
                     long maxUserSpaceBytes = driveProperties.getMaxUserSpaceBytes();
                     if (user == null) {
@@ -988,9 +1341,9 @@ public class DriveService {
                                         driveUtility.bytesToMegabytes(user.getCurrentDriveUsageBytes()), // Usage not changed by export
                                         driveUtility.bytesToMegabytes(maxUserSpaceBytes)
                                 );
-                            }).subscribeOn(Schedulers.boundedElastic())
+                            }).subscribeOn(appSchedulers.drive())
                     )
-                            .onErrorResume(Exception.class, e -> {
+                            .onErrorResume(DriveService::isReportedAsFailure, e -> {
                                 log.error("DriveService: Failed to export file ID '{}' for user {}: {}", fileId, userEmail, e.getMessage(), e);
                                 String errorMessage = "Failed to export file: " + e.getMessage();
                                 if (e.getMessage().contains("Conversion not supported")) {
@@ -1008,81 +1361,4 @@ public class DriveService {
                     return Mono.just(new FileExportResponse(false, "User not found for file export operation.", null, null, null, 0.0, 0.0));
                 }));
     }
-
-    public Mono<Boolean> deleteUserData(String email) {
-        log.info("DriveService: Initiating deletion for user: {}", email);
-        return userRepository.findByEmail(email)
-                .flatMap(user -> {
-                    if (user == null) {
-                        log.warn("DriveService: User with email {} not found for deletion. No action taken.", email);
-                        return Mono.just(false);
-                    }
-
-                    String userId = user.getId();
-                    String userEmail = user.getEmail(); // Use the email from the found user object
-
-                    // 1. Find the user's root folder in Google Drive
-                    return driveUtility.getDriveInstance().flatMap(driveInstance ->
-                            Mono.fromCallable(() -> {
-                                log.info("DriveService: Searching for user's root folder for email: {}", userEmail);
-                                String masterFolderId = driveProperties.getMasterFolderId();
-                                String query = String.format(
-                                        "mimeType='application/vnd.google-apps.folder' and trashed=false and name='%s' and '%s' in parents",
-                                        userEmail, masterFolderId
-                                );
-                                FileList existingUserFolders = driveInstance.files().list()
-                                        .setQ(query)
-                                        .setSpaces("drive")
-                                        .setFields("files(id)")
-                                        .execute();
-
-                                if (!existingUserFolders.getFiles().isEmpty()) {
-                                    return existingUserFolders.getFiles().get(0).getId();
-                                }
-                                return null; // Folder not found
-                            }).subscribeOn(Schedulers.boundedElastic())
-                                    .flatMap(userFolderId -> {
-                                        Mono<Object> driveDeleteMono = Mono.empty(); // Changed to Mono<Void>
-                                        if (userFolderId != null) {
-                                            log.info("DriveService: Found user folder '{}' with ID '{}'. Trashing...", userEmail, userFolderId);
-                                            driveDeleteMono = driveUtility.deleteDriveFolder(driveInstance, userFolderId)
-                                                    .doOnSuccess(v -> log.info("DriveService: User folder '{}' (ID: {}) trashed successfully.", userEmail, userFolderId))
-                                                    .onErrorResume(e -> {
-                                                        log.error("DriveService: Failed to trash user folder '{}' (ID: {}): {}", userEmail, userFolderId, e.getMessage());
-                                                        // For now, we'll log and continue to delete DB records even if Drive fails.
-                                                        return Mono.empty(); // Continue with database deletion
-                                                    });
-                                        } else {
-                                            log.warn("DriveService: User folder not found for email {}. Skipping Drive deletion.", userEmail);
-                                        }
-
-                                        // 2. Delete all UserFile records for this user
-                                        Mono<Void> userFilesDeleteMono = userFileRepository.deleteByUserId(userId)
-                                                .doOnSuccess(v -> log.info("DriveService: All UserFile records for user ID {} deleted.", userId))
-                                                .onErrorResume(e -> {
-                                                    log.error("DriveService: Failed to delete UserFile records for user ID {}: {}", userId, e.getMessage());
-                                                    return Mono.empty(); // Continue with user deletion
-                                                });
-
-                                        // 3. Delete the User record
-                                        Mono<Void> userDeleteMono = userRepository.delete(user)
-                                                .doOnSuccess(v -> log.info("DriveService: User record for email {} (ID: {}) deleted.", userEmail, userId))
-                                                .onErrorResume(e -> {
-                                                    log.error("DriveService: Failed to delete User record for email {} (ID: {}): {}", userEmail, userId, e.getMessage());
-                                                    return Mono.empty(); // Final operation, if this fails, we report false.
-                                                });
-
-                                        // Combine all deletion operations
-                                        return Mono.when(driveDeleteMono, userFilesDeleteMono, userDeleteMono)
-                                                .thenReturn(true) // If all combined operations complete, return true
-                                                .onErrorResume(e -> {
-                                                    log.error("DriveService: An error occurred during combined deletion operations for user {}: {}", userEmail, e.getMessage());
-                                                    return Mono.just(false); // If any part of the chain fails, return false
-                                                });
-                                    })
-                    );
-                })
-                .defaultIfEmpty(false); // If findByEmail returns empty (user not found), return false
-    }
-
-}
\ No newline at end of file
+}
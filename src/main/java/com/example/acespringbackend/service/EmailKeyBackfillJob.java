@@ -0,0 +1,113 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.model.UserFile;
+import com.example.acespringbackend.repository.UserRepository;
+import com.example.acespringbackend.utility.EmailNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * One-time backfill of the canonical emailKey on records written before the field existed.
+ *
+ * Users get emailKey derived from their own email. UserFiles, many of which were stored without
+ * any email at all, get both email and emailKey from their owning user (matched by userId).
+ * Files without an owner (userId) are skipped, as there is no user to take the email from.
+ * Both steps only select documents that still lack emailKey, so once the backfill has completed
+ * later runs find nothing to do and finish with two cheap indexed queries.
+ */
+@Component
+public class EmailKeyBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailKeyBackfillJob.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+
+    @Value("${migration.email-key-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.email-key-backfill.concurrency:4}")
+    private int concurrency;
+
+    public EmailKeyBackfillJob(ReactiveMongoTemplate mongoTemplate, UserRepository userRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("EmailKeyBackfillJob: Disabled by configuration.");
+            return;
+        }
+        run().subscribe(
+                unused -> { },
+                e -> log.error("EmailKeyBackfillJob: Backfill failed: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Backfills users first, then their files.
+     *
+     * @return Mono that completes when both steps are done.
+     */
+    public Mono<Void> run() {
+        return backfillUsers()
+                .doOnNext(count -> log.info("EmailKeyBackfillJob: Backfilled emailKey on {} user(s).", count))
+                .then(backfillUserFiles())
+                .doOnNext(count -> log.info("EmailKeyBackfillJob: Backfilled email/emailKey on {} user file(s).", count))
+                .then();
+    }
+
+    private Mono<Long> backfillUsers() {
+        Query missingKey = Query.query(Criteria.where("emailKey").exists(false).and("email").ne(null));
+        return mongoTemplate.find(missingKey, User.class)
+                .flatMap(user -> mongoTemplate.updateFirst(
+                                        Query.query(Criteria.where("_id").is(user.getId())),
+                                        new Update().set("emailKey", EmailNormalizer.normalize(user.getEmail())),
+                                        User.class)
+                                .map(result -> result.getModifiedCount())
+                                .onErrorResume(e -> {
+                                    // Most likely two accounts whose emails differ only by case; leave it for manual review.
+                                    log.error("EmailKeyBackfillJob: Could not set emailKey for user {}: {}", user.getEmail(), e.getMessage());
+                                    return Mono.just(0L);
+                                }),
+                        concurrency)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> backfillUserFiles() {
+        // Files without an owner have no email to copy; excluding them also keeps null out of the distinct values.
+        Query missingKey = Query.query(Criteria.where("emailKey").exists(false).and("userId").ne(null));
+        return mongoTemplate.findDistinct(missingKey, "userId", UserFile.class, String.class)
+                .filter(userId -> !userId.isEmpty())
+                .flatMap(userId -> userRepository.findById(userId)
+                                .flatMap(owner -> mongoTemplate.updateMulti(
+                                                Query.query(Criteria.where("userId").is(userId).and("emailKey").exists(false)),
+                                                new Update()
+                                                        .set("email", owner.getEmail())
+                                                        .set("emailKey", EmailNormalizer.normalize(owner.getEmail())),
+                                                UserFile.class)
+                                        .map(result -> result.getModifiedCount()))
+                                .switchIfEmpty(Mono.defer(() -> {
+                                    log.warn("EmailKeyBackfillJob: Files reference unknown user {}; skipping.", userId);
+                                    return Mono.just(0L);
+                                })),
+                        concurrency)
+                .onErrorResume(e -> {
+                    log.error("EmailKeyBackfillJob: User file backfill aborted: {}", e.getMessage(), e);
+                    return Flux.empty();
+                })
+                .reduce(0L, Long::sum);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.model.FileSyncState;
+import com.example.acespringbackend.model.UserFile;
+import com.example.acespringbackend.model.UserFileTombstone;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * FileChangeTracker maintains the per-user change version of the user_files collection and the
+ * tombstones of deleted files. DriveService stamps every mutated UserFile with a fresh version,
+ * which lets listings answer "what changed since version N" and lets clients skip unchanged listings via ETags.
+ *
+ * Versions are reserved before the change is saved, and concurrent saves may finish out of order. Each
+ * reservation is therefore tracked until its save has finished, and listings report the version below the
+ * oldest unfinished one: a client that syncs to that version gets any later change again next time rather
+ * than skipping one that was saved late. Reservations older than drive.sync.in-flight-lease-seconds are
+ * assumed abandoned (e.g. by a crashed instance).
+ */
+@Service
+public class FileChangeTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(FileChangeTracker.class);
+
+    private static final Duration MARK_INTERVAL = Duration.ofDays(1);
+    // Marks at least a day apart, so this covers more than the tombstone retention.
+    private static final int MAX_MARKS = 45;
+
+    /**
+     * A user's sync position.
+     *
+     * @param version            The latest version whose changes (and all earlier ones) are saved.
+     * @param oldestDeltaVersion The oldest version a delta sync can start from; deletions before it may have
+     *                           expired with their tombstones, so older clients need a full listing.
+     */
+    public record SyncPoint(long version, long oldestDeltaVersion) {
+    }
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration inFlightLease;
+
+    public FileChangeTracker(ReactiveMongoTemplate mongoTemplate,
+                             @Value("${drive.sync.in-flight-lease-seconds:60}") long inFlightLeaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.inFlightLease = Duration.ofSeconds(inFlightLeaseSeconds);
+    }
+
+    /**
+     * @param userId The owner's user id.
+     * @return Mono emitting the user's sync position, (0, 0) if nothing has been recorded yet.
+     */
+    public Mono<SyncPoint> syncPoint(String userId) {
+        return mongoTemplate.findById(userId, FileSyncState.class)
+                .map(state -> {
+                    Instant now = Instant.now();
+                    return new SyncPoint(committedVersion(state, now.minus(inFlightLease)),
+                            oldestDeltaVersion(state, now.minusSeconds(UserFileTombstone.RETENTION_SECONDS)));
+                })
+                .defaultIfEmpty(new SyncPoint(0L, 0L));
+    }
+
+    /**
+     * @param userId The owner's user id.
+     * @return Mono emitting the latest version up to which all changes are saved, 0 if nothing has been recorded yet.
+     */
+    public Mono<Long> currentVersion(String userId) {
+        return syncPoint(userId).map(SyncPoint::version);
+    }
+
+    /**
+     * Assigns the next change version to a UserFile and saves it.
+     *
+     * @param userId   The owner's user id.
+     * @param userFile The file being created or updated.
+     * @param save     Saves the stamped file.
+     * @return Mono emitting the result of the save.
+     */
+    public <T> Mono<T> stamp(String userId, UserFile userFile, Function<UserFile, Mono<T>> save) {
+        return withVersions(userId, 1, version -> {
+            userFile.setChangeVersion(version);
+            return save.apply(userFile);
+        });
+    }
+
+    /**
+     * Assigns consecutive change versions to several UserFiles with a single counter update and saves them.
+     *
+     * @param userId    The owner's user id.
+     * @param userFiles The files being created or updated.
+     * @param save      Saves the stamped files.
+     * @return Mono that completes once the files are saved.
+     */
+    public Mono<Void> stampAll(String userId, List<UserFile> userFiles, Function<List<UserFile>, Mono<?>> save) {
+        if (userFiles.isEmpty()) {
+            return Mono.empty();
+        }
+        return withVersions(userId, userFiles.size(), lastVersion -> {
+            long version = lastVersion - userFiles.size();
+            for (UserFile userFile : userFiles) {
+                userFile.setChangeVersion(++version);
+            }
+            return save.apply(userFiles);
+        }).then();
+    }
+
+    /**
+     * Records the deletion of a UserFile so delta-sync clients can remove it.
+     *
+     * @param userId   The owner's user id.
+     * @param userFile The file that was deleted.
+     * @return Mono that completes once the tombstone is stored.
+     */
+    public Mono<Void> recordDeletion(String userId, UserFile userFile) {
+        return withVersions(userId, 1, version -> mongoTemplate.insert(new UserFileTombstone(
+                        userId, userFile.getId(), userFile.getDriveFileId(), version, Instant.now())))
+                .then();
+    }
+
+    /**
+     * @param userId The owner's user id.
+     * @param since  The last version the client has seen; callers check it against {@link SyncPoint#oldestDeltaVersion()}.
+     * @return Flux emitting the tombstones of files deleted after that version, oldest first.
+     */
+    public Flux<UserFileTombstone> findDeletedSince(String userId, long since) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("version").gt(since))
+                .with(Sort.by(Sort.Order.asc("version")));
+        return mongoTemplate.find(query, UserFileTombstone.class);
+    }
+
+    // Reserves 'count' versions, runs the change with the last of them and releases the reservation however it ends.
+    private <T> Mono<T> withVersions(String userId, int count, Function<Long, Mono<T>> change) {
+        return Mono.usingWhen(
+                reserveVersions(userId, count),
+                change,
+                lastVersion -> release(userId, lastVersion),
+                (lastVersion, e) -> release(userId, lastVersion),
+                lastVersion -> release(userId, lastVersion));
+    }
+
+    // Atomically advances the counter by 'count', registers the reservation and returns the last reserved version.
+    private Mono<Long> reserveVersions(String userId, int count) {
+        Instant now = Instant.now();
+        Document liveReservations = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$inFlight", List.of())))
+                .append("cond", new Document("$gte", List.of("$$this.at", Date.from(now.minus(inFlightLease))))));
+        Document reservation = new Document("from", new Document("$subtract", List.of("$version", (long) count - 1)))
+                .append("to", "$version")
+                .append("at", Date.from(now));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                stage(new Document("$set", new Document("version",
+                        new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), (long) count))))),
+                stage(new Document("$set", new Document("inFlight",
+                        new Document("$concatArrays", List.of(liveReservations, List.of(reservation))))))));
+        return mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(userId)),
+                        update,
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        FileSyncState.class)
+                .flatMap(state -> mark(userId, state.getVersion() - count + 1, now).thenReturn(state.getVersion()));
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    private Mono<Void> release(String userId, long lastVersion) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                        new Update().pull("inFlight", new Document("to", lastVersion)), FileSyncState.class)
+                .then();
+    }
+
+    // Records, at most once per MARK_INTERVAL, that every version from firstVersion on was reserved after 'reservedAfter'.
+    private Mono<Void> mark(String userId, long firstVersion, Instant reservedAfter) {
+        Query due = Query.query(Criteria.where("_id").is(userId).orOperator(
+                Criteria.where("lastMarkAt").exists(false),
+                Criteria.where("lastMarkAt").lt(reservedAfter.minus(MARK_INTERVAL))));
+        Update update = new Update().set("lastMarkAt", reservedAfter)
+                .push("marks").slice(-MAX_MARKS).each(new FileSyncState.Mark(firstVersion, reservedAfter));
+        return mongoTemplate.updateFirst(due, update, FileSyncState.class)
+                .then()
+                .onErrorResume(e -> {
+                    // Without the mark, delta syncs only start later; the change itself is not affected.
+                    log.warn("FileChangeTracker: Could not record version mark for user {}: {}", userId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * @param leaseStart Reservations made before this are considered abandoned.
+     * @return The version below every live reservation, i.e. the latest version up to which all changes are saved.
+     */
+    static long committedVersion(FileSyncState state, Instant leaseStart) {
+        long committed = state.getVersion();
+        for (FileSyncState.Reservation reservation : state.getInFlight()) {
+            if (reservation.getAt() != null && !reservation.getAt().isBefore(leaseStart)) {
+                committed = Math.min(committed, reservation.getFrom() - 1);
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * @param retentionStart Tombstones of deletions before this may have expired.
+     * @return The oldest version from which every later deletion still has its tombstone; the current version
+     * if no version is known to have been reserved since retentionStart.
+     */
+    static long oldestDeltaVersion(FileSyncState state, Instant retentionStart) {
+        return state.getMarks().stream()
+                .filter(mark -> mark.getAt() != null && !mark.getAt().isBefore(retentionStart))
+                .mapToLong(mark -> mark.getVersion() - 1)
+                .min()
+                .orElse(state.getVersion());
+    }
+}
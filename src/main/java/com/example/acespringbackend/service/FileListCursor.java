@@ -0,0 +1,46 @@
+package com.example.acespringbackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's file listing: the uploadedAt and id of the last file returned.
+ * Sent to clients as an opaque, URL-safe string so the format can change without breaking them.
+ *
+ * @param uploadedAt uploadedAt of the last file returned (null if that file had none).
+ * @param id         MongoDB id of the last file returned.
+ */
+public record FileListCursor(LocalDateTime uploadedAt, String id) {
+
+    private static final String NO_TIMESTAMP = "-";
+
+    public String encode() {
+        String raw = (uploadedAt != null ? uploadedAt.toString() : NO_TIMESTAMP) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor The opaque cursor string received from a client, may be null or empty.
+     * @return The decoded cursor, or null if no cursor was given.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static FileListCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Malformed file list cursor.");
+            }
+            String timestamp = raw.substring(0, separator);
+            LocalDateTime uploadedAt = NO_TIMESTAMP.equals(timestamp) ? null : LocalDateTime.parse(timestamp);
+            return new FileListCursor(uploadedAt, raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed file list cursor.", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.acespringbackend.service;
 
 import com.example.acespringbackend.auth.dto.GoogleAuthRequest;
 import com.example.acespringbackend.auth.dto.GoogleAuthResponse;
+import com.example.acespringbackend.config.AppSchedulers;
 import com.example.acespringbackend.model.User;
 import com.example.acespringbackend.repository.UserRepository;
 import com.example.acespringbackend.utility.JwtUtility;
@@ -22,12 +23,15 @@ public class FirebaseAuthService {
     private final UserRepository userRepository;
     private final JwtUtility jwtUtility;
     private final DriveService driveService;
+    private final AppSchedulers appSchedulers;
 
-    public FirebaseAuthService(FirebaseAuth firebaseAuth, UserRepository userRepository, JwtUtility jwtUtility, DriveService driveService) {
+    public FirebaseAuthService(FirebaseAuth firebaseAuth, UserRepository userRepository, JwtUtility jwtUtility, DriveService driveService,
+                                AppSchedulers appSchedulers) {
         this.firebaseAuth = firebaseAuth;
         this.userRepository = userRepository;
         this.jwtUtility = jwtUtility;
         this.driveService = driveService;
+        this.appSchedulers = appSchedulers;
     }
 
     private double bytesToMegabytes(long bytes) {
@@ -41,6 +45,7 @@ public class FirebaseAuthService {
         }
 
         return Mono.fromCallable(() -> firebaseAuth.verifyIdToken(idToken))
+                .subscribeOn(appSchedulers.firebase()) // verifyIdToken may block fetching Google's public keys
                 .flatMap(firebaseToken -> {
                     String uid = firebaseToken.getUid();
                     String email = firebaseToken.getEmail();
@@ -56,7 +61,7 @@ public class FirebaseAuthService {
                     System.out.println("Firebase Sign-in Provider (Fixed): google.com");
                     System.out.println("------------------------------");
 
-                    return userRepository.findByEmail(email)
+                    return userRepository.findByNormalizedEmail(email)
                             .flatMap(existingUser -> {
                                 // User already exists, update details
                                 existingUser.setFirebaseIdToken(idToken);
@@ -94,7 +99,7 @@ public class FirebaseAuthService {
                                 // --- END: REFINED USERNAME LOGIC (EXISTING USER) ---
 
                                 // Generate the JWT using the 7-day expiration method
-                                String appJwtToken = jwtUtility.generateToken7Days(existingUser.getEmail());
+                                String appJwtToken = jwtUtility.generateToken7Days(existingUser);
                                 existingUser.setAccessToken(appJwtToken);
 
                                 Mono<User> userSaveMono;
@@ -150,7 +155,7 @@ public class FirebaseAuthService {
                                 newUser.setLastLogin(now);
 
                                 // Generate the JWT for new user
-                                String appJwtToken = jwtUtility.generateToken7Days(newUser.getEmail());
+                                String appJwtToken = jwtUtility.generateToken7Days(newUser);
                                 newUser.setAccessToken(appJwtToken);
 
                                 return userRepository.save(newUser) // Save the new user
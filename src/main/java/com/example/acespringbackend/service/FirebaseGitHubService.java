@@ -243,6 +243,7 @@ package com.example.acespringbackend.service;
 
 import com.example.acespringbackend.auth.dto.GithubResponse;
 import com.example.acespringbackend.auth.dto.GithubRequest;
+import com.example.acespringbackend.config.AppSchedulers;
 import com.example.acespringbackend.utility.JwtUtility;
 import com.example.acespringbackend.model.User;
 import com.example.acespringbackend.repository.UserRepository;
@@ -270,12 +271,15 @@ public class FirebaseGitHubService {
     private final UserRepository userRepository;
     private final JwtUtility jwtUtility;
     private final DriveService driveService;
+    private final AppSchedulers appSchedulers;
 
-    public FirebaseGitHubService(FirebaseAuth firebaseAuth, UserRepository userRepository, JwtUtility jwtUtility, DriveService driveService) {
+    public FirebaseGitHubService(FirebaseAuth firebaseAuth, UserRepository userRepository, JwtUtility jwtUtility, DriveService driveService,
+                                 AppSchedulers appSchedulers) {
         this.firebaseAuth = firebaseAuth;
         this.userRepository = userRepository;
         this.jwtUtility = jwtUtility;
         this.driveService = driveService;
+        this.appSchedulers = appSchedulers;
     }
 
     // Helper method to convert bytes to megabytes for the response DTO
@@ -298,6 +302,7 @@ public class FirebaseGitHubService {
         }
 
         return Mono.fromCallable(() -> firebaseAuth.verifyIdToken(idToken))
+                .subscribeOn(appSchedulers.firebase()) // verifyIdToken may block fetching Google's public keys
                 .flatMap(firebaseToken -> {
                     String uid = firebaseToken.getUid();
                     String email = firebaseToken.getEmail();
@@ -355,7 +360,7 @@ public class FirebaseGitHubService {
                     Integer githubFollowing = null;
 
 
-                    return userRepository.findByEmail(finalEmail)
+                    return userRepository.findByNormalizedEmail(finalEmail)
                             .flatMap(existingUser -> {
                                 logger.info("Found existing user with email: {}", existingUser.getEmail());
                                 existingUser.setFirebaseIdToken(idToken);
@@ -383,7 +388,7 @@ public class FirebaseGitHubService {
                                 existingUser.setGithubFollowing(githubFollowing);
 
                                 // GENERATE and SET the application JWT here for existing user (7-day expiration)
-                                String appJwtToken = jwtUtility.generateToken7Days(existingUser.getEmail());
+                                String appJwtToken = jwtUtility.generateToken7Days(existingUser);
                                 existingUser.setAccessToken(appJwtToken);
                                 logger.debug("Generated and set JWT for existing user: {}", existingUser.getEmail());
 
@@ -443,7 +448,7 @@ public class FirebaseGitHubService {
                                 newUser.setLastLogin(now);
 
                                 // GENERATE and SET the application JWT here for new user (7-day expiration)
-                                String appJwtToken = jwtUtility.generateToken7Days(newUser.getEmail());
+                                String appJwtToken = jwtUtility.generateToken7Days(newUser);
                                 newUser.setAccessToken(appJwtToken);
                                 logger.debug("Generated and set JWT for new user: {}", newUser.getEmail());
 
@@ -0,0 +1,26 @@
+package com.example.acespringbackend.service;
+
+/**
+ * A non-2xx reply from a Gemini endpoint, carrying the HTTP status so {@link GeminiService} can decide whether
+ * the next endpoint of the route is worth trying and which {@link GeminiMetrics} outcome to record.
+ */
+public class GeminiApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public GeminiApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return Whether the endpoint is overloaded or failing (429 or 5xx), so a fallback model is worth trying.
+     */
+    public boolean isRetryableElsewhere() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
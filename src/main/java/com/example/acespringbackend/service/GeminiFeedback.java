@@ -0,0 +1,101 @@
+package com.example.acespringbackend.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed forms of Gemini's structured (JSON) replies to the deep-check prompts, the response schemas that
+ * request them, and their Markdown rendering. The Markdown keeps the layout the frontend already renders.
+ */
+public final class GeminiFeedback {
+
+    private static final Map<String, Object> STRING_ARRAY = Map.of("type", "ARRAY", "items", Map.of("type", "STRING"));
+
+    /**
+     * Response schema for {@link ResumeFeedback}.
+     */
+    public static final Map<String, Object> RESUME_FEEDBACK_SCHEMA = Map.of(
+            "type", "OBJECT",
+            "properties", Map.of("feedback", STRING_ARRAY, "missingKeywords", STRING_ARRAY),
+            "required", List.of("feedback", "missingKeywords"));
+
+    /**
+     * Response schema for {@link Comparison}.
+     */
+    public static final Map<String, Object> COMPARISON_SCHEMA = Map.of(
+            "type", "OBJECT",
+            "properties", Map.of(
+                    "jobs", Map.of("type", "ARRAY", "items", Map.of(
+                            "type", "OBJECT",
+                            "properties", Map.of("job", Map.of("type", "INTEGER"), "feedback", STRING_ARRAY, "missingKeywords", STRING_ARRAY),
+                            "required", List.of("job", "feedback", "missingKeywords"))),
+                    "comparison", STRING_ARRAY),
+            "required", List.of("jobs", "comparison"));
+
+    private GeminiFeedback() {
+    }
+
+    /**
+     * Feedback on a resume for one job.
+     *
+     * @param feedback        Actionable suggestions, one per item.
+     * @param missingKeywords Important terms of the job the resume lacks.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ResumeFeedback(List<String> feedback, List<String> missingKeywords) {
+
+        public ResumeFeedback {
+            feedback = feedback == null ? List.of() : feedback;
+            missingKeywords = missingKeywords == null ? List.of() : missingKeywords;
+        }
+
+        /**
+         * @return The feedback as a Markdown bullet list, followed by the missing keywords if there are any.
+         */
+        public String toMarkdown() {
+            return bullets(feedback) + (missingKeywords.isEmpty() ? "" : "\n\n**Keywords to add:** " + String.join(", ", missingKeywords));
+        }
+    }
+
+    /**
+     * Feedback on a resume for one of several compared jobs.
+     *
+     * @param job             1-based number of the job in the prompt.
+     * @param feedback        Actionable suggestions, one per item.
+     * @param missingKeywords Important terms of the job the resume lacks.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record JobFeedback(int job, List<String> feedback, List<String> missingKeywords) {
+
+        public ResumeFeedback toResumeFeedback() {
+            return new ResumeFeedback(feedback, missingKeywords);
+        }
+    }
+
+    /**
+     * Feedback on a resume compared against several jobs.
+     *
+     * @param jobs       Feedback per job.
+     * @param comparison Points on which job the resume fits best and why.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Comparison(List<JobFeedback> jobs, List<String> comparison) {
+
+        public Comparison {
+            jobs = jobs == null ? List.of() : jobs;
+            comparison = comparison == null ? List.of() : comparison;
+        }
+    }
+
+    static String bullets(List<String> items) {
+        StringBuilder markdown = new StringBuilder();
+        for (String item : items) {
+            if (item != null && !item.isBlank()) {
+                markdown.append("* ").append(item.strip()).append('\n');
+            }
+        }
+        return markdown.toString().strip();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.acespringbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Micrometer metrics of Gemini calls, per route:
+ *
+ * - gemini.request: latency of each attempt, tagged with workload, model and outcome
+ *   (success, timeout, rate_limited, error),
+ * - gemini.tokens: prompt and output tokens reported by Gemini, tagged with workload, model and type;
+ *   multiplied by the model's price, these give the cost of each route,
+ * - gemini.fallback: switches to the next endpoint of a route, tagged with workload and the models involved.
+ */
+@Component
+public class GeminiMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_RATE_LIMITED = "rate_limited";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public GeminiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param workload The workload of the call.
+     * @param model    The model the attempt went to.
+     * @param outcome  One of the OUTCOME_* constants.
+     * @param latency  How long the attempt took.
+     */
+    public void recordRequest(GeminiWorkload workload, String model, String outcome, Duration latency) {
+        Timer.builder("gemini.request")
+                .tag("workload", workload.key())
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    /**
+     * @param workload     The workload of the call.
+     * @param model        The model that answered.
+     * @param promptTokens Tokens of the prompt.
+     * @param outputTokens Tokens of the reply.
+     */
+    public void recordTokens(GeminiWorkload workload, String model, long promptTokens, long outputTokens) {
+        tokens(workload, model, "prompt").record(promptTokens);
+        tokens(workload, model, "output").record(outputTokens);
+    }
+
+    /**
+     * @param workload The workload of the call.
+     * @param from     The model that failed.
+     * @param to       The model tried next.
+     */
+    public void recordFallback(GeminiWorkload workload, String from, String to) {
+        Counter.builder("gemini.fallback")
+                .tag("workload", workload.key())
+                .tag("from", from)
+                .tag("to", to)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private DistributionSummary tokens(GeminiWorkload workload, String model, String type) {
+        return DistributionSummary.builder("gemini.tokens")
+                .baseUnit("tokens")
+                .tag("workload", workload.key())
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.acespringbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps each {@link GeminiWorkload} to its route: an ordered chain of model endpoints, a per-attempt timeout
+ * and an output token limit. Routes are configured per workload key:
+ *
+ * - {@code gemini.routes.<key>.urls}: comma-separated endpoints, primary first; defaults to gemini.api.url followed by
+ *   gemini.api.fallback-urls,
+ * - {@code gemini.routes.<key>.timeout-seconds}: how long one attempt may take before the next endpoint is tried,
+ * - {@code gemini.routes.<key>.max-output-tokens}: generationConfig.maxOutputTokens (0 = the model's default).
+ *
+ * A lighter, faster model later in the chain takes over when the primary times out, is rate-limited or fails.
+ */
+@Component
+public class GeminiRouter {
+
+    /**
+     * The route of one workload.
+     *
+     * @param workload        The workload.
+     * @param endpoints       Model endpoints in order of preference; never empty.
+     * @param timeout         Timeout of a single attempt.
+     * @param maxOutputTokens Output token limit, or 0 for the model's default.
+     */
+    public record Route(GeminiWorkload workload, List<String> endpoints, Duration timeout, int maxOutputTokens) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiRouter.class);
+
+    private static final Map<GeminiWorkload, Integer> DEFAULT_TIMEOUT_SECONDS = Map.of(
+            GeminiWorkload.ATS_DEEP, 60, GeminiWorkload.JOT, 30, GeminiWorkload.COVER_LETTER, 45, GeminiWorkload.CHAT, 30);
+    private static final Map<GeminiWorkload, Integer> DEFAULT_MAX_OUTPUT_TOKENS = Map.of(
+            GeminiWorkload.ATS_DEEP, 4096, GeminiWorkload.JOT, 4096, GeminiWorkload.COVER_LETTER, 2048, GeminiWorkload.CHAT, 2048);
+
+    private final Map<GeminiWorkload, Route> routes = new EnumMap<>(GeminiWorkload.class);
+
+    public GeminiRouter(Environment environment,
+                        @Value("${gemini.api.url}") String defaultUrl,
+                        @Value("${gemini.api.fallback-urls:}") String fallbackUrls) {
+        List<String> defaultChain = new ArrayList<>();
+        defaultChain.add(defaultUrl.strip());
+        defaultChain.addAll(splitUrls(fallbackUrls));
+
+        for (GeminiWorkload workload : GeminiWorkload.values()) {
+            String prefix = "gemini.routes." + workload.key() + ".";
+            List<String> endpoints = splitUrls(environment.getProperty(prefix + "urls", ""));
+            int timeoutSeconds = environment.getProperty(prefix + "timeout-seconds", Integer.class, DEFAULT_TIMEOUT_SECONDS.get(workload));
+            int maxOutputTokens = environment.getProperty(prefix + "max-output-tokens", Integer.class, DEFAULT_MAX_OUTPUT_TOKENS.get(workload));
+            Route route = new Route(workload, endpoints.isEmpty() ? List.copyOf(defaultChain) : endpoints,
+                    Duration.ofSeconds(timeoutSeconds), maxOutputTokens);
+            routes.put(workload, route);
+            log.info("GeminiRouter: {} -> {}, timeout {}s, max output tokens {}.",
+                    workload.key(), route.endpoints().stream().map(GeminiRouter::modelName).toList(), timeoutSeconds, maxOutputTokens);
+        }
+    }
+
+    /**
+     * @param workload The kind of work.
+     * @return Its route.
+     */
+    public Route route(GeminiWorkload workload) {
+        return routes.get(workload);
+    }
+
+    /**
+     * @param endpoint A Gemini endpoint such as .../v1beta/models/gemini-1.5-flash:generateContent.
+     * @return The model name in it (gemini-1.5-flash), or the endpoint itself if it has none; used as a metrics tag.
+     */
+    public static String modelName(String endpoint) {
+        int start = endpoint.indexOf("/models/");
+        if (start < 0) {
+            return endpoint;
+        }
+        start += "/models/".length();
+        int end = endpoint.indexOf(':', start);
+        return endpoint.substring(start, end < 0 ? endpoint.length() : end);
+    }
+
+    private static List<String> splitUrls(String urls) {
+        return Arrays.stream(urls.split(",")).map(String::strip).filter(url -> !url.isEmpty()).toList();
+    }
+}
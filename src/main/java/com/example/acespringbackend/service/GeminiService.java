@@ -1,9 +1,16 @@
 package com.example.acespringbackend.service;
 
+import com.example.acespringbackend.config.AppSchedulers;
 import com.example.acespringbackend.utility.PdfTextExtractor;
+import com.example.acespringbackend.utility.ResumeSectionSegmenter;
 import com.example.acespringbackend.auth.dto.AtsResponse;
+import com.example.acespringbackend.auth.dto.JobMatchResult;
+import com.example.acespringbackend.auth.dto.JobPosting;
+import com.example.acespringbackend.auth.dto.MultiJobAtsResponse;
 import com.example.acespringbackend.model.AtsResult;
 import com.example.acespringbackend.repository.AtsResultRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
@@ -13,15 +20,22 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
 import reactor.util.retry.Retry;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,19 +43,45 @@ import java.util.regex.Pattern;
 @Service
 public class GeminiService {
 
-    private final String geminiApiUrl;
+    /**
+     * Start of the reply Gemini calls return when every API key failed; callers can tell it apart from model output.
+     */
+    public static final String GEMINI_ERROR_PREFIX = "⚠️ Gemini API error";
+
+    private static final Pattern COMPARISON_JOB_HEADING = Pattern.compile("(?im)^\\s*#{1,4}\\s*\\**\\s*Job\\s+(\\d+)\\b.*$");
+    private static final Pattern COMPARISON_HEADING = Pattern.compile("(?im)^\\s*#{1,4}\\s*\\**\\s*Comparison\\b.*$");
+
     private final WebClient webClient;
     private final List<String> apiKeys;
     private final AtomicInteger currentApiKeyIndex = new AtomicInteger(0);
     private final AtsResultRepository atsResultRepository;
-
-    public GeminiService(@Value("${gemini.api.url}") String geminiApiUrl,
-                         @Value("${gemini.api.keys}") String apiKeysString,
+    private final AppSchedulers appSchedulers;
+    private final LocalAtsScorer localAtsScorer;
+    private final JobDescriptionAnalyzer jobDescriptionAnalyzer;
+    private final ObjectMapper objectMapper;
+    private final GeminiRouter geminiRouter;
+    private final GeminiMetrics geminiMetrics;
+    private final boolean structuredOutput;
+
+    public GeminiService(@Value("${gemini.api.keys}") String apiKeysString,
                          AtsResultRepository atsResultRepository,
-                         WebClient.Builder webClientBuilder) {
-        this.geminiApiUrl = geminiApiUrl;
+                         WebClient.Builder webClientBuilder,
+                         AppSchedulers appSchedulers,
+                         LocalAtsScorer localAtsScorer,
+                         JobDescriptionAnalyzer jobDescriptionAnalyzer,
+                         ObjectMapper objectMapper,
+                         GeminiRouter geminiRouter,
+                         GeminiMetrics geminiMetrics,
+                         @Value("${gemini.structured-output:true}") boolean structuredOutput) {
         this.apiKeys = Arrays.asList(apiKeysString.split(","));
         this.atsResultRepository = atsResultRepository;
+        this.appSchedulers = appSchedulers;
+        this.localAtsScorer = localAtsScorer;
+        this.jobDescriptionAnalyzer = jobDescriptionAnalyzer;
+        this.objectMapper = objectMapper;
+        this.geminiRouter = geminiRouter;
+        this.geminiMetrics = geminiMetrics;
+        this.structuredOutput = structuredOutput;
         this.webClient = webClientBuilder.build();
         if (this.apiKeys.isEmpty()) {
             throw new IllegalArgumentException("No Gemini API keys provided in application.properties (gemini.api.keys)");
@@ -51,13 +91,17 @@ public class GeminiService {
 
     // Changed MultipartFile to byte[]
     public Mono<AtsResponse> getAtsScore(byte[] fileBytes, String originalFileName, boolean isDeepCheck, String jobTitle, String jobDescription, String userEmail, String userId) {
-        String fullPdfText;
-        try {
-            fullPdfText = PdfTextExtractor.extractText(fileBytes); // Use the byte[]
-        } catch (IOException e) {
-            return Mono.just(new AtsResponse("0", "", "", true, "Error extracting text from PDF: " + e.getMessage()));
-        }
+        // PDF parsing is CPU-bound, so it runs on the dedicated pdf scheduler rather than the event loop.
+        // Lines are extracted with their font cues so the segmenter can tell headings from body text.
+        return Mono.fromCallable(() -> ResumeSectionSegmenter.segment(PdfTextExtractor.extractLines(fileBytes)))
+                .subscribeOn(appSchedulers.pdf())
+                .flatMap(resume -> scoreResumeText(resume, originalFileName, isDeepCheck, jobTitle, jobDescription, userEmail, userId))
+                .onErrorResume(IOException.class, e ->
+                        Mono.just(new AtsResponse("0", "", "", true, "Error extracting text from PDF: " + e.getMessage())));
+    }
 
+    private Mono<AtsResponse> scoreResumeText(ResumeSectionSegmenter.SegmentedResume resume, String originalFileName, boolean isDeepCheck, String jobTitle, String jobDescription, String userEmail, String userId) {
+        String fullPdfText = resume.text();
         if (fullPdfText == null || fullPdfText.trim().isEmpty()) {
             return Mono.just(new AtsResponse("0", "", "", true, "Could not extract text from the provided PDF file. It might be empty or unreadable."));
         }
@@ -65,18 +109,18 @@ public class GeminiService {
         final String finalFullPdfText = fullPdfText;
         final String finalFileName = (originalFileName != null && !originalFileName.isEmpty()) ? originalFileName : "untitled_resume_" + System.currentTimeMillis() + ".pdf";
 
-        List<Map<String, Object>> parts = buildGeminiPromptParts(isDeepCheck, jobTitle, jobDescription, finalFullPdfText);
-
-        return callGemini(parts)
-                .flatMap(geminiMarkdownResponse -> {
-                    int atsScoreInt = extractScoreFromGeminiResponse(geminiMarkdownResponse);
+        // The score always comes from the deterministic local scorer; Gemini is only asked for narrative feedback on deep checks.
+        LocalAtsScorer.Result localResult = localAtsScorer.score(resume, jobTitle, jobDescription);
+        int atsScoreInt = localResult.score();
 
+        return atsReport(resume, localResult, isDeepCheck, jobTitle, jobDescription)
+                .flatMap(atsMarkdownResponse -> {
                     Mono<AtsResult> saveOrUpdateMono;
                     if (userEmail != null && !userEmail.isEmpty()) {
                         saveOrUpdateMono = atsResultRepository.findByUserEmailAndFileName(userEmail, finalFileName)
                                 .flatMap(existingResult -> {
                                     existingResult.setAtsScore(atsScoreInt);
-                                    existingResult.setFullAtsResponse(geminiMarkdownResponse);
+                                    existingResult.setFullAtsResponse(atsMarkdownResponse);
                                     existingResult.setExtractedResumeContent(finalFullPdfText);
                                     existingResult.setJobTitle(jobTitle);
                                     existingResult.setJobDescription(jobDescription);
@@ -95,7 +139,7 @@ public class GeminiService {
                                             jobTitle,
                                             jobDescription,
                                             finalFullPdfText,
-                                            geminiMarkdownResponse,
+                                            atsMarkdownResponse,
                                             atsScoreInt,
                                             LocalDateTime.now()
                                     );
@@ -107,12 +151,12 @@ public class GeminiService {
                         saveOrUpdateMono = Mono.empty();
                     }
 
-                    return saveOrUpdateMono.then(Mono.just(new AtsResponse(String.valueOf(atsScoreInt), geminiMarkdownResponse, finalFullPdfText, false, null)))
+                    return saveOrUpdateMono.then(Mono.just(new AtsResponse(String.valueOf(atsScoreInt), atsMarkdownResponse, finalFullPdfText, false, null)))
                                            .onErrorResume(e -> {
                                                System.err.println("Error saving/updating ATS result: " + e.getMessage());
-                                               return Mono.just(new AtsResponse(String.valueOf(atsScoreInt), geminiMarkdownResponse, finalFullPdfText, true, "Error saving result: " + e.getMessage()));
+                                               return Mono.just(new AtsResponse(String.valueOf(atsScoreInt), atsMarkdownResponse, finalFullPdfText, true, "Error saving result: " + e.getMessage()));
                                            })
-                                           .defaultIfEmpty(new AtsResponse(String.valueOf(atsScoreInt), geminiMarkdownResponse, finalFullPdfText, false, null));
+                                           .defaultIfEmpty(new AtsResponse(String.valueOf(atsScoreInt), atsMarkdownResponse, finalFullPdfText, false, null));
                 })
                 .onErrorResume(e -> {
                     System.err.println("Error during Gemini API call or processing: " + e.getMessage());
@@ -122,62 +166,276 @@ public class GeminiService {
     }
 
 
-    private List<Map<String, Object>> buildGeminiPromptParts(boolean isDeepCheck, String jobTitle, String jobDescription, String fullPdfText) {
+    /**
+     * Scores an already extracted resume without saving the result, e.g. for batch checks that persist in bulk.
+     * A failed Gemini call on a deep check does not error the Mono: the report then carries a message starting with
+     * {@link #GEMINI_ERROR_PREFIX} in place of the feedback, which callers check for.
+     *
+     * @return Mono emitting the score, the report and the resume text.
+     */
+    public Mono<AtsResponse> evaluateResume(ResumeSectionSegmenter.SegmentedResume resume, boolean isDeepCheck, String jobTitle, String jobDescription) {
+        if (resume.text().isBlank()) {
+            return Mono.just(new AtsResponse("0", "", "", true, "Could not extract text from the provided PDF file. It might be empty or unreadable."));
+        }
+        LocalAtsScorer.Result localResult = localAtsScorer.score(resume, jobTitle, jobDescription);
+        return atsReport(resume, localResult, isDeepCheck, jobTitle, jobDescription)
+                .map(report -> new AtsResponse(String.valueOf(localResult.score()), report, resume.text(), false, null));
+    }
+
+    /**
+     * @return The number of configured Gemini API keys; callers fanning out Gemini calls size their concurrency by it.
+     */
+    public int getApiKeyCount() {
+        return apiKeys.size();
+    }
+
+    // The Markdown report: the local breakdown, plus Gemini's narrative feedback on deep checks.
+    private Mono<String> atsReport(ResumeSectionSegmenter.SegmentedResume resume, LocalAtsScorer.Result localResult, boolean isDeepCheck, String jobTitle, String jobDescription) {
+        if (!isDeepCheck) {
+            return Mono.just(localResult.toMarkdown());
+        }
+        List<Map<String, Object>> parts = buildGeminiPromptParts(jobTitle, jobDescription, resume, localResult);
+        Mono<String> feedbackMono = structuredOutput
+                ? callGemini(GeminiWorkload.ATS_DEEP, parts, GeminiFeedback.RESUME_FEEDBACK_SCHEMA)
+                        .map(reply -> decode(reply, GeminiFeedback.ResumeFeedback.class).map(GeminiFeedback.ResumeFeedback::toMarkdown).orElse(reply))
+                : callGemini(GeminiWorkload.ATS_DEEP, parts, null);
+        return feedbackMono.map(geminiFeedback -> localResult.toMarkdown() + "\n\n**Detailed Feedback:**\n" + geminiFeedback);
+    }
+
+    // Deep-check prompt: the score is already computed locally, so Gemini only writes the narrative feedback.
+    private List<Map<String, Object>> buildGeminiPromptParts(String jobTitle, String jobDescription, ResumeSectionSegmenter.SegmentedResume resume, LocalAtsScorer.Result localResult) {
         List<Map<String, Object>> parts = new ArrayList<>();
-        String resumeContentForPrompt;
+        String resumeContentForPrompt = resumeContentForPrompt(resume);
 
-        if (isDeepCheck) {
-            Map<String, String> blocks = PdfTextExtractor.extractSpecificBlocks(fullPdfText);
-            String experienceBlock = blocks.getOrDefault("experience", "");
-            String skillsBlock = blocks.getOrDefault("skills", "");
+        parts.add(Map.of("text", "You are an expert ATS (Applicant Tracking System) and HR professional. Your task is to analyze the provided resume content against the given job description and job title."));
+        if (jobTitle != null && !jobTitle.trim().isEmpty()) {
+            parts.add(Map.of("text", "\n\n### Job Title:\n" + jobTitle));
+        }
+        if (jobDescription != null && !jobDescription.trim().isEmpty()) {
+            // The cached digest of the job description stands in for the full posting.
+            parts.add(Map.of("text", "\n\n### Job Description (digest):\n" + jobDescriptionAnalyzer.promptText(jobDescription)));
+        }
+        parts.add(Map.of("text", "\n\n### Candidate Resume Content:\n" + resumeContentForPrompt));
+        parts.add(Map.of("text", "\n\n### Automated ATS Analysis:\n" + localResult.toMarkdown()));
+        if (structuredOutput) {
+            parts.add(Map.of("text", "\n\nThe ATS score above has already been computed; do not produce a score of your own. In feedback, give specific actionable points on how to improve the resume for this particular job, focusing on keywords, experience alignment, and structure, and building on the automated analysis; one point per item. In missingKeywords, list the job's most important terms the resume lacks."));
+        } else {
+            parts.add(Map.of("text", "\n\nThe ATS score above has already been computed; do not produce a score of your own. Provide specific actionable feedback on how to improve the resume for this particular job, focusing on keywords, experience alignment, and structure, and building on the automated analysis. Format your response in Markdown as a bullet list:\n\n* [Point 1]\n* [Point 2]\n* [Point 3]..."));
+        }
+        return parts;
+    }
 
-            StringBuilder blockTextBuilder = new StringBuilder();
-            if (!experienceBlock.isEmpty()) {
-                blockTextBuilder.append("### Experience Block:\n").append(experienceBlock).append("\n\n");
-            }
-            if (!skillsBlock.isEmpty()) {
-                blockTextBuilder.append("### Skills Block:\n").append(skillsBlock).append("\n\n");
+
+    // Only the sections the feedback is about are sent, which keeps the prompt short.
+    private String resumeContentForPrompt(ResumeSectionSegmenter.SegmentedResume resume) {
+        StringBuilder blockTextBuilder = new StringBuilder();
+        for (ResumeSectionSegmenter.SectionType type : List.of(ResumeSectionSegmenter.SectionType.SUMMARY,
+                ResumeSectionSegmenter.SectionType.EXPERIENCE, ResumeSectionSegmenter.SectionType.PROJECTS,
+                ResumeSectionSegmenter.SectionType.SKILLS)) {
+            String block = resume.contentOf(type);
+            if (!block.isEmpty()) {
+                String name = type.name().charAt(0) + type.name().substring(1).toLowerCase();
+                blockTextBuilder.append("### ").append(name).append(" Block:\n").append(block).append("\n\n");
             }
-            resumeContentForPrompt = blockTextBuilder.toString().trim();
+        }
+        String resumeContentForPrompt = blockTextBuilder.toString().trim();
+        if (resumeContentForPrompt.isEmpty()) {
+            System.out.println("GeminiService: Deep check requested, but specific blocks not found. Falling back to full resume text for detailed analysis.");
+            return resume.text();
+        }
+        return resumeContentForPrompt;
+    }
 
-            if (resumeContentForPrompt.isEmpty()) {
-                System.out.println("GeminiService: Deep check requested, but specific blocks not found. Falling back to full resume text for detailed analysis.");
-                resumeContentForPrompt = fullPdfText;
+    /**
+     * Scores one resume against several job postings. The PDF is extracted and segmented once and scored locally
+     * against every job; on deep checks, a single Gemini request carries the resume once plus every job's digest
+     * and asks for per-job feedback and a comparison.
+     *
+     * @param fileBytes   The resume PDF.
+     * @param jobs        The job postings, at least one, each with a title or a description.
+     * @param isDeepCheck Whether to ask Gemini for feedback.
+     * @return Mono emitting the comparison, one result per job in submission order; errors with
+     * IllegalArgumentException if a job has neither title nor description.
+     */
+    public Mono<MultiJobAtsResponse> compareJobs(byte[] fileBytes, List<JobPosting> jobs, boolean isDeepCheck) {
+        for (int i = 0; i < jobs.size(); i++) {
+            JobPosting job = jobs.get(i);
+            if ((job.getJobTitle() == null || job.getJobTitle().isBlank()) && (job.getJobDescription() == null || job.getJobDescription().isBlank())) {
+                return Mono.error(new IllegalArgumentException("Job " + (i + 1) + " has neither a title nor a description."));
             }
+        }
+        return Mono.fromCallable(() -> {
+                    ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(PdfTextExtractor.extractLines(fileBytes));
+                    // Local scoring takes milliseconds per job, so all jobs are scored in the same pass as the extraction.
+                    List<LocalAtsScorer.Result> localResults = resume.text().isBlank() ? List.of()
+                            : jobs.stream().map(job -> localAtsScorer.score(resume, job.getJobTitle(), job.getJobDescription())).toList();
+                    return Tuples.of(resume, localResults);
+                })
+                .subscribeOn(appSchedulers.pdf())
+                .flatMap(extracted -> {
+                    ResumeSectionSegmenter.SegmentedResume resume = extracted.getT1();
+                    List<LocalAtsScorer.Result> localResults = extracted.getT2();
+                    if (localResults.isEmpty()) {
+                        return Mono.just(new MultiJobAtsResponse(List.of(), -1, null, "", true, "Could not extract text from the provided PDF file. It might be empty or unreadable."));
+                    }
+                    Mono<Map<Integer, String>> feedbackMono = isDeepCheck
+                            ? comparisonFeedback(buildComparisonPromptParts(resume, jobs, localResults))
+                            : Mono.just(Map.of());
+                    return feedbackMono.map(feedback -> {
+                        List<JobMatchResult> results = new ArrayList<>();
+                        int best = 0;
+                        for (int i = 0; i < jobs.size(); i++) {
+                            LocalAtsScorer.Result local = localResults.get(i);
+                            String jobFeedback = feedback.get(i + 1);
+                            String report = jobFeedback == null ? local.toMarkdown() : local.toMarkdown() + "\n\n**Detailed Feedback:**\n" + jobFeedback;
+                            results.add(new JobMatchResult(jobs.get(i).getJobTitle(), local.score(),
+                                    (int) Math.round(local.keywords().coverage() * 100), local.skills().matched(), local.skills().missing(), report));
+                            if (local.score() > localResults.get(best).score()) {
+                                best = i;
+                            }
+                        }
+                        // Feedback Gemini did not attribute to a single job (or all of it, if it ignored the layout) is the comparison.
+                        return new MultiJobAtsResponse(results, best, feedback.get(0), resume.text(), false, null);
+                    });
+                })
+                .onErrorResume(IOException.class, e ->
+                        Mono.just(new MultiJobAtsResponse(List.of(), -1, null, "", true, "Error extracting text from PDF: " + e.getMessage())));
+    }
 
-            parts.add(Map.of("text", "You are an expert ATS (Applicant Tracking System) and HR professional. Your task is to analyze the provided resume content against the given job description and job title."));
-            if (jobTitle != null && !jobTitle.trim().isEmpty()) {
-                parts.add(Map.of("text", "\n\n### Job Title:\n" + jobTitle));
+    // One prompt for all jobs: the resume blocks and the job-independent findings are sent once.
+    private List<Map<String, Object>> buildComparisonPromptParts(ResumeSectionSegmenter.SegmentedResume resume, List<JobPosting> jobs,
+                                                                List<LocalAtsScorer.Result> localResults) {
+        List<Map<String, Object>> parts = new ArrayList<>();
+        parts.add(Map.of("text", "You are an expert ATS (Applicant Tracking System) and HR professional. Your task is to compare the provided resume content against each of the following " + jobs.size() + " jobs."));
+        parts.add(Map.of("text", "\n\n### Candidate Resume Content:\n" + resumeContentForPrompt(resume)));
+        for (int i = 0; i < jobs.size(); i++) {
+            JobPosting job = jobs.get(i);
+            LocalAtsScorer.Result local = localResults.get(i);
+            StringBuilder jobText = new StringBuilder("\n\n### Job ").append(i + 1);
+            if (job.getJobTitle() != null && !job.getJobTitle().isBlank()) {
+                jobText.append(": ").append(job.getJobTitle().strip());
             }
-            if (jobDescription != null && !jobDescription.trim().isEmpty()) {
-                parts.add(Map.of("text", "\n\n### Job Description:\n" + jobDescription));
+            jobText.append("\nAutomated ATS score: ").append(local.score()).append("/100");
+            if (!local.skills().missing().isEmpty()) {
+                jobText.append("\nMissing skills: ").append(String.join(", ", local.skills().missing()));
             }
-            parts.add(Map.of("text", "\n\n### Candidate Resume Content:\n" + resumeContentForPrompt));
-            parts.add(Map.of("text", "\n\nBased on the above, provide a detailed ATS score (0-100). The score should primarily reflect keyword matching, formatting, and overall relevance to the job description. Also, provide specific actionable feedback on how to improve the resume for this particular job, focusing on keywords, experience alignment, and structure. Format your response in Markdown properly with indentation as follows:\n\n**ATS Score:** [SCORE]/100\n\n**Feedback:**\n* [Point 1]\n* [Point 2]\n* [Point 3]...\n\n**Full Extracted Resume Content:**\n```markdown\n" + fullPdfText + "\n```"));
-
-        } else {
-            System.out.println("GeminiService: Rough ATS check requested. Sending full resume text to Gemini.");
-            resumeContentForPrompt = fullPdfText;
-            parts.add(Map.of("text", "You are an expert ATS (Applicant Tracking System). Give a **rough ATS score (0-100)** for the following resume. Focus primarily on its overall structure, clarity of sections like contact info, summary/objective, and work experience. Format your response in Markdown as follows:\n\n**ATS Score:** [SCORE]/100\n\n**Full Extracted Resume Content:**\n```markdown\n" + fullPdfText + "\n```"));
+            if (!local.keywords().missing().isEmpty()) {
+                jobText.append("\nMissing key terms: ").append(String.join(", ", local.keywords().missing()));
+            }
+            if (job.getJobDescription() != null && !job.getJobDescription().isBlank()) {
+                jobText.append("\nJob Description (digest):\n").append(jobDescriptionAnalyzer.promptText(job.getJobDescription()));
+            }
+            parts.add(Map.of("text", jobText.toString()));
+        }
+        if (structuredOutput) {
+            parts.add(Map.of("text", "\n\nThe ATS scores above have already been computed; do not produce scores of your own. "
+                    + "For each job, add an entry to jobs with its number as job, specific actionable points on how to improve the resume for that job as feedback (one point per item), and the job's most important terms the resume lacks as missingKeywords. "
+                    + "In comparison, say which job the resume fits best and why, in a few points."));
+            return parts;
         }
+        parts.add(Map.of("text", "\n\nThe ATS scores above have already been computed; do not produce scores of your own. "
+                + "For each job, write a section that starts with a line \"## Job <number>\" followed by a Markdown bullet list of specific actionable feedback on how to improve the resume for that job. "
+                + "Finish with a section that starts with a line \"## Comparison\" saying which job the resume fits best and why, in a few bullets."));
         return parts;
     }
 
+    // Per-job feedback (by 1-based job number) and the comparison (key 0) as Markdown.
+    private Mono<Map<Integer, String>> comparisonFeedback(List<Map<String, Object>> parts) {
+        if (!structuredOutput) {
+            return callGemini(GeminiWorkload.ATS_DEEP, parts, null).map(GeminiService::splitComparisonFeedback);
+        }
+        return callGemini(GeminiWorkload.ATS_DEEP, parts, GeminiFeedback.COMPARISON_SCHEMA)
+                .map(reply -> decode(reply, GeminiFeedback.Comparison.class)
+                        .map(comparison -> {
+                            Map<Integer, String> sections = new HashMap<>();
+                            comparison.jobs().forEach(job -> sections.putIfAbsent(job.job(), job.toResumeFeedback().toMarkdown()));
+                            String overall = GeminiFeedback.bullets(comparison.comparison());
+                            if (!overall.isEmpty()) {
+                                sections.put(0, overall);
+                            }
+                            return sections;
+                        })
+                        .orElseGet(() -> splitComparisonFeedback(reply)));
+    }
+
+    // Decodes a structured reply; empty if it is not valid JSON of the expected shape (e.g. an error message).
+    private <T> Optional<T> decode(String reply, Class<T> type) {
+        if (reply.startsWith(GEMINI_ERROR_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(reply, type));
+        } catch (JsonProcessingException e) {
+            System.err.println("GeminiService: Could not decode structured Gemini reply as " + type.getSimpleName() + ": " + e.getOriginalMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Splits the comparison reply at its "## Job <n>" headings; key 0 holds the text outside any job section.
+    static Map<Integer, String> splitComparisonFeedback(String reply) {
+        Map<Integer, String> sections = new HashMap<>();
+        Matcher heading = COMPARISON_JOB_HEADING.matcher(reply);
+        StringBuilder unattributed = new StringBuilder();
+        int previousEnd = 0;
+        Integer previousJob = null;
+        while (heading.find()) {
+            String body = reply.substring(previousEnd, heading.start()).strip();
+            if (previousJob == null) {
+                unattributed.append(body);
+            } else {
+                sections.put(previousJob, body);
+            }
+            previousJob = Integer.valueOf(heading.group(1));
+            previousEnd = heading.end();
+        }
+        String tail = reply.substring(previousEnd).strip();
+        Matcher comparison = COMPARISON_HEADING.matcher(tail);
+        if (previousJob != null && comparison.find()) {
+            sections.put(previousJob, tail.substring(0, comparison.start()).strip());
+            tail = tail.substring(comparison.end()).strip();
+        } else if (previousJob != null) {
+            sections.put(previousJob, tail);
+            tail = "";
+        }
+        String rest = (unattributed + "\n\n" + tail).strip();
+        if (!rest.isEmpty()) {
+            sections.put(0, rest);
+        }
+        return sections;
+    }
 
     public Mono<String> getGeminiReply(String prompt) {
-        List<Map<String, Object>> contentParts = List.of(Map.of("text", prompt));
-        return callGemini(contentParts);
+        return getGeminiReply(prompt, GeminiWorkload.CHAT);
     }
 
-    private Mono<String> callGemini(List<Map<String, Object>> contentParts) {
-        Map<String, Object> requestBody = Map.of(
-                "contents", List.of(
-                        Map.of("parts", contentParts)
-                )
-        );
+    /**
+     * Sends a plain prompt on the route (models, timeout, token limit) of the given workload.
+     *
+     * @param prompt   The prompt.
+     * @param workload The kind of work, which selects the route.
+     * @return Mono emitting Gemini's reply, or a message starting with {@link #GEMINI_ERROR_PREFIX} if every key and model failed.
+     */
+    public Mono<String> getGeminiReply(String prompt, GeminiWorkload workload) {
+        List<Map<String, Object>> contentParts = List.of(Map.of("text", prompt));
+        return callGemini(workload, contentParts, null);
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    // With a response schema, Gemini replies with JSON matching it instead of free-form text.
+    private Mono<String> callGemini(GeminiWorkload workload, List<Map<String, Object>> contentParts, Map<String, Object> responseSchema) {
+        GeminiRouter.Route route = geminiRouter.route(workload);
+        Map<String, Object> generationConfig = new LinkedHashMap<>();
+        if (route.maxOutputTokens() > 0) {
+            generationConfig.put("maxOutputTokens", route.maxOutputTokens());
+        }
+        if (responseSchema != null) {
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.put("responseSchema", responseSchema);
+        }
+        Map<String, Object> requestBody = new LinkedHashMap<>();
+        requestBody.put("contents", List.of(Map.of("parts", contentParts)));
+        if (!generationConfig.isEmpty()) {
+            requestBody.put("generationConfig", generationConfig);
+        }
 
         System.out.println("Gemini Request Body: " + requestBody);
         if (!contentParts.isEmpty() && contentParts.get(0).containsKey("text")) {
@@ -185,12 +443,47 @@ public class GeminiService {
              System.out.println("Gemini Prompt Content (first 500 chars): " + promptText.substring(0, Math.min(promptText.length(), 500)) + (promptText.length() > 500 ? "..." : ""));
         }
 
+        return callEndpoint(route, 0, requestBody)
+                .onErrorResume(e -> {
+                    Throwable cause = Exceptions.isRetryExhausted(e) ? e.getCause() : e;
+                    System.err.println("Gemini API error after trying all keys and models for " + workload.key() + ": " + cause.getMessage());
+                    e.printStackTrace();
+                    return Mono.just(GEMINI_ERROR_PREFIX + " after trying all keys: " + cause.getMessage());
+                });
+    }
 
+    // Tries the route's endpoint at 'index'; if it timed out or is overloaded, falls back to the next endpoint of the route.
+    private Mono<String> callEndpoint(GeminiRouter.Route route, int index, Map<String, Object> requestBody) {
+        String endpoint = route.endpoints().get(index);
+        return callWithApiKeys(route, endpoint, requestBody)
+                .onErrorResume(e -> {
+                    Throwable cause = Exceptions.isRetryExhausted(e) ? e.getCause() : e;
+                    boolean fallBack = cause instanceof TimeoutException
+                            || (cause instanceof GeminiApiException apiError && apiError.isRetryableElsewhere());
+                    if (!fallBack || index + 1 >= route.endpoints().size()) {
+                        return Mono.error(e);
+                    }
+                    String from = GeminiRouter.modelName(endpoint);
+                    String to = GeminiRouter.modelName(route.endpoints().get(index + 1));
+                    System.out.println("GeminiService - " + from + " failed for " + route.workload().key() + " (" + cause.getMessage() + "). Falling back to " + to + ".");
+                    geminiMetrics.recordFallback(route.workload(), from, to);
+                    return callEndpoint(route, index + 1, requestBody);
+                });
+    }
+
+    // One endpoint, rotating through the API keys on failure; each attempt is limited to the route's timeout.
+    private Mono<String> callWithApiKeys(GeminiRouter.Route route, String endpoint, Map<String, Object> requestBody) {
+        String model = GeminiRouter.modelName(endpoint);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // The key is read per attempt, so a retry after rotating the index really uses the next key.
         return Mono.defer(() -> {
-            String currentApiKey = apiKeys.get(currentApiKeyIndex.get());
-            String fullGeminiUrl = this.geminiApiUrl + "?key=" + currentApiKey;
+            int keyIndex = currentApiKeyIndex.get();
+            String fullGeminiUrl = endpoint + "?key=" + apiKeys.get(keyIndex);
+            long startNanos = System.nanoTime();
 
-            System.out.println("GeminiService - Sending request to Gemini with key index " + currentApiKeyIndex.get());
+            System.out.println("GeminiService - Sending " + route.workload().key() + " request to " + model + " with key index " + keyIndex);
 
             return webClient.post()
                     .uri(fullGeminiUrl)
@@ -199,14 +492,16 @@ public class GeminiService {
                     .retrieve()
                     .onStatus(HttpStatusCode::isError, clientResponse ->
                         clientResponse.bodyToMono(String.class)
+                                .defaultIfEmpty("")
                                 .flatMap(errorBody -> {
-                                    System.err.println("Gemini API HTTP error with key index " + currentApiKeyIndex.get() + ", Status: " + clientResponse.statusCode() + ", Body: " + errorBody);
-                                    return Mono.error(new RuntimeException("Gemini API call failed with status: " + clientResponse.statusCode() + " and body: " + errorBody));
+                                    System.err.println("Gemini API HTTP error with key index " + keyIndex + ", Status: " + clientResponse.statusCode() + ", Body: " + errorBody);
+                                    return Mono.error(new GeminiApiException(clientResponse.statusCode().value(), "Gemini API call failed with status: " + clientResponse.statusCode() + " and body: " + errorBody));
                                 })
                     )
                     .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
                     .map(responseBody -> {
                         System.out.println("Gemini Raw Response Body: " + responseBody);
+                        recordTokenUsage(route.workload(), model, responseBody);
 
                         try {
                             List<Map<String, Object>> candidates = (List<Map<String, Object>>) responseBody.get("candidates");
@@ -232,39 +527,43 @@ public class GeminiService {
                             throw new RuntimeException("Error parsing Gemini API response: " + e.getMessage(), e);
                         }
                     })
-                    .retryWhen(Retry.max(apiKeys.size() - 1)
-                        .filter(throwable -> {
-                            System.err.println("Retrying Gemini API call due to: " + throwable.getMessage());
-                            currentApiKeyIndex.set((currentApiKeyIndex.get() + 1) % apiKeys.size());
-                            return true;
-                        })
-                        .doAfterRetry(retrySignal -> {
-                            System.out.println("Attempt " + (retrySignal.totalRetriesInARow() + 1) + " failed. Retrying with next API key.");
-                        })
-                    )
-                    .onErrorResume(e -> {
-                        System.err.println("Gemini API error after trying all keys: " + e.getMessage());
-                        e.printStackTrace();
-                        return Mono.just("⚠️ Gemini API error after trying all keys: " + e.getMessage());
-                    });
-        });
+                    .timeout(route.timeout())
+                    .doOnSuccess(reply -> geminiMetrics.recordRequest(route.workload(), model, GeminiMetrics.OUTCOME_SUCCESS,
+                            Duration.ofNanos(System.nanoTime() - startNanos)))
+                    .doOnError(e -> geminiMetrics.recordRequest(route.workload(), model, outcome(e),
+                            Duration.ofNanos(System.nanoTime() - startNanos)));
+        })
+        .retryWhen(Retry.max(apiKeys.size() - 1)
+            .filter(throwable -> {
+                if (throwable instanceof TimeoutException) {
+                    return false; // A slow model stays slow with another key; the route's next model is tried instead.
+                }
+                System.err.println("Retrying Gemini API call due to: " + throwable.getMessage());
+                currentApiKeyIndex.set((currentApiKeyIndex.get() + 1) % apiKeys.size());
+                return true;
+            })
+            .doAfterRetry(retrySignal -> {
+                System.out.println("Attempt " + (retrySignal.totalRetriesInARow() + 1) + " failed. Retrying with next API key.");
+            })
+        );
     }
 
-    public int extractScoreFromGeminiResponse(String geminiResponse) {
-        if (geminiResponse == null || geminiResponse.trim().isEmpty()) {
-            return 0;
+    private static String outcome(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return GeminiMetrics.OUTCOME_TIMEOUT;
         }
+        if (e instanceof GeminiApiException apiError && apiError.getStatusCode() == 429) {
+            return GeminiMetrics.OUTCOME_RATE_LIMITED;
+        }
+        return GeminiMetrics.OUTCOME_ERROR;
+    }
 
-        Pattern pattern = Pattern.compile("(?i)(?:ATS Score:|\\bScore:)?\\s*(\\d+)(?:/100)?");
-        Matcher matcher = pattern.matcher(geminiResponse);
-
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1));
-            } catch (NumberFormatException e) {
-                System.err.println("Could not parse score from: " + matcher.group(1));
-            }
+    // Token counts from the response's usageMetadata, for per-route cost tracking.
+    private void recordTokenUsage(GeminiWorkload workload, String model, Map<String, Object> responseBody) {
+        if (responseBody.get("usageMetadata") instanceof Map<?, ?> usage
+                && usage.get("promptTokenCount") instanceof Number promptTokens) {
+            long outputTokens = usage.get("candidatesTokenCount") instanceof Number candidatesTokens ? candidatesTokens.longValue() : 0;
+            geminiMetrics.recordTokens(workload, model, promptTokens.longValue(), outputTokens);
         }
-        return 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.acespringbackend.service;
+
+/**
+ * The kinds of work sent to Gemini. Each is routed to its own model endpoints, timeout and output token
+ * limit by {@link GeminiRouter}; the key is used in the gemini.routes.* properties and as a metrics tag.
+ * Rough ATS checks are scored locally and never reach Gemini, so they have no route.
+ */
+public enum GeminiWorkload {
+
+    ATS_DEEP("ats-deep"),
+    JOT("jot"),
+    COVER_LETTER("cover-letter"),
+    CHAT("chat");
+
+    private final String key;
+
+    GeminiWorkload(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
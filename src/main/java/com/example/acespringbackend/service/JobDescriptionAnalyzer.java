@@ -0,0 +1,248 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.utility.SkillsMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Condenses job descriptions into a compact digest (title, required skills, seniority and the requirement
+ * sentences) that prompts can carry instead of the full posting.
+ *
+ * The same job description usually arrives several times within minutes (an ATS check, then researched
+ * paraphrasing, then a cover letter), so digests are cached in memory, keyed by a SHA-256 hash of the
+ * normalised text (case and whitespace do not matter), and expire after jd-digest.ttl-seconds.
+ */
+@Component
+public class JobDescriptionAnalyzer {
+
+    private static final Logger log = LoggerFactory.getLogger(JobDescriptionAnalyzer.class);
+
+    private static final Pattern LINE_OR_SENTENCE = Pattern.compile("\\n+|(?<=[.!?;])\\s+");
+    private static final Pattern LEADING_BULLET = Pattern.compile("^[\\s•●▪■◦‣∙*·–-]+");
+    private static final Pattern TITLE_LINE = Pattern.compile("(?im)^\\s*(?:job\\s+title|position|role)\\s*[:\\-]\\s*(.+)$");
+    private static final Pattern YEARS = Pattern.compile("(?i)\\b(\\d{1,2})\\s*\\+?\\s*(?:(?:-|–|to)\\s*\\d{1,2}\\s*)?\\+?\\s*years?\\b");
+    // Words that mark a "N years" as the experience asked for, not e.g. the company's age or a benefit.
+    private static final Pattern EXPERIENCE_CUE = Pattern.compile(
+            "(?i)\\b(experience|experienced|required|requires?|minimum|at least|qualifications?|background)\\b");
+    // How many requirement sentences, besides the title, may state the seniority.
+    private static final int SENIORITY_REQUIREMENT_LINES = 3;
+    private static final Pattern REQUIREMENT_CUE = Pattern.compile(
+            "(?i)\\b(must|required|requires?|requirements?|qualifications?|proficien|experience (?:with|in)|knowledge of"
+                    + "|familiar(?:ity)? with|degree|years?|ability to|expert|hands-on|understanding of|responsible for)");
+
+    // Seniority levels, from most to least senior; the first level whose word appears wins.
+    private static final List<Map.Entry<String, Pattern>> SENIORITY = List.of(
+            Map.entry("executive", Pattern.compile("(?i)\\b(director|vp|vice president|head of|chief)\\b")),
+            Map.entry("principal", Pattern.compile("(?i)\\b(principal|staff|architect|distinguished)\\b")),
+            Map.entry("lead", Pattern.compile("(?i)\\b(lead|manager|team lead)\\b")),
+            Map.entry("senior", Pattern.compile("(?i)\\b(senior|sr\\.?)\\b")),
+            Map.entry("mid", Pattern.compile("(?i)\\b(mid[- ]level|intermediate)\\b")),
+            Map.entry("junior", Pattern.compile("(?i)\\b(junior|jr\\.?|entry[- ]level|graduate|new grad)\\b")),
+            Map.entry("intern", Pattern.compile("(?i)\\b(intern|internship|trainee)\\b")));
+
+    /**
+     * Compact digest of a job description.
+     *
+     * @param title          The job title as stated in the posting, or null if it does not state one.
+     * @param seniority      Seniority level (intern, junior, mid, senior, lead, principal, executive), or null if unclear.
+     * @param minYears       Minimum years of experience asked for, or null if not stated.
+     * @param requiredSkills Skills the posting names, most emphasised first.
+     * @param requirements   The posting's requirement sentences, condensed.
+     */
+    public record JobDigest(String title, String seniority, Integer minYears, List<String> requiredSkills,
+                            List<String> requirements) {
+
+        /**
+         * @return The digest as a short Markdown block for prompts.
+         */
+        public String toPromptText() {
+            StringBuilder text = new StringBuilder();
+            if (title != null) {
+                text.append("Title: ").append(title).append('\n');
+            }
+            if (seniority != null || minYears != null) {
+                text.append("Seniority: ").append(seniority != null ? seniority : "not stated");
+                if (minYears != null) {
+                    text.append(" (").append(minYears).append("+ years)");
+                }
+                text.append('\n');
+            }
+            if (!requiredSkills.isEmpty()) {
+                text.append("Required skills: ").append(String.join(", ", requiredSkills)).append('\n');
+            }
+            if (!requirements.isEmpty()) {
+                text.append("Key requirements:\n");
+                requirements.forEach(requirement -> text.append("* ").append(requirement).append('\n'));
+            }
+            return text.toString().strip();
+        }
+    }
+
+    private final SkillsMatcher skillsMatcher;
+    private final Map<String, CachedDigest> digests = new ConcurrentHashMap<>();
+
+    @Value("${jd-digest.ttl-seconds:1800}")
+    private long ttlSeconds;
+
+    @Value("${jd-digest.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${jd-digest.max-requirements:8}")
+    private int maxRequirements;
+
+    @Value("${jd-digest.max-requirement-length:200}")
+    private int maxRequirementLength;
+
+    public JobDescriptionAnalyzer(SkillsMatcher skillsMatcher) {
+        this.skillsMatcher = skillsMatcher;
+    }
+
+    /**
+     * Returns the digest of a job description, analysing it only if it is not cached yet.
+     *
+     * @param jobDescription The job description as submitted.
+     * @return The digest, or null if the job description is blank.
+     */
+    public JobDigest analyze(String jobDescription) {
+        if (jobDescription == null || jobDescription.isBlank()) {
+            return null;
+        }
+        String key = contentHash(jobDescription);
+        long now = System.currentTimeMillis();
+        CachedDigest cached = digests.get(key);
+        if (cached != null && now - cached.createdAtMillis() < ttlSeconds * 1000) {
+            log.debug("JobDescriptionAnalyzer: Digest cache hit for {}.", key);
+            return cached.digest();
+        }
+        JobDigest digest = digest(jobDescription);
+        put(key, new CachedDigest(digest, now));
+        log.debug("JobDescriptionAnalyzer: Analysed job description {} ({} chars, {} skills).",
+                key, jobDescription.length(), digest.requiredSkills().size());
+        return digest;
+    }
+
+    /**
+     * The text to put into a prompt for a job description: its digest, unless the posting is already
+     * shorter than its digest.
+     *
+     * @param jobDescription The job description as submitted.
+     * @return The text for the prompt ("" if the job description is blank).
+     */
+    public String promptText(String jobDescription) {
+        JobDigest digest = analyze(jobDescription);
+        if (digest == null) {
+            return "";
+        }
+        String digestText = digest.toPromptText();
+        return digestText.isEmpty() || digestText.length() >= jobDescription.strip().length()
+                ? jobDescription.strip()
+                : digestText;
+    }
+
+    private JobDigest digest(String jobDescription) {
+        Matcher titleMatcher = TITLE_LINE.matcher(jobDescription);
+        String title = titleMatcher.find() ? titleMatcher.group(1).strip() : null;
+
+        List<String> skills = skillsMatcher.extractByEmphasis(jobDescription);
+
+        Set<String> requirements = new LinkedHashSet<>();
+        for (String piece : LINE_OR_SENTENCE.split(jobDescription)) {
+            String sentence = LEADING_BULLET.matcher(piece).replaceFirst("").strip();
+            if (sentence.length() < 15 || !REQUIREMENT_CUE.matcher(sentence).find()) {
+                continue;
+            }
+            if (sentence.length() > maxRequirementLength) {
+                sentence = sentence.substring(0, maxRequirementLength).strip() + "…";
+            }
+            requirements.add(sentence);
+            if (requirements.size() >= maxRequirements) {
+                break;
+            }
+        }
+
+        // The title is the most reliable signal. Without a stated title the first line usually is one; the
+        // rest of the body is not consulted beyond the first requirements, since it tends to mention other
+        // roles ("you will report to the Director of Engineering", "mentored by senior engineers").
+        String headline = title != null ? title : jobDescription.strip().lines().findFirst().orElse("");
+        String seniority = seniorityOf(headline);
+        if (seniority == null) {
+            seniority = seniorityOf(String.join("\n", requirements.stream().limit(SENIORITY_REQUIREMENT_LINES).toList()));
+        }
+
+        return new JobDigest(title, seniority, minYears(jobDescription), List.copyOf(skills), List.copyOf(requirements));
+    }
+
+    /**
+     * The years of experience a posting asks for: the first "N years" (the lower bound of a range) in a
+     * sentence that also says it is about experience or a requirement. Without such a sentence, the
+     * smallest plausible number of years anywhere in the posting.
+     */
+    static Integer minYears(String jobDescription) {
+        Integer smallest = null;
+        for (String sentence : LINE_OR_SENTENCE.split(jobDescription)) {
+            Matcher yearsMatcher = YEARS.matcher(sentence);
+            while (yearsMatcher.find()) {
+                int years = Integer.parseInt(yearsMatcher.group(1));
+                if (years <= 0 || years > 30) {
+                    continue;
+                }
+                if (EXPERIENCE_CUE.matcher(sentence).find()) {
+                    return years;
+                }
+                if (smallest == null || years < smallest) {
+                    smallest = years;
+                }
+            }
+        }
+        return smallest;
+    }
+
+    private static String seniorityOf(String text) {
+        for (Map.Entry<String, Pattern> level : SENIORITY) {
+            if (level.getValue().matcher(text).find()) {
+                return level.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void put(String key, CachedDigest digest) {
+        if (digests.size() >= maxEntries && !digests.containsKey(key)) {
+            long cutoff = System.currentTimeMillis() - ttlSeconds * 1000;
+            digests.entrySet().removeIf(entry -> entry.getValue().createdAtMillis() < cutoff);
+            if (digests.size() >= maxEntries) {
+                return;
+            }
+        }
+        digests.put(key, digest);
+    }
+
+    // SHA-256 of the lower-cased text with all whitespace runs collapsed to single spaces.
+    static String contentHash(String jobDescription) {
+        String normalized = jobDescription.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedDigest(JobDigest digest, long createdAtMillis) {
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.acespringbackend.service;
 
 import com.example.acespringbackend.utility.JwtUtility;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
@@ -21,10 +24,18 @@ public class JwtAuthenticationWebFilter implements WebFilter {
 
     private final JwtUtility jwtUtility;
     private final ReactiveUserDetailsService reactiveUserDetailsService;
+    private final UserAuthStateCache userAuthStateCache;
 
-    public JwtAuthenticationWebFilter(JwtUtility jwtUtility, ReactiveUserDetailsService reactiveUserDetailsService) {
+    // When enabled, tokens carrying role/account claims are authenticated without loading the user from MongoDB.
+    @Value("${application.security.jwt.stateless:true}")
+    private boolean statelessAuthEnabled = true;
+
+    public JwtAuthenticationWebFilter(JwtUtility jwtUtility,
+                                      ReactiveUserDetailsService reactiveUserDetailsService,
+                                      UserAuthStateCache userAuthStateCache) {
         this.jwtUtility = jwtUtility;
         this.reactiveUserDetailsService = reactiveUserDetailsService;
+        this.userAuthStateCache = userAuthStateCache;
     }
 
     @Override
@@ -42,11 +53,14 @@ public class JwtAuthenticationWebFilter implements WebFilter {
         }
 
         String jwt = authHeader.substring(7);
-        
-        Mono<String> usernameMono = Mono.justOrEmpty(jwtUtility.extractUsername(jwt));
 
-        return usernameMono
-                .flatMap(username -> reactiveUserDetailsService.findByUsername(username))
+        // Parse and verify the token once; the claims are cached in JwtUtility so the
+        // validation below does not pay for a second signature check.
+        Mono<Claims> claimsMono = Mono.fromCallable(() -> jwtUtility.extractAllClaims(jwt));
+
+        return claimsMono
+                .flatMap(claims -> Mono.justOrEmpty(claims.getSubject())
+                        .flatMap(username -> loadUserDetails(username, claims)))
                 .flatMap(userDetails -> {
                     if (jwtUtility.validateToken(jwt, userDetails)) {
                         UsernamePasswordAuthenticationToken authentication =
@@ -78,4 +92,38 @@ public class JwtAuthenticationWebFilter implements WebFilter {
                     return exchange.getResponse().setComplete();
                 }));
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves the principal for a verified token. Tokens that carry role and account-status
+     * claims are trusted as-is, subject only to the cached revocation/lockout state; older
+     * tokens without those claims fall back to loading the user from the database.
+     */
+    private Mono<UserDetails> loadUserDetails(String username, Claims claims) {
+        if (!statelessAuthEnabled || !jwtUtility.hasAccountClaims(claims)) {
+            return reactiveUserDetailsService.findByUsername(username);
+        }
+
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("")
+                .authorities(jwtUtility.extractRoles(claims).toArray(String[]::new))
+                .disabled(!jwtUtility.extractFlag(claims, JwtUtility.CLAIM_ENABLED))
+                .accountLocked(!jwtUtility.extractFlag(claims, JwtUtility.CLAIM_ACCOUNT_NON_LOCKED))
+                .accountExpired(!jwtUtility.extractFlag(claims, JwtUtility.CLAIM_ACCOUNT_NON_EXPIRED))
+                .credentialsExpired(!jwtUtility.extractFlag(claims, JwtUtility.CLAIM_CREDENTIALS_NON_EXPIRED))
+                .build();
+
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+            logger.warn("JWT WebFilter: Token for {} was issued to a disabled or locked account.", username);
+            return Mono.empty();
+        }
+
+        return userAuthStateCache.isTokenAccepted(username, claims.getIssuedAt())
+                .flatMap(accepted -> {
+                    if (!accepted) {
+                        logger.warn("JWT WebFilter: Token for {} has been revoked or the account is no longer active.", username);
+                        return Mono.<UserDetails>empty();
+                    }
+                    return Mono.just(userDetails);
+                });
+    }
+}
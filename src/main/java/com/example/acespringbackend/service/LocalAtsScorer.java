@@ -0,0 +1,398 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.utility.ResumeSectionSegmenter;
+import com.example.acespringbackend.utility.ResumeSectionSegmenter.SectionType;
+import com.example.acespringbackend.utility.ResumeSectionSegmenter.SegmentedResume;
+import com.example.acespringbackend.utility.SkillsMatcher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LocalAtsScorer computes a deterministic ATS score for resume text in-process, without calling an LLM.
+ *
+ * The score combines keyword coverage of the job description (BM25-weighted, see {@link #keywordCoverage},
+ * averaged with the coverage of the job's skills found by {@link SkillsMatcher}) with structural heuristics:
+ * contact information, presence of the core sections, bullet density, date consistency and overall length. The same input always yields the same score, and scoring a
+ * resume takes a few milliseconds, so rough checks no longer wait on Gemini.
+ */
+@Service
+public class LocalAtsScorer {
+
+    // BM25 parameters; REFERENCE_RESUME_TOKENS stands in for the average document length of the corpus.
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final double REFERENCE_RESUME_TOKENS = 600.0;
+
+    private static final double KEYWORD_WEIGHT = 0.6;
+    private static final int MAX_REPORTED_KEYWORDS = 10;
+
+    private static final Pattern TOKEN = Pattern.compile("[a-z0-9][a-z0-9+#.]*[a-z0-9+#]|[a-z0-9]");
+    private static final Pattern SENTENCE_SPLIT = Pattern.compile("[.!?;\\n]+\\s*");
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}");
+    private static final Pattern PHONE = Pattern.compile("(?:\\+?\\d{1,3}[\\s.-]?)?(?:\\(?\\d{2,4}\\)?[\\s.-]?)\\d{3,4}[\\s.-]?\\d{3,4}");
+    private static final Pattern PROFILE_LINK = Pattern.compile("(?i)(linkedin\\.com/|github\\.com/|https?://)");
+    private static final Pattern BULLET_LINE = Pattern.compile("^\\s*(?:[•●▪■◦‣∙*·–-]|\\d{1,2}[.)])\\s+");
+
+    private static final String MONTH = "(jan|feb|mar|apr|may|jun|jul|aug|sep|sept|oct|nov|dec)[a-z]*\\.?";
+    private static final String DATE = "(?:" + MONTH + "\\s+((?:19|20)\\d{2})|(0?[1-9]|1[0-2])[/.-]((?:19|20)\\d{2})|((?:19|20)\\d{2}))";
+    // Groups 1-5: start date; 6-10: end date; 11: open end ("present").
+    private static final Pattern DATE_RANGE = Pattern.compile("(?i)" + DATE + "\\s*(?:-|–|—|to)\\s*(?:" + DATE + "|(present|current|now|today))");
+
+    private static final List<String> MONTHS = List.of("jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec");
+
+    private static final List<String> CORE_SECTIONS = List.of("experience", "education", "skills");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "about", "above", "after", "all", "also", "an", "and", "any", "are", "as", "at", "be", "been", "being",
+            "both", "but", "by", "can", "could", "do", "does", "each", "etc", "for", "from", "has", "have", "having", "he",
+            "her", "his", "how", "i", "if", "in", "into", "is", "it", "its", "may", "me", "more", "most", "must", "my", "no",
+            "not", "of", "on", "or", "other", "our", "out", "over", "own", "per", "plus", "same", "she", "should", "so",
+            "some", "such", "than", "that", "the", "their", "them", "then", "there", "these", "they", "this", "those",
+            "through", "to", "under", "up", "us", "very", "was", "we", "well", "were", "what", "when", "where", "which",
+            "while", "who", "whom", "why", "will", "with", "within", "would", "you", "your",
+            // Job-posting boilerplate that says nothing about the role's requirements.
+            "ability", "able", "applicant", "applicants", "candidate", "candidates", "company", "including", "job",
+            "join", "looking", "opportunity", "position", "preferred", "required", "requirements", "responsibilities",
+            "role", "seeking", "strong", "team", "work", "working", "year", "years", "experience", "skills", "knowledge",
+            "using", "good", "excellent", "new");
+
+    private final SkillsMatcher skillsMatcher;
+
+    public LocalAtsScorer(SkillsMatcher skillsMatcher) {
+        this.skillsMatcher = skillsMatcher;
+    }
+
+    /**
+     * Scores resume text, optionally against a job.
+     *
+     * @param resumeText     Text extracted from the resume.
+     * @param jobTitle       Optional job title.
+     * @param jobDescription Optional job description; without it (and without a title) only structure is scored.
+     * @return The score with its breakdown and feedback.
+     */
+    public Result score(String resumeText, String jobTitle, String jobDescription) {
+        return score(ResumeSectionSegmenter.segment(resumeText), jobTitle, jobDescription);
+    }
+
+    /**
+     * Scores an already segmented resume, optionally against a job.
+     *
+     * @param resume         The resume text and its sections.
+     * @param jobTitle       Optional job title.
+     * @param jobDescription Optional job description; without it (and without a title) only structure is scored.
+     * @return The score with its breakdown and feedback.
+     */
+    public Result score(SegmentedResume resume, String jobTitle, String jobDescription) {
+        String text = resume.text();
+        List<String> lines = text.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+        List<String> resumeTokens = tokenize(text);
+        List<String> feedback = new ArrayList<>();
+
+        String jobText = ((jobTitle == null ? "" : jobTitle + "\n") + (jobDescription == null ? "" : jobDescription)).strip();
+        KeywordCoverage keywords = jobText.isEmpty() ? null : keywordCoverage(resumeTokens, jobText);
+        SkillsMatcher.SkillsMatch skills = jobText.isEmpty() ? null : skillsMatcher.match(text, jobText);
+
+        double contact = contactScore(text, feedback);
+        Set<String> sections = detectSections(resume);
+        double sectionScore = sectionScore(sections, feedback);
+        double bullets = bulletScore(bulletScope(resume, lines), feedback);
+        double dates = dateScore(text, feedback);
+        double length = lengthScore(resumeTokens.size(), feedback);
+        double structure = 0.25 * contact + 0.30 * sectionScore + 0.20 * bullets + 0.15 * dates + 0.10 * length;
+
+        double total;
+        if (keywords != null) {
+            boolean jobNamesSkills = !skills.matched().isEmpty() || !skills.missing().isEmpty();
+            double match = jobNamesSkills ? (keywords.coverage() + skills.coverage()) / 2 : keywords.coverage();
+            total = KEYWORD_WEIGHT * match + (1 - KEYWORD_WEIGHT) * structure;
+            if (!skills.missing().isEmpty()) {
+                feedback.add(0, "The job asks for skills your resume does not mention: " + String.join(", ", skills.missing())
+                        + ". Add the ones you have.");
+            } else if (!keywords.missing().isEmpty()) {
+                feedback.add(0, "Add the job's key terms where they truthfully apply: " + String.join(", ", keywords.missing()) + ".");
+            }
+        } else {
+            total = structure;
+            feedback.add("Provide a job title or description to also score keyword match against the role.");
+        }
+
+        int score = (int) Math.round(Math.max(0, Math.min(1, total)) * 100);
+        return new Result(score, keywords, skills, contact, sectionScore, bullets, dates, length, List.copyOf(sections), feedback);
+    }
+
+    /**
+     * Keyword coverage of the job text by the resume, in [0, 1].
+     *
+     * Each job term is weighted by its (log-scaled) frequency in the job text times its BM25 IDF over the
+     * job's sentences, so terms the posting repeats in every sentence count less than the specific ones.
+     * The resume is kept out of that corpus: otherwise a term would lose weight just because the resume
+     * mentions it often, lowering the score for matching the job well.
+     * The resume earns BM25-saturated credit per term: the first mention counts most, repetition adds
+     * little, and long resumes are normalised against a reference length.
+     */
+    KeywordCoverage keywordCoverage(List<String> resumeTokens, String jobText) {
+        Map<String, Integer> jobFrequencies = frequencies(tokenize(jobText));
+        Map<String, Integer> resumeFrequencies = frequencies(resumeTokens);
+
+        List<Set<String>> corpus = new ArrayList<>();
+        for (String sentence : SENTENCE_SPLIT.split(jobText)) {
+            corpus.add(new LinkedHashSet<>(tokenize(sentence)));
+        }
+        corpus.removeIf(Set::isEmpty);
+
+        double lengthNorm = 1 - BM25_B + BM25_B * (resumeTokens.size() / REFERENCE_RESUME_TOKENS);
+        Map<String, Double> weights = new HashMap<>();
+        double totalWeight = 0;
+        double earned = 0;
+        for (Map.Entry<String, Integer> entry : jobFrequencies.entrySet()) {
+            String term = entry.getKey();
+            long documentFrequency = corpus.stream().filter(document -> document.contains(term)).count();
+            double idf = Math.log(1 + (corpus.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            double weight = (1 + Math.log(entry.getValue())) * idf;
+            weights.put(term, weight);
+            totalWeight += weight;
+
+            int tf = resumeFrequencies.getOrDefault(term, 0);
+            double credit = tf * (BM25_K1 + 1) / (tf + BM25_K1 * lengthNorm) / (BM25_K1 + 1);
+            earned += weight * Math.min(1, credit * 2); // one or two mentions earn (almost) full credit
+        }
+
+        List<String> byWeight = weights.keySet().stream()
+                .sorted(Comparator.comparingDouble((String term) -> -weights.get(term)).thenComparing(term -> term))
+                .toList();
+        List<String> matched = byWeight.stream().filter(resumeFrequencies::containsKey).limit(MAX_REPORTED_KEYWORDS).toList();
+        List<String> missing = byWeight.stream().filter(term -> !resumeFrequencies.containsKey(term)).limit(MAX_REPORTED_KEYWORDS).toList();
+        long matchedCount = byWeight.stream().filter(resumeFrequencies::containsKey).count();
+        double coverage = totalWeight == 0 ? 0 : earned / totalWeight;
+        return new KeywordCoverage(coverage, (int) matchedCount, byWeight.size(), matched, missing);
+    }
+
+    private double contactScore(String text, List<String> feedback) {
+        boolean email = EMAIL.matcher(text).find();
+        boolean phone = PHONE.matcher(text).find();
+        boolean profile = PROFILE_LINK.matcher(text).find();
+        if (!email) {
+            feedback.add("Add an email address to the header.");
+        }
+        if (!phone) {
+            feedback.add("Add a phone number to the header.");
+        }
+        if (!profile) {
+            feedback.add("Add a LinkedIn, GitHub or portfolio link.");
+        }
+        return (email ? 0.5 : 0) + (phone ? 0.3 : 0) + (profile ? 0.2 : 0);
+    }
+
+    /**
+     * Names (lower-case section types) of the headed sections the resume has, in document order.
+     */
+    Set<String> detectSections(SegmentedResume resume) {
+        Set<String> found = new LinkedHashSet<>();
+        for (ResumeSectionSegmenter.Section section : resume.sections()) {
+            if (section.heading() != null && section.type() != SectionType.OTHER) {
+                found.add(section.type().name().toLowerCase(Locale.ROOT));
+            }
+        }
+        return found;
+    }
+
+    // Bullets matter in experience and projects; fall back to the whole resume when neither was found.
+    private List<String> bulletScope(SegmentedResume resume, List<String> lines) {
+        String scoped = (resume.contentOf(SectionType.EXPERIENCE) + "\n" + resume.contentOf(SectionType.PROJECTS)).strip();
+        if (scoped.isEmpty()) {
+            return lines;
+        }
+        return scoped.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+    }
+
+    private double sectionScore(Set<String> sections, List<String> feedback) {
+        double score = 0;
+        for (String core : CORE_SECTIONS) {
+            if (sections.contains(core)) {
+                score += 0.25;
+            } else {
+                feedback.add("Add a clearly headed \"" + capitalize(core) + "\" section.");
+            }
+        }
+        if (sections.contains("summary")) {
+            score += 0.15;
+        } else {
+            feedback.add("Open with a short professional summary.");
+        }
+        if (sections.contains("projects") || sections.contains("certifications") || sections.contains("awards")) {
+            score += 0.10;
+        }
+        return score;
+    }
+
+    private double bulletScore(List<String> lines, List<String> feedback) {
+        long bodyLines = lines.stream().filter(line -> line.split("\\s+").length > 4).count();
+        if (bodyLines == 0) {
+            feedback.add("Describe your experience in bullet points.");
+            return 0;
+        }
+        long bulletLines = lines.stream().filter(line -> BULLET_LINE.matcher(line).find()).count();
+        double density = Math.min(1.0, (double) bulletLines / bodyLines);
+        if (density < 0.2) {
+            feedback.add("Use bullet points for responsibilities and achievements instead of long paragraphs.");
+            return density / 0.2;
+        }
+        return density > 0.9 ? 0.8 : 1.0;
+    }
+
+    private double dateScore(String text, List<String> feedback) {
+        Matcher matcher = DATE_RANGE.matcher(text);
+        int ranges = 0;
+        int chronological = 0;
+        Map<String, Integer> styles = new HashMap<>();
+        while (matcher.find()) {
+            ranges++;
+            DatePoint start = DatePoint.of(matcher, 1);
+            DatePoint end = matcher.group(11) != null ? null : DatePoint.of(matcher, 6);
+            styles.merge(start.style(), 1, Integer::sum);
+            if (end == null || end.monthIndex() >= start.monthIndex()) {
+                chronological++;
+            }
+        }
+        if (ranges == 0) {
+            feedback.add("Add start and end dates (e.g. \"Jan 2022 - Present\") to each role.");
+            return 0.3;
+        }
+        int dominant = styles.values().stream().max(Integer::compare).orElse(0);
+        double uniformity = (double) dominant / ranges;
+        double order = (double) chronological / ranges;
+        if (uniformity < 0.8) {
+            feedback.add("Use one date format consistently across all roles.");
+        }
+        if (order < 1) {
+            feedback.add("Check your date ranges; some end before they start.");
+        }
+        return 0.5 * uniformity + 0.5 * order;
+    }
+
+    private double lengthScore(int tokens, List<String> feedback) {
+        if (tokens < 200) {
+            feedback.add("The resume is very short; add detail on your impact and results.");
+            return tokens / 200.0;
+        }
+        if (tokens > 1200) {
+            feedback.add("The resume is long; tighten it to the most relevant one or two pages.");
+            return Math.max(0.5, 1 - (tokens - 1200) / 2400.0);
+        }
+        return 1.0;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (token.length() > 1 && !STOPWORDS.contains(token) && !token.chars().allMatch(Character::isDigit)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Map<String, Integer> frequencies(List<String> tokens) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        return frequencies;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String percent(double value) {
+        return Math.round(value * 100) + "%";
+    }
+
+    // A parsed date of a range: month-year, numeric month/year or year only.
+    private record DatePoint(int year, int month, String style) {
+
+        // Reads the date whose groups start at 'first': month name, year, numeric month, year, year only.
+        static DatePoint of(Matcher matcher, int first) {
+            if (matcher.group(first) != null) {
+                return new DatePoint(Integer.parseInt(matcher.group(first + 1)),
+                        MONTHS.indexOf(matcher.group(first).substring(0, 3).toLowerCase(Locale.ROOT)) + 1, "month-name");
+            }
+            if (matcher.group(first + 2) != null) {
+                return new DatePoint(Integer.parseInt(matcher.group(first + 3)), Integer.parseInt(matcher.group(first + 2)), "numeric");
+            }
+            return new DatePoint(Integer.parseInt(matcher.group(first + 4)), 1, "year");
+        }
+
+        int monthIndex() {
+            return year * 12 + month;
+        }
+    }
+
+    /**
+     * Keyword coverage of the job text.
+     *
+     * @param coverage   Weighted coverage in [0, 1].
+     * @param matched    Number of distinct job terms found in the resume.
+     * @param total      Number of distinct job terms.
+     * @param topMatched Highest-weighted job terms found in the resume.
+     * @param missing    Highest-weighted job terms missing from the resume.
+     */
+    public record KeywordCoverage(double coverage, int matched, int total, List<String> topMatched, List<String> missing) {
+    }
+
+    /**
+     * Result of a local ATS check.
+     *
+     * @param score    Overall score, 0-100.
+     * @param keywords Keyword coverage, or null when no job text was given.
+     * @param skills   Skills of the job found and missing in the resume, or null when no job text was given.
+     * @param contact  Contact information score in [0, 1].
+     * @param sections Section presence score in [0, 1].
+     * @param bullets  Bullet density score in [0, 1].
+     * @param dates    Date consistency score in [0, 1].
+     * @param length   Length score in [0, 1].
+     * @param foundSections Canonical sections detected in the resume.
+     * @param feedback Actionable suggestions, most important first.
+     */
+    public record Result(int score, KeywordCoverage keywords, SkillsMatcher.SkillsMatch skills, double contact, double sections, double bullets,
+                         double dates, double length, List<String> foundSections, List<String> feedback) {
+
+        /**
+         * @return The result in the Markdown layout the frontend already renders for Gemini responses.
+         */
+        public String toMarkdown() {
+            StringBuilder markdown = new StringBuilder();
+            markdown.append("**ATS Score:** ").append(score).append("/100\n\n**Breakdown:**\n");
+            if (keywords != null) {
+                markdown.append("* Keyword match: ").append(percent(keywords.coverage()))
+                        .append(" (").append(keywords.matched()).append(" of ").append(keywords.total()).append(" job terms found)\n");
+            }
+            if (skills != null && !(skills.matched().isEmpty() && skills.missing().isEmpty())) {
+                markdown.append("* Skills match: ").append(skills.matched().size()).append(" of ")
+                        .append(skills.matched().size() + skills.missing().size()).append(" required skills")
+                        .append(skills.matched().isEmpty() ? "" : " (" + String.join(", ", skills.matched()) + ")").append('\n');
+            }
+            markdown.append("* Contact information: ").append(percent(contact)).append('\n')
+                    .append("* Sections: ").append(percent(sections))
+                    .append(foundSections.isEmpty() ? "" : " (" + String.join(", ", foundSections) + ")").append('\n')
+                    .append("* Bullet points: ").append(percent(bullets)).append('\n')
+                    .append("* Date consistency: ").append(percent(dates)).append('\n')
+                    .append("* Length: ").append(percent(length)).append('\n');
+            if (!feedback.isEmpty()) {
+                markdown.append("\n**Feedback:**\n");
+                feedback.forEach(point -> markdown.append("* ").append(point).append('\n'));
+            }
+            return markdown.toString().strip();
+        }
+    }
+}
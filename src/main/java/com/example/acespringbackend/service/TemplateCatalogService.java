@@ -0,0 +1,130 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.auth.dto.TemplateCatalogItem;
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.utility.DriveUtility;
+import com.google.api.services.drive.model.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory catalog of the master templates, built from the templates folder on Google Drive
+ * and refreshed on a schedule. It makes the server the source of truth for template metadata
+ * (name, category, image, description, ...) instead of trusting whatever the client sends with
+ * each replication request, and tells the warm pool which templates to keep pre-copied.
+ *
+ * If a refresh fails the previous catalog is kept, so a Drive hiccup never empties it.
+ */
+@Service
+public class TemplateCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateCatalogService.class);
+
+    private final DriveUtility driveUtility;
+    private final AppSchedulers appSchedulers;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Map<String, TemplateCatalogItem> catalog = Collections.emptyMap();
+
+    @Value("${google.drive.templates.folder.id:}")
+    private String templatesFolderId;
+
+    public TemplateCatalogService(DriveUtility driveUtility, AppSchedulers appSchedulers) {
+        this.driveUtility = driveUtility;
+        this.appSchedulers = appSchedulers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledRefresh();
+    }
+
+    @Scheduled(fixedDelayString = "${drive.templates.catalog-refresh-ms:600000}",
+            initialDelayString = "${drive.templates.catalog-refresh-ms:600000}")
+    public void scheduledRefresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        refresh().subscribe(
+                templates -> { },
+                e -> log.error("TemplateCatalogService: Catalog refresh failed, keeping {} cached template(s): {}",
+                        catalog.size(), e.getMessage(), e));
+    }
+
+    /**
+     * Reloads the catalog from the templates folder. A refresh requested while another one is
+     * running is skipped and emits the current catalog.
+     *
+     * @return Mono emitting the catalog after the refresh.
+     */
+    public Mono<List<TemplateCatalogItem>> refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return Mono.just(getTemplates());
+        }
+        return driveUtility.getDriveInstance()
+                .flatMap(driveInstance -> Mono.fromCallable(() -> driveUtility.listTemplateFiles(driveInstance, templatesFolderId))
+                        .subscribeOn(appSchedulers.drive()))
+                .map(files -> {
+                    Map<String, TemplateCatalogItem> loaded = new LinkedHashMap<>();
+                    files.stream()
+                            .map(TemplateCatalogService::toCatalogItem)
+                            .sorted(Comparator.comparing(TemplateCatalogItem::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                            .forEach(item -> loaded.put(item.getDriveId(), item));
+                    catalog = Collections.unmodifiableMap(loaded);
+                    log.info("TemplateCatalogService: Loaded {} template(s) from folder '{}'.", loaded.size(), templatesFolderId);
+                    return getTemplates();
+                })
+                .doFinally(signal -> refreshing.set(false));
+    }
+
+    /**
+     * @return The cached templates, sorted by name. Empty until the first refresh has completed.
+     */
+    public List<TemplateCatalogItem> getTemplates() {
+        return new ArrayList<>(catalog.values());
+    }
+
+    /**
+     * @param driveId The Drive ID of a master template.
+     * @return The cached catalog entry for that template, if it is known.
+     */
+    public Optional<TemplateCatalogItem> find(String driveId) {
+        return driveId == null ? Optional.empty() : Optional.ofNullable(catalog.get(driveId));
+    }
+
+    /**
+     * @return true when a templates folder is configured.
+     */
+    public boolean isEnabled() {
+        return templatesFolderId != null && !templatesFolderId.isEmpty();
+    }
+
+    private static TemplateCatalogItem toCatalogItem(File file) {
+        Map<String, String> properties = file.getProperties() != null ? file.getProperties() : Collections.emptyMap();
+        TemplateCatalogItem item = new TemplateCatalogItem(
+                file.getId(),
+                properties.getOrDefault("name", file.getName()),
+                file.getMimeType(),
+                properties.get("category"),
+                properties.getOrDefault("imageUrl", file.getThumbnailLink()),
+                file.getDescription(),
+                properties.get("spotlight"),
+                properties.get("provider"));
+        item.setVersion(file.getVersion());
+        return item;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.auth.dto.TemplateCatalogItem;
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.model.PooledTemplateCopy;
+import com.example.acespringbackend.utility.DriveUtility;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional warm pool of pre-copied template instances. A background job keeps a few copies of
+ * every catalog template in a dedicated pool folder on Drive; replicating a template then claims
+ * one of them and only moves and renames it into the user's folder, which is a metadata update
+ * instead of a full Drive copy. When the pool is disabled, not configured or drained, callers
+ * fall back to copying the master template.
+ *
+ * Pool membership is tracked in MongoDB (template_pool). A claim leases a copy with find-and-modify,
+ * so it is handed to exactly one user even with several application instances, and the record is
+ * only removed once the move succeeded; a failed move releases the lease again. Leases left behind
+ * by a crashed instance are resolved by the refill job, which checks whether the copy is still in
+ * the pool folder. Copies are tagged with the Drive version of their master template, and copies of
+ * an older version are never handed out and are deleted on the next refill.
+ */
+@Service
+public class TemplateWarmPool {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateWarmPool.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DriveUtility driveUtility;
+    private final TemplateCatalogService templateCatalogService;
+    private final AppSchedulers appSchedulers;
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+    @Value("${drive.templates.warm-pool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${google.drive.templates.pool.folder.id:}")
+    private String poolFolderId;
+
+    @Value("${drive.templates.warm-pool.size:2}")
+    private int copiesPerTemplate;
+
+    @Value("${drive.templates.warm-pool.claim-lease-seconds:300}")
+    private long claimLeaseSeconds;
+
+    public TemplateWarmPool(ReactiveMongoTemplate mongoTemplate, DriveUtility driveUtility, TemplateCatalogService templateCatalogService,
+                            AppSchedulers appSchedulers) {
+        this.mongoTemplate = mongoTemplate;
+        this.driveUtility = driveUtility;
+        this.templateCatalogService = templateCatalogService;
+        this.appSchedulers = appSchedulers;
+    }
+
+    /**
+     * Claims a pre-copied instance of the template and moves it into the target folder under the new name.
+     *
+     * @param driveInstance   The authenticated Google Drive service instance.
+     * @param templateDriveId The Drive ID of the master template.
+     * @param newFileName     The name the user's copy should get.
+     * @param targetFolderId  The user's folder.
+     * @return Mono emitting the moved file, or empty if no pooled copy could be used.
+     */
+    public Mono<File> claim(Drive driveInstance, String templateDriveId, String newFileName, String targetFolderId) {
+        if (!isActive()) {
+            return Mono.empty();
+        }
+        Optional<TemplateCatalogItem> template = templateCatalogService.find(templateDriveId);
+        if (template.isEmpty()) {
+            return Mono.empty();
+        }
+        Query oldestCurrentCopy = Query.query(Criteria.where("templateDriveId").is(templateDriveId)
+                        .and("templateVersion").is(template.get().getVersion())
+                        .and("claimedUntil").is(null))
+                .with(Sort.by(Sort.Order.asc("createdAt")));
+        Update lease = Update.update("claimedUntil", Instant.now().plusSeconds(claimLeaseSeconds));
+        return mongoTemplate.findAndModify(oldestCurrentCopy, lease, FindAndModifyOptions.options().returnNew(true), PooledTemplateCopy.class)
+                .flatMap(pooled -> Mono.fromCallable(() ->
+                                driveUtility.moveDriveFile(driveInstance, pooled.getId(), newFileName, targetFolderId, poolFolderId))
+                        .subscribeOn(appSchedulers.drive())
+                        .flatMap(file -> remove(pooled)
+                                .onErrorResume(e -> {
+                                    // The copy has left the pool folder, so the next refill drops the record.
+                                    log.warn("TemplateWarmPool: Could not remove the record of assigned copy '{}': {}", pooled.getId(), e.getMessage());
+                                    return Mono.empty();
+                                })
+                                .thenReturn(file))
+                        .doOnNext(file -> log.info("TemplateWarmPool: Assigned pooled copy '{}' of template '{}' to folder '{}'.",
+                                file.getId(), templateDriveId, targetFolderId))
+                        .onErrorResume(e -> {
+                            // The caller copies the master instead; the copy stays pooled unless it is gone from Drive.
+                            log.warn("TemplateWarmPool: Could not use pooled copy '{}' of template '{}': {}",
+                                    pooled.getId(), templateDriveId, e.getMessage());
+                            Mono<Void> cleanup = e instanceof HttpResponseException httpError && httpError.getStatusCode() == 404
+                                    ? remove(pooled)
+                                    : release(pooled);
+                            return cleanup.onErrorResume(cleanupError -> Mono.empty()).then(Mono.empty());
+                        }))
+                .onErrorResume(e -> {
+                    log.warn("TemplateWarmPool: Could not claim a pooled copy of template '{}': {}", templateDriveId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${drive.templates.warm-pool.refill-ms:60000}",
+            initialDelayString = "${drive.templates.warm-pool.refill-ms:60000}")
+    public void scheduledRefill() {
+        if (!isActive() || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        refill()
+                .doFinally(signal -> refilling.set(false))
+                .subscribe(
+                        created -> {
+                            if (created > 0) {
+                                log.info("TemplateWarmPool: Added {} pre-copied template instance(s) to the pool.", created);
+                            }
+                        },
+                        e -> log.error("TemplateWarmPool: Pool refill failed: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Tops up the pool so every catalog template has the configured number of pre-copied instances
+     * of its current version. Expired claims are resolved and outdated copies deleted first. Copies
+     * are made one at a time to keep the background load on the Drive API low.
+     *
+     * @return Mono emitting the number of copies created.
+     */
+    public Mono<Long> refill() {
+        return driveUtility.getDriveInstance()
+                .flatMapMany(driveInstance -> resolveExpiredClaims(driveInstance)
+                        .thenMany(Flux.fromIterable(templateCatalogService.getTemplates()))
+                        .concatMap(template -> discardOutdatedCopies(driveInstance, template)
+                                .then(mongoTemplate.count(currentCopies(template), PooledTemplateCopy.class))
+                                .flatMapMany(pooled -> Flux.range(0, (int) Math.max(0, copiesPerTemplate - pooled)))
+                                .concatMap(i -> copyIntoPool(driveInstance, template))))
+                .count();
+    }
+
+    private Mono<PooledTemplateCopy> copyIntoPool(Drive driveInstance, TemplateCatalogItem template) {
+        return Mono.fromCallable(() -> driveUtility.copyFileToDrive(driveInstance, template.getDriveId(), template.getName(), poolFolderId))
+                .subscribeOn(appSchedulers.drive())
+                .flatMap(file -> mongoTemplate.insert(
+                        new PooledTemplateCopy(file.getId(), template.getDriveId(), template.getVersion(), Instant.now())))
+                .onErrorResume(e -> {
+                    log.warn("TemplateWarmPool: Could not pre-copy template '{}': {}", template.getDriveId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Resolves claims whose lease ran out, e.g. because the claiming instance stopped mid-move: a copy
+     * still in the pool folder is made available again, otherwise it was handed out (or deleted) and
+     * only its record is dropped.
+     */
+    private Mono<Void> resolveExpiredClaims(Drive driveInstance) {
+        Query expired = Query.query(Criteria.where("claimedUntil").lt(Instant.now()));
+        return mongoTemplate.find(expired, PooledTemplateCopy.class)
+                .concatMap(pooled -> Mono.fromCallable(() -> driveUtility.getDriveFileMetadata(driveInstance, pooled.getId(), "id,parents,trashed"))
+                        .subscribeOn(appSchedulers.drive())
+                        .map(file -> file.getParents() != null && file.getParents().contains(poolFolderId) && !Boolean.TRUE.equals(file.getTrashed()))
+                        .defaultIfEmpty(false)
+                        .flatMap(stillPooled -> stillPooled ? release(pooled) : remove(pooled))
+                        .onErrorResume(e -> {
+                            log.warn("TemplateWarmPool: Could not resolve the expired claim of pooled copy '{}': {}", pooled.getId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /**
+     * Deletes the unclaimed copies made from an older version of the template. The Drive file is
+     * deleted before its record, so a failed deletion is retried on the next refill.
+     */
+    private Mono<Void> discardOutdatedCopies(Drive driveInstance, TemplateCatalogItem template) {
+        Query outdated = Query.query(Criteria.where("templateDriveId").is(template.getDriveId())
+                .and("templateVersion").ne(template.getVersion())
+                .and("claimedUntil").is(null));
+        return mongoTemplate.find(outdated, PooledTemplateCopy.class)
+                .concatMap(pooled -> Mono.fromRunnable(() -> {
+                            try {
+                                driveUtility.deleteDriveFile(driveInstance, pooled.getId());
+                            } catch (HttpResponseException e) {
+                                if (e.getStatusCode() != 404) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .subscribeOn(appSchedulers.drive())
+                        .then(remove(pooled))
+                        .doOnSuccess(v -> log.info("TemplateWarmPool: Discarded pooled copy '{}' of an older version of template '{}'.",
+                                pooled.getId(), template.getDriveId()))
+                        .onErrorResume(e -> {
+                            log.warn("TemplateWarmPool: Could not discard outdated pooled copy '{}': {}", pooled.getId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Query currentCopies(TemplateCatalogItem template) {
+        return Query.query(Criteria.where("templateDriveId").is(template.getDriveId())
+                .and("templateVersion").is(template.getVersion()));
+    }
+
+    private Mono<Void> remove(PooledTemplateCopy pooled) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(pooled.getId())), PooledTemplateCopy.class).then();
+    }
+
+    private Mono<Void> release(PooledTemplateCopy pooled) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(pooled.getId())),
+                new Update().unset("claimedUntil"), PooledTemplateCopy.class).then();
+    }
+
+    private boolean isActive() {
+        return enabled && poolFolderId != null && !poolFolderId.isEmpty() && templateCatalogService.isEnabled();
+    }
+}
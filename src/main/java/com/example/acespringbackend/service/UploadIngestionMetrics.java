@@ -0,0 +1,46 @@
+package com.example.acespringbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer metrics of multipart upload ingestion:
+ *
+ * - upload.ingested.bytes: size distribution of uploads accepted for storage,
+ * - upload.rejected: uploads refused, tagged with the reason
+ *   (request_size, part_size, file_limit, quota).
+ */
+@Component
+public class UploadIngestionMetrics {
+
+    public static final String REASON_REQUEST_SIZE = "request_size";
+    public static final String REASON_PART_SIZE = "part_size";
+    public static final String REASON_FILE_LIMIT = "file_limit";
+    public static final String REASON_QUOTA = "quota";
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary ingestedBytes;
+
+    public UploadIngestionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ingestedBytes = DistributionSummary.builder("upload.ingested.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param bytes Size of an upload that passed all limits.
+     */
+    public void recordIngested(long bytes) {
+        ingestedBytes.record(bytes);
+    }
+
+    /**
+     * @param reason One of the REASON_* constants.
+     */
+    public void recordRejected(String reason) {
+        Counter.builder("upload.rejected").tag("reason", reason).register(meterRegistry).increment();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.model.User;
+import com.example.acespringbackend.repository.UserRepository;
+import com.example.acespringbackend.utility.JwtUtility;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small in-memory cache of the account state that matters for authentication
+ * (enabled, locked, token revocation cut-off), keyed by user email.
+ *
+ * Stateless JWT authentication consults this cache instead of loading the user on every
+ * request. Entries are refreshed whenever a {@link User} is saved or deleted through
+ * Spring Data (via mapping events), and otherwise expire after a short TTL so that changes
+ * made outside this application are picked up eventually.
+ */
+@Component
+public class UserAuthStateCache extends AbstractMongoEventListener<User> {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAuthStateCache.class);
+
+    private final UserRepository userRepository;
+    private final Map<String, AuthState> states = new ConcurrentHashMap<>();
+
+    // How long a cached state is trusted. Changes not made through this instance (another instance
+    // disabling the account or revoking its tokens, or a direct database update) take effect after up
+    // to this many seconds, so it is also the worst-case delay of a revocation.
+    @Value("${application.security.jwt.auth-state-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${application.security.jwt.auth-state-max-entries:10000}")
+    private int maxEntries;
+
+    public UserAuthStateCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Checks whether a token for the given user, issued at the given time, is still acceptable:
+     * the account must exist, be enabled and unlocked, and the token must have been issued after the
+     * last revocation. Only hits MongoDB when there is no fresh cache entry for the user.
+     *
+     * A JWT's issued-at time only has second precision, so a token issued within the second of a
+     * revocation cannot be told apart from one issued just before it; such tokens are rejected.
+     *
+     * @param email    The token subject.
+     * @param issuedAt The token's issued-at time.
+     * @return Mono emitting true if the token may be used, false otherwise.
+     */
+    public Mono<Boolean> isTokenAccepted(String email, Date issuedAt) {
+        return getState(email).map(state -> state.accepts(issuedAt));
+    }
+
+    /**
+     * Drops the cached state for a user so the next request reloads it.
+     */
+    public void invalidate(String email) {
+        if (email != null) {
+            states.remove(email);
+        }
+    }
+
+    /**
+     * Replaces the cached state with the state of the given (just persisted) user.
+     */
+    public void refresh(User user) {
+        if (user == null || user.getEmail() == null) {
+            return;
+        }
+        put(user.getEmail(), AuthState.from(user, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        refresh(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Document query = event.getSource();
+        Object id = query != null ? query.get("_id") : null;
+        if (id == null) {
+            // Bulk delete without an id in the query: we cannot tell who was removed, so start over.
+            states.clear();
+            return;
+        }
+        states.entrySet().removeIf(entry -> id.toString().equals(entry.getValue().userId()));
+    }
+
+    private Mono<AuthState> getState(String email) {
+        long now = System.currentTimeMillis();
+        AuthState cached = states.get(email);
+        if (cached != null && now - cached.loadedAtMillis() < ttlSeconds * 1000) {
+            return Mono.just(cached);
+        }
+        return userRepository.findByNormalizedEmail(email)
+                .map(user -> AuthState.from(user, now))
+                .defaultIfEmpty(AuthState.missing(now))
+                .doOnNext(state -> {
+                    log.debug("UserAuthStateCache: Loaded auth state for {} (exists={}).", email, state.exists());
+                    put(email, state);
+                });
+    }
+
+    private void put(String email, AuthState state) {
+        if (states.size() >= maxEntries && !states.containsKey(email)) {
+            long cutoff = System.currentTimeMillis() - ttlSeconds * 1000;
+            states.entrySet().removeIf(entry -> entry.getValue().loadedAtMillis() < cutoff);
+            if (states.size() >= maxEntries) {
+                return;
+            }
+        }
+        states.put(email, state);
+    }
+
+    private record AuthState(String userId, boolean exists, boolean enabled, boolean accountNonLocked,
+                             Instant tokensValidAfter, long loadedAtMillis) {
+
+        static AuthState from(User user, long now) {
+            return new AuthState(user.getId(), true, user.isEnabled(), user.isAccountNonLocked(),
+                    user.getTokensValidAfter(), now);
+        }
+
+        static AuthState missing(long now) {
+            return new AuthState(null, false, false, false, null, now);
+        }
+
+        boolean accepts(Date issuedAt) {
+            if (!exists || !enabled || !accountNonLocked) {
+                return false;
+            }
+            return JwtUtility.isIssuedAfterRevocation(issuedAt, tokensValidAfter);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.example.acespringbackend.model.User;
 import com.example.acespringbackend.model.JwtExpiredToken;
 import com.example.acespringbackend.repository.UserRepository;
 import com.example.acespringbackend.repository.JwtExpiredTokenRepository;
+import com.example.acespringbackend.config.AppSchedulers;
 import com.example.acespringbackend.utility.JwtUtility;
 import com.example.acespringbackend.service.EmailService;
 import com.example.acespringbackend.service.DriveService;
@@ -25,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Optional;
 
@@ -44,6 +46,7 @@ public class WebSiteAuth {
     private final JwtUtility jwtUtility;
     private final JwtExpiredTokenRepository jwtExpiredTokenRepository;
     private final OTPStorageService otpStorageService;
+    private final AppSchedulers appSchedulers;
 
     public WebSiteAuth(EmailService emailService,
                        UserRepository userRepository,
@@ -51,7 +54,8 @@ public class WebSiteAuth {
                        PasswordEncoder passwordEncoder,
                        JwtUtility jwtUtility,
                        JwtExpiredTokenRepository jwtExpiredTokenRepository,
-                       OTPStorageService otpStorageService) {
+                       OTPStorageService otpStorageService,
+                       AppSchedulers appSchedulers) {
         this.emailService = emailService;
         this.userRepository = userRepository;
         this.driveService = driveService;
@@ -59,6 +63,7 @@ public class WebSiteAuth {
         this.jwtUtility = jwtUtility;
         this.jwtExpiredTokenRepository = jwtExpiredTokenRepository;
         this.otpStorageService = otpStorageService;
+        this.appSchedulers = appSchedulers;
     }
 
     private double bytesToMegabytes(long bytes) {
@@ -72,7 +77,7 @@ public class WebSiteAuth {
      * @return Mono of SignUpResponse indicating OTP sent status.
      */
     public Mono<SignUpResponse> sendOtpForSignup(SignUpRequest request) {
-        return userRepository.findByEmail(request.getEmail())
+        return userRepository.findByNormalizedEmail(request.getEmail())
                 .flatMap(existingUser -> {
                     if (existingUser != null && existingUser.getEmailVerified()) {
                         log.warn("Attempted signup OTP for already verified user: {}", request.getEmail());
@@ -90,25 +95,28 @@ public class WebSiteAuth {
         otpStorageService.storeOtp(request.getEmail(), otp);
         log.debug("OTP generated and stored for email: {}", request.getEmail());
 
-        try {
-            emailService.sendOtpEmail(request.getEmail(), otp);
-            log.info("OTP email successfully queued for sending to: {}", request.getEmail());
-            return Mono.just(SignUpResponse.builder()
-                    .email(request.getEmail()) // Email is already sent here
-                    .message("An OTP has been sent to your email. Please check your inbox and spam folder.")
-                    .currentStorageUsageMb(0.0)
-                    .driveFolderId(null)
-                    .authProvider(User.AuthProvider.WEBSITE.name())
-                    .build());
-        } catch (MessagingException e) {
-            log.error("Failed to send OTP email to {}: {}", request.getEmail(), e.getMessage(), e);
-            otpStorageService.removeOtp(request.getEmail());
-            return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "We couldn't send the OTP. Please try again."));
-        } catch (Exception e) {
-            log.error("An unexpected error occurred while sending OTP to {}: {}", request.getEmail(), e.getMessage(), e);
-            otpStorageService.removeOtp(request.getEmail());
-            return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please try again."));
-        }
+        // The SMTP send blocks, so it runs on the dedicated mail scheduler.
+        return Mono.fromCallable(() -> {
+                    emailService.sendOtpEmail(request.getEmail(), otp);
+                    log.info("OTP email successfully queued for sending to: {}", request.getEmail());
+                    return SignUpResponse.builder()
+                            .email(request.getEmail()) // Email is already sent here
+                            .message("An OTP has been sent to your email. Please check your inbox and spam folder.")
+                            .currentStorageUsageMb(0.0)
+                            .driveFolderId(null)
+                            .authProvider(User.AuthProvider.WEBSITE.name())
+                            .build();
+                })
+                .subscribeOn(appSchedulers.mail())
+                .onErrorResume(e -> {
+                    otpStorageService.removeOtp(request.getEmail());
+                    if (e instanceof MessagingException) {
+                        log.error("Failed to send OTP email to {}: {}", request.getEmail(), e.getMessage(), e);
+                        return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "We couldn't send the OTP. Please try again."));
+                    }
+                    log.error("An unexpected error occurred while sending OTP to {}: {}", request.getEmail(), e.getMessage(), e);
+                    return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please try again."));
+                });
     }
 
 
@@ -142,7 +150,7 @@ public class WebSiteAuth {
      * @return Mono of SignUpResponse with user details, JWT, and drive folder ID.
      */
     public Mono<SignUpResponse> completeSignup(SignUpRequest request) {
-        return userRepository.findByEmail(request.getEmail())
+        return userRepository.findByNormalizedEmail(request.getEmail())
                 .flatMap(existingUser -> {
                     // Scenario 1: User exists and is already verified
                     if (existingUser.getEmailVerified()) {
@@ -184,7 +192,7 @@ public class WebSiteAuth {
                                     return userRepository.save(savedUser);
                                 })
                                 .map(finalSavedUser -> {
-                                    String token = jwtUtility.generateToken7Days(finalSavedUser.getEmail());
+                                    String token = jwtUtility.generateToken7Days(finalSavedUser);
                                     Date expirationDate = jwtUtility.extractExpiration(token);
                                     Instant expirationInstant = (expirationDate != null) ? expirationDate.toInstant() : null;
 
@@ -219,7 +227,7 @@ public class WebSiteAuth {
      * @return Mono of LoginResponse with JWT, user details, and drive folder ID.
      */
     public Mono<LoginResponse> login(LoginRequest request) {
-        return userRepository.findByEmail(request.getEmail())
+        return userRepository.findByNormalizedEmail(request.getEmail())
                 .flatMap(user -> {
                     if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
                         log.warn("Login attempt failed for user {}: Invalid password.", request.getEmail());
@@ -237,7 +245,7 @@ public class WebSiteAuth {
                     user.setLastLogin(LocalDateTime.now());
                     return userRepository.save(user)
                             .map(savedUser -> {
-                                String token = jwtUtility.generateToken7Days(savedUser.getEmail());
+                                String token = jwtUtility.generateToken7Days(savedUser);
                                 Date expirationDate = jwtUtility.extractExpiration(token);
                                 Instant expirationInstant = (expirationDate != null) ? expirationDate.toInstant() : null;
 
@@ -276,7 +284,7 @@ public class WebSiteAuth {
      */
     public Mono<ResponseEntity<String>> forgotPassword(String email, String resetLinkBase) {
         log.debug("Forgot password service initiated for email: {}", email);
-        return userRepository.findByEmail(email)
+        return userRepository.findByNormalizedEmail(email)
                 .flatMap(user -> {
                     if (user.getAuthProvider() != User.AuthProvider.WEBSITE) {
                         log.warn("Password reset requested for non-WEBSITE user: {}. Preventing email for security.", email);
@@ -288,27 +296,26 @@ public class WebSiteAuth {
                     Instant tokenExpirationTime = (expirationDate != null) ? expirationDate.toInstant() : null;
 
                     JwtExpiredToken jwtTokenRecord = new JwtExpiredToken();
-                    jwtTokenRecord.setToken(resetToken);
+                    jwtTokenRecord.setId(JwtUtility.hashToken(resetToken));
                     jwtTokenRecord.setExpirationTime(tokenExpirationTime);
                     jwtTokenRecord.setUsed(false);
                     jwtTokenRecord.setIssuedAt(Instant.now());
 
                     return jwtExpiredTokenRepository.save(jwtTokenRecord)
                             .flatMap(savedTokenRecord -> {
-                                String fullResetLink = resetLinkBase + "/" + savedTokenRecord.getToken();
+                                String fullResetLink = resetLinkBase + "/" + resetToken;
                                 log.info("Generated password reset link for {}.", user.getEmail());
-                                try {
-                                    emailService.sendPasswordResetEmail(user.getEmail(), fullResetLink);
-                                    log.info("Password reset link email sent to {}", user.getEmail());
-                                    // *** CHANGE START *** Return JSON for success
-                                    return Mono.just(ResponseEntity.ok("{\"status\": \"success\", \"message\": \"A password reset link has been sent to your email. Please check your inbox and spam folder.\"}"));
-                                    // *** CHANGE END ***
-                                } catch (MessagingException e) {
-                                    log.error("Failed to send password reset email to {}: {}", user.getEmail(), e.getMessage(), e);
-                                    // *** CHANGE START *** Return JSON for error
-                                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{\"status\": \"error\", \"message\": \"We couldn't send the password reset email. Please try again.\"}"));
-                                    // *** CHANGE END ***
-                                }
+                                // The SMTP send blocks, so it runs on the dedicated mail scheduler.
+                                return Mono.fromCallable(() -> {
+                                            emailService.sendPasswordResetEmail(user.getEmail(), fullResetLink);
+                                            log.info("Password reset link email sent to {}", user.getEmail());
+                                            return ResponseEntity.ok("{\"status\": \"success\", \"message\": \"A password reset link has been sent to your email. Please check your inbox and spam folder.\"}");
+                                        })
+                                        .subscribeOn(appSchedulers.mail())
+                                        .onErrorResume(MessagingException.class, e -> {
+                                            log.error("Failed to send password reset email to {}: {}", user.getEmail(), e.getMessage(), e);
+                                            return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{\"status\": \"error\", \"message\": \"We couldn't send the password reset email. Please try again.\"}"));
+                                        });
                             })
                             .onErrorResume(dbEx -> {
                                 log.error("Failed to save password reset token to DB for {}: {}", user.getEmail(), dbEx.getMessage(), dbEx);
@@ -341,65 +348,53 @@ public class WebSiteAuth {
     public Mono<ResponseEntity<String>> resetPassword(String token, String newPassword) {
         log.debug("Reset password service initiated for token: {}", token);
 
-        return jwtExpiredTokenRepository.findByToken(token)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link is invalid or has expired. Please request a new one.")))
-                .flatMap(tokenRecord -> {
-                    if (tokenRecord.isUsed()) {
-                        log.warn("Attempt to use an already consumed password reset token: {}", token);
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "This password reset link has already been used. Please request a new one."));
-                    }
-
-                    String userEmail = jwtUtility.extractUsername(token);
-                    if (userEmail == null || userEmail.isEmpty()) {
-                        log.error("User email could not be extracted from JWT during password reset: {}", token);
-                        // IMPORTANT: Do NOT mark as used here. If the token is intrinsically malformed,
-                        // it was never valid in the first place, and marking it used would prevent retries if
-                        // there was an issue with the link itself. It should only be marked used on a successful password change.
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link is invalid. Please request a new one."));
-                    }
+        String tokenHash = JwtUtility.hashToken(token);
 
-                    return userRepository.findByEmail(userEmail)
-                            .switchIfEmpty(Mono.defer(() -> {
-                                log.warn("User not found for email '{}' extracted from token {}. Not marking token as used.", userEmail, token);
-                                // IMPORTANT: Do NOT mark as used here. If the user doesn't exist, the link cannot complete,
-                                // but marking it used would imply it was successfully "consumed".
-                                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "The account associated with this reset link could not be found."));
-                            }))
-                            .flatMap(user -> {
-                                // Important: JWT validity check should consider the actual JWT expiry too
-                                // even if the DB record hasn't caught up.
-                                if (!jwtUtility.validateToken(token, user)) {
-                                    log.warn("JWT token is intrinsically invalid or expired for user {}: {}", userEmail, token);
-                                    // IMPORTANT: Do NOT mark as used here. Intrinsic JWT invalidity means it's not a valid token to begin with.
-                                    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link has expired or is invalid. Please request a new one."));
-                                }
-
-                                if (Instant.now().isAfter(tokenRecord.getExpirationTime())) {
-                                    log.warn("Password reset token found in DB but is past its recorded expiration: {}", token);
-                                    // IMPORTANT: Do NOT mark as used here. It's truly expired.
-                                    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link has expired. Please request a new one."));
-                                }
-
-                                if (user.getAuthProvider() != User.AuthProvider.WEBSITE) {
-                                    log.warn("Password reset attempted for non-WEBSITE user through link: {}", userEmail);
-                                    // IMPORTANT: Do NOT mark as used here. This link is not for this auth type.
-                                    return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "This reset link is not for accounts created with email and password. Please use your original login method."));
-                                }
-
-                                user.setPassword(passwordEncoder.encode(newPassword));
-                                user.setLastLogin(LocalDateTime.now());
-
-                                return userRepository.save(user)
-                                        .flatMap(savedUser -> {
-                                            // *** CRITICAL CHANGE HERE: Mark token as used ONLY after successful password update ***
-                                            tokenRecord.setUsed(true);
-                                            log.info("Password successfully reset for user: {}. Marking token as used.", savedUser.getEmail());
-                                            return jwtExpiredTokenRepository.save(tokenRecord)
-                                                    // *** CRITICAL CHANGE HERE: Return JSON response on success ***
-                                                    .thenReturn(ResponseEntity.ok("{\"status\": \"success\", \"message\": \"Your password has been successfully reset!\"}"));
-                                        });
-                            });
-                })
+        return Mono.fromCallable(() -> jwtUtility.extractUsername(token))
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link has expired or is invalid. Please request a new one."))
+                .filter(userEmail -> !userEmail.isEmpty())
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("User email could not be extracted from JWT during password reset: {}", token);
+                    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link is invalid. Please request a new one."));
+                }))
+                .flatMap(userEmail -> userRepository.findByNormalizedEmail(userEmail)
+                        .switchIfEmpty(Mono.defer(() -> {
+                            log.warn("User not found for email '{}' extracted from token {}. Not consuming token.", userEmail, token);
+                            // IMPORTANT: Do NOT consume the token here. If the user doesn't exist, the link cannot complete,
+                            // but marking it used would imply it was successfully "consumed".
+                            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "The account associated with this reset link could not be found."));
+                        }))
+                        .flatMap(user -> {
+                            if (!jwtUtility.validateToken(token, user)) {
+                                log.warn("JWT token is intrinsically invalid or expired for user {}: {}", userEmail, token);
+                                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link has expired or is invalid. Please request a new one."));
+                            }
+
+                            if (user.getAuthProvider() != User.AuthProvider.WEBSITE) {
+                                log.warn("Password reset attempted for non-WEBSITE user through link: {}", userEmail);
+                                return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "This reset link is not for accounts created with email and password. Please use your original login method."));
+                            }
+
+                            // Atomically claim the token: only one concurrent request can flip 'used' from false to true.
+                            return jwtExpiredTokenRepository.consumeIfUnused(tokenHash)
+                                    .switchIfEmpty(Mono.defer(() -> rejectUnconsumableToken(tokenHash)))
+                                    .flatMap(consumedRecord -> {
+                                        user.setPassword(passwordEncoder.encode(newPassword));
+                                        user.setLastLogin(LocalDateTime.now());
+                                        // Revoke every session token issued before the password change.
+                                        user.setTokensValidAfter(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+                                        return userRepository.save(user)
+                                                // If the password could not be stored, give the token back so the link can be retried.
+                                                .onErrorResume(saveEx -> jwtExpiredTokenRepository.release(tokenHash)
+                                                        .onErrorResume(releaseEx -> Mono.just(false))
+                                                        .then(Mono.error(saveEx)));
+                                    })
+                                    .map(savedUser -> {
+                                        log.info("Password successfully reset for user: {}. Token consumed.", savedUser.getEmail());
+                                        return ResponseEntity.ok("{\"status\": \"success\", \"message\": \"Your password has been successfully reset!\"}");
+                                    });
+                        }))
                 .onErrorResume(ResponseStatusException.class, e -> {
                     log.error("Password reset failed for token {}: {}", token, e.getReason());
                     // *** CHANGE START *** Ensure all error responses are JSON
@@ -414,6 +409,22 @@ public class WebSiteAuth {
                 });
     }
 
+    /**
+     * Explains why a reset token could not be consumed: already used, expired, or never issued.
+     */
+    private <T> Mono<T> rejectUnconsumableToken(String tokenHash) {
+        return jwtExpiredTokenRepository.findById(tokenHash)
+                .flatMap(tokenRecord -> {
+                    if (tokenRecord.isUsed()) {
+                        log.warn("Attempt to use an already consumed password reset token: {}", tokenHash);
+                        return Mono.<T>error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "This password reset link has already been used. Please request a new one."));
+                    }
+                    log.warn("Password reset token found in DB but is past its recorded expiration: {}", tokenHash);
+                    return Mono.<T>error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link has expired. Please request a new one."));
+                })
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "The password reset link is invalid or has expired. Please request a new one."))));
+    }
+
     private String generateOtp() {
         return String.valueOf((int) ((Math.random() * 900000) + 100000));
     }
@@ -0,0 +1,217 @@
+package com.example.acespringbackend.utility;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton: finds every occurrence of any of a set of patterns in a text with a single
+ * left-to-right scan, in time linear in the text length plus the number of matches, however many
+ * patterns there are. Instances are immutable once built and safe to share between threads.
+ *
+ * Matching is on whole words: an occurrence only counts if it starts and ends at a word boundary
+ * (see {@link #isWordChar}), so "java" does not match inside "javascript".
+ *
+ * @param <T> The value attached to each pattern, e.g. the canonical skill a synonym stands for.
+ */
+public final class AhoCorasickAutomaton<T> {
+
+    /**
+     * An occurrence of a pattern.
+     *
+     * @param start Offset of the first character in the scanned text.
+     * @param end   Offset just past the last character.
+     * @param value The value of the matched pattern.
+     */
+    public record Match<T>(int start, int end, T value) {
+    }
+
+    // Per state: transitions, failure link, and the patterns (by index) ending here, own and inherited.
+    private final List<Map<Character, Integer>> transitions;
+    private final int[] failure;
+    private final int[][] outputs;
+    private final int[] patternLengths;
+    private final List<T> values;
+
+    private AhoCorasickAutomaton(List<Map<Character, Integer>> transitions, int[] failure, int[][] outputs,
+                                 int[] patternLengths, List<T> values) {
+        this.transitions = transitions;
+        this.failure = failure;
+        this.outputs = outputs;
+        this.patternLengths = patternLengths;
+        this.values = values;
+    }
+
+    /**
+     * @return A builder to add patterns to.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Finds all whole-word occurrences of the patterns in the text, overlapping ones included.
+     *
+     * @param text The text to scan; it must be normalised the same way as the patterns.
+     * @return The occurrences, ordered by end offset.
+     */
+    public List<Match<T>> findAll(String text) {
+        List<Match<T>> matches = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Integer next;
+            while ((next = transitions.get(state).get(c)) == null && state != 0) {
+                state = failure[state];
+            }
+            state = next == null ? 0 : next;
+            for (int pattern : outputs[state]) {
+                int start = i + 1 - patternLengths[pattern];
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    matches.add(new Match<>(start, i + 1, values.get(pattern)));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the whole-word occurrences, keeping the longest of overlapping ones ("spring boot" rather
+     * than "spring" inside it) and the leftmost when lengths tie.
+     *
+     * @param text The text to scan; it must be normalised the same way as the patterns.
+     * @return Non-overlapping occurrences in text order.
+     */
+    public List<Match<T>> findLongest(String text) {
+        List<Match<T>> all = new ArrayList<>(findAll(text));
+        all.sort(Comparator.comparingInt((Match<T> match) -> match.start()).thenComparingInt(match -> -match.end()));
+        List<Match<T>> selected = new ArrayList<>();
+        int coveredUntil = 0;
+        for (Match<T> match : all) {
+            // For equal starts the longest comes first, so it wins over the patterns it contains.
+            if (match.start() >= coveredUntil) {
+                selected.add(match);
+                coveredUntil = match.end();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return Whether the character can be part of a word; besides letters and digits, the '+', '#' and '.'
+     * of names such as "c++", "c#" and "node.js".
+     */
+    public static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#' || c == '.';
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(index);
+        // A trailing full stop ends a sentence rather than continuing the word.
+        return !isWordChar(c) || (c == '.' && (index + 1 >= text.length() || !Character.isLetterOrDigit(text.charAt(index + 1))));
+    }
+
+    /**
+     * Collects patterns and compiles them into an automaton.
+     */
+    public static final class Builder<T> {
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<List<Integer>> ownOutputs = new ArrayList<>();
+        private final List<Integer> patternLengths = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * Adds a pattern; empty patterns are ignored.
+         *
+         * @param pattern The (normalised) pattern text.
+         * @param value   The value reported when the pattern matches.
+         * @return This builder.
+         */
+        public Builder<T> add(String pattern, T value) {
+            if (pattern == null || pattern.isEmpty()) {
+                return this;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = newState();
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ownOutputs.get(state).add(values.size());
+            patternLengths.add(pattern.length());
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Computes the failure links breadth-first and freezes the automaton.
+         *
+         * @return The compiled automaton.
+         */
+        public AhoCorasickAutomaton<T> build() {
+            int states = transitions.size();
+            int[] failure = new int[states];
+            int[][] outputs = new int[states][];
+            outputs[0] = toArray(ownOutputs.get(0), new int[0]);
+
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int child : transitions.get(0).values()) {
+                failure[child] = 0;
+                outputs[child] = toArray(ownOutputs.get(child), outputs[0]);
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.remove();
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int fallback = failure[state];
+                    Integer target;
+                    while ((target = transitions.get(fallback).get(edge.getKey())) == null && fallback != 0) {
+                        fallback = failure[fallback];
+                    }
+                    failure[child] = target == null ? 0 : target;
+                    outputs[child] = toArray(ownOutputs.get(child), outputs[failure[child]]);
+                    queue.add(child);
+                }
+            }
+
+            List<Map<Character, Integer>> frozen = new ArrayList<>(states);
+            for (Map<Character, Integer> edges : transitions) {
+                frozen.add(Map.copyOf(edges));
+            }
+            int[] lengths = patternLengths.stream().mapToInt(Integer::intValue).toArray();
+            return new AhoCorasickAutomaton<>(List.copyOf(frozen), failure, outputs, lengths, List.copyOf(values));
+        }
+
+        private int newState() {
+            transitions.add(new HashMap<>());
+            ownOutputs.add(new ArrayList<>());
+            return transitions.size() - 1;
+        }
+
+        private static int[] toArray(List<Integer> own, int[] inherited) {
+            int[] merged = new int[own.size() + inherited.length];
+            for (int i = 0; i < own.size(); i++) {
+                merged[i] = own.get(i);
+            }
+            System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+            return merged;
+        }
+    }
+}
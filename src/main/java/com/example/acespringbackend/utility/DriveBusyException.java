@@ -0,0 +1,34 @@
+package com.example.acespringbackend.utility;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link DriveGovernor} when a Google Drive call is refused locally or keeps being
+ * rate limited by Google after all retries. DriveService lets it propagate instead of reporting a
+ * failed operation, and DriveController answers it with 503 Service Unavailable.
+ */
+public class DriveBusyException extends IOException {
+
+    public static final String MESSAGE = "Google Drive is busy. Please try again shortly.";
+
+    public DriveBusyException(String reason) {
+        super(MESSAGE + " (" + reason + ")");
+    }
+
+    public DriveBusyException(String reason, Throwable cause) {
+        super(MESSAGE + " (" + reason + ")", cause);
+    }
+
+    /**
+     * @param e Any error, possibly wrapping others.
+     * @return true if the error or one of its causes is a {@link DriveBusyException}.
+     */
+    public static boolean isCauseOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DriveBusyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
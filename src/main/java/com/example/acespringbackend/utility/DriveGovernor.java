@@ -0,0 +1,273 @@
+package com.example.acespringbackend.utility;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponseException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Governs all calls to the Google Drive API so that load spikes degrade into waiting instead of errors:
+ *
+ * - a global token bucket caps the request rate of the whole application,
+ * - per-user token buckets (see {@link #reserveUserPermit}) keep one user from starving the others;
+ *   at most drive.governor.max-tracked-users of them are kept, least recently used dropped first,
+ * - a semaphore caps the number of Drive calls in flight on the drive scheduler threads,
+ * - 429 and 403 rate-limit responses are retried with exponential backoff and full jitter.
+ *
+ * Calls that would have to wait longer than configured are refused with a {@link DriveBusyException}.
+ * Metrics: drive.calls.throttled (delayed, by reason), drive.calls.rejected (refused, by reason)
+ * and the drive.calls timer (by operation and outcome).
+ */
+@Component
+public class DriveGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(DriveGovernor.class);
+
+    // Error reasons Google uses for quota (rather than permission) 403s.
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+
+    /**
+     * A blocking Drive API call, typically {@code request::execute}.
+     */
+    @FunctionalInterface
+    public interface DriveCall<T> {
+        T execute() throws IOException;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final TokenBucket globalBucket;
+    private final Map<String, TokenBucket> userBuckets;
+    private final Semaphore inFlight;
+
+    @Value("${drive.governor.user-rate-per-second:5}")
+    private double userRatePerSecond;
+
+    @Value("${drive.governor.user-burst:20}")
+    private double userBurst;
+
+    @Value("${drive.governor.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    @Value("${drive.governor.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${drive.governor.initial-backoff-ms:500}")
+    private long initialBackoffMillis;
+
+    @Value("${drive.governor.max-backoff-ms:16000}")
+    private long maxBackoffMillis;
+
+    public DriveGovernor(MeterRegistry meterRegistry,
+                         @Value("${drive.governor.global-rate-per-second:50}") double globalRatePerSecond,
+                         @Value("${drive.governor.global-burst:100}") double globalBurst,
+                         @Value("${drive.governor.max-concurrent-calls:32}") int maxConcurrentCalls,
+                         @Value("${drive.governor.max-tracked-users:10000}") int maxTrackedUsers) {
+        this.meterRegistry = meterRegistry;
+        this.globalBucket = new TokenBucket(globalRatePerSecond, globalBurst);
+        this.inFlight = new Semaphore(maxConcurrentCalls, true);
+        // Access-ordered, so the eldest entry is the least recently used user; synchronized, since
+        // access order changes the map on every read.
+        this.userBuckets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxTrackedUsers;
+            }
+        });
+    }
+
+    /**
+     * Executes a Drive call under the global rate limit and concurrency cap, retrying rate-limit responses.
+     * Blocks the calling thread while waiting, so it must run on a blocking-capable scheduler. A retry
+     * invokes the call again, so it must build any one-shot request (such as a BatchRequest, which is
+     * emptied by executing it) inside the call.
+     *
+     * @param operation A short name of the Drive operation, used as metric tag (e.g. "files.copy").
+     * @param call The call to execute.
+     * @return The call's result.
+     * @throws DriveBusyException if the call was refused locally or stayed rate limited after all retries.
+     * @throws IOException any other error of the call.
+     */
+    public <T> T execute(String operation, DriveCall<T> call) throws IOException {
+        waitForPermit(globalBucket, "global_bucket");
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DriveBusyException("interrupted while waiting for a Drive slot", e);
+        }
+        if (!acquired) {
+            rejected("concurrency");
+            throw new DriveBusyException("too many concurrent Drive calls");
+        }
+        try {
+            return executeWithBackoff(operation, call);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Takes a permit from the user's token bucket.
+     *
+     * @param userKey The user the Drive work is done for (e.g. the authenticated email).
+     * @return How long the caller has to wait before proceeding (0 if not at all), or -1 if the wait
+     * would exceed drive.governor.max-wait-ms and the request should be refused.
+     */
+    public long reserveUserPermit(String userKey) {
+        long waitNanos = userBuckets.computeIfAbsent(userKey, key -> new TokenBucket(userRatePerSecond, userBurst))
+                .reserve(TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        if (waitNanos < 0) {
+            rejected("user_bucket");
+            return -1;
+        }
+        if (waitNanos > 0) {
+            throttled("user_bucket");
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    private <T> T executeWithBackoff(String operation, DriveCall<T> call) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                T result = call.execute();
+                record(operation, "success", start);
+                return result;
+            } catch (HttpResponseException e) {
+                if (!isRateLimited(e)) {
+                    record(operation, "error", start);
+                    throw e;
+                }
+                record(operation, "rate_limited", start);
+                if (attempt >= maxRetries) {
+                    rejected("rate_limit");
+                    throw new DriveBusyException("Drive rate limit persisted after " + maxRetries + " retries", e);
+                }
+                throttled("backoff");
+                long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+                long sleepMillis = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1); // jitter
+                log.warn("DriveGovernor: {} rate limited by Google (HTTP {}); retry {} of {} in {} ms.",
+                        operation, e.getStatusCode(), attempt + 1, maxRetries, sleepMillis);
+                sleep(sleepMillis);
+                waitForPermit(globalBucket, "global_bucket");
+            } catch (IOException | RuntimeException e) {
+                record(operation, "error", start);
+                throw e;
+            }
+        }
+    }
+
+    private void waitForPermit(TokenBucket bucket, String reason) throws DriveBusyException {
+        long waitNanos = bucket.reserve(TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        if (waitNanos < 0) {
+            rejected(reason);
+            throw new DriveBusyException("Drive request rate exceeded");
+        }
+        if (waitNanos > 0) {
+            throttled(reason);
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    private static boolean isRateLimited(HttpResponseException e) {
+        if (e.getStatusCode() == 429) {
+            return true;
+        }
+        if (e.getStatusCode() != 403 || !(e instanceof GoogleJsonResponseException jsonException)) {
+            return false;
+        }
+        GoogleJsonError details = jsonException.getDetails();
+        return details != null && details.getErrors() != null && details.getErrors().stream()
+                .anyMatch(error -> RATE_LIMIT_REASONS.contains(error.getReason()));
+    }
+
+    private static void sleep(long millis) throws DriveBusyException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DriveBusyException("interrupted while throttled", e);
+        }
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("drive.calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void throttled(String reason) {
+        Counter.builder("drive.calls.throttled").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    private void rejected(String reason) {
+        Counter.builder("drive.calls.rejected").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    /**
+     * Token bucket with reservations: a caller that finds no token takes one "on credit" and is told how
+     * long to wait for it, which keeps waiting callers in order without a queue.
+     */
+    static final class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private final LongSupplier nanoClock;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(double permitsPerSecond, double capacity) {
+            this(permitsPerSecond, capacity, System::nanoTime);
+        }
+
+        TokenBucket(double permitsPerSecond, double capacity, LongSupplier nanoClock) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.nanoClock = nanoClock;
+            this.tokens = capacity;
+            this.lastRefillNanos = nanoClock.getAsLong();
+        }
+
+        /**
+         * @return nanoseconds to wait for the reserved token, or -1 (nothing reserved) if that exceeds maxWaitNanos.
+         */
+        synchronized long reserve(long maxWaitNanos) {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / permitsPerNano);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return waitNanos;
+        }
+
+        private void refill() {
+            long now = nanoClock.getAsLong();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.acespringbackend.utility;
 
+import com.example.acespringbackend.config.AppSchedulers;
 import com.example.acespringbackend.service.DriveProperties;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.drive.Drive;
@@ -20,9 +24,9 @@ import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
@@ -30,9 +34,12 @@ import com.google.api.client.http.HttpResponse;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DriveUtility class provides core methods for interacting directly with the Google Drive API.
@@ -48,24 +55,33 @@ public class DriveUtility {
 
     private static final String APPLICATION_NAME = "AceCloudDrive";
     private static final GsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    // Drive rejects batch requests with more than 100 calls.
+    private static final int MAX_BATCH_SIZE = 100;
 
     @Value("${google.drive.credentials.path}")
     private String credentialsPathString;
 
     private final ApplicationContext applicationContext;
     private final DriveProperties driveProperties;
+    private final DriveGovernor driveGovernor;
+    private final AppSchedulers appSchedulers;
 
     private volatile Drive drive; // Use volatile for thread-safe lazy initialization
 
     /**
-     * Constructor for DriveUtility, injecting ApplicationContext and DriveProperties.
+     * Constructor for DriveUtility, injecting ApplicationContext, DriveProperties, the DriveGovernor and the schedulers.
      *
      * @param applicationContext The Spring application context to access resources.
      * @param driveProperties The bean containing Google Drive related configuration properties.
+     * @param driveGovernor The rate limiter every Drive API call goes through.
+     * @param appSchedulers The dedicated schedulers; blocking Drive calls run on the drive scheduler.
      */
-    public DriveUtility(ApplicationContext applicationContext, DriveProperties driveProperties) {
+    public DriveUtility(ApplicationContext applicationContext, DriveProperties driveProperties, DriveGovernor driveGovernor,
+                        AppSchedulers appSchedulers) {
         this.applicationContext = applicationContext;
         this.driveProperties = driveProperties;
+        this.driveGovernor = driveGovernor;
+        this.appSchedulers = appSchedulers;
     }
 
     /**
@@ -110,7 +126,7 @@ public class DriveUtility {
                             // Re-throwing the original exception to propagate the detailed cause
                             throw e;
                         }
-                    }).subscribeOn(Schedulers.boundedElastic());
+                    }).subscribeOn(appSchedulers.drive());
                 }
             }
         }
@@ -132,11 +148,11 @@ public class DriveUtility {
                 subfolderName, parentFolderId
         );
 
-        FileList subfolders = driveInstance.files().list()
+        FileList subfolders = driveGovernor.execute("files.list", () -> driveInstance.files().list()
                 .setQ(query)
                 .setSpaces("drive")
                 .setFields("files(id)")
-                .execute();
+                .execute());
 
         if (!subfolders.getFiles().isEmpty()) {
             log.debug("Found subfolder '{}' with ID: {} within parent: {}", subfolderName, subfolders.getFiles().get(0).getId(), parentFolderId);
@@ -161,9 +177,9 @@ public class DriveUtility {
         metadata.setMimeType("application/vnd.google-apps.folder");
         metadata.setParents(Collections.singletonList(parentFolderId));
 
-        File createdFolder = driveInstance.files().create(metadata)
+        File createdFolder = driveGovernor.execute("files.create", () -> driveInstance.files().create(metadata)
                 .setFields("id, name, mimeType")
-                .execute();
+                .execute());
         log.info("Folder '{}' created successfully with ID: {} inside parent ID: {}.", folderName, createdFolder.getId(), parentFolderId);
         return createdFolder;
     }
@@ -187,9 +203,9 @@ public class DriveUtility {
 
         ByteArrayContent mediaContent = new ByteArrayContent(mimeType, fileBytes);
 
-        File uploadedFile = driveInstance.files().create(fileMeta, mediaContent)
+        File uploadedFile = driveGovernor.execute("files.create", () -> driveInstance.files().create(fileMeta, mediaContent)
                 .setFields("id, name, mimeType, size, createdTime, webViewLink, thumbnailLink")
-                .execute();
+                .execute());
         log.info("File '{}' uploaded successfully with ID: {} to folder ID: {}.", fileName, uploadedFile.getId(), parentFolderId);
         return uploadedFile;
     }
@@ -204,11 +220,11 @@ public class DriveUtility {
      */
     public List<File> listFilesFromDrive(Drive driveInstance, String folderId) throws IOException {
         String query = String.format("'%s' in parents and trashed=false and mimeType!='application/vnd.google-apps.folder'", folderId);
-        FileList files = driveInstance.files().list()
+        FileList files = driveGovernor.execute("files.list", () -> driveInstance.files().list()
                 .setQ(query)
                 .setFields("files(id, name, mimeType, size, createdTime, webViewLink, thumbnailLink)")
                 .setSpaces("drive")
-                .execute();
+                .execute());
         List<File> resultFiles = files.getFiles();
         if (resultFiles == null) {
             resultFiles = Collections.emptyList();
@@ -217,6 +233,57 @@ public class DriveUtility {
         return resultFiles;
     }
 
+    /**
+     * Lists the templates in a folder, including the descriptive metadata used by the template catalog
+     * (description, thumbnail and custom properties). Follows page tokens, so large folders are listed completely.
+     *
+     * @param driveInstance The Google Drive client instance.
+     * @param folderId The ID of the folder holding the master templates.
+     * @return A list of File objects representing the templates in the folder.
+     * @throws IOException If an I/O error occurs during the API call.
+     */
+    public List<File> listTemplateFiles(Drive driveInstance, String folderId) throws IOException {
+        String query = String.format("'%s' in parents and trashed=false and mimeType!='application/vnd.google-apps.folder'", folderId);
+        List<File> templates = new ArrayList<>();
+        String pageToken = null;
+        do {
+            String currentPageToken = pageToken;
+            FileList page = driveGovernor.execute("files.list", () -> driveInstance.files().list()
+                    .setQ(query)
+                    .setFields("nextPageToken, files(id, name, mimeType, description, thumbnailLink, properties, version)")
+                    .setSpaces("drive")
+                    .setPageSize(1000)
+                    .setPageToken(currentPageToken)
+                    .execute());
+            if (page.getFiles() != null) {
+                templates.addAll(page.getFiles());
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+        log.info("Successfully listed {} templates in folder ID '{}'.", templates.size(), folderId);
+        return templates;
+    }
+
+    /**
+     * Lists one page of the direct children (files and subfolders) of a folder, including the
+     * fields needed to reconcile them with the application's records.
+     *
+     * @param driveInstance The Google Drive client instance.
+     * @param folderId The ID of the folder to list.
+     * @param pageToken The token of the page to fetch, or null for the first page.
+     * @return The FileList page; its nextPageToken is null on the last page.
+     * @throws IOException If an I/O error occurs during the API call.
+     */
+    public FileList listFolderChildrenPage(Drive driveInstance, String folderId, String pageToken) throws IOException {
+        return driveGovernor.execute("files.list", () -> driveInstance.files().list()
+                .setQ(String.format("'%s' in parents and trashed=false", folderId))
+                .setFields("nextPageToken, files(id, name, mimeType, size, createdTime, webViewLink)")
+                .setSpaces("drive")
+                .setPageSize(1000)
+                .setPageToken(pageToken)
+                .execute());
+    }
+
     /**
      * Retrieves metadata for a specific file from Google Drive.
      *
@@ -228,9 +295,9 @@ public class DriveUtility {
      */
     public File getDriveFileMetadata(Drive driveInstance, String fileId, String fields) throws IOException {
         try {
-            File file = driveInstance.files().get(fileId)
+            File file = driveGovernor.execute("files.get", () -> driveInstance.files().get(fileId)
                     .setFields(fields)
-                    .execute();
+                    .execute());
             log.debug("Retrieved metadata for file ID '{}'. Requested fields: {}", fileId, fields);
             return file;
         } catch (HttpResponseException e) {
@@ -251,7 +318,7 @@ public class DriveUtility {
      * @throws IOException If an error occurs during the Drive API call.
      */
     public void deleteDriveFile(Drive driveInstance, String fileId) throws IOException {
-        driveInstance.files().delete(fileId).execute();
+        driveGovernor.execute("files.delete", () -> driveInstance.files().delete(fileId).execute());
         log.info("File with ID '{}' successfully deleted from Google Drive.", fileId);
     }
 
@@ -304,14 +371,38 @@ public class DriveUtility {
         copiedFileMetadata.setName(newFileName);
         copiedFileMetadata.setParents(Collections.singletonList(targetFolderId));
 
-        File copiedFile = driveInstance.files().copy(sourceFileId, copiedFileMetadata)
-                .setFields("id,name,mimeType,size,webViewLink")
-                .execute();
+        File copiedFile = driveGovernor.execute("files.copy", () -> driveInstance.files().copy(sourceFileId, copiedFileMetadata)
+                .setFields("id,name,mimeType,size,webViewLink,webContentLink")
+                .execute());
         log.info("Successfully copied file '{}' (source ID: {}) to folder '{}' with new ID: {}.",
                 newFileName, sourceFileId, targetFolderId, copiedFile.getId());
         return copiedFile;
     }
 
+    /**
+     * Moves a file into another folder and renames it in a single update call.
+     *
+     * @param driveInstance The authenticated Google Drive service instance.
+     * @param fileId The ID of the file to move.
+     * @param newFileName The new name for the file.
+     * @param targetFolderId The ID of the folder the file is moved into.
+     * @param sourceFolderId The ID of the folder the file is removed from.
+     * @return The Google Drive File object of the moved file.
+     * @throws IOException if an error occurs during the Drive API call.
+     */
+    public File moveDriveFile(Drive driveInstance, String fileId, String newFileName, String targetFolderId, String sourceFolderId) throws IOException {
+        File fileMetadata = new File();
+        fileMetadata.setName(newFileName);
+
+        File movedFile = driveGovernor.execute("files.update", () -> driveInstance.files().update(fileId, fileMetadata)
+                .setAddParents(targetFolderId)
+                .setRemoveParents(sourceFolderId)
+                .setFields("id,name,mimeType,size,webViewLink,webContentLink")
+                .execute());
+        log.info("Successfully moved file ID '{}' from folder '{}' to folder '{}' as '{}'.", fileId, sourceFolderId, targetFolderId, newFileName);
+        return movedFile;
+    }
+
     /**
      * Creates a permission for a specific file or folder.
      *
@@ -335,13 +426,68 @@ public class DriveUtility {
                 .setType("user")
                 .setRole(role);
 
-        Permission createdPermission = driveInstance.permissions().create(fileId, newPermission)
+        Permission createdPermission = driveGovernor.execute("permissions.create", () -> driveInstance.permissions().create(fileId, newPermission)
                 .setSendNotificationEmail(sendNotificationEmail)
-                .execute();
+                .execute());
         log.info("Granted '{}' permission to '{}' for file ID '{}'. Notification email sent: {}.", role, email, fileId, sendNotificationEmail);
         return createdPermission;
     }
 
+    /**
+     * Grants the same permission on several files using Drive batch requests, so N grants cost
+     * one HTTP round trip per {@value #MAX_BATCH_SIZE} files instead of one each.
+     *
+     * @param driveInstance The authenticated Google Drive service instance.
+     * @param fileIds The IDs of the files to set permissions for.
+     * @param email The email address of the user to grant permission to.
+     * @param role The role to grant (e.g., "writer", "reader", "commenter").
+     * @param sendNotificationEmail Whether to send a notification email to the user.
+     * @return The IDs of the files whose grant failed, mapped to the Drive error message (empty if all succeeded).
+     * @throws IOException if a batch request as a whole could not be executed.
+     */
+    public Map<String, String> createPermissionsInBatch(
+            Drive driveInstance,
+            List<String> fileIds,
+            String email,
+            String role,
+            boolean sendNotificationEmail) throws IOException {
+
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        for (int from = 0; from < fileIds.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = fileIds.subList(from, Math.min(from + MAX_BATCH_SIZE, fileIds.size()));
+            // Built inside the call: executing a BatchRequest empties it, so a retry needs a new one.
+            driveGovernor.execute("batch", () -> {
+                BatchRequest batch = driveInstance.batch();
+                for (String fileId : chunk) {
+                    failures.remove(fileId); // Only the outcome of the last attempt counts.
+                    Permission newPermission = new Permission()
+                            .setEmailAddress(email)
+                            .setType("user")
+                            .setRole(role);
+                    driveInstance.permissions().create(fileId, newPermission)
+                            .setSendNotificationEmail(sendNotificationEmail)
+                            .queue(batch, new JsonBatchCallback<Permission>() {
+                                @Override
+                                public void onSuccess(Permission permission, HttpHeaders responseHeaders) {
+                                    log.debug("Granted '{}' permission to '{}' for file ID '{}' (batched).", role, email, fileId);
+                                }
+
+                                @Override
+                                public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                    log.warn("Batched permission grant failed for file ID '{}': {}", fileId, error.getMessage());
+                                    failures.put(fileId, error.getMessage() != null ? error.getMessage() : "Unknown Drive error");
+                                }
+                            });
+                }
+                batch.execute();
+                return null;
+            });
+        }
+        log.info("Granted '{}' permission to '{}' on {} of {} file(s) in batch. Notification email sent: {}.",
+                role, email, fileIds.size() - failures.size(), fileIds.size(), sendNotificationEmail);
+        return failures;
+    }
+
     /**
      * Downloads the content of a specific file from Google Drive as a byte array.
      *
@@ -352,7 +498,11 @@ public class DriveUtility {
      */
     public byte[] downloadFileContent(Drive driveInstance, String fileId) throws IOException {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            driveInstance.files().get(fileId).executeMediaAndDownloadTo(outputStream);
+            driveGovernor.execute("files.get_media", () -> {
+                outputStream.reset(); // Discard a partial download before a retry
+                driveInstance.files().get(fileId).executeMediaAndDownloadTo(outputStream);
+                return null;
+            });
             log.info("Successfully downloaded content for file ID: {}. Size: {} bytes.", fileId, outputStream.size());
             return outputStream.toByteArray();
         } catch (HttpResponseException e) {
@@ -380,9 +530,9 @@ public class DriveUtility {
     public File renameDriveFile(Drive driveInstance, String fileId, String newFileName) throws IOException {
         File fileMetadata = new File();
         fileMetadata.setName(newFileName);
-        File updatedFile = driveInstance.files().update(fileId, fileMetadata)
+        File updatedFile = driveGovernor.execute("files.update", () -> driveInstance.files().update(fileId, fileMetadata)
                 .setFields("id,name,webViewLink,mimeType")
-                .execute();
+                .execute());
         log.info("File ID '{}' successfully renamed to '{}'.", fileId, newFileName);
         return updatedFile;
     }
@@ -399,9 +549,9 @@ public class DriveUtility {
      */
     public String getPermissionIdForEmail(Drive driveInstance, String fileId, String email) throws IOException {
         // Query permissions for the file, filtering by emailAddress
-        PermissionList permissions = driveInstance.permissions().list(fileId)
+        PermissionList permissions = driveGovernor.execute("permissions.list", () -> driveInstance.permissions().list(fileId)
                 .setFields("permissions(id,emailAddress,type,role)")
-                .execute();
+                .execute());
 
         Optional<Permission> foundPermission = Optional.ofNullable(permissions.getPermissions())
                 .orElse(Collections.emptyList()) // Handle null permissions list
@@ -429,8 +579,8 @@ public class DriveUtility {
      */
     public Permission updatePermission(Drive driveInstance, String fileId, String permissionId, String newRole) throws IOException {
         Permission updatedPermission = new Permission().setRole(newRole);
-        Permission result = driveInstance.permissions().update(fileId, permissionId, updatedPermission)
-                .execute();
+        Permission result = driveGovernor.execute("permissions.update", () -> driveInstance.permissions().update(fileId, permissionId, updatedPermission)
+                .execute());
         log.info("Permission ID '{}' on file ID '{}' successfully updated to role '{}'.", permissionId, fileId, newRole);
         return result;
     }
@@ -451,7 +601,7 @@ public class DriveUtility {
             // It's good practice to also check the role if the permission ID might match multiple roles.
             // For simplicity, here we'll just delete by ID if found.
             // If you want to strictly match role, you'd need to fetch the permission object by ID and check its role.
-            driveInstance.permissions().delete(fileId, permissionId).execute();
+            driveGovernor.execute("permissions.delete", () -> driveInstance.permissions().delete(fileId, permissionId).execute());
             log.info("Successfully deleted permission with ID '{}' for email '{}' (role: '{}') from file ID '{}'.", permissionId, targetEmail, role, fileId);
             return true;
         } else {
@@ -478,7 +628,7 @@ public class DriveUtility {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
             HttpRequest request = driveInstance.files().export(fileId, exportMimeType)
                     .buildHttpRequest();
-            HttpResponse response = request.execute();
+            HttpResponse response = driveGovernor.execute("files.export", request::execute);
 
             if (response.isSuccessStatusCode()) {
                 response.download(outputStream);
@@ -513,9 +663,9 @@ public class DriveUtility {
             log.info("Attempting to trash Google Drive item with ID: {}. (Soft delete)", fileId);
             // Set 'trashed' to true to move the file/folder to trash
             File file = new File().setTrashed(true);
-            driveInstance.files().update(fileId, file).execute();
+            driveGovernor.execute("files.update", () -> driveInstance.files().update(fileId, file).execute());
             log.info("Google Drive item with ID '{}' successfully moved to trash.", fileId);
             return null; // Return null as this is a Void method
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(appSchedulers.drive());
     }
 }
\ No newline at end of file
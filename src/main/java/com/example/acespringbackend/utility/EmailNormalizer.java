@@ -0,0 +1,25 @@
+package com.example.acespringbackend.utility;
+
+import java.util.Locale;
+
+/**
+ * Utility class that produces the canonical form of an email address ("email key").
+ * All user and file lookups by email go through this key so that "Jane@Example.com"
+ * and "jane@example.com " resolve to the same account and the same files.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    /**
+     * @param email The email address as entered or received from an identity provider.
+     * @return The trimmed, lower-cased email, or null if the input is null.
+     */
+    public static String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,31 +1,68 @@
 package com.example.acespringbackend.utility;
 
+import com.example.acespringbackend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders; // Make sure this import is present
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.concurrent.TimeUnit; // Import for TimeUnit
 
 @Component
 public class JwtUtility {
 
+    // Claim names used by session tokens that carry the account state (see generateToken7Days(User))
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_ACCOUNT_NON_LOCKED = "accountNonLocked";
+    public static final String CLAIM_ACCOUNT_NON_EXPIRED = "accountNonExpired";
+    public static final String CLAIM_CREDENTIALS_NON_EXPIRED = "credentialsNonExpired";
+
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
 
+    // Upper bound on the number of verified tokens kept in memory.
+    @Value("${application.security.jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
     // Token validity periods
     private final long JWT_VALIDITY_7_DAYS = TimeUnit.DAYS.toMillis(7);     // 7 days expiration
     private final long JWT_VALIDITY_30_MINUTES = TimeUnit.MINUTES.toMillis(30); // 30 minutes expiration
 
+    // Signing key and parser are immutable and thread-safe, so they are built once at startup.
+    private Key signKey;
+    private JwtParser jwtParser;
+
+    // Verified claims keyed by the SHA-256 of the token; entries live no longer than the token itself.
+    private final Map<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        this.signKey = buildSignKey();
+        this.jwtParser = Jwts.parser()
+                .setSigningKey(signKey)
+                .build();
+    }
+
     // --- Token Generation Methods ---
 
     public String generateToken7Days(String email) {
@@ -33,6 +70,25 @@ public class JwtUtility {
         return createToken(claims, email, JWT_VALIDITY_7_DAYS);
     }
 
+    /**
+     * Issues a 7-day session token that also carries the user's roles and account-status flags,
+     * so requests can be authenticated from the token alone without loading the user from MongoDB.
+     *
+     * @param user The user the token is issued for.
+     * @return The signed JWT.
+     */
+    public String generateToken7Days(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ROLES, user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(CLAIM_ENABLED, user.isEnabled());
+        claims.put(CLAIM_ACCOUNT_NON_LOCKED, user.isAccountNonLocked());
+        claims.put(CLAIM_ACCOUNT_NON_EXPIRED, user.isAccountNonExpired());
+        claims.put(CLAIM_CREDENTIALS_NON_EXPIRED, user.isCredentialsNonExpired());
+        return createToken(claims, user.getEmail(), JWT_VALIDITY_7_DAYS);
+    }
+
     public String generateToken30Minutes(String email) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, email, JWT_VALIDITY_30_MINUTES);
@@ -66,31 +122,121 @@ public class JwtUtility {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * @return true if the token was issued with roles and account-status claims.
+     */
+    public boolean hasAccountClaims(Claims claims) {
+        return claims.get(CLAIM_ROLES) instanceof List<?>;
+    }
+
+    public List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(CLAIM_ROLES);
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    public boolean extractFlag(Claims claims, String claimName) {
+        // Missing flags default to true, matching the defaults on the User model.
+        Boolean flag = claims.get(claimName, Boolean.class);
+        return flag == null || flag;
+    }
+
+    /**
+     * Returns the verified claims of a token, parsing and checking the signature only on the
+     * first call for a given token. Subsequent calls are served from an in-memory cache until
+     * the token's own expiration, after which the token is parsed again (and rejected).
+     *
+     * @param token The compact JWT string.
+     * @return The verified claims.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public Claims extractAllClaims(String token) {
+        String cacheKey = hashToken(token);
+        long now = System.currentTimeMillis();
+
+        CachedClaims cached = claimsCache.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                return cached.claims();
+            }
+            claimsCache.remove(cacheKey, cached);
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            if (claimsCache.size() >= claimsCacheMaxSize) {
+                purgeExpiredClaims(now);
+            }
+            if (claimsCache.size() < claimsCacheMaxSize) {
+                claimsCache.put(cacheKey, new CachedClaims(claims, expiration.getTime()));
+            }
+        }
+        return claims;
     }
 
     // --- Token Validation Methods ---
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = extractExpiration(token);
-        return expiration.before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        final String username = claims.getSubject();
+        return (username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(claims)
+                && !isIssuedBeforeRevocation(claims, userDetails));
     }
 
-    // --- Helper Method for Signing Key ---
+    private boolean isIssuedBeforeRevocation(Claims claims, UserDetails userDetails) {
+        return userDetails instanceof User user && !isIssuedAfterRevocation(claims.getIssuedAt(), user.getTokensValidAfter());
+    }
+
+    /**
+     * The revocation cut-off shared by the stateful and stateless validation paths.
+     *
+     * @param issuedAt         The token's iat claim, or null if it has none.
+     * @param tokensValidAfter The user's revocation instant, or null if tokens were never revoked.
+     * @return Whether the token was issued after the revocation. iat is truncated to whole seconds, so a token
+     * issued in the revocation's second compares equal and is rejected.
+     */
+    public static boolean isIssuedAfterRevocation(Date issuedAt, Instant tokensValidAfter) {
+        return tokensValidAfter == null || (issuedAt != null && issuedAt.toInstant().isAfter(tokensValidAfter));
+    }
+
+    // --- Helper Methods for Signing Key and Claims Cache ---
 
     private Key getSignKey() {
+        return signKey;
+    }
+
+    private Key buildSignKey() {
         // !!! FIX IS HERE: Use Base64URL decoder for the secret key !!!
         byte[] keyBytes = Decoders.BASE64URL.decode(secretKey); // <--- CHANGED FROM Decoders.BASE64
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+
+    private void purgeExpiredClaims(long now) {
+        claimsCache.entrySet().removeIf(entry -> entry.getValue().expiresAtMillis() <= now);
+    }
+
+    /**
+     * Fixed-length, hex-encoded SHA-256 digest of a token. Used as the cache key for verified
+     * claims and as the primary key of stored password reset tokens, so raw tokens are never persisted.
+     */
+    public static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandated by the JDK spec, so this cannot happen in practice.
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedClaims(Claims claims, long expiresAtMillis) {
+    }
+}
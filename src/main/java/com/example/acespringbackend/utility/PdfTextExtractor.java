@@ -1,15 +1,20 @@
 package com.example.acespringbackend.utility;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for extracting text content from PDF documents.
@@ -63,50 +68,116 @@ public class PdfTextExtractor {
         }
     }
 
+    /**
+     * A line of PDF text with the layout cues used to recognise headings.
+     *
+     * @param text     The line's text.
+     * @param fontSize Largest font size on the line in points (0 when unknown, e.g. for plain text).
+     * @param bold     Whether most of the line's characters are set in a bold font.
+     */
+    public record TextLine(String text, float fontSize, boolean bold) {
+    }
+
+    /**
+     * Extracts the text of a PDF line by line, together with each line's font size and weight.
+     * Joining the lines with '\n' gives the same text as {@link #extractText(byte[])}, give or take blank lines.
+     *
+     * @param fileBytes The byte array representing the PDF file.
+     * @return The lines in reading order.
+     * @throws IOException If an error occurs during PDF parsing or text extraction.
+     */
+    public static List<TextLine> extractLines(byte[] fileBytes) throws IOException {
+        try (InputStream inputStream = new ByteArrayInputStream(fileBytes);
+             PDDocument document = PDDocument.load(inputStream)) {
+            LineCollectingStripper stripper = new LineCollectingStripper();
+            stripper.getText(document);
+            return stripper.lines;
+        }
+    }
+
     /**
      * Extracts specific content blocks (like 'experience' and 'skills') from a given full text,
-     * typically obtained from a resume PDF. It uses regular expressions to identify common section headings
-     * and capture the content under them.
+     * typically obtained from a resume PDF, using {@link ResumeSectionSegmenter}.
      *
      * @param fullText The complete text extracted from a PDF.
      * @return A Map where keys are block names ("experience", "skills") and values are the extracted content
      * for those blocks. Returns empty strings for blocks not found.
      */
     public static Map<String, String> extractSpecificBlocks(String fullText) {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(fullText);
         Map<String, String> blocks = new HashMap<>();
-        // Initialize with empty strings to ensure keys are always present
-        blocks.put("experience", "");
-        blocks.put("skills", "");
-
-        // Normalize whitespace and newlines for consistent regex matching
-        String normalizedText = fullText.replaceAll("\\s*\\n\\s*", " ").trim();
-
-        // Regex to identify common resume section headings (case-insensitive)
-        // This pattern uses a lookahead assertion to match content up to the next heading or end of string.
-        String sectionHeadings = "(Objective|Summary|Experience|Work Experience|Professional Experience|Skills|Technical Skills|Core Competencies|Education|Projects|Certifications|Awards|Publications|Volunteer Experience|References)";
-        Pattern blockPattern = Pattern.compile("(?i)\\b(" + sectionHeadings + ")\\b\\s*(.*?)(?=\\b" + sectionHeadings + "\\b|$)", Pattern.DOTALL);
-        Matcher matcher = blockPattern.matcher(normalizedText);
-
-        // Temporarily store all found sections by their exact heading
-        Map<String, String> tempBlocks = new HashMap<>();
-        while (matcher.find()) {
-            String heading = matcher.group(1);
-            String content = matcher.group(2).trim();
-            tempBlocks.put(heading, content);
+        blocks.put("experience", resume.contentOf(ResumeSectionSegmenter.SectionType.EXPERIENCE));
+        blocks.put("skills", resume.contentOf(ResumeSectionSegmenter.SectionType.SKILLS));
+        return blocks;
+    }
+
+    /**
+     * Text stripper that records every output line with the largest font size on it and whether it is
+     * mostly bold. PDFTextStripper writes a line as words separated by word separators, then a line separator.
+     */
+    private static final class LineCollectingStripper extends PDFTextStripper {
+
+        private final List<TextLine> lines = new ArrayList<>();
+        private final StringBuilder currentText = new StringBuilder();
+        private float currentFontSize;
+        private int boldChars;
+        private int totalChars;
+
+        LineCollectingStripper() throws IOException {
+            super();
         }
 
-        // Map the extracted sections to the standardized "experience" and "skills" keys
-        for (Map.Entry<String, String> entry : tempBlocks.entrySet()) {
-            String heading = entry.getKey().toLowerCase();
-            String content = entry.getValue();
+        @Override
+        protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+            super.writeString(text, textPositions);
+            currentText.append(text);
+            for (TextPosition position : textPositions) {
+                currentFontSize = Math.max(currentFontSize, position.getFontSizeInPt());
+                totalChars++;
+                if (isBold(position.getFont())) {
+                    boldChars++;
+                }
+            }
+        }
+
+        @Override
+        protected void writeWordSeparator() throws IOException {
+            super.writeWordSeparator();
+            currentText.append(getWordSeparator());
+        }
 
-            if (heading.contains("experience") || heading.contains("work experience") || heading.contains("professional experience")) {
-                blocks.put("experience", content);
-            } else if (heading.contains("skills") || heading.contains("technical skills") || heading.contains("core competencies") || heading.contains("expertise")) {
-                blocks.put("skills", content);
+        @Override
+        protected void writeLineSeparator() throws IOException {
+            super.writeLineSeparator();
+            flushLine();
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            flushLine();
+            super.endPage(page);
+        }
+
+        private void flushLine() {
+            if (currentText.length() > 0) {
+                lines.add(new TextLine(currentText.toString(), currentFontSize, totalChars > 0 && boldChars * 2 > totalChars));
             }
+            currentText.setLength(0);
+            currentFontSize = 0;
+            boldChars = 0;
+            totalChars = 0;
         }
 
-        return blocks;
+        private static boolean isBold(PDFont font) {
+            if (font == null) {
+                return false;
+            }
+            PDFontDescriptor descriptor = font.getFontDescriptor();
+            if (descriptor != null && (descriptor.isForceBold() || descriptor.getFontWeight() >= 600)) {
+                return true;
+            }
+            String name = font.getName() == null ? "" : font.getName().toLowerCase(Locale.ROOT);
+            return name.contains("bold") || name.contains("black") || name.contains("heavy") || name.contains("semibold");
+        }
     }
-}
\ No newline at end of file
+}
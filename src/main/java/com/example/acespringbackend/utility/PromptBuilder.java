@@ -1,9 +1,15 @@
 package com.example.acespringbackend.utility;
 
 import com.example.acespringbackend.auth.dto.ParaphrasingRequest;
+import com.example.acespringbackend.service.JobDescriptionAnalyzer;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 public class PromptBuilder {
@@ -12,6 +18,14 @@ public class PromptBuilder {
     private static final String CL_GENERATION_INSTRUCTION = "Generate a professional cover letter.";
     private static final String TEXT_MARKER_START = "\n\"\"\"\n";
     private static final String TEXT_MARKER_END = "\n\"\"\"\n";
+    // Item numbers are bounded so that a garbled reply cannot overflow Integer.parseInt.
+    private static final Pattern BATCH_ITEM = Pattern.compile("(?s)\\[\\[ITEM (\\d{1,4})]]\\s*(.*?)\\s*\\[\\[END \\1]]");
+
+    private final JobDescriptionAnalyzer jobDescriptionAnalyzer;
+
+    public PromptBuilder(JobDescriptionAnalyzer jobDescriptionAnalyzer) {
+        this.jobDescriptionAnalyzer = jobDescriptionAnalyzer;
+    }
 
     public String buildPrompt(ParaphrasingRequest req) {
         StringBuilder prompt = new StringBuilder();
@@ -25,7 +39,7 @@ public class PromptBuilder {
 
             if (hasJobDescription) {
                 prompt.append(" Tailor it specifically for the following job description:").append(TEXT_MARKER_START)
-                        .append(req.getJobDescription()).append(TEXT_MARKER_END);
+                        .append(jobDescriptionAnalyzer.promptText(req.getJobDescription())).append(TEXT_MARKER_END);
             }
 
             if (hasInputContent) {
@@ -50,7 +64,10 @@ public class PromptBuilder {
 
             // Suggestions for Cover Letter Mode
             if (Boolean.TRUE.equals(req.getEnableSuggestions())) {
-                if (hasJobDescription) {
+                String jobSkills = hasJobDescription ? jobSkills(req.getJobDescription()) : "";
+                if (!jobSkills.isEmpty()) {
+                    prompt.append("\n\nBold and italicize any of the following keywords present in the output: ").append(jobSkills).append(".");
+                } else if (hasJobDescription) {
                     prompt.append("\n\nBold and italicize any terms from the provided job description that appear relevant in the output.");
                 } else if (req.getKeywords() != null && !req.getKeywords().trim().isEmpty()) {
                     prompt.append("\n\nBold and italicize any of the following keywords present in the output: ").append(req.getKeywords()).append(".");
@@ -81,10 +98,78 @@ public class PromptBuilder {
 
         prompt.append(":").append(TEXT_MARKER_START).append(req.getInput()).append(TEXT_MARKER_END);
 
+        appendParaphraseGuidance(prompt, req);
+        return prompt.toString().trim();
+    }
+
+    /**
+     * Packs several texts sharing the same settings into one prompt. Each text is numbered and enclosed in
+     * item delimiters, and the model is asked to answer in the same format, so {@link #splitBatchReply}
+     * can map the reply back onto the inputs.
+     *
+     * @param req    The shared settings (the request's own input is ignored).
+     * @param inputs The texts to paraphrase; item numbers are their 1-based positions in this list.
+     * @return The prompt.
+     */
+    public String buildBatchPrompt(ParaphrasingRequest req, List<String> inputs) {
+        StringBuilder prompt = new StringBuilder("Paraphrase each of the following ").append(inputs.size()).append(" texts independently");
+
+        Optional.ofNullable(req.getTone())
+                .filter(s -> !s.isEmpty())
+                .ifPresent(tone -> prompt.append(" in a ").append(tone).append(" tone"));
+
+        Optional.ofNullable(req.getStyle())
+                .filter(s -> !s.isEmpty())
+                .ifPresent(style -> prompt.append(" using a ").append(style).append(" style"));
+
+        prompt.append(". Each text is enclosed between a line \"").append(itemStart("n")).append("\" and a line \"").append(itemEnd("n")).append("\", where n is its number.\n");
+        for (int i = 0; i < inputs.size(); i++) {
+            prompt.append('\n').append(itemStart(String.valueOf(i + 1))).append('\n').append(inputs.get(i).strip())
+                    .append('\n').append(itemEnd(String.valueOf(i + 1))).append('\n');
+        }
+
+        prompt.append("\nApply the following to each text separately.");
+        appendParaphraseGuidance(prompt, req);
+
+        prompt.append("\n\nReturn exactly ").append(inputs.size()).append(" paraphrased texts in the same format: each enclosed between the lines \"")
+                .append(itemStart("n")).append("\" and \"").append(itemEnd("n")).append("\" with the number of the text it paraphrases, and nothing outside them.");
+        return prompt.toString().trim();
+    }
+
+    /**
+     * Splits a reply to a {@link #buildBatchPrompt} prompt into its items.
+     *
+     * @param reply The model's reply.
+     * @param count The number of texts in the prompt.
+     * @return The paraphrased texts by 1-based item number; items missing or empty in the reply are absent.
+     */
+    public Map<Integer, String> splitBatchReply(String reply, int count) {
+        Map<Integer, String> items = new HashMap<>();
+        Matcher matcher = BATCH_ITEM.matcher(reply);
+        while (matcher.find()) {
+            int item = Integer.parseInt(matcher.group(1));
+            String text = matcher.group(2).strip();
+            if (item >= 1 && item <= count && !text.isEmpty()) {
+                items.putIfAbsent(item, text);
+            }
+        }
+        return items;
+    }
+
+    private static String itemStart(String number) {
+        return "[[ITEM " + number + "]]";
+    }
+
+    private static String itemEnd(String number) {
+        return "[[END " + number + "]]";
+    }
+
+    // Job description, keyword, length and highlighting instructions shared by single and batch paraphrasing.
+    private void appendParaphraseGuidance(StringBuilder prompt, ParaphrasingRequest req) {
         // Researched Mode with Job Description
         if (Boolean.TRUE.equals(req.getResearchedMode()) && req.getJobDescription() != null && !req.getJobDescription().trim().isEmpty()) {
             prompt.append("\n\nCritically analyze and enhance the paraphrased text by incorporating or emphasizing terms relevant to the following job description. Focus on making the text more impactful and aligned with the job's requirements:");
-            prompt.append(TEXT_MARKER_START).append(req.getJobDescription()).append(TEXT_MARKER_END);
+            prompt.append(TEXT_MARKER_START).append(jobDescriptionAnalyzer.promptText(req.getJobDescription())).append(TEXT_MARKER_END);
             prompt.append("Ensure the output remains a paraphrase of the original text but is optimized for the job description.");
         } else {
             // Keywords for general paraphrasing (only if not in researched mode with JD)
@@ -101,12 +186,21 @@ public class PromptBuilder {
             if (req.getKeywords() != null && !req.getKeywords().trim().isEmpty()) {
                 prompt.append("\n\nBold and italicize any of the following keywords present in the output: ").append(req.getKeywords()).append(".");
             } else if (Boolean.TRUE.equals(req.getResearchedMode()) && req.getJobDescription() != null && !req.getJobDescription().trim().isEmpty()) {
-                prompt.append("\n\nBold and italicize any terms from the provided job description that appear in the output.");
+                String jobSkills = jobSkills(req.getJobDescription());
+                if (!jobSkills.isEmpty()) {
+                    prompt.append("\n\nBold and italicize any of the following keywords present in the output: ").append(jobSkills).append(".");
+                } else {
+                    prompt.append("\n\nBold and italicize any terms from the provided job description that appear in the output.");
+                }
             } else {
                 prompt.append("\n\nBold and italicize important keywords within the paraphrased content.");
             }
         }
+    }
 
-        return prompt.toString().trim();
+    // The job's skills (from the cached digest) as an explicit keyword list, so the model does not have to pick the terms itself.
+    private String jobSkills(String jobDescription) {
+        JobDescriptionAnalyzer.JobDigest digest = jobDescriptionAnalyzer.analyze(jobDescription);
+        return digest == null ? "" : String.join(", ", digest.requiredSkills());
     }
 }
\ No newline at end of file
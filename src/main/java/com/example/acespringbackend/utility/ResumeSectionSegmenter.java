@@ -0,0 +1,357 @@
+package com.example.acespringbackend.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits resume text into typed sections in a single pass over its lines.
+ *
+ * Headings are recognised with a character trie built once from the heading synonyms of every
+ * {@link SectionType}, so matching a line costs at most one step per character and no regular expression
+ * can backtrack. A line is a heading when, after stripping decoration (bullets, numbering, trailing colons,
+ * letter spacing), it consists of a heading synonym, or starts with one followed by a colon ("Skills: Java, SQL",
+ * in which case the rest of the line is the section's first content). Such inline headings must start the line
+ * (no bullet or indentation), and once a section has started only {@link #INLINE_HEADINGS} count, as labels like
+ * "Technologies:" or "Leadership:" are common inside experience and project entries.
+ *
+ * When the text comes from {@link PdfTextExtractor#extractLines(byte[])}, layout cues are used as well:
+ * once the first known section has started, a short line that is noticeably larger than the body font or
+ * set in capitals, and styled like the known headings seen so far, starts an {@link SectionType#OTHER}
+ * section, so unknown sections ("Volunteering Abroad", "PATENTS") do not get swallowed by the section before
+ * them. Bold alone is not enough: job titles and employers are commonly bold within a section.
+ */
+public final class ResumeSectionSegmenter {
+
+    /**
+     * Section types, each with the heading synonyms that introduce it.
+     */
+    public enum SectionType {
+        HEADER(),
+        SUMMARY("summary", "professional summary", "career summary", "objective", "career objective", "profile",
+                "professional profile", "about me", "about"),
+        EXPERIENCE("experience", "work experience", "professional experience", "relevant experience", "employment",
+                "employment history", "work history", "career history", "internships", "internship experience"),
+        EDUCATION("education", "academic background", "academics", "qualifications", "educational qualifications",
+                "education and training"),
+        SKILLS("skills", "technical skills", "key skills", "core skills", "core competencies", "competencies",
+                "expertise", "areas of expertise", "technologies", "tech stack", "tools and technologies"),
+        PROJECTS("projects", "personal projects", "academic projects", "key projects", "selected projects"),
+        CERTIFICATIONS("certifications", "certificates", "licenses", "licenses and certifications", "courses",
+                "training"),
+        AWARDS("awards", "honors", "honours", "achievements", "awards and achievements", "accomplishments"),
+        PUBLICATIONS("publications", "research", "papers"),
+        VOLUNTEER("volunteer experience", "volunteering", "volunteer work", "community service", "leadership",
+                "extracurricular activities"),
+        LANGUAGES("languages", "spoken languages"),
+        INTERESTS("interests", "hobbies", "hobbies and interests"),
+        REFERENCES("references"),
+        OTHER();
+
+        private final String[] headings;
+
+        SectionType(String... headings) {
+            this.headings = headings;
+        }
+    }
+
+    /**
+     * A section of the resume text.
+     *
+     * @param type         The section type.
+     * @param heading      The heading line as written, or null for the header before the first heading.
+     * @param headingStart Offset of the heading in the text (equal to contentStart for the header).
+     * @param contentStart Offset of the first character of the section's content.
+     * @param end          Offset just past the section's content.
+     * @param content      The section's content, text[contentStart, end) trimmed.
+     */
+    public record Section(SectionType type, String heading, int headingStart, int contentStart, int end, String content) {
+    }
+
+    /**
+     * The resume text the sections refer to, and the sections in document order.
+     */
+    public record SegmentedResume(String text, List<Section> sections) {
+
+        /**
+         * @return The content of all sections of the given type, separated by blank lines ("" if none).
+         */
+        public String contentOf(SectionType type) {
+            StringBuilder content = new StringBuilder();
+            for (Section section : sections) {
+                if (section.type() == type && !section.content().isEmpty()) {
+                    if (!content.isEmpty()) {
+                        content.append("\n\n");
+                    }
+                    content.append(section.content());
+                }
+            }
+            return content.toString();
+        }
+
+        /**
+         * @return Whether a section of the given type with a heading exists.
+         */
+        public boolean has(SectionType type) {
+            return sections.stream().anyMatch(section -> section.type() == type && section.heading() != null);
+        }
+    }
+
+    // Lines longer than this are body text even if they start like a heading.
+    private static final int MAX_HEADING_WORDS = 5;
+    // Lines at least this much larger than the body font count as visually emphasised.
+    private static final double LARGER_FONT_RATIO = 1.15;
+    // Fewer letters than this do not make a line "all caps" (acronyms such as "AWS" are not headings).
+    private static final int MIN_CAPS_LETTERS = 4;
+
+    // Synonyms that start a section inline ("Skills: ...") even within another section; they are not used as
+    // labels inside entries.
+    private static final Set<String> INLINE_HEADINGS = Set.of("skills", "technical skills", "key skills", "core skills",
+            "core competencies", "certifications", "languages", "spoken languages", "interests", "hobbies", "hobbies and interests");
+
+    private static final TrieNode HEADINGS = buildTrie();
+
+    private ResumeSectionSegmenter() {
+    }
+
+    /**
+     * Segments plain text (no layout cues).
+     *
+     * @param text Resume text with its line breaks preserved.
+     * @return The segmented resume.
+     */
+    public static SegmentedResume segment(String text) {
+        List<PdfTextExtractor.TextLine> lines = new ArrayList<>();
+        for (String line : (text == null ? "" : text).split("\n", -1)) {
+            lines.add(new PdfTextExtractor.TextLine(line, 0f, false));
+        }
+        return segment(lines);
+    }
+
+    /**
+     * Segments lines extracted from a PDF, using their font size and weight as additional heading cues.
+     *
+     * @param lines The lines in reading order.
+     * @return The segmented resume; its text is the lines joined with '\n'.
+     */
+    public static SegmentedResume segment(List<PdfTextExtractor.TextLine> lines) {
+        float bodyFontSize = bodyFontSize(lines);
+        StringBuilder text = new StringBuilder();
+        List<Section> sections = new ArrayList<>();
+
+        SectionType currentType = SectionType.HEADER;
+        String currentHeading = null;
+        int headingStart = 0;
+        int contentStart = 0;
+        HeadingStyle knownHeadingStyle = null; // style of the first known heading, once seen
+
+        for (PdfTextExtractor.TextLine line : lines) {
+            int lineStart = text.length();
+            text.append(line.text()).append('\n');
+
+            HeadingMatch match = matchHeading(line.text());
+            if (match != null && match.inline() && currentType != SectionType.HEADER && !INLINE_HEADINGS.contains(match.heading())) {
+                match = null; // a label within the current section's entries
+            }
+            if (match == null && bodyFontSize > 0 && knownHeadingStyle != null && isUnknownHeading(line, bodyFontSize, knownHeadingStyle)) {
+                match = new HeadingMatch(SectionType.OTHER, null, line.text().length(), false);
+            }
+            if (match == null) {
+                continue;
+            }
+            addSection(sections, text, currentType, currentHeading, headingStart, contentStart, lineStart);
+            currentType = match.type();
+            currentHeading = line.text().strip();
+            headingStart = lineStart;
+            contentStart = lineStart + match.contentOffset();
+            if (knownHeadingStyle == null && match.type() != SectionType.OTHER) {
+                knownHeadingStyle = HeadingStyle.of(line, bodyFontSize);
+            }
+        }
+        if (!text.isEmpty()) {
+            text.setLength(text.length() - 1); // no trailing '\n' after the last line
+        }
+        addSection(sections, text, currentType, currentHeading, headingStart, contentStart, text.length());
+        return new SegmentedResume(text.toString(), List.copyOf(sections));
+    }
+
+    private static void addSection(List<Section> sections, CharSequence text, SectionType type, String heading,
+                                   int headingStart, int contentStart, int end) {
+        int start = Math.min(contentStart, end);
+        String content = text.subSequence(start, end).toString().strip();
+        if (heading == null && content.isEmpty()) {
+            return; // nothing before the first heading
+        }
+        sections.add(new Section(type, heading, headingStart, start, end, content));
+    }
+
+    /**
+     * Matches a heading at the start of a line by walking the trie over its normalised characters.
+     *
+     * @return The match, with the offset (into the original line) where the section content starts,
+     * or null if the line is not a heading. Inline headings are only matched at the very start of the line.
+     */
+    static HeadingMatch matchHeading(String line) {
+        String stripped = stripDecoration(line);
+        if (stripped.isEmpty()) {
+            return null;
+        }
+        TrieNode node = HEADINGS;
+        TrieNode last = null;
+        int lastEnd = -1;
+        for (int i = 0; i < stripped.length() && node != null; i++) {
+            node = node.children.get(stripped.charAt(i));
+            if (node != null && node.type != null && (i + 1 == stripped.length() || !Character.isLetterOrDigit(stripped.charAt(i + 1)))) {
+                last = node;
+                lastEnd = i + 1;
+            }
+        }
+        if (last == null) {
+            return null;
+        }
+        String rest = stripped.substring(lastEnd).strip();
+        if (rest.isEmpty()) {
+            return stripped.split(" ").length <= MAX_HEADING_WORDS ? new HeadingMatch(last.type, last.heading, line.length(), false) : null;
+        }
+        // Inline heading: the rest of the line is already content. A bulleted or indented line is an entry, not a heading.
+        if ((rest.charAt(0) == ':' || rest.charAt(0) == '|') && Character.isLetter(line.charAt(0))) {
+            int separator = line.indexOf(rest.charAt(0));
+            return new HeadingMatch(last.type, last.heading, separator + 1, true);
+        }
+        return null;
+    }
+
+    // Lower-cases and removes bullets, numbering, trailing punctuation and letter spacing ("S K I L L S").
+    private static String stripDecoration(String line) {
+        String value = line.strip().toLowerCase(Locale.ROOT);
+        int start = 0;
+        while (start < value.length() && !Character.isLetter(value.charAt(start))) {
+            start++;
+        }
+        value = value.substring(start);
+        value = value.replace("&", " and ");
+        if (value.length() > 2 && isLetterSpaced(value)) {
+            value = value.replace(" ", "");
+        }
+        StringBuilder normalised = new StringBuilder(value.length());
+        boolean space = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = !normalised.isEmpty();
+                continue;
+            }
+            if (space) {
+                normalised.append(' ');
+                space = false;
+            }
+            normalised.append(c);
+        }
+        int end = normalised.length();
+        while (end > 0 && "-–—_:.|• ".indexOf(normalised.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalised.substring(0, end);
+    }
+
+    private static boolean isLetterSpaced(String value) {
+        for (int i = 1; i < value.length(); i += 2) {
+            if (value.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A short line is an unknown heading if it is larger than the body font or set in capitals, and has every
+     * cue the resume's known headings have (so with larger headings, a capitalised employer name in body size
+     * is not one).
+     */
+    static boolean isUnknownHeading(PdfTextExtractor.TextLine line, float bodyFontSize, HeadingStyle knownHeadingStyle) {
+        String text = line.text().strip();
+        if (text.isEmpty() || text.endsWith(".") || text.split("\\s+").length > MAX_HEADING_WORDS - 1) {
+            return false;
+        }
+        HeadingStyle style = HeadingStyle.of(line, bodyFontSize);
+        if (!style.larger() && !style.allCaps()) {
+            return false;
+        }
+        return (style.larger() || !knownHeadingStyle.larger())
+                && (style.allCaps() || !knownHeadingStyle.allCaps())
+                && (style.bold() || !knownHeadingStyle.bold());
+    }
+
+    private static boolean isLarger(PdfTextExtractor.TextLine line, float bodyFontSize) {
+        return bodyFontSize > 0 && line.fontSize() >= bodyFontSize * LARGER_FONT_RATIO;
+    }
+
+    // Only letters in upper case, enough of them, and no digits or commas (dates, lists of acronyms).
+    private static boolean isAllCaps(String text) {
+        int letters = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c) || c == ',' || Character.isLowerCase(c)) {
+                return false;
+            }
+            if (Character.isLetter(c)) {
+                letters++;
+            }
+        }
+        return letters >= MIN_CAPS_LETTERS;
+    }
+
+    // The most common font size, weighted by line length (0 when no cues are available).
+    private static float bodyFontSize(List<PdfTextExtractor.TextLine> lines) {
+        Map<Integer, Integer> weightBySize = new HashMap<>();
+        for (PdfTextExtractor.TextLine line : lines) {
+            if (line.fontSize() > 0) {
+                weightBySize.merge(Math.round(line.fontSize() * 2), line.text().length(), Integer::sum);
+            }
+        }
+        return weightBySize.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> entry.getKey() / 2f)
+                .orElse(0f);
+    }
+
+    private static TrieNode buildTrie() {
+        TrieNode root = new TrieNode();
+        for (SectionType type : SectionType.values()) {
+            for (String heading : type.headings) {
+                TrieNode node = root;
+                for (char c : heading.toCharArray()) {
+                    node = node.children.computeIfAbsent(c, key -> new TrieNode());
+                }
+                node.type = type;
+                node.heading = heading;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @param type          The section the heading starts.
+     * @param heading       The matched synonym, or null for an unknown heading.
+     * @param contentOffset Offset into the line where the section's content starts.
+     * @param inline        Whether the heading is followed by content on the same line.
+     */
+    record HeadingMatch(SectionType type, String heading, int contentOffset, boolean inline) {
+    }
+
+    record HeadingStyle(boolean larger, boolean allCaps, boolean bold) {
+
+        static HeadingStyle of(PdfTextExtractor.TextLine line, float bodyFontSize) {
+            return new HeadingStyle(isLarger(line, bodyFontSize), isAllCaps(line.text().strip()), line.bold());
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private SectionType type;
+        private String heading;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.acespringbackend.utility;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Extracts skills from resume and job description text with a dictionary of known skills.
+ *
+ * The taxonomy (canonical skill names and their synonyms, see skills/taxonomy.txt for the format) is loaded once
+ * from skills.taxonomy.location and compiled into an {@link AhoCorasickAutomaton}, so each text is scanned once,
+ * in linear time, regardless of the size of the taxonomy. Text and synonyms are normalised the same way
+ * (lower case, punctuation to spaces, plural and -ing/-ed endings stripped), so "Unit Tests", "unit testing"
+ * and "unit-tested" all count as Unit testing.
+ */
+@Component
+public class SkillsMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SkillsMatcher.class);
+
+    /**
+     * Skills of a job description compared with those of a resume.
+     *
+     * @param matched Skills the job asks for and the resume mentions, most emphasised in the job first.
+     * @param missing Skills the job asks for that the resume does not mention, most emphasised first.
+     * @param extra   Skills the resume mentions that the job does not ask for, in resume order.
+     */
+    public record SkillsMatch(List<String> matched, List<String> missing, List<String> extra) {
+
+        /**
+         * @return Share of the job's skills found in the resume, in [0, 1]; 1 when the job names no known skills.
+         */
+        public double coverage() {
+            int required = matched.size() + missing.size();
+            return required == 0 ? 1.0 : (double) matched.size() / required;
+        }
+    }
+
+    private final AhoCorasickAutomaton<String> automaton;
+
+    public SkillsMatcher(ResourceLoader resourceLoader,
+                         @Value("${skills.taxonomy.location:classpath:skills/taxonomy.txt}") String taxonomyLocation) {
+        AhoCorasickAutomaton.Builder<String> builder = AhoCorasickAutomaton.builder();
+        int skills = 0;
+        int synonyms = 0;
+        Resource resource = resourceLoader.getResource(taxonomyLocation);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] names = line.split("\\|");
+                String canonical = names[0].strip();
+                for (String name : names) {
+                    builder.add(normalize(name), canonical);
+                    synonyms++;
+                }
+                skills++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load the skills taxonomy from " + taxonomyLocation, e);
+        }
+        this.automaton = builder.build();
+        log.info("SkillsMatcher: Loaded {} skills ({} names) from {}.", skills, synonyms, taxonomyLocation);
+    }
+
+    /**
+     * @param text Any text, e.g. a resume or a job description.
+     * @return The canonical names of the skills mentioned, in order of first mention.
+     */
+    public List<String> extract(String text) {
+        return List.copyOf(count(text).keySet());
+    }
+
+    /**
+     * @param text Any text, typically a job description.
+     * @return The canonical names of the skills mentioned, most often mentioned first (ties in order of first mention).
+     */
+    public List<String> extractByEmphasis(String text) {
+        return byEmphasis(count(text));
+    }
+
+    /**
+     * Compares the skills of a resume with those a job asks for.
+     *
+     * @param resumeText Text of the resume.
+     * @param jobText    Job title and/or description.
+     * @return Matched, missing and extra skills.
+     */
+    public SkillsMatch match(String resumeText, String jobText) {
+        Map<String, Integer> resumeSkills = count(resumeText);
+        Map<String, Integer> jobSkills = count(jobText);
+
+        // Skills the job repeats matter most.
+        List<String> byEmphasis = byEmphasis(jobSkills);
+
+        List<String> matched = byEmphasis.stream().filter(resumeSkills::containsKey).toList();
+        List<String> missing = byEmphasis.stream().filter(skill -> !resumeSkills.containsKey(skill)).toList();
+        List<String> extra = resumeSkills.keySet().stream().filter(skill -> !jobSkills.containsKey(skill)).toList();
+        return new SkillsMatch(matched, missing, extra);
+    }
+
+    // Most mentioned first; the sort is stable, so ties keep the order of first mention.
+    private static List<String> byEmphasis(Map<String, Integer> counts) {
+        List<String> skills = new ArrayList<>(counts.keySet());
+        skills.sort(Comparator.comparingInt((String skill) -> -counts.get(skill)));
+        return skills;
+    }
+
+    // Canonical skill -> number of mentions, in order of first mention.
+    private Map<String, Integer> count(String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (text == null || text.isBlank()) {
+            return counts;
+        }
+        for (AhoCorasickAutomaton.Match<String> match : automaton.findLongest(normalize(text))) {
+            counts.merge(match.value(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Normalises text for matching: lower case, single spaces between words, sentence punctuation removed
+     * and each word reduced to a light stem. Applied to both the taxonomy and the scanned text.
+     */
+    static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(lower.length());
+        int i = 0;
+        while (i < lower.length()) {
+            if (!AhoCorasickAutomaton.isWordChar(lower.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < lower.length() && AhoCorasickAutomaton.isWordChar(lower.charAt(i))) {
+                i++;
+            }
+            int end = i;
+            while (end > start && lower.charAt(end - 1) == '.') {
+                end--; // full stop after the word, not part of it
+            }
+            if (end > start) {
+                if (!normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(stem(lower.substring(start, end)));
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Strips common inflections from plain words; names with symbols ("node.js", "c++") are kept as they are.
+    private static String stem(String word) {
+        if (!word.chars().allMatch(Character::isLetter)) {
+            return word;
+        }
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() >= 7 && word.endsWith("ing")) {
+            return word.substring(0, word.length() - 3);
+        }
+        if (word.length() >= 6 && word.endsWith("ed")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
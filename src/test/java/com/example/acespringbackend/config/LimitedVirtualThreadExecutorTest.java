@@ -0,0 +1,113 @@
+package com.example.acespringbackend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitedVirtualThreadExecutorTest {
+
+    // Two running and one waiting; the handler keeps the deliberately failing tasks out of the test output.
+    private final LimitedVirtualThreadExecutor executor = new LimitedVirtualThreadExecutor("test", 2, 1,
+            Thread.ofVirtual().name("test-", 0).uncaughtExceptionHandler((thread, e) -> { }).factory());
+
+    @AfterEach
+    void shutDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void runsAtMostMaxConcurrencyTasksAtOnce() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+        Thread.sleep(200);
+        assertEquals(2, running.get());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void rejectsTasksBeyondRunningAndQueuedCapacity() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        Runnable blocking = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        };
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(blocking);
+        }
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void capacityIsFreedOnceTasksFinish() throws InterruptedException {
+        for (int round = 0; round < 3; round++) {
+            CountDownLatch finished = new CountDownLatch(3);
+            for (int i = 0; i < 3; i++) {
+                executor.execute(finished::countDown);
+            }
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            // The counter is decremented just after the task body, so give the threads a moment to exit.
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void failingTaskReleasesItsPermit() throws InterruptedException {
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        Thread.sleep(100);
+
+        CountDownLatch ran = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(ran::countDown);
+        }
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsTasksAfterShutdown() {
+        executor.shutdown();
+
+        assertTrue(executor.isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.config.AppSchedulers;
+import com.example.acespringbackend.model.AccountDeletionJob;
+import com.example.acespringbackend.repository.UserRepository;
+import com.example.acespringbackend.utility.DriveUtility;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountDeletionServiceTest {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private AccountDeletionService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByNormalizedEmail(anyString())).thenReturn(Mono.empty());
+        service = new AccountDeletionService(mongoTemplate, userRepository, mock(DriveUtility.class), mock(DriveProperties.class),
+                mock(UserAuthStateCache.class), mock(AppSchedulers.class));
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "staleAfterMinutes", 15L);
+    }
+
+    @Test
+    void repeatedRequestRequeuesAJobThatUsedUpItsAttempts() {
+        AccountDeletionJob failed = job(AccountDeletionJob.Status.FAILED, 5);
+        AccountDeletionJob requeued = job(AccountDeletionJob.Status.PENDING, 0);
+        when(mongoTemplate.findOne(any(Query.class), eq(AccountDeletionJob.class))).thenReturn(Mono.just(failed));
+        // The requeue succeeds; the background run then finds nothing to claim.
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(AccountDeletionJob.class)))
+                .thenReturn(Mono.just(requeued), Mono.empty());
+
+        StepVerifier.create(service.requestDeletion("User@Example.com"))
+                .expectNextMatches(job -> job.getStatus() == AccountDeletionJob.Status.PENDING)
+                .verifyComplete();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).findAndModify(any(Query.class), updates.capture(), any(FindAndModifyOptions.class),
+                eq(AccountDeletionJob.class));
+        Document set = updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(AccountDeletionJob.Status.PENDING, set.get("status"));
+        assertEquals(0, set.get("attempts"));
+        assertTrue(updates.getAllValues().get(0).getUpdateObject().get("$unset", Document.class).containsKey("lastError"));
+    }
+
+    @Test
+    void repeatedRequestReturnsACompletedJobAsIs() {
+        AccountDeletionJob completed = job(AccountDeletionJob.Status.COMPLETED, 1);
+        when(mongoTemplate.findOne(any(Query.class), eq(AccountDeletionJob.class))).thenReturn(Mono.just(completed));
+
+        StepVerifier.create(service.requestDeletion("user@example.com")).expectNext(completed).verifyComplete();
+    }
+
+    private static AccountDeletionJob job(AccountDeletionJob.Status status, int attempts) {
+        AccountDeletionJob job = new AccountDeletionJob("user-1", "user@example.com", "user@example.com", "folder-1", Instant.now());
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        return job;
+    }
+}
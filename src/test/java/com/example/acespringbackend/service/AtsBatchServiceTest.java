@@ -0,0 +1,97 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.config.AppSchedulers;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AtsBatchServiceTest {
+
+    private static final byte[] PDF = {1, 2, 3};
+
+    @Test
+    void repeatedNamesGetANumberedSuffix() {
+        List<AtsBatchService.BatchFile> files = AtsBatchService.withUniqueNames(List.of(
+                new AtsBatchService.BatchFile("cv.pdf", PDF),
+                new AtsBatchService.BatchFile("cv.pdf", PDF),
+                new AtsBatchService.BatchFile("cv.pdf", PDF)));
+
+        assertEquals(List.of("cv.pdf", "cv (2).pdf", "cv (3).pdf"), files.stream().map(AtsBatchService.BatchFile::name).toList());
+    }
+
+    @Test
+    void archivePathsKeepSameNamedResumesApart() {
+        AtsBatchService.BatchFile first = new AtsBatchService.BatchFile("a/cv.pdf", PDF);
+        AtsBatchService.BatchFile second = new AtsBatchService.BatchFile("b/cv.pdf", PDF);
+
+        List<AtsBatchService.BatchFile> files = AtsBatchService.withUniqueNames(List.of(first, second));
+
+        assertSame(first, files.get(0));
+        assertSame(second, files.get(1));
+    }
+
+    @Test
+    void missingNamesAreReplaced() {
+        List<AtsBatchService.BatchFile> files = AtsBatchService.withUniqueNames(List.of(
+                new AtsBatchService.BatchFile(null, PDF),
+                new AtsBatchService.BatchFile(" ", PDF)));
+
+        assertEquals(List.of("resume.pdf", "resume (2).pdf"), files.stream().map(AtsBatchService.BatchFile::name).toList());
+    }
+
+    @Test
+    void totalSizeIsCountedAcrossAllUploads() throws IOException {
+        AtsBatchService service = serviceWithLimits(10, 100);
+        // Each upload is within the limit on its own; together they exceed it.
+        List<AtsBatchService.BatchFile> uploads = List.of(
+                new AtsBatchService.BatchFile("one.zip", zip("a.pdf", 40)),
+                new AtsBatchService.BatchFile("two.zip", zip("b.pdf", 40)),
+                new AtsBatchService.BatchFile("c.pdf", new byte[40]));
+
+        StepVerifier.create(service.expandArchives(uploads)).verifyError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void uploadsWithinTheTotalAreExpanded() throws IOException {
+        AtsBatchService service = serviceWithLimits(10, 100);
+        List<AtsBatchService.BatchFile> uploads = List.of(
+                new AtsBatchService.BatchFile("one.zip", zip("a.pdf", 40)),
+                new AtsBatchService.BatchFile("c.pdf", new byte[40]));
+
+        StepVerifier.create(service.expandArchives(uploads))
+                .expectNextMatches(files -> files.stream().map(AtsBatchService.BatchFile::name).toList().equals(List.of("a.pdf", "c.pdf")))
+                .verifyComplete();
+    }
+
+    private static AtsBatchService serviceWithLimits(int maxFiles, long maxTotalBytes) {
+        AppSchedulers appSchedulers = mock(AppSchedulers.class);
+        when(appSchedulers.pdf()).thenReturn(Schedulers.immediate());
+        AtsBatchService service = new AtsBatchService(null, null, null, appSchedulers);
+        ReflectionTestUtils.setField(service, "maxFiles", maxFiles);
+        ReflectionTestUtils.setField(service, "maxFileBytes", 64);
+        ReflectionTestUtils.setField(service, "maxTotalBytes", maxTotalBytes);
+        return service;
+    }
+
+    private static byte[] zip(String entryName, int size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry(entryName));
+            zip.write(new byte[size]);
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
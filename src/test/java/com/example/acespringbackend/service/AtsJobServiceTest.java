@@ -0,0 +1,183 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.auth.dto.AtsResponse;
+import com.example.acespringbackend.model.AtsJob;
+import com.example.acespringbackend.model.AtsJobSlots;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AtsJobServiceTest {
+
+    private static final String GEMINI_DOWN = "**ATS Score:** 70\n\n**Detailed Feedback:**\n"
+            + GeminiService.GEMINI_ERROR_PREFIX + " after trying all keys: 503";
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private GeminiService geminiService;
+    private AtsJobService service;
+    private final List<Update> jobUpdates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        geminiService = mock(GeminiService.class);
+        service = new AtsJobService(mongoTemplate, geminiService, 1, 10);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "maxActivePerUser", 2);
+        ReflectionTestUtils.setField(service, "staleAfterMinutes", 10L);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AtsJobSlots.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    @Test
+    void successfulAttemptCompletesTheJobAndFreesItsSlot() {
+        givenClaimedJob(1);
+        givenScore(new AtsResponse("82", "**ATS Score:** 82", "resume", false, null));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.COMPLETED, statusSetBy(jobUpdates.get(1)));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(AtsJobSlots.class));
+    }
+
+    @Test
+    void geminiOutageReturnsTheJobToPendingWhileAttemptsRemain() {
+        givenClaimedJob(1);
+        givenScore(new AtsResponse("70", GEMINI_DOWN, "resume", false, null));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.PENDING, statusSetBy(jobUpdates.get(1)));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(AtsJobSlots.class));
+    }
+
+    @Test
+    void geminiOutageOnTheLastAttemptFailsTheJob() {
+        givenClaimedJob(3);
+        givenScore(new AtsResponse("70", GEMINI_DOWN, "resume", false, null));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.FAILED, statusSetBy(jobUpdates.get(1)));
+    }
+
+    @Test
+    void saveErrorIsRetried() {
+        givenClaimedJob(1);
+        givenScore(new AtsResponse("82", "report", "resume", true, "Error saving result: timeout"));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.PENDING, statusSetBy(jobUpdates.get(1)));
+    }
+
+    @Test
+    void unreadablePdfFailsTheJobAtOnce() {
+        givenClaimedJob(1);
+        givenScore(new AtsResponse("0", "", "", true, "Error extracting text from PDF: not a PDF"));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.FAILED, statusSetBy(jobUpdates.get(1)));
+    }
+
+    @Test
+    void crashedAttemptIsRetried() {
+        givenClaimedJob(2);
+        when(geminiService.getAtsScore(any(), any(), anyBoolean(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(service.process("job-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(AtsJob.Status.PENDING, statusSetBy(jobUpdates.get(1)));
+    }
+
+    @Test
+    void retryableErrorClassifiesResponses() {
+        assertNull(AtsJobService.retryableError(new AtsResponse("82", "report", "resume", false, null)));
+        assertNull(AtsJobService.retryableError(new AtsResponse("0", "", "", true, "Could not extract text from the provided PDF file.")));
+        assertEquals(GeminiService.GEMINI_ERROR_PREFIX + " after trying all keys: 503",
+                AtsJobService.retryableError(new AtsResponse("70", GEMINI_DOWN, "resume", false, null)));
+        assertEquals("Error processing resume: boom",
+                AtsJobService.retryableError(new AtsResponse("0", "", "", true, "Error processing resume: boom")));
+    }
+
+    @Test
+    void reservationAtTheLimitIsRejected() {
+        AtsJobSlots slots = slots("a", "b");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(AtsJobSlots.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+        when(mongoTemplate.findById("user@example.com", AtsJobSlots.class)).thenReturn(Mono.just(slots));
+        when(mongoTemplate.find(any(Query.class), eq(AtsJob.class))).thenReturn(Flux.just(job("a"), job("b")));
+
+        StepVerifier.create(service.reserveSlot("User@Example.com", "c")).verifyError(AtsJobLimitException.class);
+    }
+
+    @Test
+    void staleSlotsAreDroppedBeforeRejecting() {
+        AtsJobSlots slots = slots("a", "b");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(AtsJobSlots.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000")), Mono.just(slots));
+        when(mongoTemplate.findById("user@example.com", AtsJobSlots.class)).thenReturn(Mono.just(slots));
+        when(mongoTemplate.find(any(Query.class), eq(AtsJob.class))).thenReturn(Flux.just(job("a")));
+
+        StepVerifier.create(service.reserveSlot("User@Example.com", "c")).verifyComplete();
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(AtsJobSlots.class));
+    }
+
+    // The claim and every later update of the job return the claimed job; the updates are recorded.
+    private void givenClaimedJob(int attempts) {
+        AtsJob claimed = job("job-1");
+        claimed.setStatus(AtsJob.Status.RUNNING);
+        claimed.setAttempts(attempts);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(AtsJob.class)))
+                .thenAnswer(invocation -> {
+                    jobUpdates.add(invocation.getArgument(1));
+                    return Mono.just(claimed);
+                });
+    }
+
+    private void givenScore(AtsResponse response) {
+        when(geminiService.getAtsScore(any(), any(), anyBoolean(), any(), any(), any(), any())).thenReturn(Mono.just(response));
+    }
+
+    private static Object statusSetBy(Update update) {
+        return ((Document) update.getUpdateObject().get("$set")).get("status");
+    }
+
+    private static AtsJob job(String id) {
+        return new AtsJob(id, "user@example.com", "user-id", "cv.pdf", new byte[]{1}, true, "Engineer", "Java", Instant.now());
+    }
+
+    private static AtsJobSlots slots(String... jobIds) {
+        AtsJobSlots slots = new AtsJobSlots();
+        slots.setId("user@example.com");
+        slots.setJobIds(new ArrayList<>(List.of(jobIds)));
+        return slots;
+    }
+}
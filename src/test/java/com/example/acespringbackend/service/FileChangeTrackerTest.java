@@ -0,0 +1,124 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.model.FileSyncState;
+import com.example.acespringbackend.model.UserFile;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileChangeTrackerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private FileChangeTracker tracker;
+    private final List<UpdateDefinition> stateUpdates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        tracker = new FileChangeTracker(mongoTemplate, 60);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(FileSyncState.class)))
+                .thenAnswer(invocation -> {
+                    stateUpdates.add(invocation.getArgument(1));
+                    return Mono.just(UpdateResult.acknowledged(1, 1L, null));
+                });
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(FileSyncState.class)))
+                .thenReturn(Mono.just(new FileSyncState("user-1", 7)));
+    }
+
+    @Test
+    void committedVersionStopsBelowTheOldestLiveReservation() {
+        FileSyncState state = new FileSyncState("user-1", 12);
+        state.getInFlight().add(new FileSyncState.Reservation(11, 12, NOW));
+        state.getInFlight().add(new FileSyncState.Reservation(9, 9, NOW.minusSeconds(5)));
+
+        assertEquals(8, FileChangeTracker.committedVersion(state, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void committedVersionIgnoresAbandonedReservations() {
+        FileSyncState state = new FileSyncState("user-1", 12);
+        state.getInFlight().add(new FileSyncState.Reservation(9, 9, NOW.minusSeconds(600)));
+
+        assertEquals(12, FileChangeTracker.committedVersion(state, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void committedVersionIsTheCounterWithoutReservations() {
+        assertEquals(5, FileChangeTracker.committedVersion(new FileSyncState("user-1", 5), NOW));
+    }
+
+    @Test
+    void oldestDeltaVersionComesFromTheOldestMarkWithinRetention() {
+        FileSyncState state = new FileSyncState("user-1", 40);
+        state.getMarks().add(new FileSyncState.Mark(10, NOW.minus(Duration.ofDays(35))));
+        state.getMarks().add(new FileSyncState.Mark(21, NOW.minus(Duration.ofDays(20))));
+        state.getMarks().add(new FileSyncState.Mark(33, NOW.minus(Duration.ofDays(2))));
+
+        assertEquals(20, FileChangeTracker.oldestDeltaVersion(state, NOW.minus(Duration.ofDays(30))));
+    }
+
+    @Test
+    void oldestDeltaVersionIsTheCurrentVersionWithoutRecentMarks() {
+        FileSyncState state = new FileSyncState("user-1", 40);
+        state.getMarks().add(new FileSyncState.Mark(10, NOW.minus(Duration.ofDays(35))));
+
+        assertEquals(40, FileChangeTracker.oldestDeltaVersion(state, NOW.minus(Duration.ofDays(30))));
+    }
+
+    @Test
+    void stampSetsTheReservedVersionAndReleasesItAfterTheSave() {
+        UserFile userFile = new UserFile();
+
+        StepVerifier.create(tracker.stamp("user-1", userFile, Mono::just))
+                .expectNext(userFile)
+                .verifyComplete();
+
+        assertEquals(Long.valueOf(7), userFile.getChangeVersion());
+        assertTrue(stateUpdates.stream().anyMatch(FileChangeTrackerTest::releases));
+    }
+
+    @Test
+    void failedSaveStillReleasesTheReservation() {
+        StepVerifier.create(tracker.stamp("user-1", new UserFile(), file -> Mono.error(new IllegalStateException("write failed"))))
+                .verifyError(IllegalStateException.class);
+
+        assertTrue(stateUpdates.stream().anyMatch(FileChangeTrackerTest::releases));
+    }
+
+    @Test
+    void stampAllAssignsConsecutiveVersions() {
+        List<UserFile> files = List.of(new UserFile(), new UserFile(), new UserFile());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(FileSyncState.class)))
+                .thenReturn(Mono.just(new FileSyncState("user-1", 9)));
+
+        StepVerifier.create(tracker.stampAll("user-1", files, stamped -> Mono.empty())).verifyComplete();
+
+        assertEquals(List.of(7L, 8L, 9L), files.stream().map(UserFile::getChangeVersion).toList());
+    }
+
+    private static boolean releases(UpdateDefinition update) {
+        Document pull = (Document) update.getUpdateObject().get("$pull");
+        return pull != null && pull.containsKey("inFlight");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.acespringbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiComparisonFeedbackTest {
+
+    @Test
+    void splitsMarkdownReplyByJobHeadings() {
+        String reply = "Overall the resume is strong.\n"
+                + "## Job 1\n* Add metrics\n"
+                + "### **Job 2: Backend Engineer**\n* Mention Kafka\n"
+                + "## Comparison\nJob 2 fits best.";
+
+        Map<Integer, String> sections = GeminiService.splitComparisonFeedback(reply);
+
+        assertEquals("* Add metrics", sections.get(1));
+        assertEquals("* Mention Kafka", sections.get(2));
+        assertEquals("Overall the resume is strong.\n\nJob 2 fits best.", sections.get(0));
+    }
+
+    @Test
+    void lastJobRunsToTheEndWithoutComparisonHeading() {
+        Map<Integer, String> sections = GeminiService.splitComparisonFeedback("## Job 1\nFirst\n## Job 2\nSecond\nmore");
+
+        assertEquals(Map.of(1, "First", 2, "Second\nmore"), sections);
+    }
+
+    @Test
+    void replyWithoutHeadingsIsUnattributed() {
+        Map<Integer, String> sections = GeminiService.splitComparisonFeedback("  Just some text.  ");
+
+        assertEquals(Map.of(0, "Just some text."), sections);
+    }
+
+    @Test
+    void emptyReplyHasNoSections() {
+        assertTrue(GeminiService.splitComparisonFeedback("").isEmpty());
+    }
+
+    @Test
+    void rendersStructuredFeedbackAsMarkdown() {
+        GeminiFeedback.ResumeFeedback feedback = new GeminiFeedback.ResumeFeedback(
+                List.of(" Quantify results ", "", "Add a summary"), List.of("Kafka", "Docker"));
+
+        assertEquals("* Quantify results\n* Add a summary\n\n**Keywords to add:** Kafka, Docker", feedback.toMarkdown());
+        assertEquals("* Only point", new GeminiFeedback.ResumeFeedback(List.of("Only point"), null).toMarkdown());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.utility.SkillsMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobDescriptionAnalyzerTest {
+
+    private final JobDescriptionAnalyzer analyzer = analyzer();
+
+    @Test
+    void digestsTitleSkillsAndRequirements() {
+        JobDescriptionAnalyzer.JobDigest digest = analyzer.analyze("""
+                Job Title: Senior Backend Engineer
+                About us: we build payment software.
+                • 5+ years of experience with Java and Spring
+                • Hands-on knowledge of Docker and Kubernetes
+                We offer free lunch.
+                """);
+
+        assertEquals("Senior Backend Engineer", digest.title());
+        assertEquals("senior", digest.seniority());
+        assertEquals(Integer.valueOf(5), digest.minYears());
+        assertTrue(digest.requiredSkills().containsAll(List.of("Java", "Docker", "Kubernetes")));
+        assertEquals(List.of("5+ years of experience with Java and Spring", "Hands-on knowledge of Docker and Kubernetes"),
+                digest.requirements());
+    }
+
+    @Test
+    void seniorityIgnoresOtherRolesMentionedInTheBody() {
+        JobDescriptionAnalyzer.JobDigest digest = analyzer.analyze("""
+                Backend Engineer
+                You will report to the Director of Engineering and pair with senior engineers.
+                Experience with Java is required.
+                """);
+
+        assertNull(digest.seniority());
+    }
+
+    @Test
+    void seniorityFallsBackToTheHeadlineAndFirstRequirements() {
+        assertEquals("junior", analyzer.analyze("Junior Data Analyst\nSQL experience required.").seniority());
+        assertEquals("mid", analyzer.analyze("Data Analyst\nMid-level experience with SQL is required.").seniority());
+    }
+
+    @Test
+    void yearsPreferTheExperienceRequirementOverOtherNumbers() {
+        assertEquals(Integer.valueOf(5), JobDescriptionAnalyzer.minYears(
+                "Founded 2 years ago, we have grown fast. You have at least 5 years of backend experience."));
+        assertEquals(Integer.valueOf(3), JobDescriptionAnalyzer.minYears("Requires 3-5 years of experience."));
+    }
+
+    @Test
+    void yearsFallBackToTheSmallestPlausibleNumber() {
+        assertEquals(Integer.valueOf(4), JobDescriptionAnalyzer.minYears("Ideally 4 years in fintech. Team of 10 years tenure."));
+        assertNull(JobDescriptionAnalyzer.minYears("Great benefits and a friendly team."));
+    }
+
+    @Test
+    void yearsDoNotMatchInsideLongerNumbers() {
+        assertEquals(Integer.valueOf(6), JobDescriptionAnalyzer.minYears("Since 2015 years of growth. Minimum 6 years experience."));
+        assertNull(JobDescriptionAnalyzer.minYears("Revenue grew 2015years."));
+    }
+
+    @Test
+    void cachesDigestsByNormalisedText() {
+        JobDescriptionAnalyzer.JobDigest first = analyzer.analyze("Java developer\nExperience with Java required.");
+
+        assertSame(first, analyzer.analyze("  java   DEVELOPER\n experience with java required. "));
+        assertNull(analyzer.analyze("   "));
+    }
+
+    private static JobDescriptionAnalyzer analyzer() {
+        JobDescriptionAnalyzer analyzer = new JobDescriptionAnalyzer(
+                new SkillsMatcher(new DefaultResourceLoader(), "classpath:skills/taxonomy.txt"));
+        ReflectionTestUtils.setField(analyzer, "ttlSeconds", 1800L);
+        ReflectionTestUtils.setField(analyzer, "maxEntries", 100);
+        ReflectionTestUtils.setField(analyzer, "maxRequirements", 8);
+        ReflectionTestUtils.setField(analyzer, "maxRequirementLength", 200);
+        return analyzer;
+    }
+}
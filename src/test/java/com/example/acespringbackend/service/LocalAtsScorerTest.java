@@ -0,0 +1,88 @@
+package com.example.acespringbackend.service;
+
+import com.example.acespringbackend.utility.SkillsMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalAtsScorerTest {
+
+    private static final String RESUME = """
+            Jane Doe
+            jane@example.com | +1 555 123 4567 | linkedin.com/in/janedoe
+            Summary
+            Backend engineer building event-driven services in Java.
+            Experience
+            Acme Corp, Senior Engineer, Jan 2020 - Present
+            • Built Java services that process Kafka streams for billing
+            • Moved the deployment of twelve services to Docker and Kubernetes
+            Education
+            BSc Computer Science, 2015 - 2019
+            Skills
+            Java, Kafka, Docker, Kubernetes, SQL
+            """;
+
+    private final LocalAtsScorer scorer = new LocalAtsScorer(new SkillsMatcher(new DefaultResourceLoader(), "classpath:skills/taxonomy.txt"));
+
+    @Test
+    void termsInEverySentenceOfTheJobWeighLess() {
+        String job = "Kafka streaming. Java services. Java APIs.";
+
+        LocalAtsScorer.KeywordCoverage rareOnly = scorer.keywordCoverage(LocalAtsScorer.tokenize("kafka"), job);
+        LocalAtsScorer.KeywordCoverage commonOnly = scorer.keywordCoverage(LocalAtsScorer.tokenize("java"), job);
+
+        assertTrue(rareOnly.coverage() > commonOnly.coverage());
+    }
+
+    @Test
+    void resumeRepetitionDoesNotLowerATermsWeight() {
+        String job = "Kafka streaming. Java services. Java APIs.";
+        String resume = "Java\n" + "Kafka\n".repeat(10);
+
+        LocalAtsScorer.KeywordCoverage coverage = scorer.keywordCoverage(LocalAtsScorer.tokenize(resume), job);
+
+        assertEquals("kafka", coverage.topMatched().get(0));
+    }
+
+    @Test
+    void reportsMissingTermsOfTheJob() {
+        LocalAtsScorer.KeywordCoverage coverage = scorer.keywordCoverage(LocalAtsScorer.tokenize("Java developer"), "Java developer with Terraform.");
+
+        assertEquals(List.of("terraform"), coverage.missing());
+        assertEquals(2, coverage.matched());
+        assertEquals(3, coverage.total());
+    }
+
+    @Test
+    void scoresStructureOnlyWithoutAJob() {
+        LocalAtsScorer.Result result = scorer.score(RESUME, null, null);
+
+        assertNull(result.keywords());
+        assertNull(result.skills());
+        assertEquals(List.of("summary", "experience", "education", "skills"), result.foundSections());
+        assertEquals(1.0, result.contact());
+        assertTrue(result.feedback().contains("Provide a job title or description to also score keyword match against the role."));
+    }
+
+    @Test
+    void missingSkillsOfTheJobComeFirstInTheFeedback() {
+        LocalAtsScorer.Result result = scorer.score(RESUME, "Platform Engineer", "Run Java services on Kubernetes with Terraform.");
+
+        assertTrue(result.feedback().get(0).startsWith("The job asks for skills your resume does not mention: Terraform"),
+                result.feedback().get(0));
+        assertTrue(result.skills().matched().containsAll(List.of("Java", "Kubernetes")));
+    }
+
+    @Test
+    void sameInputGivesTheSameScore() {
+        String job = "Senior Java engineer with Kafka and Docker.";
+
+        assertEquals(scorer.score(RESUME, null, job).score(), scorer.score(RESUME, null, job).score());
+        assertTrue(scorer.score(RESUME, null, job).score() > scorer.score("Jane Doe\nCook at a restaurant.", null, job).score());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.acespringbackend.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AhoCorasickAutomatonTest {
+
+    private static List<String> values(List<AhoCorasickAutomaton.Match<String>> matches) {
+        return matches.stream().map(AhoCorasickAutomaton.Match::value).toList();
+    }
+
+    @Test
+    void findsOverlappingPatternsThroughFailureLinks() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder()
+                .add("he", "he").add("she", "she").add("his", "his").add("hers", "hers")
+                .build();
+
+        // Words are delimited by spaces so every pattern is a whole word.
+        List<AhoCorasickAutomaton.Match<String>> matches = automaton.findAll("she his hers he");
+
+        assertEquals(List.of("she", "his", "hers", "he"), values(matches));
+        assertEquals(new AhoCorasickAutomaton.Match<>(8, 12, "hers"), matches.get(2));
+    }
+
+    @Test
+    void matchesWholeWordsOnly() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder().add("java", "Java").build();
+
+        assertTrue(automaton.findAll("javascript and xjava").isEmpty());
+        assertEquals(List.of("Java"), values(automaton.findAll("javascript, java")));
+    }
+
+    @Test
+    void keepsSymbolsButNotTrailingFullStops() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder()
+                .add("c", "C").add("c++", "C++").add("node.js", "Node.js")
+                .build();
+
+        assertEquals(List.of("C++", "Node.js"), values(automaton.findLongest("c++ and node.js.")));
+        assertEquals(List.of("C"), values(automaton.findAll("written in c.")));
+    }
+
+    @Test
+    void longestOverlappingMatchWins() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder()
+                .add("spring", "Spring").add("spring boot", "Spring Boot").add("boot", "Boot")
+                .build();
+
+        assertEquals(List.of("Spring", "Spring Boot", "Boot"), values(automaton.findAll("spring boot")));
+        assertEquals(List.of("Spring Boot", "Spring"), values(automaton.findLongest("spring boot and spring")));
+    }
+
+    @Test
+    void ignoresEmptyPatternsAndEmptyText() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder().add("", "empty").add(null, "null").build();
+
+        assertTrue(automaton.findAll("anything").isEmpty());
+        assertTrue(automaton.findAll("").isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.acespringbackend.utility;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DriveGovernorTest {
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void bucketStartsFullAndHandsOutItsBurstWithoutWaiting() {
+        DriveGovernor.TokenBucket bucket = new DriveGovernor.TokenBucket(1, 3, clock::get);
+
+        assertEquals(0, bucket.reserve(MAX_WAIT_NANOS));
+        assertEquals(0, bucket.reserve(MAX_WAIT_NANOS));
+        assertEquals(0, bucket.reserve(MAX_WAIT_NANOS));
+    }
+
+    @Test
+    void emptyBucketReservesOnCreditInArrivalOrder() {
+        DriveGovernor.TokenBucket bucket = new DriveGovernor.TokenBucket(2, 1, clock::get);
+        bucket.reserve(MAX_WAIT_NANOS);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve(MAX_WAIT_NANOS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), bucket.reserve(MAX_WAIT_NANOS));
+    }
+
+    @Test
+    void refusesWithoutReservingWhenTheWaitIsTooLong() {
+        DriveGovernor.TokenBucket bucket = new DriveGovernor.TokenBucket(1, 1, clock::get);
+        bucket.reserve(MAX_WAIT_NANOS);
+        bucket.reserve(MAX_WAIT_NANOS); // 1 s
+        bucket.reserve(MAX_WAIT_NANOS); // 2 s
+
+        assertEquals(-1, bucket.reserve(MAX_WAIT_NANOS));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), bucket.reserve(MAX_WAIT_NANOS));
+    }
+
+    @Test
+    void refillsOverTimeUpToItsCapacity() {
+        DriveGovernor.TokenBucket bucket = new DriveGovernor.TokenBucket(10, 2, clock::get);
+        bucket.reserve(MAX_WAIT_NANOS);
+        bucket.reserve(MAX_WAIT_NANOS);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, bucket.reserve(MAX_WAIT_NANOS));
+        assertEquals(0, bucket.reserve(MAX_WAIT_NANOS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(MAX_WAIT_NANOS));
+    }
+
+    @Test
+    void userPermitsAreLimitedPerUser() {
+        DriveGovernor governor = governor(10);
+
+        assertEquals(0, governor.reserveUserPermit("a@example.com"));
+        assertEquals(-1, governor.reserveUserPermit("a@example.com"));
+        assertEquals(0, governor.reserveUserPermit("b@example.com"));
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedUserBeyondTheTrackedLimit() {
+        DriveGovernor governor = governor(2);
+        governor.reserveUserPermit("a@example.com");
+        governor.reserveUserPermit("b@example.com");
+        governor.reserveUserPermit("a@example.com"); // refused, but makes b the least recently used
+        governor.reserveUserPermit("c@example.com");
+
+        assertEquals(0, governor.reserveUserPermit("b@example.com")); // b's bucket was dropped and starts full
+        assertEquals(-1, governor.reserveUserPermit("c@example.com"));
+    }
+
+    // One permit per user and a refill far slower than the allowed wait, so a second permit is refused.
+    private static DriveGovernor governor(int maxTrackedUsers) {
+        DriveGovernor governor = new DriveGovernor(new SimpleMeterRegistry(), 1000, 1000, 4, maxTrackedUsers);
+        ReflectionTestUtils.setField(governor, "userRatePerSecond", 0.001);
+        ReflectionTestUtils.setField(governor, "userBurst", 1.0);
+        ReflectionTestUtils.setField(governor, "maxWaitMillis", 10L);
+        return governor;
+    }
+}
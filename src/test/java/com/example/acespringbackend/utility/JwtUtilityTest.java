@@ -0,0 +1,33 @@
+package com.example.acespringbackend.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilityTest {
+
+    private static final Instant REVOKED_AT = Instant.parse("2024-05-01T10:00:00.400Z");
+
+    @Test
+    void acceptsAnyTokenWhenNothingWasRevoked() {
+        assertTrue(JwtUtility.isIssuedAfterRevocation(Date.from(REVOKED_AT), null));
+        assertTrue(JwtUtility.isIssuedAfterRevocation(null, null));
+    }
+
+    @Test
+    void rejectsTokensIssuedInTheRevocationSecond() {
+        // iat has whole seconds, so a token issued right after the revocation still reads 10:00:00.
+        assertFalse(JwtUtility.isIssuedAfterRevocation(Date.from(Instant.parse("2024-05-01T10:00:00Z")), REVOKED_AT));
+        assertFalse(JwtUtility.isIssuedAfterRevocation(Date.from(Instant.parse("2024-05-01T09:59:59Z")), REVOKED_AT));
+        assertTrue(JwtUtility.isIssuedAfterRevocation(Date.from(Instant.parse("2024-05-01T10:00:01Z")), REVOKED_AT));
+    }
+
+    @Test
+    void rejectsTokensWithoutIssuedAtOnceRevoked() {
+        assertFalse(JwtUtility.isIssuedAfterRevocation(null, REVOKED_AT));
+    }
+}
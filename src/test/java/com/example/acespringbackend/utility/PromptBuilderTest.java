@@ -0,0 +1,62 @@
+package com.example.acespringbackend.utility;
+
+import com.example.acespringbackend.auth.dto.ParaphrasingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptBuilderTest {
+
+    // Job descriptions are not used here, so the analyzer is not needed.
+    private final PromptBuilder promptBuilder = new PromptBuilder(null);
+
+    @Test
+    void splitsItemsByNumber() {
+        String reply = "[[ITEM 2]]\nSecond text\n[[END 2]]\n[[ITEM 1]]\n  First text  \n[[END 1]]";
+
+        assertEquals(Map.of(1, "First text", 2, "Second text"), promptBuilder.splitBatchReply(reply, 2));
+    }
+
+    @Test
+    void keepsMultiLineItems() {
+        Map<Integer, String> items = promptBuilder.splitBatchReply("[[ITEM 1]]\nLine one\nLine two\n[[END 1]]", 1);
+
+        assertEquals("Line one\nLine two", items.get(1));
+    }
+
+    @Test
+    void skipsEmptyOutOfRangeAndMismatchedItems() {
+        String reply = "[[ITEM 1]]\n\n[[END 1]]\n[[ITEM 3]]\nToo far\n[[END 3]]\n[[ITEM 2]]\nUnclosed\n[[END 1]]";
+
+        assertTrue(promptBuilder.splitBatchReply(reply, 2).isEmpty());
+    }
+
+    @Test
+    void firstOccurrenceOfAnItemWins() {
+        String reply = "[[ITEM 1]]\nFirst\n[[END 1]]\n[[ITEM 1]]\nRepeat\n[[END 1]]";
+
+        assertEquals(Map.of(1, "First"), promptBuilder.splitBatchReply(reply, 1));
+    }
+
+    @Test
+    void hugeItemNumbersAreIgnoredRatherThanFailing() {
+        String reply = "[[ITEM 99999999999999999999]]\nGarbage\n[[END 99999999999999999999]]\n[[ITEM 1]]\nFine\n[[END 1]]";
+
+        assertEquals(Map.of(1, "Fine"), promptBuilder.splitBatchReply(reply, 1));
+    }
+
+    @Test
+    void batchPromptNumbersEveryInput() {
+        String prompt = promptBuilder.buildBatchPrompt(
+                new ParaphrasingRequest(null, "formal", null, null, null, null, false, false, false),
+                List.of("first text", "second text"));
+
+        assertTrue(prompt.contains("[[ITEM 1]]\nfirst text\n[[END 1]]"));
+        assertTrue(prompt.contains("[[ITEM 2]]\nsecond text\n[[END 2]]"));
+        assertTrue(prompt.contains("in a formal tone"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.acespringbackend.utility;
+
+import com.example.acespringbackend.utility.PdfTextExtractor.TextLine;
+import com.example.acespringbackend.utility.ResumeSectionSegmenter.SectionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResumeSectionSegmenterTest {
+
+    @Test
+    void splitsPlainTextAtKnownHeadings() {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(
+                "Jane Doe\njane@example.com\nSummary\nBackend engineer.\nWork Experience:\nAcme Corp\n• Built APIs\nEducation\nBSc Computer Science");
+
+        assertEquals(List.of(SectionType.HEADER, SectionType.SUMMARY, SectionType.EXPERIENCE, SectionType.EDUCATION),
+                resume.sections().stream().map(ResumeSectionSegmenter.Section::type).toList());
+        assertEquals("Jane Doe\njane@example.com", resume.contentOf(SectionType.HEADER));
+        assertEquals("Acme Corp\n• Built APIs", resume.contentOf(SectionType.EXPERIENCE));
+    }
+
+    @Test
+    void inlineHeadingStartsContentAfterTheColon() {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment("Technical Skills: Java, SQL\nDocker");
+
+        assertEquals("Java, SQL\nDocker", resume.contentOf(SectionType.SKILLS));
+    }
+
+    @Test
+    void entryLabelsDoNotStartSections() {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(
+                "Projects\nShop App\n• Technologies: React, Node.js\n• Leadership: led a team of 4\nChat Bot\n"
+                        + "Research: NLP intent detection\nSkills: Java, SQL");
+
+        assertEquals(List.of(SectionType.PROJECTS, SectionType.SKILLS),
+                resume.sections().stream().map(ResumeSectionSegmenter.Section::type).toList());
+        assertEquals("Shop App\n• Technologies: React, Node.js\n• Leadership: led a team of 4\nChat Bot\n"
+                + "Research: NLP intent detection", resume.contentOf(SectionType.PROJECTS));
+        assertEquals("Java, SQL", resume.contentOf(SectionType.SKILLS));
+    }
+
+    @Test
+    void bulletedLinesAreNotInlineHeadings() {
+        assertNull(ResumeSectionSegmenter.matchHeading("• Technologies: React, Node.js"));
+        assertNull(ResumeSectionSegmenter.matchHeading("  Skills: Java"));
+        assertTrue(ResumeSectionSegmenter.matchHeading("Technologies: React").inline());
+    }
+
+    @Test
+    void recognisesDecoratedHeadings() {
+        assertEquals(SectionType.SKILLS, ResumeSectionSegmenter.matchHeading("S K I L L S").type());
+        assertEquals(SectionType.PROJECTS, ResumeSectionSegmenter.matchHeading("2. Personal Projects:").type());
+        assertEquals(SectionType.AWARDS, ResumeSectionSegmenter.matchHeading("Awards & Achievements").type());
+    }
+
+    @Test
+    void ignoresSentencesStartingWithAHeadingWord() {
+        assertNull(ResumeSectionSegmenter.matchHeading("Experience building distributed systems at scale for many years"));
+        assertNull(ResumeSectionSegmenter.matchHeading("Skillset"));
+    }
+
+    @Test
+    void boldJobTitlesDoNotSplitExperience() {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(List.of(
+                line("Jane Doe", 16, true),
+                line("Experience", 13, true),
+                line("Senior Engineer", 10, true),
+                line("Built the payments platform serving millions of users", 10, false),
+                line("Software Engineer", 10, true),
+                line("Migrated services to Kubernetes and cut costs by a third", 10, false),
+                line("Education", 13, true),
+                line("BSc Computer Science, University of Somewhere", 10, false)));
+
+        assertFalse(resume.sections().stream().anyMatch(section -> section.type() == SectionType.OTHER));
+        assertTrue(resume.contentOf(SectionType.EXPERIENCE).contains("Software Engineer"));
+    }
+
+    @Test
+    void largerUnknownHeadingStartsAnOtherSection() {
+        ResumeSectionSegmenter.SegmentedResume resume = ResumeSectionSegmenter.segment(List.of(
+                line("Experience", 13, true),
+                line("Built the payments platform serving millions of users", 10, false),
+                line("Patents", 13, true),
+                line("US 1234567: Method for sorting resumes quickly", 10, false)));
+
+        ResumeSectionSegmenter.Section other = resume.sections().get(1);
+        assertEquals(SectionType.OTHER, other.type());
+        assertEquals("Patents", other.heading());
+        assertEquals("US 1234567: Method for sorting resumes quickly", other.content());
+    }
+
+    @Test
+    void capitalisedUnknownHeadingNeedsTheStyleOfTheKnownHeadings() {
+        ResumeSectionSegmenter.HeadingStyle capsBold = new ResumeSectionSegmenter.HeadingStyle(false, true, true);
+        ResumeSectionSegmenter.HeadingStyle larger = new ResumeSectionSegmenter.HeadingStyle(true, false, true);
+
+        assertTrue(ResumeSectionSegmenter.isUnknownHeading(line("PATENTS", 10, true), 10, capsBold));
+        assertFalse(ResumeSectionSegmenter.isUnknownHeading(line("PATENTS", 10, false), 10, capsBold));
+        // With larger headings, a capitalised employer in body size is content.
+        assertFalse(ResumeSectionSegmenter.isUnknownHeading(line("ACME CORP", 10, true), 10, larger));
+        // Acronyms and bold-only lines are never headings on their own.
+        assertFalse(ResumeSectionSegmenter.isUnknownHeading(line("AWS", 10, true), 10, capsBold));
+        assertFalse(ResumeSectionSegmenter.isUnknownHeading(line("Senior Engineer", 10, true), 10, capsBold));
+    }
+
+    private static TextLine line(String text, float fontSize, boolean bold) {
+        return new TextLine(text, fontSize, bold);
+    }
+}
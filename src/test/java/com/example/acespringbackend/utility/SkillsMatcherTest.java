@@ -0,0 +1,55 @@
+package com.example.acespringbackend.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkillsMatcherTest {
+
+    private final SkillsMatcher skillsMatcher = new SkillsMatcher(new DefaultResourceLoader(), "classpath:skills/taxonomy.txt");
+
+    @Test
+    void mapsSynonymsAndInflectionsToCanonicalSkills() {
+        assertEquals(List.of("Unit testing", "JavaScript", "Node.js"),
+                skillsMatcher.extract("Wrote Unit Tests in ES6 on NodeJS; more unit testing."));
+    }
+
+    @Test
+    void doesNotMatchInsideLongerWords() {
+        assertEquals(List.of("JavaScript"), skillsMatcher.extract("JavaScript developer"));
+    }
+
+    @Test
+    void prefersTheLongestSkillName() {
+        assertEquals(List.of("Spring Boot"), skillsMatcher.extract("Spring Boot services"));
+    }
+
+    @Test
+    void normalizesPunctuationCaseAndEndings() {
+        assertEquals("unit test c++ node.js", SkillsMatcher.normalize("Unit-Tested C++, Node.js."));
+    }
+
+    @Test
+    void ordersJobSkillsByEmphasis() {
+        SkillsMatcher.SkillsMatch match = skillsMatcher.match(
+                "Java and React developer",
+                "Kubernetes, Java. Must know Kubernetes well; Kubernetes certification a plus.");
+
+        assertEquals(List.of("Java"), match.matched());
+        assertEquals(List.of("Kubernetes"), match.missing());
+        assertEquals(List.of("React"), match.extra());
+        assertEquals(0.5, match.coverage());
+    }
+
+    @Test
+    void jobWithoutKnownSkillsIsFullyCovered() {
+        SkillsMatcher.SkillsMatch match = skillsMatcher.match("Java", "");
+
+        assertTrue(match.matched().isEmpty());
+        assertEquals(1.0, match.coverage());
+    }
+}